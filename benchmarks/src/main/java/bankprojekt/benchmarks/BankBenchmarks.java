@@ -0,0 +1,71 @@
+package bankprojekt.benchmarks;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+import bankprojekt.verwaltung.Bank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Einzelthread-Benchmarks der Buchungen einer {@link Bank} bei verschiedenen Bankgrößen.
+ * Die Konten werden zufällig gewählt, damit nicht immer dieselben Einträge im Cache liegen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BankBenchmarks {
+
+    /**
+     * überweist zwischen zwei zufälligen Konten
+     *
+     * @param zustand die Bank
+     * @return das Ergebnis der Überweisung
+     */
+    @Benchmark
+    public Buchungsstatus geldUeberweisen(Bankzustand zustand) {
+        long[] konten = zustand.kontonummern;
+        ThreadLocalRandom zufall = ThreadLocalRandom.current();
+        return zustand.bank.geldUeberweisenStatus(konten[zufall.nextInt(konten.length)],
+                konten[zufall.nextInt(konten.length)], 1, "Benchmark");
+    }
+
+    /**
+     * hebt von einem zufälligen Konto ab
+     *
+     * @param zustand die Bank
+     * @return das Ergebnis der Abhebung
+     */
+    @Benchmark
+    public Buchungsstatus geldAbheben(Bankzustand zustand) {
+        long[] konten = zustand.kontonummern;
+        return zustand.bank.geldAbhebenStatus(konten[ThreadLocalRandom.current().nextInt(konten.length)], 1);
+    }
+
+    /**
+     * erstellt eine tiefe Kopie der ganzen Bank
+     *
+     * @param zustand die Bank
+     * @return die Kopie
+     * @throws CloneNotSupportedException sollte nicht vorkommen
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public Bank klonen(Bankzustand zustand) throws CloneNotSupportedException {
+        return zustand.bank.clone();
+    }
+}
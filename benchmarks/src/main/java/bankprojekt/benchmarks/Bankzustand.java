@@ -0,0 +1,51 @@
+package bankprojekt.benchmarks;
+
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.Bank;
+import bankprojekt.verwaltung.KontonummerNichtVorhandenException;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+
+/**
+ * Eine Bank mit einer per Parameter gewählten Anzahl von Girokonten, die von allen Threads eines
+ * Benchmarks geteilt wird. Jedes Konto ist so gut gedeckt, dass es während einer Messung nicht leer wird.
+ */
+@State(Scope.Benchmark)
+public class Bankzustand {
+    /**
+     * Startguthaben jedes Kontos
+     */
+    static final double GUTHABEN = 1e12;
+
+    /**
+     * Anzahl der Konten in der Bank
+     */
+    @Param({"100", "10000", "100000"})
+    public int bankgroesse;
+
+    Bank bank;
+    long[] kontonummern;
+
+    /**
+     * legt die Bank und ihre Konten an
+     *
+     * @throws KontonummerNichtVorhandenException sollte nicht vorkommen
+     */
+    @Setup(Level.Trial)
+    public void anlegen() throws KontonummerNichtVorhandenException {
+        bank = new Bank(12345678L);
+        Kunde kunde = new Kunde("Max", "Mustermann", "zuhause", LocalDate.of(1990, 1, 1));
+        GirokontoFabrik fabrik = new GirokontoFabrik();
+        kontonummern = new long[bankgroesse];
+        for (int i = 0; i < bankgroesse; i++) {
+            kontonummern[i] = bank.kontoErstellen(fabrik, kunde);
+            bank.geldEinzahlen(kontonummern[i], GUTHABEN);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package bankprojekt.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Startet die Benchmarks mit Allokationsmessung ({@link GCProfiler}) und schreibt die Ergebnisse
+ * als JSON, damit sie zwischen Versionen verglichen werden können.
+ * <p>
+ * Aufruf: {@code java -jar benchmarks.jar [Regex der Benchmarks] [Ergebnisdatei]}
+ */
+public class BenchmarkStarter {
+    /**
+     * Main method to execute the benchmarks
+     *
+     * @param args optional der reguläre Ausdruck für die auszuführenden Benchmarks
+     *             (Standard: alle) und der Name der Ergebnisdatei (Standard: jmh-ergebnis.json)
+     * @throws RunnerException wenn ein Benchmark fehlschlägt
+     */
+    public static void main(String[] args) throws RunnerException {
+        String auswahl = args.length > 0 ? args[0] : "bankprojekt\\.benchmarks\\..*";
+        String ergebnisdatei = args.length > 1 ? args[1] : "jmh-ergebnis.json";
+        Options optionen = new OptionsBuilder()
+                .include(auswahl)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(ergebnisdatei)
+                .build();
+        new Runner(optionen).run();
+    }
+}
@@ -0,0 +1,93 @@
+package bankprojekt.benchmarks;
+
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Waehrung;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks einzelner Kontobuchungen und der Währungsumrechnung, unabhängig von der Bank
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class KontoBenchmarks {
+    /**
+     * die Währung, in die bzw. aus der umgerechnet wird
+     */
+    @Param({"EUR", "BGN"})
+    public Waehrung waehrung;
+
+    private Konto konto;
+    private double betrag;
+
+    /**
+     * legt das Konto an
+     */
+    @Setup(Level.Trial)
+    public void anlegen() {
+        konto = new Girokonto(new Kunde("Max", "Mustermann", "zuhause", LocalDate.of(1990, 1, 1)),
+                1L, 500, 0);
+        betrag = 123.45;
+    }
+
+    /**
+     * zahlt einen Euro-Betrag ein
+     *
+     * @return der neue Kontostand
+     */
+    @Benchmark
+    public double einzahlen() {
+        konto.einzahlen(betrag);
+        return konto.getKontostand();
+    }
+
+    /**
+     * zahlt einen Betrag in der gewählten Währung ein
+     *
+     * @return der neue Kontostand
+     */
+    @Benchmark
+    public double einzahlenInWaehrung() {
+        konto.einzahlen(betrag, waehrung);
+        return konto.getKontostand();
+    }
+
+    /**
+     * rechnet einen Euro-Betrag in die gewählte Währung um
+     *
+     * @return der umgerechnete Betrag
+     */
+    @Benchmark
+    public double euroInWaehrung() {
+        return waehrung.euroInWaehrungUmrechnen(betrag);
+    }
+
+    /**
+     * rechnet einen Betrag der gewählten Währung in Euro um
+     *
+     * @return der umgerechnete Betrag
+     */
+    @Benchmark
+    public double waehrungInEuro() {
+        return waehrung.waehrungInEuroUmrechnen(betrag);
+    }
+}
@@ -0,0 +1,69 @@
+package bankprojekt.benchmarks;
+
+import bankprojekt.verarbeitung.Aktie;
+import bankprojekt.verarbeitung.Marktwiedergabe;
+import bankprojekt.verarbeitung.Zufallsticks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks der Marktwiedergabe: Kosten eines Ticks einschließlich Historie und Abonnements
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MarktBenchmarks {
+    private static final int TICKS = 1_000_000;
+
+    /**
+     * die Anzahl der Schwellen-Abonnements, die nie ausgelöst werden
+     */
+    @Param({"0", "100000"})
+    public int abonnements;
+
+    private Aktie aktie;
+    private Marktwiedergabe wiedergabe;
+    private long startwert;
+
+    /**
+     * legt die Aktie mit ihren Abonnements an
+     */
+    @Setup(Level.Trial)
+    public void anlegen() {
+        aktie = Aktie.fuerWiedergabe("Bank AG", 100001, 50);
+        for (int i = 0; i < abonnements; i++) {
+            aktie.abonnierenUeber(1e300 + i, (a, k) -> { });
+        }
+        wiedergabe = new Marktwiedergabe(aktie);
+    }
+
+    /**
+     * spielt eine Million zufälliger Ticks so schnell wie möglich ein
+     *
+     * @return die Anzahl der eingespielten Ticks
+     * @throws IOException nicht bei Zufallsticks
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public long abspielen() throws IOException {
+        aktie.kursSetzen(0, 50);
+        return wiedergabe.abspielen(new Zufallsticks(startwert++, TICKS, 0, 1, aktie));
+    }
+}
@@ -0,0 +1,158 @@
+package bankprojekt.benchmarks;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.KontonummerNichtVorhandenException;
+import bankprojekt.verwaltung.PartitionierteBank;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Benchmarks mit mehreren gleichzeitigen Threads. Die einfache {@link bankprojekt.verwaltung.Bank} ist nicht
+ * threadsicher und wird hier wie in einer Anwendung mit einer gemeinsamen Sperre geschützt; die
+ * {@link PartitionierteBank} zeigt, wie weit die Aufteilung in Partitionen diesen Engpass auflöst.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(8)
+public class UmkaempfteBankBenchmarks {
+
+    /**
+     * eine mit einer Sperre geschützte Bank
+     */
+    @State(Scope.Benchmark)
+    public static class GesperrteBank extends Bankzustand {
+        final ReentrantLock lock = new ReentrantLock();
+    }
+
+    /**
+     * eine partitionierte Bank mit einer per Parameter gewählten Anzahl von Partitionen
+     */
+    @State(Scope.Benchmark)
+    public static class Partitionen {
+        /**
+         * Anzahl der Partitionen
+         */
+        @Param({"1", "4", "16"})
+        public int partitionen;
+
+        /**
+         * Anzahl der Konten in der Bank
+         */
+        @Param({"10000"})
+        public int bankgroesse;
+
+        PartitionierteBank bank;
+        long[] kontonummern;
+
+        /**
+         * legt die Bank und ihre Konten an
+         *
+         * @throws KontonummerNichtVorhandenException sollte nicht vorkommen
+         */
+        @Setup(Level.Trial)
+        public void anlegen() throws KontonummerNichtVorhandenException {
+            bank = new PartitionierteBank(12345678L, partitionen);
+            Kunde kunde = new Kunde("Max", "Mustermann", "zuhause", LocalDate.of(1990, 1, 1));
+            GirokontoFabrik fabrik = new GirokontoFabrik();
+            kontonummern = new long[bankgroesse];
+            for (int i = 0; i < bankgroesse; i++) {
+                kontonummern[i] = bank.kontoErstellen(fabrik, kunde);
+                bank.geldEinzahlen(kontonummern[i], Bankzustand.GUTHABEN);
+            }
+        }
+
+        /**
+         * beendet die Threads der Partitionen
+         */
+        @TearDown(Level.Trial)
+        public void schliessen() {
+            bank.close();
+        }
+    }
+
+    /**
+     * überweist unter der gemeinsamen Sperre zwischen zwei zufälligen Konten
+     *
+     * @param zustand die Bank
+     * @return das Ergebnis der Überweisung
+     */
+    @Benchmark
+    public Buchungsstatus geldUeberweisenGesperrt(GesperrteBank zustand) {
+        long[] konten = zustand.kontonummern;
+        ThreadLocalRandom zufall = ThreadLocalRandom.current();
+        long von = konten[zufall.nextInt(konten.length)];
+        long nach = konten[zufall.nextInt(konten.length)];
+        zustand.lock.lock();
+        try {
+            return zustand.bank.geldUeberweisenStatus(von, nach, 1, "Benchmark");
+        } finally {
+            zustand.lock.unlock();
+        }
+    }
+
+    /**
+     * hebt unter der gemeinsamen Sperre von einem zufälligen Konto ab
+     *
+     * @param zustand die Bank
+     * @return das Ergebnis der Abhebung
+     */
+    @Benchmark
+    public Buchungsstatus geldAbhebenGesperrt(GesperrteBank zustand) {
+        long[] konten = zustand.kontonummern;
+        long von = konten[ThreadLocalRandom.current().nextInt(konten.length)];
+        zustand.lock.lock();
+        try {
+            return zustand.bank.geldAbhebenStatus(von, 1);
+        } finally {
+            zustand.lock.unlock();
+        }
+    }
+
+    /**
+     * überweist in der partitionierten Bank zwischen zwei zufälligen Konten
+     *
+     * @param zustand die Bank
+     * @return das Ergebnis der Überweisung
+     */
+    @Benchmark
+    public Buchungsstatus geldUeberweisenPartitioniert(Partitionen zustand) {
+        long[] konten = zustand.kontonummern;
+        ThreadLocalRandom zufall = ThreadLocalRandom.current();
+        return zustand.bank.geldUeberweisenStatus(konten[zufall.nextInt(konten.length)],
+                konten[zufall.nextInt(konten.length)], 1, "Benchmark");
+    }
+
+    /**
+     * hebt in der partitionierten Bank von einem zufälligen Konto ab
+     *
+     * @param zustand die Bank
+     * @return das Ergebnis der Abhebung
+     */
+    @Benchmark
+    public Buchungsstatus geldAbhebenPartitioniert(Partitionen zustand) {
+        long[] konten = zustand.kontonummern;
+        return zustand.bank.geldAbhebenStatus(konten[ThreadLocalRandom.current().nextInt(konten.length)], 1);
+    }
+}
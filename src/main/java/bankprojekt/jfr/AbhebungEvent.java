@@ -0,0 +1,42 @@
+package bankprojekt.jfr;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für eine Abhebung von einem Konto
+ */
+@Name("bankprojekt.Abhebung")
+@Label("Abhebung")
+@Category({"Bankprojekt", "Buchungen"})
+@Description("Eine Abhebung von einem Konto, auch als Teil einer Überweisung")
+public class AbhebungEvent extends jdk.jfr.Event {
+    @Label("Kontonummer")
+    private long kontonummer;
+
+    @Label("Betrag")
+    private double betrag;
+
+    @Label("Ergebnis")
+    private String ergebnis;
+
+    /**
+     * beendet die Zeitmessung und schreibt das Ereignis, falls es aufgezeichnet wird
+     *
+     * @param kontonummer die Kontonummer
+     * @param betrag      der Betrag
+     * @param ergebnis    das Ergebnis der Abhebung
+     */
+    public void abschliessen(long kontonummer, double betrag, Buchungsstatus ergebnis) {
+        end();
+        if (shouldCommit()) {
+            this.kontonummer = kontonummer;
+            this.betrag = betrag;
+            this.ergebnis = ergebnis.name();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package bankprojekt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für eine Kopie der ganzen Bank über Serialisierung
+ */
+@Name("bankprojekt.BankKlonen")
+@Label("Bank klonen")
+@Category({"Bankprojekt", "Schnappschüsse"})
+@Description("Eine tiefe Kopie der Bank mit allen Konten")
+public class BankKlonEvent extends jdk.jfr.Event {
+    @Label("Bankleitzahl")
+    private long bankleitzahl;
+
+    @Label("Anzahl Konten")
+    private int anzahlKonten;
+
+    @Label("Größe")
+    @DataAmount
+    private long groesse;
+
+    /**
+     * beendet die Zeitmessung und schreibt das Ereignis, falls es aufgezeichnet wird
+     *
+     * @param bankleitzahl die Bankleitzahl
+     * @param anzahlKonten die Anzahl der kopierten Konten
+     * @param groesse      die Größe der serialisierten Bank in Byte
+     */
+    public void abschliessen(long bankleitzahl, int anzahlKonten, long groesse) {
+        end();
+        if (shouldCommit()) {
+            this.bankleitzahl = bankleitzahl;
+            this.anzahlKonten = anzahlKonten;
+            this.groesse = groesse;
+            commit();
+        }
+    }
+}
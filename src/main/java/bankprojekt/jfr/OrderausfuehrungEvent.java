@@ -0,0 +1,58 @@
+package bankprojekt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für einen abgeschlossenen Kauf- oder Verkaufauftrag.
+ * Die Dauer reicht vom Start des Auftrags bis zur Ausführung, enthält also die Wartezeit auf den Kurs.
+ */
+@Name("bankprojekt.Orderausfuehrung")
+@Label("Orderausführung")
+@Category({"Bankprojekt", "Wertpapiere"})
+@Description("Ein Kauf- oder Verkaufauftrag, der ausgeführt oder mangels Deckung abgebrochen wurde")
+public class OrderausfuehrungEvent extends jdk.jfr.Event {
+    @Label("Kontonummer")
+    private long kontonummer;
+
+    @Label("Wertpapierkennnummer")
+    private String wkn;
+
+    @Label("Kauf")
+    private boolean kauf;
+
+    @Label("Stückzahl")
+    private int stueckzahl;
+
+    @Label("Kurs")
+    private double kurs;
+
+    @Label("Gesamtpreis")
+    private double gesamtpreis;
+
+    /**
+     * beendet die Zeitmessung und schreibt das Ereignis, falls es aufgezeichnet wird
+     *
+     * @param kontonummer die Kontonummer
+     * @param wkn         die Wertpapierkennnummer
+     * @param kauf        true für einen Kauf, false für einen Verkauf
+     * @param stueckzahl  die Anzahl der gehandelten Aktien
+     * @param kurs        der Ausführungskurs
+     * @param gesamtpreis der gezahlte oder erhaltene Betrag, 0 wenn der Auftrag nicht ausgeführt wurde
+     */
+    public void abschliessen(long kontonummer, String wkn, boolean kauf, int stueckzahl, double kurs,
+                             double gesamtpreis) {
+        end();
+        if (shouldCommit()) {
+            this.kontonummer = kontonummer;
+            this.wkn = wkn;
+            this.kauf = kauf;
+            this.stueckzahl = stueckzahl;
+            this.kurs = kurs;
+            this.gesamtpreis = gesamtpreis;
+            commit();
+        }
+    }
+}
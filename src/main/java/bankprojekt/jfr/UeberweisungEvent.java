@@ -0,0 +1,47 @@
+package bankprojekt.jfr;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Ereignis für eine Überweisung innerhalb einer Bank, die Dauer umfasst Abbuchung und Gutschrift
+ */
+@Name("bankprojekt.Ueberweisung")
+@Label("Überweisung")
+@Category({"Bankprojekt", "Buchungen"})
+@Description("Eine Überweisung zwischen zwei Konten derselben Bank")
+public class UeberweisungEvent extends jdk.jfr.Event {
+    @Label("Von Kontonummer")
+    private long vonKontonummer;
+
+    @Label("Nach Kontonummer")
+    private long nachKontonummer;
+
+    @Label("Betrag")
+    private double betrag;
+
+    @Label("Ergebnis")
+    private String ergebnis;
+
+    /**
+     * beendet die Zeitmessung und schreibt das Ereignis, falls es aufgezeichnet wird
+     *
+     * @param vonKontonummer  die Kontonummer des Auftraggebers
+     * @param nachKontonummer die Kontonummer des Empfängers
+     * @param betrag          der Betrag
+     * @param ergebnis        das Ergebnis der Überweisung
+     */
+    public void abschliessen(long vonKontonummer, long nachKontonummer, double betrag, Buchungsstatus ergebnis) {
+        end();
+        if (shouldCommit()) {
+            this.vonKontonummer = vonKontonummer;
+            this.nachKontonummer = nachKontonummer;
+            this.betrag = betrag;
+            this.ergebnis = ergebnis.name();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package bankprojekt.metriken;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sammelt sperrfrei Zähler und Latenzen der Operationen einer Bank.
+ * <p>
+ * Jeder Aufruf wird je Operation und {@link Buchungsstatus} in einem {@link LongAdder} gezählt. Die Latenz wird
+ * nur für jeden n-ten Aufruf (Abtastintervall) gemessen, weil schon {@code System.nanoTime()} mehr kostet als
+ * das Zählen; bei Intervall 1 wird jeder Aufruf gemessen. Ist an einer Bank keine Instanz gesetzt, entstehen
+ * keine Kosten außer einer Prüfung auf null.
+ * <p>
+ * Die Metriken können über JMX ({@link #registrieren(String)}) oder als Text ({@link #textausgabe(Appendable)})
+ * abgefragt werden. Die Klasse ist threadsicher.
+ */
+public class Bankmetriken implements BankmetrikenMXBean {
+    /**
+     * wird von {@link #beginnen()} geliefert, wenn der Aufruf nicht gemessen wird
+     */
+    public static final long NICHT_GEMESSEN = Long.MIN_VALUE;
+
+    private static final Bankoperation[] OPERATIONEN = Bankoperation.values();
+    private static final Buchungsstatus[] STATUSWERTE = Buchungsstatus.values();
+
+    private static final double[] PERZENTILE = {50, 90, 99, 99.9};
+    private static final String[] PERZENTILNAMEN = {"p50", "p90", "p99", "p999"};
+
+    /**
+     * die Zähler, Index Operation * Anzahl Status + Status
+     */
+    private final LongAdder[] zaehler = new LongAdder[OPERATIONEN.length * STATUSWERTE.length];
+
+    /**
+     * ein Histogramm je Operation
+     */
+    private final Latenzhistogramm[] latenzen = new Latenzhistogramm[OPERATIONEN.length];
+
+    /**
+     * Maske für das Abtastintervall, das eine Zweierpotenz ist
+     */
+    private final int abtastmaske;
+
+    /**
+     * erstellt Metriken, die die Latenz jedes Aufrufs messen
+     */
+    public Bankmetriken() {
+        this(1);
+    }
+
+    /**
+     * erstellt Metriken, die die Latenz im Mittel jedes abtastintervall-ten Aufrufs messen
+     *
+     * @param abtastintervall eine Zweierpotenz größer 0
+     * @throws IllegalArgumentException wenn abtastintervall keine positive Zweierpotenz ist
+     */
+    public Bankmetriken(int abtastintervall) {
+        if (abtastintervall <= 0 || Integer.bitCount(abtastintervall) != 1)
+            throw new IllegalArgumentException("Das Abtastintervall muss eine positive Zweierpotenz sein");
+        this.abtastmaske = abtastintervall - 1;
+        for (int i = 0; i < zaehler.length; i++) {
+            zaehler[i] = new LongAdder();
+        }
+        for (int i = 0; i < latenzen.length; i++) {
+            latenzen[i] = new Latenzhistogramm();
+        }
+    }
+
+    /**
+     * wird zu Beginn einer Operation aufgerufen
+     *
+     * @return die Startzeit, wenn dieser Aufruf gemessen wird, sonst {@link #NICHT_GEMESSEN}
+     */
+    public long beginnen() {
+        if (abtastmaske != 0 && (ThreadLocalRandom.current().nextInt() & abtastmaske) != 0)
+            return NICHT_GEMESSEN;
+        return System.nanoTime();
+    }
+
+    /**
+     * zählt eine abgeschlossene Operation und zeichnet ggf. ihre Latenz auf
+     *
+     * @param operation die Operation
+     * @param status    das Ergebnis
+     * @param start     der Rückgabewert von {@link #beginnen()}
+     */
+    public void erfassen(Bankoperation operation, Buchungsstatus status, long start) {
+        zaehler[operation.ordinal() * STATUSWERTE.length + status.ordinal()].increment();
+        if (start != NICHT_GEMESSEN)
+            latenzen[operation.ordinal()].aufzeichnen(System.nanoTime() - start);
+    }
+
+    /**
+     * liefert die Anzahl der Aufrufe der Operation mit dem Ergebnis
+     *
+     * @param operation die Operation
+     * @param status    das Ergebnis
+     * @return Anzahl der Aufrufe
+     */
+    public long getAnzahl(Bankoperation operation, Buchungsstatus status) {
+        return zaehler[operation.ordinal() * STATUSWERTE.length + status.ordinal()].sum();
+    }
+
+    /**
+     * liefert die Anzahl der Aufrufe der Operation über alle Ergebnisse
+     *
+     * @param operation die Operation
+     * @return Anzahl der Aufrufe
+     */
+    public long getAnzahl(Bankoperation operation) {
+        long anzahl = 0;
+        for (Buchungsstatus status : STATUSWERTE) {
+            anzahl += getAnzahl(operation, status);
+        }
+        return anzahl;
+    }
+
+    /**
+     * liefert das Latenzhistogramm der Operation
+     *
+     * @param operation die Operation
+     * @return das Histogramm
+     */
+    public Latenzhistogramm getLatenzhistogramm(Bankoperation operation) {
+        return latenzen[operation.ordinal()];
+    }
+
+    @Override
+    public Map<String, Long> getZaehler() {
+        Map<String, Long> ergebnis = new LinkedHashMap<>();
+        for (Bankoperation operation : OPERATIONEN) {
+            for (Buchungsstatus status : STATUSWERTE) {
+                ergebnis.put(operation + "." + status, getAnzahl(operation, status));
+            }
+        }
+        return ergebnis;
+    }
+
+    @Override
+    public Map<String, Long> getLatenzen() {
+        Map<String, Long> ergebnis = new LinkedHashMap<>();
+        for (Bankoperation operation : OPERATIONEN) {
+            Latenzhistogramm h = latenzen[operation.ordinal()];
+            for (int i = 0; i < PERZENTILE.length; i++) {
+                ergebnis.put(operation + "." + PERZENTILNAMEN[i], h.getPerzentil(PERZENTILE[i]));
+            }
+            ergebnis.put(operation + ".max", h.getMaximum());
+        }
+        return ergebnis;
+    }
+
+    @Override
+    public String getTextausgabe() {
+        StringBuilder text = new StringBuilder();
+        try {
+            textausgabe(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    /**
+     * schreibt alle Zähler ungleich 0 und die Latenzen aller gemessenen Operationen als Text
+     *
+     * @param ziel wohin geschrieben wird
+     * @throws IOException wenn das Schreiben fehlschlägt
+     */
+    public void textausgabe(Appendable ziel) throws IOException {
+        String zeilenende = System.lineSeparator();
+        ziel.append(String.format("%-16s %-26s %12s", "Operation", "Ergebnis", "Anzahl")).append(zeilenende);
+        for (Bankoperation operation : OPERATIONEN) {
+            for (Buchungsstatus status : STATUSWERTE) {
+                long anzahl = getAnzahl(operation, status);
+                if (anzahl > 0)
+                    ziel.append(String.format("%-16s %-26s %12d", operation, status, anzahl)).append(zeilenende);
+            }
+        }
+        ziel.append(zeilenende);
+        ziel.append(String.format("%-16s %10s %10s %10s %10s %10s %10s %10s", "Latenz (ns)", "Anzahl", "Mittel",
+                "p50", "p90", "p99", "p99.9", "Max")).append(zeilenende);
+        for (Bankoperation operation : OPERATIONEN) {
+            Latenzhistogramm h = latenzen[operation.ordinal()];
+            long anzahl = h.getAnzahl();
+            if (anzahl == 0)
+                continue;
+            ziel.append(String.format("%-16s %10d %10.0f %10d %10d %10d %10d %10d", operation, anzahl,
+                    h.getMittelwert(), h.getPerzentil(50), h.getPerzentil(90), h.getPerzentil(99),
+                    h.getPerzentil(99.9), h.getMaximum())).append(zeilenende);
+        }
+    }
+
+    @Override
+    public void zuruecksetzen() {
+        for (LongAdder z : zaehler) {
+            z.reset();
+        }
+        for (Latenzhistogramm h : latenzen) {
+            h.zuruecksetzen();
+        }
+    }
+
+    /**
+     * meldet die Metriken beim MBean-Server der Plattform an
+     *
+     * @param name der Name, unter dem die Metriken erscheinen, z.B. die Bankleitzahl
+     * @return der vollständige Objektname, mit dem die Metriken wieder abgemeldet werden können
+     * @throws JMException wenn der Name ungültig oder bereits vergeben ist
+     */
+    public ObjectName registrieren(String name) throws JMException {
+        ObjectName objektname = new ObjectName("bankprojekt:type=Bankmetriken,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objektname);
+        return objektname;
+    }
+
+    @Override
+    public String toString() {
+        return getTextausgabe();
+    }
+}
@@ -0,0 +1,34 @@
+package bankprojekt.metriken;
+
+import java.util.Map;
+
+/**
+ * Die Sicht auf {@link Bankmetriken} über JMX, z.B. in JConsole oder VisualVM
+ */
+public interface BankmetrikenMXBean {
+    /**
+     * liefert die Anzahl der Aufrufe je Operation und Ergebnis
+     *
+     * @return Zähler mit Schlüsseln der Form "UEBERWEISEN.NICHT_GEDECKT"
+     */
+    Map<String, Long> getZaehler();
+
+    /**
+     * liefert Perzentile und Maximum der gemessenen Latenzen je Operation in Nanosekunden
+     *
+     * @return Latenzen mit Schlüsseln der Form "UEBERWEISEN.p99"
+     */
+    Map<String, Long> getLatenzen();
+
+    /**
+     * liefert alle Metriken als lesbaren Text
+     *
+     * @return die Textausgabe
+     */
+    String getTextausgabe();
+
+    /**
+     * setzt alle Zähler und Histogramme zurück
+     */
+    void zuruecksetzen();
+}
@@ -0,0 +1,23 @@
+package bankprojekt.metriken;
+
+/**
+ * Die Operationen einer Bank, für die {@link Bankmetriken} Zähler und Latenzen erfassen
+ */
+public enum Bankoperation {
+    /**
+     * ein Konto wird eröffnet
+     */
+    KONTO_ERSTELLEN,
+    /**
+     * Geld wird eingezahlt
+     */
+    EINZAHLEN,
+    /**
+     * Geld wird abgehoben
+     */
+    ABHEBEN,
+    /**
+     * Geld wird innerhalb der Bank überwiesen
+     */
+    UEBERWEISEN
+}
@@ -0,0 +1,215 @@
+package bankprojekt.metriken;
+
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kontoart;
+import bankprojekt.verarbeitung.Waehrung;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Summen über alle Konten einer Bank, die bei jeder Änderung eines Kontos nachgeführt werden statt bei jeder
+ * Abfrage alle Konten zu durchlaufen.
+ * <p>
+ * Ein Konto meldet über {@link Konto#aggregateSetzen(Kontoaggregate)} an, zu welchen Aggregaten es gehört, und
+ * meldet danach jede Änderung von Kontostand, Währung und Sperre als Differenz. Alle Werte liegen in
+ * {@link LongAdder}n, Buchungen auf verschiedenen Konten behindern sich also nicht; Beträge werden in ganzen
+ * Cent gezählt, damit sich keine Rundungsfehler aufsummieren. Eine Abfrage kostet nur das Summieren der
+ * Zellen eines LongAdders, unabhängig von der Zahl der Konten.
+ * <p>
+ * Ein Konto meldet seine Änderungen und seine An- und Abmeldung unter seiner Sperre, die Werte bleiben also
+ * auch bei gleichzeitigen Buchungen exakt; während Buchungen laufen, kann eine Abfrage Zwischenstände
+ * verschiedener Konten mischen.
+ */
+public class Kontoaggregate {
+    private static final Waehrung[] WAEHRUNGEN = Waehrung.values();
+    private static final Kontoart[] KONTOARTEN = Kontoart.values();
+
+    /**
+     * Summe der positiven Kontostände je Währung in Cent
+     */
+    private final LongAdder[] guthaben = zaehler(WAEHRUNGEN.length);
+    /**
+     * Summe der Beträge negativer Kontostände je Währung in Cent
+     */
+    private final LongAdder[] genutzterDispo = zaehler(WAEHRUNGEN.length);
+    /**
+     * Anzahl der Konten je Kontoart, der letzte Platz für Konten ohne Kontoart
+     */
+    private final LongAdder[] konten = zaehler(KONTOARTEN.length + 1);
+    private final LongAdder gesperrt = new LongAdder();
+
+    private static LongAdder[] zaehler(int anzahl) {
+        LongAdder[] zaehler = new LongAdder[anzahl];
+        for (int i = 0; i < anzahl; i++) {
+            zaehler[i] = new LongAdder();
+        }
+        return zaehler;
+    }
+
+    /**
+     * zählt ein Konto mit seinem aktuellen Zustand hinzu
+     *
+     * @param konto das Konto
+     */
+    public void hinzufuegen(Konto konto) {
+        zaehlen(konto, 1);
+    }
+
+    /**
+     * zieht ein Konto mit seinem aktuellen Zustand ab
+     *
+     * @param konto das Konto
+     */
+    public void entfernen(Konto konto) {
+        zaehlen(konto, -1);
+    }
+
+    private void zaehlen(Konto konto, int vorzeichen) {
+        Kontoart art = konto.getKontoart();
+        konten[art == null ? KONTOARTEN.length : art.ordinal()].add(vorzeichen);
+        if (konto.isGesperrt())
+            gesperrt.add(vorzeichen);
+        long stand = inCent(konto.getKontostand());
+        int w = konto.getAktuelleWaehrung().ordinal();
+        if (stand > 0)
+            guthaben[w].add(vorzeichen * stand);
+        else if (stand < 0)
+            genutzterDispo[w].add(vorzeichen * -stand);
+    }
+
+    /**
+     * führt eine Änderung des Kontostands nach
+     *
+     * @param waehrung die Währung des Kontos
+     * @param alt      der bisherige Kontostand
+     * @param neu      der neue Kontostand
+     */
+    public void kontostandGeaendert(Waehrung waehrung, double alt, double neu) {
+        long a = inCent(alt);
+        long n = inCent(neu);
+        if (a == n)
+            return;
+        int w = waehrung.ordinal();
+        long differenz = Math.max(n, 0) - Math.max(a, 0);
+        if (differenz != 0)
+            guthaben[w].add(differenz);
+        differenz = Math.max(-n, 0) - Math.max(-a, 0);
+        if (differenz != 0)
+            genutzterDispo[w].add(differenz);
+    }
+
+    /**
+     * führt einen Währungswechsel nach, bei dem sich auch der Kontostand ändern kann
+     *
+     * @param alt      die bisherige Währung
+     * @param altStand der Kontostand in der bisherigen Währung
+     * @param neu      die neue Währung
+     * @param neuStand der Kontostand in der neuen Währung
+     */
+    public void waehrungGeaendert(Waehrung alt, double altStand, Waehrung neu, double neuStand) {
+        kontostandGeaendert(alt, altStand, 0);
+        kontostandGeaendert(neu, 0, neuStand);
+    }
+
+    /**
+     * führt das Sperren oder Entsperren eines Kontos nach
+     *
+     * @param gesperrt true, wenn das Konto gesperrt wurde, false, wenn es entsperrt wurde
+     */
+    public void sperreGeaendert(boolean gesperrt) {
+        this.gesperrt.add(gesperrt ? 1 : -1);
+    }
+
+    /**
+     * liefert die Summe der positiven Kontostände in der Währung
+     *
+     * @param waehrung die Währung
+     * @return Summe der Guthaben der in dieser Währung geführten Konten
+     */
+    public double getGuthaben(Waehrung waehrung) {
+        return guthaben[waehrung.ordinal()].sum() / 100.0;
+    }
+
+    /**
+     * liefert die Summe der in Anspruch genommenen Dispositionskredite in der Währung
+     *
+     * @param waehrung die Währung
+     * @return Summe der Beträge aller negativen Kontostände der in dieser Währung geführten Konten
+     */
+    public double getGenutzterDispo(Waehrung waehrung) {
+        return genutzterDispo[waehrung.ordinal()].sum() / 100.0;
+    }
+
+    /**
+     * liefert das Nettoengagement in der Währung, also Guthaben minus genutzten Dispo
+     *
+     * @param waehrung die Währung
+     * @return die Summe aller Kontostände der in dieser Währung geführten Konten
+     */
+    public double getSaldo(Waehrung waehrung) {
+        int w = waehrung.ordinal();
+        return (guthaben[w].sum() - genutzterDispo[w].sum()) / 100.0;
+    }
+
+    /**
+     * liefert die Summe aller Guthaben, umgerechnet in Euro
+     *
+     * @return Summe der positiven Kontostände in Euro
+     */
+    public double getGuthabenInEuro() {
+        double summe = 0;
+        for (Waehrung w : WAEHRUNGEN) {
+            summe += w.waehrungInEuroUmrechnen(getGuthaben(w));
+        }
+        return summe;
+    }
+
+    /**
+     * liefert die Summe aller genutzten Dispositionskredite, umgerechnet in Euro
+     *
+     * @return Summe der Beträge negativer Kontostände in Euro
+     */
+    public double getGenutzterDispoInEuro() {
+        double summe = 0;
+        for (Waehrung w : WAEHRUNGEN) {
+            summe += w.waehrungInEuroUmrechnen(getGenutzterDispo(w));
+        }
+        return summe;
+    }
+
+    /**
+     * liefert die Anzahl der Konten der Kontoart
+     *
+     * @param art die Kontoart oder null für Konten ohne angebotene Kontoart
+     * @return Anzahl der Konten
+     */
+    public long getAnzahlKonten(Kontoart art) {
+        return konten[art == null ? KONTOARTEN.length : art.ordinal()].sum();
+    }
+
+    /**
+     * liefert die Anzahl aller Konten
+     *
+     * @return Anzahl der Konten
+     */
+    public long getAnzahlKonten() {
+        long anzahl = 0;
+        for (LongAdder k : konten) {
+            anzahl += k.sum();
+        }
+        return anzahl;
+    }
+
+    /**
+     * liefert die Anzahl der gesperrten Konten
+     *
+     * @return Anzahl der gesperrten Konten
+     */
+    public long getAnzahlGesperrt() {
+        return gesperrt.sum();
+    }
+
+    private static long inCent(double betrag) {
+        return Math.round(betrag * 100);
+    }
+}
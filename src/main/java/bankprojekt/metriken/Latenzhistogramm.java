@@ -0,0 +1,139 @@
+package bankprojekt.metriken;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ein sperrfreies Histogramm für Latenzen in Nanosekunden.
+ * <p>
+ * Die Klassen sind wie bei einem HDR-Histogramm logarithmisch-linear eingeteilt: Jede Zweierpotenz ist in
+ * 32 gleich breite Klassen unterteilt, der relative Fehler eines Perzentils liegt also unter 1/32 (gut 3 %).
+ * Werte unter 64 ns werden exakt gezählt. Das Aufzeichnen ist ein Inkrement in einem {@link AtomicLongArray}
+ * und erzeugt keine Objekte.
+ */
+public class Latenzhistogramm {
+    /**
+     * Anzahl der Bits, mit denen eine Zweierpotenz unterteilt wird
+     */
+    private static final int UNTERBITS = 5;
+    private static final int UNTERKLASSEN = 1 << UNTERBITS;
+
+    /**
+     * genug Klassen für alle positiven long-Werte
+     */
+    private static final int ANZAHL_KLASSEN = (64 - UNTERBITS) * UNTERKLASSEN;
+
+    private final AtomicLongArray klassen = new AtomicLongArray(ANZAHL_KLASSEN);
+    private final LongAdder summe = new LongAdder();
+    private final AtomicLong maximum = new AtomicLong();
+
+    /**
+     * zeichnet eine Latenz auf; negative Werte werden als 0 gezählt
+     *
+     * @param nanos die Latenz in Nanosekunden
+     */
+    public void aufzeichnen(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        klassen.incrementAndGet(klasse(nanos));
+        summe.add(nanos);
+        long bisher = maximum.get();
+        while (nanos > bisher && !maximum.compareAndSet(bisher, nanos)) {
+            bisher = maximum.get();
+        }
+    }
+
+    /**
+     * liefert die Anzahl der aufgezeichneten Werte
+     *
+     * @return Anzahl der Werte
+     */
+    public long getAnzahl() {
+        long anzahl = 0;
+        for (int i = 0; i < ANZAHL_KLASSEN; i++) {
+            anzahl += klassen.get(i);
+        }
+        return anzahl;
+    }
+
+    /**
+     * liefert den Mittelwert der aufgezeichneten Werte
+     *
+     * @return Mittelwert in Nanosekunden, 0 wenn nichts aufgezeichnet wurde
+     */
+    public double getMittelwert() {
+        long anzahl = getAnzahl();
+        return anzahl == 0 ? 0 : (double) summe.sum() / anzahl;
+    }
+
+    /**
+     * liefert den größten aufgezeichneten Wert
+     *
+     * @return Maximum in Nanosekunden
+     */
+    public long getMaximum() {
+        return maximum.get();
+    }
+
+    /**
+     * liefert das Perzentil, also den Wert, unter dem der angegebene Anteil der Werte liegt.
+     * Geliefert wird die Obergrenze der Klasse, in die das Perzentil fällt, höchstens aber das Maximum.
+     *
+     * @param prozent der Anteil in Prozent, z.B. 99.9
+     * @return das Perzentil in Nanosekunden, 0 wenn nichts aufgezeichnet wurde
+     * @throws IllegalArgumentException wenn prozent nicht zwischen 0 und 100 liegt
+     */
+    public long getPerzentil(double prozent) {
+        if (!(prozent >= 0 && prozent <= 100))
+            throw new IllegalArgumentException("Prozent muss zwischen 0 und 100 liegen");
+        long[] kopie = new long[ANZAHL_KLASSEN];
+        long anzahl = 0;
+        for (int i = 0; i < ANZAHL_KLASSEN; i++) {
+            kopie[i] = klassen.get(i);
+            anzahl += kopie[i];
+        }
+        if (anzahl == 0)
+            return 0;
+        long rang = Math.max(1, (long) Math.ceil(prozent / 100 * anzahl));
+        long kumuliert = 0;
+        for (int i = 0; i < ANZAHL_KLASSEN; i++) {
+            kumuliert += kopie[i];
+            if (kumuliert >= rang)
+                return Math.min(obergrenze(i), getMaximum());
+        }
+        return getMaximum();
+    }
+
+    /**
+     * setzt das Histogramm zurück. Gleichzeitig aufgezeichnete Werte können dabei teilweise verloren gehen.
+     */
+    public void zuruecksetzen() {
+        for (int i = 0; i < ANZAHL_KLASSEN; i++) {
+            klassen.set(i, 0);
+        }
+        summe.reset();
+        maximum.set(0);
+    }
+
+    /**
+     * liefert den Index der Klasse für den Wert
+     */
+    static int klasse(long wert) {
+        if (wert < UNTERKLASSEN)
+            return (int) wert;
+        int verschiebung = 63 - Long.numberOfLeadingZeros(wert) - UNTERBITS;
+        return ((verschiebung + 1) << UNTERBITS) + (int) ((wert >>> verschiebung) & (UNTERKLASSEN - 1));
+    }
+
+    /**
+     * liefert den größten Wert, der in die Klasse fällt
+     */
+    static long obergrenze(int klasse) {
+        if (klasse < UNTERKLASSEN)
+            return klasse;
+        int verschiebung = (klasse >>> UNTERBITS) - 1;
+        long untergrenze = (long) (UNTERKLASSEN + (klasse & (UNTERKLASSEN - 1))) << verschiebung;
+        return untergrenze + (1L << verschiebung) - 1;
+    }
+}
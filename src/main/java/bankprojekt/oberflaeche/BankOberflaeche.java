@@ -0,0 +1,262 @@
+package bankprojekt.oberflaeche;
+
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verwaltung.Kontoauswahl;
+import bankprojekt.verwaltung.Kontoauswahl.Sortierung;
+import formatierung.Formatpuffer;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ObservableListBase;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.cell.CheckBoxTableCell;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Eine Oberfläche für alle Konten einer Bank als Tabelle, die man durchsuchen und sortieren kann.
+ * <p>
+ * Die Tabelle erzeugt nur für die sichtbaren Zeilen Zellen und bindet nur diese über eine {@link Kontobruecke}
+ * an Kontostand und Sperre der jeweiligen Konten; beim Scrollen werden die Zellen wiederverwendet und neu
+ * gebunden. Filtern und Sortieren
+ * übernimmt eine {@link Kontoauswahl}, die Tabelle sortiert selbst nichts. Die Auswahl wird in einem
+ * Hintergrund-Thread geändert, die Tabelle zeigt das Ergebnis, sobald es fertig ist. Damit bleibt sie auch bei
+ * einer Million Konten flüssig.
+ */
+public class BankOberflaeche extends BorderPane {
+    /**
+     * feste Zeilenhöhe, damit die Tabelle die Zeilen nicht einzeln vermessen muss
+     */
+    private static final double ZEILENHOEHE = 24;
+
+    private static final Logger LOG = Logger.getLogger(BankOberflaeche.class.getName());
+
+    private final Kontoauswahl auswahl;
+
+    /**
+     * ändert die Auswahl nacheinander außerhalb des JavaFX Application Threads
+     */
+    private final ExecutorService hintergrund = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Kontoauswahl");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * überträgt Änderungen der angezeigten Konten einmal pro Bildaufbau auf die Tabelle
+     */
+    private final Kontobruecke bruecke = new Kontobruecke();
+
+    /**
+     * die Zeilen der Tabelle
+     */
+    private final Kontoliste konten;
+
+    private Text ueberschrift;
+    private HBox suchleiste;
+    /**
+     * Suchtext für Kontonummer oder Inhaber
+     */
+    private TextField suche;
+    /**
+     * zeigt nur gesperrte Konten
+     */
+    private CheckBox nurGesperrte;
+    /**
+     * liest die Konten der Bank neu ein
+     */
+    private Button aktualisieren;
+    /**
+     * Anzeige der Anzahl ausgewählter Konten
+     */
+    private Text anzahl;
+    private TableView<Konto> tabelle;
+
+    /**
+     * erstellt die Oberfläche für die Konten der Auswahl
+     *
+     * @param auswahl die Auswahl der Konten einer Bank
+     */
+    public BankOberflaeche(Kontoauswahl auswahl) {
+        this.auswahl = auswahl;
+        this.konten = new Kontoliste();
+
+        ueberschrift = new Text("Alle Konten der Bank");
+        ueberschrift.setFont(new Font("Sans Serif", 25));
+
+        suchleiste = new HBox();
+        suchleiste.setSpacing(10);
+        suchleiste.setAlignment(Pos.CENTER_LEFT);
+        suche = new TextField();
+        suche.setPromptText("Kontonummer oder Inhaber");
+        suche.setPrefColumnCount(20);
+        suche.setOnAction(e -> filtern());
+        nurGesperrte = new CheckBox("nur gesperrte");
+        nurGesperrte.setOnAction(e -> filtern());
+        aktualisieren = new Button("Aktualisieren");
+        aktualisieren.setOnAction(e -> imHintergrund(auswahl::aktualisieren));
+        anzahl = new Text();
+        suchleiste.getChildren().addAll(suche, nurGesperrte, aktualisieren, anzahl);
+
+        VBox kopf = new VBox(10, ueberschrift, suchleiste);
+        kopf.setPadding(new Insets(10));
+        kopf.setAlignment(Pos.CENTER);
+        this.setTop(kopf);
+
+        tabelle = new TableView<>(konten);
+        tabelle.setFixedCellSize(ZEILENHOEHE);
+        TableColumn<Konto, String> nummer = spalte("Kontonummer", Sortierung.KONTONUMMER,
+                k -> new ReadOnlyStringWrapper(k.getKontonummerFormatiert()));
+        tabelle.getColumns().add(nummer);
+        TableColumn<Konto, String> inhaber = spalte("Inhaber", Sortierung.INHABER,
+                k -> new ReadOnlyStringWrapper(k.getInhaber().getName()));
+        tabelle.getColumns().add(inhaber);
+        TableColumn<Konto, Number> stand = spalte("Kontostand", Sortierung.KONTOSTAND,
+                k -> bruecke.spiegeln(k).kontostandProperty());
+        stand.setCellFactory(s -> new KontostandZelle());
+        tabelle.getColumns().add(stand);
+        TableColumn<Konto, String> waehrung = new TableColumn<>("Währung");
+        waehrung.setCellValueFactory(z -> new ReadOnlyStringWrapper(z.getValue().getAktuelleWaehrung().name()));
+        waehrung.setSortable(false);
+        tabelle.getColumns().add(waehrung);
+        TableColumn<Konto, Boolean> gesperrt = spalte("Gesperrt", Sortierung.GESPERRT,
+                k -> bruecke.spiegeln(k).gesperrtProperty());
+        gesperrt.setCellFactory(CheckBoxTableCell.forTableColumn(gesperrt));
+        tabelle.getColumns().add(gesperrt);
+        tabelle.setSortPolicy(t -> {
+            Sortierung nach = Sortierung.KONTONUMMER;
+            boolean absteigend = false;
+            if (!t.getSortOrder().isEmpty()) {
+                TableColumn<Konto, ?> erste = t.getSortOrder().get(0);
+                nach = (Sortierung) erste.getUserData();
+                absteigend = erste.getSortType() == TableColumn.SortType.DESCENDING;
+            }
+            Sortierung sortierung = nach;
+            boolean richtung = absteigend;
+            imHintergrund(() -> auswahl.sortieren(sortierung, richtung));
+            return true;
+        });
+        this.setCenter(tabelle);
+        anzahlAnzeigen();
+        bruecke.start();
+    }
+
+    /**
+     * erstellt eine sortierbare Spalte, deren Zellen an den Wert des jeweiligen Kontos gebunden werden
+     */
+    private static <T> TableColumn<Konto, T> spalte(String titel, Sortierung sortierung,
+                                                    Function<Konto, ObservableValue<T>> wert) {
+        TableColumn<Konto, T> spalte = new TableColumn<>(titel);
+        spalte.setUserData(sortierung);
+        spalte.setCellValueFactory(z -> wert.apply(z.getValue()));
+        return spalte;
+    }
+
+    private void filtern() {
+        String text = suche.getText();
+        boolean gesperrte = nurGesperrte.isSelected();
+        imHintergrund(() -> auswahl.filtern(text, gesperrte));
+    }
+
+    /**
+     * ändert die Auswahl im Hintergrund und zeigt danach die dann aktuelle Auswahl an; scheitert die Änderung,
+     * bleibt die bisherige Auswahl stehen und der Fehler wird gemeldet
+     */
+    private void imHintergrund(Runnable aenderung) {
+        Task<Void> aufgabe = new Task<>() {
+            @Override
+            protected Void call() {
+                aenderung.run();
+                return null;
+            }
+        };
+        aufgabe.setOnSucceeded(e -> konten.neuAnzeigen());
+        aufgabe.setOnFailed(e -> {
+            Throwable fehler = aufgabe.getException();
+            LOG.log(Level.WARNING, "Die Kontoauswahl konnte nicht geändert werden", fehler);
+            anzahl.setText(auswahl.getAnzahl() + " Konten (nicht aktuell)");
+            Alert meldung = new Alert(Alert.AlertType.ERROR);
+            meldung.setTitle("Fehler");
+            meldung.setHeaderText("Die Kontenliste konnte nicht aktualisiert werden");
+            meldung.setContentText(String.valueOf(fehler));
+            meldung.show();
+        });
+        hintergrund.execute(aufgabe);
+    }
+
+    private void anzahlAnzeigen() {
+        anzahl.setText(auswahl.getAnzahl() + " Konten");
+    }
+
+    /**
+     * die Zeilen der Tabelle, eine Sicht auf die aktuelle Auswahl; Konten werden erst beim Anzeigen abgefragt
+     */
+    private class Kontoliste extends ObservableListBase<Konto> {
+        private List<Konto> zeilen = auswahl.getKonten();
+
+        @Override
+        public Konto get(int index) {
+            return zeilen.get(index);
+        }
+
+        @Override
+        public int size() {
+            return zeilen.size();
+        }
+
+        /**
+         * übernimmt die aktuelle Auswahl und meldet der Tabelle, dass alle Zeilen ersetzt wurden
+         */
+        void neuAnzeigen() {
+            List<Konto> alt = zeilen;
+            zeilen = auswahl.getKonten();
+            beginChange();
+            if (!alt.isEmpty())
+                nextRemove(0, alt);
+            if (!zeilen.isEmpty())
+                nextAdd(0, zeilen.size());
+            endChange();
+            anzahlAnzeigen();
+        }
+    }
+
+    /**
+     * zeigt den Kontostand mit zwei Nachkommastellen an, im Plus grün und im Minus rot
+     */
+    private static class KontostandZelle extends TableCell<Konto, Number> {
+        KontostandZelle() {
+            setAlignment(Pos.CENTER_RIGHT);
+        }
+
+        @Override
+        protected void updateItem(Number wert, boolean leer) {
+            super.updateItem(wert, leer);
+            if (leer || wert == null) {
+                setText(null);
+                return;
+            }
+            double stand = wert.doubleValue();
+            setText(Formatpuffer.fuerDiesenThread().kommazahl(stand, 0, 2).toString());
+            setTextFill(stand >= 0 ? Color.GREEN : Color.RED);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
@@ -64,14 +65,25 @@ public class KontoOberflaeche extends BorderPane {
      * löst eine Abhebung aus
      */
     private Button abheben;
+    /**
+     * zeigt an, dass Buchungen im Hintergrund laufen
+     */
+    private ProgressIndicator fortschritt;
+    /**
+     * bricht die noch nicht begonnenen Buchungen ab
+     */
+    private Button abbrechen;
 
     /**
      * Creates a new instance of KontoOberflaeche with the given Konto model and KontoController controller.
+     * Balance and lock state are shown through the mirror, so changes from other threads reach the
+     * display only on the JavaFX Application Thread.
      *
-     * @param model      The Konto object to display and modify.
+     * @param spiegel    The mirror of the Konto object to display and modify.
      * @param controller The controller object responsible for handling user actions.
      */
-    public KontoOberflaeche(Konto model, KontoController controller) {
+    public KontoOberflaeche(Kontospiegel spiegel, KontoController controller) {
+        Konto model = spiegel.getKonto();
         ueberschrift = new Text("Ein Konto verändern");
         ueberschrift.setFont(new Font("Sans Serif", 25));
         BorderPane.setAlignment(ueberschrift, Pos.CENTER);
@@ -98,8 +110,10 @@ public class KontoOberflaeche extends BorderPane {
         stand.setFont(new Font("Sans Serif", 15));
         GridPane.setHalignment(stand, HPos.RIGHT);
         anzeige.add(stand, 1, 1);
-        stand.textProperty().bind(model.kontostandProperty().asString().concat(" " + model.getAktuelleWaehrung()));
-        stand.fillProperty().bind(Bindings.when(model.kontostandImPlusProperty()).then(Color.GREEN).otherwise(Color.RED));
+        stand.textProperty().bind(spiegel.kontostandProperty().asString().concat(" ")
+                .concat(spiegel.waehrungProperty()));
+        stand.fillProperty().bind(Bindings.when(spiegel.kontostandImPlusProperty()).then(Color.GREEN)
+                .otherwise(Color.RED));
 
         if (model.isGesperrt()) {
             txtGesperrt = new Text("Gesperrt");
@@ -114,9 +128,9 @@ public class KontoOberflaeche extends BorderPane {
         GridPane.setHalignment(gesperrt, HPos.RIGHT);
         anzeige.add(gesperrt, 1, 2);
         gesperrt.selectedProperty().addListener(e -> controller.sperrenAendern(gesperrt.isSelected()));
-        txtGesperrt.textProperty().bind(Bindings.when(model.gesperrtProperty()).then("Gesperrt")
+        txtGesperrt.textProperty().bind(Bindings.when(spiegel.gesperrtProperty()).then("Gesperrt")
                 .otherwise("Entsperrt"));
-        txtGesperrt.fillProperty().bind(Bindings.when(model.gesperrtProperty()).then(Color.RED)
+        txtGesperrt.fillProperty().bind(Bindings.when(spiegel.gesperrtProperty()).then(Color.RED)
                 .otherwise(Color.GREEN));
 
         txtAdresse = new Text("Adresse: ");
@@ -151,6 +165,16 @@ public class KontoOberflaeche extends BorderPane {
         aktionen.getChildren().add(abheben);
         abheben.setOnAction(e -> controller.abheben(betrag));
 
+        fortschritt = new ProgressIndicator();
+        fortschritt.setPrefSize(20, 20);
+        fortschritt.visibleProperty().bind(controller.beschaeftigtProperty());
+        aktionen.getChildren().add(fortschritt);
+
+        abbrechen = new Button("Abbrechen");
+        abbrechen.disableProperty().bind(controller.beschaeftigtProperty().not());
+        aktionen.getChildren().add(abbrechen);
+        abbrechen.setOnAction(e -> controller.abbrechen());
+
         this.setBottom(aktionen);
 
     }
@@ -0,0 +1,128 @@
+package bankprojekt.oberflaeche;
+
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verwaltung.Waehrungsumstellung;
+import javafx.animation.AnimationTimer;
+
+import java.beans.PropertyChangeListener;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Überträgt Änderungen von Konten gebündelt auf die Oberfläche.
+ * <p>
+ * Konten werden von beliebigen Threads gebucht, z.B. beim Ausführen eines Kaufauftrags. Die Brücke meldet sich
+ * bei jedem gespiegelten Konto als Beobachter an und merkt sich bei jeder Änderung nur, dass das Konto geändert
+ * wurde. Einmal pro Bildaufbau übernimmt sie auf dem JavaFX Application Thread den dann aktuellen Zustand jedes
+ * geänderten Kontos in dessen {@link Kontospiegel}. Die Arbeit der Oberfläche hängt also nur von der Anzahl der
+ * geänderten Konten ab, nicht von der Anzahl der Buchungen.
+ * <p>
+ * Zu jedem Konto gibt es höchstens einen Spiegel mit einem Beobachter, auch wenn mehrere Zellen oder Fenster das
+ * Konto anzeigen. Die Brücke hält die Spiegel nur schwach; wird ein Spiegel nicht mehr verwendet, meldet sie sich
+ * beim Konto ab, und der nächste Aufruf von {@link #spiegeln(Konto)} erstellt einen neuen.
+ */
+public class Kontobruecke extends AnimationTimer {
+    /**
+     * die seit dem letzten Bildaufbau geänderten Konten, jedes höchstens einmal
+     */
+    private final Queue<Anmeldung> geaendert = new ConcurrentLinkedQueue<>();
+
+    /**
+     * die Anmeldungen der Konten, deren Spiegel noch nicht verworfen wurden
+     */
+    private final Map<Konto, Anmeldung> angemeldet = new ConcurrentHashMap<>();
+
+    /**
+     * die Anmeldungen, deren Spiegel nicht mehr verwendet werden
+     */
+    private final ReferenceQueue<Kontospiegel> verworfen = new ReferenceQueue<>();
+
+    /**
+     * liefert den Spiegel des Kontos, der ab {@link #start()} einmal pro Bildaufbau aktualisiert wird. Solange
+     * der Spiegel verwendet wird, liefert jeder Aufruf für dasselbe Konto denselben Spiegel.
+     * Nur auf dem JavaFX Application Thread aufrufen.
+     *
+     * @param konto das Konto
+     * @return der Spiegel
+     */
+    public Kontospiegel spiegeln(Konto konto) {
+        Anmeldung vorhanden = angemeldet.get(konto);
+        if (vorhanden != null && vorhanden.konto == konto) {
+            Kontospiegel spiegel = vorhanden.get();
+            if (spiegel != null)
+                return spiegel;
+        }
+        Kontospiegel spiegel = new Kontospiegel(konto);
+        Anmeldung anmeldung = new Anmeldung(spiegel, verworfen);
+        angemeldet.put(konto, anmeldung);
+        konto.anmelden(anmeldung.beobachter);
+        return spiegel;
+    }
+
+    /**
+     * merkt alle gespiegelten Konten für den nächsten Bildaufbau vor, z.B. nach einer
+     * Währungsumstellung, bei der die Konten keine Ereignisse senden
+     */
+    public void allesVormerken() {
+        for (Anmeldung anmeldung : angemeldet.values()) {
+            anmeldung.vormerken();
+        }
+    }
+
+    /**
+     * aktualisiert alle Spiegel beim nächsten Bildaufbau, sobald die Umstellung abgeschlossen ist. Die Konten
+     * werden dabei auf den Threads der Umstellung umgerechnet und senden keine Ereignisse; die Spiegel übernehmen
+     * den neuen Zustand trotzdem nur auf dem JavaFX Application Thread.
+     *
+     * @param umstellung die Währungsumstellung
+     */
+    public void umstellungVerfolgen(Waehrungsumstellung umstellung) {
+        umstellung.anmelden(e -> allesVormerken());
+    }
+
+    @Override
+    public void handle(long jetzt) {
+        // jede Anmeldung steht höchstens einmal in der Schlange, so bleibt die Schleife begrenzt,
+        // auch wenn währenddessen weiter gebucht wird
+        for (int n = angemeldet.size(); n > 0; n--) {
+            Anmeldung anmeldung = geaendert.poll();
+            if (anmeldung == null)
+                break;
+            anmeldung.vorgemerkt.set(false);
+            Kontospiegel spiegel = anmeldung.get();
+            if (spiegel != null)
+                spiegel.uebernehmen();
+        }
+        Reference<? extends Kontospiegel> alt;
+        while ((alt = verworfen.poll()) != null) {
+            Anmeldung anmeldung = (Anmeldung) alt;
+            anmeldung.konto.abmelden(anmeldung.beobachter);
+            angemeldet.remove(anmeldung.konto, anmeldung);
+        }
+    }
+
+    /**
+     * die Anmeldung eines Spiegels beim Konto
+     */
+    private class Anmeldung extends WeakReference<Kontospiegel> {
+        private final Konto konto;
+        private final AtomicBoolean vorgemerkt = new AtomicBoolean();
+        private final PropertyChangeListener beobachter = e -> vormerken();
+
+        Anmeldung(Kontospiegel spiegel, ReferenceQueue<Kontospiegel> queue) {
+            super(spiegel, queue);
+            this.konto = spiegel.getKonto();
+        }
+
+        void vormerken() {
+            if (vorgemerkt.compareAndSet(false, true))
+                geaendert.add(this);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package bankprojekt.oberflaeche;
+
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Waehrung;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+/**
+ * Ein Abbild des Zustands eines Kontos für die Oberfläche. Die Properties werden nur auf dem JavaFX Application
+ * Thread und höchstens einmal pro Bildaufbau geändert, egal von welchem Thread und wie oft das Konto gebucht wird.
+ * Erzeugt wird ein Kontospiegel von einer {@link Kontobruecke}; er bleibt aktuell, solange er von der Oberfläche
+ * verwendet wird.
+ */
+public class Kontospiegel {
+    private final Konto konto;
+    private final ReadOnlyDoubleWrapper kontostand = new ReadOnlyDoubleWrapper(this, "kontostand");
+    private final ReadOnlyBooleanWrapper kontostandImPlus = new ReadOnlyBooleanWrapper(this, "kontostandImPlus");
+    private final ReadOnlyBooleanWrapper gesperrt = new ReadOnlyBooleanWrapper(this, "gesperrt");
+    private final ReadOnlyObjectWrapper<Waehrung> waehrung = new ReadOnlyObjectWrapper<>(this, "waehrung");
+
+    /**
+     * erstellt den Spiegel mit dem aktuellen Zustand des Kontos
+     *
+     * @param konto das Konto
+     */
+    Kontospiegel(Konto konto) {
+        this.konto = konto;
+        uebernehmen();
+    }
+
+    /**
+     * übernimmt den aktuellen Zustand des Kontos; nur auf dem JavaFX Application Thread aufrufen
+     */
+    void uebernehmen() {
+        double stand = konto.getKontostand();
+        kontostand.set(stand);
+        kontostandImPlus.set(stand >= 0);
+        gesperrt.set(konto.isGesperrt());
+        waehrung.set(konto.getAktuelleWaehrung());
+    }
+
+    /**
+     * liefert das gespiegelte Konto
+     *
+     * @return das Konto
+     */
+    public Konto getKonto() {
+        return konto;
+    }
+
+    /**
+     * Returns the read-only property of the mirrored balance.
+     *
+     * @return the kontostand property
+     */
+    public ReadOnlyDoubleProperty kontostandProperty() {
+        return kontostand.getReadOnlyProperty();
+    }
+
+    /**
+     * Returns the read-only property indicating whether the mirrored balance is not negative.
+     *
+     * @return the kontostandImPlus property
+     */
+    public ReadOnlyBooleanProperty kontostandImPlusProperty() {
+        return kontostandImPlus.getReadOnlyProperty();
+    }
+
+    /**
+     * Returns the read-only property of the mirrored lock state.
+     *
+     * @return the gesperrt property
+     */
+    public ReadOnlyBooleanProperty gesperrtProperty() {
+        return gesperrt.getReadOnlyProperty();
+    }
+
+    /**
+     * Returns the read-only property of the mirrored currency.
+     *
+     * @return the waehrung property
+     */
+    public ReadOnlyObjectProperty<Waehrung> waehrungProperty() {
+        return waehrung.getReadOnlyProperty();
+    }
+}
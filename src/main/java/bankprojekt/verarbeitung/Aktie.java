@@ -1,14 +1,29 @@
 package bankprojekt.verarbeitung;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
 import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * A class to generate Stocks
+ * <p>
+ * Kursänderungen können abonniert werden. Die Schwellen der Abonnements liegen in zwei sortierten Mengen,
+ * eine für das Überschreiten und eine für das Unterschreiten. Eine Kursänderung entnimmt nur die Abonnements
+ * am Anfang bzw. Ende der Mengen, deren Schwelle sie erreicht hat, und kostet damit unabhängig von der Zahl
+ * der Abonnements nur O(log n) pro ausgelöstem Abonnement.
  */
 public class Aktie {
+    private static final Logger LOG = Logger.getLogger(Aktie.class.getName());
+
     /**
      * Represents the name of an Aktienobject.
      */
@@ -20,9 +35,40 @@ public class Aktie {
     /**
      * This variable represents the exchange rate of a currency.
      */
-    private double kurs;
-    private final int UPPER_BOUND = 3;
-    private final int LOWER_BOUND = -3;
+    private volatile double kurs;
+    /**
+     * die Kursgeschichte, in die jeder neue Kurs eingetragen wird
+     */
+    private final Kurshistorie historie = new Kurshistorie();
+    /**
+     * Abonnements mit oberer Schwelle, alle Schwellen liegen über dem aktuellen Kurs
+     */
+    private final NavigableSet<Kursabonnement> ueber = new TreeSet<>(
+            Comparator.comparingDouble((Kursabonnement a) -> a.oben).thenComparingLong(a -> a.folge));
+    /**
+     * Abonnements mit unterer Schwelle, alle Schwellen liegen unter dem aktuellen Kurs
+     */
+    private final NavigableSet<Kursabonnement> unter = new TreeSet<>(
+            Comparator.comparingDouble((Kursabonnement a) -> a.unten).thenComparingLong(a -> a.folge));
+    /**
+     * Abonnements auf jede Kursänderung
+     */
+    private final List<Kursabonnement> jederKurs = new CopyOnWriteArrayList<>();
+    /**
+     * schützt die Schwellen, die Abonnements und den Vergleich des Kurses mit den Schwellen
+     */
+    private final Object abonnementSperre = new Object();
+    private long naechsteFolge;
+    /**
+     * Anzahl der bestehenden Abonnements
+     */
+    private int anzahlAbonnements;
+    private static final int UPPER_BOUND = 3;
+    private static final int LOWER_BOUND = -3;
+    /**
+     * erzeugt die zufälligen Kurse
+     */
+    private final Random zufall = new Random();
     private static ScheduledExecutorService executorService;
 
     /**
@@ -34,12 +80,42 @@ public class Aktie {
      * @param kurs                 the initial value of the stock
      */
     public Aktie(String name, int wertpapierkennummer, double kurs) {
+        this(name, wertpapierkennummer, kurs, true);
+    }
+
+    /**
+     * erstellt eine Aktie, deren Kurs sich nur über {@link #setKurs(double)} und {@link #kursSetzen(long, double)}
+     * ändert, z.B. für die Wiedergabe aufgezeichneter Kurse mit einer {@link Marktwiedergabe}
+     *
+     * @param name                the name of the stock
+     * @param wertpapierkennummer the unique identifier for the stock
+     * @param kurs                the initial value of the stock
+     * @return die Aktie
+     */
+    public static Aktie fuerWiedergabe(String name, int wertpapierkennummer, double kurs) {
+        return new Aktie(name, wertpapierkennummer, kurs, false);
+    }
+
+    /**
+     * erstellt eine Aktie, deren Kurs sich auf Wunsch nur über {@link #setKurs(double)} ändert
+     *
+     * @param name                the name of the stock
+     * @param wertpapierkennummer the unique identifier for the stock
+     * @param kurs                the initial value of the stock
+     * @param zufallskurse        ob jede Sekunde ein zufälliger neuer Kurs erzeugt wird
+     */
+    Aktie(String name, int wertpapierkennummer, double kurs, boolean zufallskurse) {
         this.name = name;
         this.wertpapierkennummer = wertpapierkennummer;
         this.kurs = kurs;
 
-        executorService = new ScheduledThreadPoolExecutor(1);
-        executorService.scheduleAtFixedRate(this::randKursGenerator, 0, 1, TimeUnit.SECONDS);
+        // ohne Zufallskurse beginnt die Historie erst mit dem ersten gesetzten Kurs, damit auch ältere
+        // aufgezeichnete Kurse noch eingetragen werden können
+        if (zufallskurse) {
+            historie.hinzufuegen(System.currentTimeMillis(), kurs);
+            executorService = new ScheduledThreadPoolExecutor(1);
+            executorService.scheduleAtFixedRate(this::randKursGenerator, 0, 1, TimeUnit.SECONDS);
+        }
     }
 
     /**
@@ -49,10 +125,213 @@ public class Aktie {
      *
      */
     private void randKursGenerator() {
-        Random r = new Random();
-        double zufallProzent = LOWER_BOUND + (UPPER_BOUND - LOWER_BOUND) * r.nextDouble();
+        kursAendern(System.currentTimeMillis(), naechsterKurs(this.kurs, zufall));
+    }
+
+    /**
+     * berechnet einen zufälligen Folgekurs wie der Kursgenerator der Aktie
+     *
+     * @param kurs   der bisherige Kurs
+     * @param zufall die Zufallsquelle
+     * @return der neue Kurs
+     */
+    static double naechsterKurs(double kurs, Random zufall) {
+        double zufallProzent = LOWER_BOUND + (UPPER_BOUND - LOWER_BOUND) * zufall.nextDouble();
+        return kurs + kurs * zufallProzent / 100;
+    }
+
+    /**
+     * setzt den Kurs, trägt ihn zum Zeitpunkt zeit in die Historie ein und benachrichtigt alle Abonnements, deren Bedingung er
+     * erfüllt. Die Beobachter werden außerhalb der Sperre benachrichtigt und dürfen selbst abonnieren
+     * oder kündigen. Wirft ein Beobachter eine Exception, wird sie protokolliert und die übrigen werden trotzdem
+     * benachrichtigt.
+     */
+    private void kursAendern(long zeit, double neu) {
+        List<Kursabonnement> ausgeloest = null;
+        synchronized (abonnementSperre) {
+            this.kurs = neu;
+            historie.hinzufuegen(zeit, neu);
+            while (!ueber.isEmpty() && ueber.first().oben <= neu) {
+                ausgeloest = ausloesen(ueber.pollFirst(), unter, ausgeloest);
+            }
+            while (!unter.isEmpty() && unter.last().unten >= neu) {
+                ausgeloest = ausloesen(unter.pollLast(), ueber, ausgeloest);
+            }
+            if (ausgeloest != null) {
+                for (Kursabonnement a : ausgeloest) {
+                    if (!a.einmalig && a.aktiv)
+                        einordnen(a, neu);
+                }
+            }
+        }
+        if (ausgeloest != null) {
+            for (Kursabonnement a : ausgeloest) {
+                benachrichtigen(a, neu);
+            }
+        }
+        for (Kursabonnement a : jederKurs) {
+            benachrichtigen(a, neu);
+        }
+    }
+
+    /**
+     * benachrichtigt ein Abonnement; ein fehlerhafter Beobachter darf weder die übrigen Abonnements noch den
+     * Kursgenerator aufhalten
+     */
+    private void benachrichtigen(Kursabonnement a, double neu) {
+        try {
+            a.benachrichtigen(neu);
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Beobachter von Aktie " + wertpapierkennummer + " ist fehlgeschlagen", e);
+        }
+    }
+
+    /**
+     * nimmt ein ausgelöstes Abonnement auch aus der anderen Menge und merkt es zum Benachrichtigen vor
+     */
+    private List<Kursabonnement> ausloesen(Kursabonnement a, NavigableSet<Kursabonnement> andere,
+                                           List<Kursabonnement> ausgeloest) {
+        andere.remove(a);
+        if (a.einmalig) {
+            a.aktiv = false;
+            anzahlAbonnements--;
+        }
+        if (ausgeloest == null)
+            ausgeloest = new ArrayList<>();
+        ausgeloest.add(a);
+        return ausgeloest;
+    }
+
+    /**
+     * setzt bei einer Bewegung die Schwellen um den Bezugskurs und nimmt das Abonnement in die Mengen auf
+     */
+    private void einordnen(Kursabonnement a, double bezug) {
+        if (!Double.isNaN(a.prozent))
+            a.bezugSetzen(bezug);
+        if (!Double.isNaN(a.oben))
+            ueber.add(a);
+        if (!Double.isNaN(a.unten))
+            unter.add(a);
+    }
+
+    /**
+     * meldet ein Abonnement an; ist die Bedingung schon erfüllt, wird es sofort ausgelöst
+     */
+    private Kursabonnement anmelden(Kursbeobachter beobachter, double oben, double unten, double prozent) {
+        if (beobachter == null)
+            throw new IllegalArgumentException("Beobachter darf nicht null sein");
+        Kursabonnement a;
+        double aktuell;
+        synchronized (abonnementSperre) {
+            aktuell = kurs;
+            a = new Kursabonnement(this, beobachter, naechsteFolge++, oben, unten, prozent);
+            if (a.einmalig && (aktuell >= oben || aktuell <= unten)) {
+                a.aktiv = false;
+            } else {
+                einordnen(a, aktuell);
+                anzahlAbonnements++;
+                return a;
+            }
+        }
+        a.benachrichtigen(aktuell);
+        return a;
+    }
 
-        this.kurs += this.kurs * zufallProzent / 100;
+    /**
+     * Abonniert das Erreichen oder Überschreiten einer Schwelle. Das Abonnement wird einmal ausgelöst; liegt
+     * der Kurs schon auf oder über der Schwelle, geschieht das sofort im aufrufenden Thread.
+     *
+     * @param schwelle   die Schwelle
+     * @param beobachter wird benachrichtigt
+     * @return das Abonnement
+     * @throws IllegalArgumentException wenn die Schwelle keine Zahl oder der Beobachter null ist
+     */
+    public Kursabonnement abonnierenUeber(double schwelle, Kursbeobachter beobachter) {
+        if (Double.isNaN(schwelle))
+            throw new IllegalArgumentException("Schwelle muss eine Zahl sein");
+        return anmelden(beobachter, schwelle, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Abonniert das Erreichen oder Unterschreiten einer Schwelle. Das Abonnement wird einmal ausgelöst; liegt
+     * der Kurs schon auf oder unter der Schwelle, geschieht das sofort im aufrufenden Thread.
+     *
+     * @param schwelle   die Schwelle
+     * @param beobachter wird benachrichtigt
+     * @return das Abonnement
+     * @throws IllegalArgumentException wenn die Schwelle keine Zahl oder der Beobachter null ist
+     */
+    public Kursabonnement abonnierenUnter(double schwelle, Kursbeobachter beobachter) {
+        if (Double.isNaN(schwelle))
+            throw new IllegalArgumentException("Schwelle muss eine Zahl sein");
+        return anmelden(beobachter, Double.NaN, schwelle, Double.NaN);
+    }
+
+    /**
+     * Abonniert Bewegungen des Kurses um mindestens prozent Prozent in beide Richtungen, gemessen am Kurs bei
+     * der Anmeldung bzw. bei der letzten Auslösung. Das Abonnement bleibt bis zur Kündigung bestehen.
+     *
+     * @param prozent    die Bewegung in Prozent
+     * @param beobachter wird benachrichtigt
+     * @return das Abonnement
+     * @throws IllegalArgumentException wenn prozent nicht positiv oder der Beobachter null ist
+     */
+    public Kursabonnement abonnierenBewegung(double prozent, Kursbeobachter beobachter) {
+        if (!(prozent > 0) || Double.isInfinite(prozent))
+            throw new IllegalArgumentException("Bewegung muss positiv sein");
+        return anmelden(beobachter, Double.NaN, Double.NaN, prozent);
+    }
+
+    /**
+     * Abonniert jede Kursänderung. Das Abonnement bleibt bis zur Kündigung bestehen.
+     *
+     * @param beobachter wird benachrichtigt
+     * @return das Abonnement
+     * @throws IllegalArgumentException wenn der Beobachter null ist
+     */
+    public Kursabonnement abonnieren(Kursbeobachter beobachter) {
+        if (beobachter == null)
+            throw new IllegalArgumentException("Beobachter darf nicht null sein");
+        Kursabonnement a;
+        synchronized (abonnementSperre) {
+            a = new Kursabonnement(this, beobachter, naechsteFolge++, Double.NaN, Double.NaN, Double.NaN);
+            jederKurs.add(a);
+            anzahlAbonnements++;
+        }
+        return a;
+    }
+
+    /**
+     * beendet ein Abonnement
+     *
+     * @param a das Abonnement
+     * @return true, wenn es bis jetzt bestand
+     */
+    boolean kuendigen(Kursabonnement a) {
+        synchronized (abonnementSperre) {
+            if (!a.aktiv)
+                return false;
+            a.aktiv = false;
+            anzahlAbonnements--;
+            if (!Double.isNaN(a.oben))
+                ueber.remove(a);
+            if (!Double.isNaN(a.unten))
+                unter.remove(a);
+            if (Double.isNaN(a.oben) && Double.isNaN(a.unten))
+                jederKurs.remove(a);
+        }
+        return true;
+    }
+
+    /**
+     * liefert die Anzahl der bestehenden Abonnements
+     *
+     * @return Anzahl der Abonnements
+     */
+    public int getAnzahlAbonnements() {
+        synchronized (abonnementSperre) {
+            return anzahlAbonnements;
+        }
     }
 
     /**
@@ -106,7 +385,27 @@ public class Aktie {
      * @param kurs The new kurs for the object.
      */
     public void setKurs(double kurs) {
-        this.kurs = kurs;
+        kursAendern(System.currentTimeMillis(), kurs);
+    }
+
+    /**
+     * setzt den Kurs zum angegebenen Zeitpunkt, z.B. beim Wiedergeben aufgezeichneter Kurse. Abonnements werden
+     * wie bei {@link #setKurs(double)} benachrichtigt.
+     *
+     * @param zeit der Zeitpunkt des Kurses in Millisekunden seit 1970
+     * @param kurs der neue Kurs
+     */
+    public void kursSetzen(long zeit, double kurs) {
+        kursAendern(zeit, kurs);
+    }
+
+    /**
+     * Returns the price history of the Aktie object.
+     *
+     * @return the history of all prices set or generated for this Aktie
+     */
+    public Kurshistorie getHistorie() {
+        return historie;
     }
 
 }
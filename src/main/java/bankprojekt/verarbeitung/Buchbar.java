@@ -0,0 +1,41 @@
+package bankprojekt.verarbeitung;
+
+/**
+ * Ein Konto, auf dem gebucht werden kann, unabhängig davon, wie es gespeichert ist: als {@link Konto}-Objekt
+ * oder als Zeile einer {@link Kontotabelle}, die über einen {@link Kontozeiger} gebucht wird. Code, der nur
+ * einzahlt, abhebt, sperrt oder die Währung wechselt, kann so mit beiden Formen arbeiten.
+ */
+public interface Buchbar extends Kontoansicht {
+    /**
+     * Erhöht den Kontostand um den eingezahlten Betrag.
+     *
+     * @param betrag der Betrag in Kontowährung
+     * @throws IllegalArgumentException wenn der betrag negativ, NaN oder unendlich ist
+     */
+    void einzahlen(double betrag);
+
+    /**
+     * Versucht den angegebenen Betrag vom Konto abzuheben, ohne im Fehlerfall eine Exception zu erzeugen.
+     *
+     * @param betrag der Betrag in Kontowährung
+     * @return ERFOLGREICH, wenn abgehoben wurde, sonst der Grund, warum nicht
+     */
+    Buchungsstatus abhebenStatus(double betrag);
+
+    /**
+     * sperrt das Konto
+     */
+    void sperren();
+
+    /**
+     * entsperrt das Konto
+     */
+    void entsperren();
+
+    /**
+     * Stellt das Konto auf eine andere Währung um; die Beträge in Kontowährung werden umgerechnet.
+     *
+     * @param neu die neue Währung
+     */
+    void waehrungswechsel(Waehrung neu);
+}
@@ -0,0 +1,267 @@
+package bankprojekt.verarbeitung;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * Die Historie der Kontostände eines Kontos: für jede Änderung von Kontostand, Währung oder Sperre der Zeitpunkt
+ * und der Zustand danach, d.h. Saldo, Währung und ob das Konto gesperrt ist.
+ * <p>
+ * Das Journal wird nur ergänzt, nie geändert. Zeitpunkte, Salden und Währung mit Sperre liegen in drei parallelen
+ * primitiven Arrays, ein Eintrag belegt also 17 Byte. Es darf nur einen schreibenden Thread geben (den, der das
+ * Konto bucht); beliebig viele Threads dürfen gleichzeitig lesen. Ein Leser holt sich zuerst {@link #getAnzahl()}
+ * und darf danach alle Einträge unterhalb dieser Anzahl lesen, auch wenn währenddessen weitere hinzukommen.
+ * <p>
+ * Das Journal bewahrt die Einträge nur für eine begrenzte Zeit auf. Immer wenn die Arrays voll sind, werden die
+ * Einträge verworfen, die älter als die Aufbewahrungsdauer sind, bevor die Arrays vergrößert werden; der letzte
+ * Eintrag davor bleibt stehen, so dass der Zustand für jeden Zeitpunkt im Aufbewahrungszeitraum bekannt ist.
+ * Die Indizes der Einträge ändern sich dabei nicht, verworfene Einträge beginnen bei 0 und enden vor
+ * {@link #getErsterIndex()}.
+ */
+public class Buchungsjournal implements Serializable {
+    private static final int ANFANGSKAPAZITAET = 8;
+
+    /**
+     * die Aufbewahrungsdauer eines Journals, das mit dem Standardkonstruktor erstellt wurde; lang genug für
+     * die Auszüge eines Jahres und des Vormonats
+     */
+    public static final Duration STANDARD_AUFBEWAHRUNG = Duration.ofDays(400);
+
+    /**
+     * das Bit für die Sperre in einem Eintrag von zustaende, die übrigen Bits enthalten die Ordinalzahl der Währung
+     */
+    private static final byte GESPERRT = (byte) 0x80;
+
+    private static final Waehrung[] WAEHRUNGEN = Waehrung.values();
+
+    /**
+     * die aufbewahrten Einträge. Der Eintrag mit dem Index i liegt an Platz i - erster der Arrays.
+     * Beim Vergrößern oder Verwerfen werden die Arrays nicht verändert, sondern durch neue ersetzt.
+     */
+    private static final class Speicher implements Serializable {
+        /**
+         * die Zeitpunkte der Einträge in Millisekunden seit 1970, aufsteigend
+         */
+        final long[] zeiten;
+        /**
+         * der Kontostand nach dem jeweiligen Eintrag
+         */
+        final double[] salden;
+        /**
+         * Währung und Sperre nach dem jeweiligen Eintrag
+         */
+        final byte[] zustaende;
+        /**
+         * der Index des ersten aufbewahrten Eintrags
+         */
+        final int erster;
+
+        Speicher(int kapazitaet, int erster) {
+            this.zeiten = new long[kapazitaet];
+            this.salden = new double[kapazitaet];
+            this.zustaende = new byte[kapazitaet];
+            this.erster = erster;
+        }
+    }
+
+    /**
+     * die Aufbewahrungsdauer in Millisekunden
+     */
+    private final long aufbewahrung;
+
+    /**
+     * die aufbewahrten Einträge; volatile, damit ein Leser die kopierten Einträge sieht
+     */
+    private volatile Speicher speicher = new Speicher(ANFANGSKAPAZITAET, 0);
+
+    /**
+     * die Anzahl aller je eingetragenen Einträge; wird erst nach dem Schreiben der Arrays erhöht und
+     * veröffentlicht sie
+     */
+    private volatile int anzahl;
+
+    /**
+     * erstellt ein leeres Journal mit der {@link #STANDARD_AUFBEWAHRUNG}
+     */
+    public Buchungsjournal() {
+        this(STANDARD_AUFBEWAHRUNG);
+    }
+
+    /**
+     * erstellt ein leeres Journal
+     *
+     * @param aufbewahrung wie lange die Einträge mindestens aufbewahrt werden
+     * @throws IllegalArgumentException wenn die Dauer null oder negativ ist
+     */
+    public Buchungsjournal(Duration aufbewahrung) {
+        if (aufbewahrung == null || aufbewahrung.isNegative())
+            throw new IllegalArgumentException("Aufbewahrungsdauer ist nicht gültig");
+        this.aufbewahrung = aufbewahrung.toMillis();
+    }
+
+    /**
+     * trägt einen neuen Zustand ein. Liegt der Zeitpunkt vor dem letzten Eintrag, z.B. weil die Systemuhr
+     * zurückgestellt wurde, wird der Zeitpunkt des letzten Eintrags verwendet.
+     *
+     * @param zeit     der Zeitpunkt in Millisekunden seit 1970
+     * @param saldo    der neue Kontostand
+     * @param waehrung die Währung des Kontos
+     * @param gesperrt ob das Konto gesperrt ist
+     */
+    void eintragen(long zeit, double saldo, Waehrung waehrung, boolean gesperrt) {
+        int n = anzahl;
+        Speicher sp = speicher;
+        int platz = n - sp.erster;
+        if (platz > 0 && zeit < sp.zeiten[platz - 1])
+            zeit = sp.zeiten[platz - 1];
+        if (platz == sp.zeiten.length) {
+            sp = verdichten(sp, n, zeit - aufbewahrung);
+            speicher = sp;
+            platz = n - sp.erster;
+        }
+        sp.zeiten[platz] = zeit;
+        sp.salden[platz] = saldo;
+        sp.zustaende[platz] = (byte) (waehrung.ordinal() | (gesperrt ? GESPERRT : 0));
+        anzahl = n + 1;
+    }
+
+    /**
+     * kopiert die Einträge ab dem letzten vor der Grenze in einen neuen Speicher, der doppelt so viele
+     * Einträge fasst wie kopiert werden
+     */
+    private static Speicher verdichten(Speicher sp, int n, long grenze) {
+        int ab = Math.max(sp.erster, suchen(sp, n, grenze) - 1);
+        int behalten = n - ab;
+        Speicher neu = new Speicher(Math.max(ANFANGSKAPAZITAET, behalten * 2), ab);
+        System.arraycopy(sp.zeiten, ab - sp.erster, neu.zeiten, 0, behalten);
+        System.arraycopy(sp.salden, ab - sp.erster, neu.salden, 0, behalten);
+        System.arraycopy(sp.zustaende, ab - sp.erster, neu.zustaende, 0, behalten);
+        return neu;
+    }
+
+    /**
+     * liefert die Anzahl der Einträge einschließlich der bereits verworfenen
+     *
+     * @return Anzahl der Einträge
+     */
+    public int getAnzahl() {
+        return anzahl;
+    }
+
+    /**
+     * liefert den Index des ältesten aufbewahrten Eintrags
+     *
+     * @return der Index, 0, solange kein Eintrag verworfen wurde
+     */
+    public int getErsterIndex() {
+        return speicher.erster;
+    }
+
+    /**
+     * liefert den Zeitpunkt des Eintrags
+     *
+     * @param index der Index, kleiner als eine zuvor gelesene {@link #getAnzahl()}
+     * @return der Zeitpunkt in Millisekunden seit 1970
+     * @throws IndexOutOfBoundsException wenn der Eintrag bereits verworfen wurde
+     */
+    public long getZeit(int index) {
+        Speicher sp = speicher;
+        return sp.zeiten[index - sp.erster];
+    }
+
+    /**
+     * liefert den Kontostand nach dem Eintrag
+     *
+     * @param index der Index, kleiner als eine zuvor gelesene {@link #getAnzahl()}
+     * @return der Kontostand
+     * @throws IndexOutOfBoundsException wenn der Eintrag bereits verworfen wurde
+     */
+    public double getSaldo(int index) {
+        Speicher sp = speicher;
+        return sp.salden[index - sp.erster];
+    }
+
+    /**
+     * liefert die Währung nach dem Eintrag
+     *
+     * @param index der Index, kleiner als eine zuvor gelesene {@link #getAnzahl()}
+     * @return die Währung
+     * @throws IndexOutOfBoundsException wenn der Eintrag bereits verworfen wurde
+     */
+    public Waehrung getWaehrung(int index) {
+        Speicher sp = speicher;
+        return WAEHRUNGEN[sp.zustaende[index - sp.erster] & ~GESPERRT];
+    }
+
+    /**
+     * liefert zurück, ob das Konto nach dem Eintrag gesperrt war
+     *
+     * @param index der Index, kleiner als eine zuvor gelesene {@link #getAnzahl()}
+     * @return true, wenn das Konto gesperrt war
+     * @throws IndexOutOfBoundsException wenn der Eintrag bereits verworfen wurde
+     */
+    public boolean isGesperrt(int index) {
+        Speicher sp = speicher;
+        return (sp.zustaende[index - sp.erster] & GESPERRT) != 0;
+    }
+
+    /**
+     * liefert den Index des ersten aufbewahrten Eintrags, der nicht vor dem Zeitpunkt liegt
+     *
+     * @param zeit der Zeitpunkt in Millisekunden seit 1970
+     * @return der Index oder {@link #getAnzahl()}, wenn alle Einträge früher liegen
+     */
+    public int suchen(long zeit) {
+        int n = anzahl;
+        return suchen(speicher, n, zeit);
+    }
+
+    private static int suchen(Speicher sp, int n, long zeit) {
+        int links = sp.erster;
+        int rechts = n;
+        long[] z = sp.zeiten;
+        while (links < rechts) {
+            int mitte = (links + rechts) >>> 1;
+            if (z[mitte - sp.erster] < zeit)
+                links = mitte + 1;
+            else
+                rechts = mitte;
+        }
+        return links;
+    }
+
+    /**
+     * liefert den Index des letzten Eintrags vor dem Zeitpunkt, d.h. des Eintrags, der den Zustand unmittelbar
+     * vor dem Zeitpunkt beschreibt
+     *
+     * @param zeit der Zeitpunkt in Millisekunden seit 1970
+     * @return der Index oder -1, wenn es keinen früheren Eintrag gibt
+     * @throws IllegalArgumentException wenn der Zeitpunkt vor dem Aufbewahrungszeitraum liegt, der Eintrag also
+     *                                  bereits verworfen wurde
+     */
+    public int eintragVor(long zeit) {
+        int n = anzahl;
+        return eintragVor(speicher, n, zeit);
+    }
+
+    private static int eintragVor(Speicher sp, int n, long zeit) {
+        int index = suchen(sp, n, zeit);
+        if (index == sp.erster && index > 0)
+            throw new IllegalArgumentException("Der Zeitpunkt liegt vor dem Aufbewahrungszeitraum");
+        return index - 1;
+    }
+
+    /**
+     * liefert den Kontostand unmittelbar vor dem Zeitpunkt
+     *
+     * @param zeit der Zeitpunkt in Millisekunden seit 1970
+     * @return der Saldo des letzten früheren Eintrags oder 0, wenn es keinen gibt
+     * @throws IllegalArgumentException wenn der Zeitpunkt vor dem Aufbewahrungszeitraum liegt
+     */
+    public double getSaldoVor(long zeit) {
+        int n = anzahl;
+        Speicher sp = speicher;
+        int index = eintragVor(sp, n, zeit);
+        return index < 0 ? 0 : sp.salden[index - sp.erster];
+    }
+}
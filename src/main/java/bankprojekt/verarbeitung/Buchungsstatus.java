@@ -0,0 +1,50 @@
+package bankprojekt.verarbeitung;
+
+/**
+ * Ergebnis einer Buchung, das statt einer Exception zurückgegeben werden kann.
+ * Die Werte sind vorab angelegt, die Rückgabe kostet also keine Allokation.
+ */
+public enum Buchungsstatus {
+    /**
+     * die Buchung wurde ausgeführt
+     */
+    ERFOLGREICH,
+    /**
+     * zur angegebenen Kontonummer existiert kein Konto
+     */
+    KONTO_NICHT_VORHANDEN,
+    /**
+     * das Konto ist gesperrt
+     */
+    GESPERRT,
+    /**
+     * die Buchung wurde von den kontospezifischen Regeln abgelehnt,
+     * z.B. weil der Dispo oder das monatliche Abhebelimit überschritten würde
+     */
+    NICHT_GEDECKT,
+    /**
+     * eines der beteiligten Konten kann keine Überweisungen senden oder empfangen
+     */
+    NICHT_UEBERWEISUNGSFAEHIG,
+    /**
+     * der Betrag ist negativ, 0, NaN oder unendlich
+     */
+    UNGUELTIGER_BETRAG,
+    /**
+     * im Depot liegen nicht genug Aktien für den Verkauf
+     */
+    DEPOT_NICHT_GEDECKT,
+    /**
+     * die Buchung würde das {@link Geschwindigkeitslimit} der Kontoart überschreiten
+     */
+    LIMIT_UEBERSCHRITTEN;
+
+    /**
+     * liefert zurück, ob die Buchung ausgeführt wurde
+     *
+     * @return true, wenn this ERFOLGREICH ist
+     */
+    public boolean isErfolgreich() {
+        return this == ERFOLGREICH;
+    }
+}
@@ -0,0 +1,212 @@
+package bankprojekt.verarbeitung;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Begrenzt, wie oft und wie viel innerhalb eines gleitenden Zeitfensters von einem Konto abgehen darf, z.B.
+ * höchstens 5 Abhebungen oder 1000 € in 10 Minuten. Ein Limit gilt für alle Konten einer Kontoart, die Zähler
+ * führt jedes Konto selbst.
+ * <p>
+ * Das Fenster ist in gleich lange Zeitabschnitte (Eimer) aufgeteilt. Die Zähler eines Kontos sind ein long-Array
+ * mit anzahlEimer + 2 Plätzen: der Abschnitt der letzten Buchung, die Summe über alle Eimer und die Eimer als
+ * Ring, der Eimer für den Abschnitt p liegt an Platz p % anzahlEimer. Jeder Platz enthält Anzahl und Betrag
+ * gepackt in einem long, die Anzahl in den oberen 20 Bit, den Betrag in Euro-Cent in den unteren 44 Bit.
+ * Weil die Summe mitgeführt wird, kostet eine Prüfung unabhängig von der Zahl der Eimer nur einen Vergleich;
+ * beim Weiterrücken wird jeder abgelaufene Eimer einmal geleert. Dabei wird nichts erzeugt.
+ * <p>
+ * Die Zähler werden erst bei der ersten Buchung eines Kontos angelegt. Mit 5 Eimern belegt ein Konto 72 Byte,
+ * 20 Millionen Konten mit Abgängen im Fenster also knapp 1,5 GB; Konten ohne Abgang belegen nichts.
+ * Eine Buchung zählt mindestens (anzahlEimer - 1) / anzahlEimer der Fensterdauer und höchstens die volle
+ * Fensterdauer mit.
+ * <p>
+ * Die Klasse ist unveränderlich; die Zähler eines Kontos müssen vom Konto vor gleichzeitigem Zugriff geschützt
+ * werden.
+ */
+public class Geschwindigkeitslimit {
+    /**
+     * kein Limit für die Anzahl bzw. den Betrag
+     */
+    public static final int UNBEGRENZT = -1;
+
+    /**
+     * Reservierung eines Abgangs, der das Limit überschreiten würde
+     */
+    public static final long ABGELEHNT = -1;
+
+    /**
+     * Reservierung eines Abgangs, der nicht gezählt wird, weil für das Konto kein Limit gilt
+     */
+    public static final long NICHT_GEZAEHLT = -2;
+
+    private static final int BETRAG_BITS = 44;
+    private static final long BETRAG_MASKE = (1L << BETRAG_BITS) - 1;
+    private static final long EINE_BUCHUNG = 1L << BETRAG_BITS;
+    private static final int MAX_ANZAHL = (1 << (Long.SIZE - BETRAG_BITS)) - 1;
+
+    /**
+     * Platz des Abschnitts der letzten Buchung in den Zählern
+     */
+    private static final int ABSCHNITT = 0;
+    /**
+     * Platz der Summe über alle Eimer in den Zählern
+     */
+    private static final int SUMME = 1;
+    /**
+     * Platz des ersten Eimers in den Zählern
+     */
+    private static final int EIMER = 2;
+
+    private final long eimerDauer;
+    private final int anzahlEimer;
+    private final long maxAnzahl;
+    private final long maxBetragInCent;
+
+    /**
+     * liefert die aktuelle Zeit in Millisekunden
+     */
+    private final LongSupplier uhr;
+
+    /**
+     * erstellt ein Limit für das angegebene Fenster
+     *
+     * @param fenster         die Länge des gleitenden Zeitfensters
+     * @param anzahlEimer     in wie viele Zeitabschnitte das Fenster aufgeteilt wird
+     * @param maxAnzahl       höchste Anzahl von Abgängen im Fenster oder {@link #UNBEGRENZT}
+     * @param maxBetragInEuro höchste Summe der Abgänge im Fenster in Euro oder {@link #UNBEGRENZT}
+     * @throws IllegalArgumentException wenn fenster nicht positiv, anzahlEimer kleiner als 1, maxAnzahl größer als
+     *                                  1.048.575 oder ein Maximum negativ, NaN oder unendlich ist
+     */
+    public Geschwindigkeitslimit(Duration fenster, int anzahlEimer, int maxAnzahl, double maxBetragInEuro) {
+        this(fenster, anzahlEimer, maxAnzahl, maxBetragInEuro, System::currentTimeMillis);
+    }
+
+    /**
+     * erstellt ein Limit für das angegebene Fenster mit der angegebenen Zeitquelle
+     *
+     * @param fenster         die Länge des gleitenden Zeitfensters
+     * @param anzahlEimer     in wie viele Zeitabschnitte das Fenster aufgeteilt wird
+     * @param maxAnzahl       höchste Anzahl von Abgängen im Fenster oder {@link #UNBEGRENZT}
+     * @param maxBetragInEuro höchste Summe der Abgänge im Fenster in Euro oder {@link #UNBEGRENZT}
+     * @param uhr             liefert die aktuelle Zeit in Millisekunden
+     */
+    Geschwindigkeitslimit(Duration fenster, int anzahlEimer, int maxAnzahl, double maxBetragInEuro,
+                          LongSupplier uhr) {
+        if (fenster == null || anzahlEimer < 1 || fenster.toMillis() < anzahlEimer)
+            throw new IllegalArgumentException("Fenster und Anzahl der Eimer müssen positiv sein");
+        if (maxAnzahl < UNBEGRENZT || maxAnzahl > MAX_ANZAHL)
+            throw new IllegalArgumentException("Anzahl ist nicht gültig");
+        if (maxBetragInEuro != UNBEGRENZT && (maxBetragInEuro < 0 || Double.isNaN(maxBetragInEuro)
+                || Double.isInfinite(maxBetragInEuro) || inCent(maxBetragInEuro) > BETRAG_MASKE))
+            throw new IllegalArgumentException("Betrag ist nicht gültig");
+        this.eimerDauer = fenster.toMillis() / anzahlEimer;
+        this.anzahlEimer = anzahlEimer;
+        this.maxAnzahl = maxAnzahl == UNBEGRENZT ? MAX_ANZAHL : maxAnzahl;
+        this.maxBetragInCent = maxBetragInEuro == UNBEGRENZT ? BETRAG_MASKE : inCent(maxBetragInEuro);
+        this.uhr = uhr;
+    }
+
+    /**
+     * legt leere Zähler für ein Konto an
+     *
+     * @return die Zähler
+     */
+    long[] zaehlerAnlegen() {
+        long[] zaehler = new long[EIMER + anzahlEimer];
+        zaehler[ABSCHNITT] = Long.MIN_VALUE;
+        return zaehler;
+    }
+
+    /**
+     * zählt einen Abgang über den Betrag, sofern er noch im Limit liegt. Prüfen und Zählen sind ein Schritt,
+     * so dass gleichzeitige Abgänge das Limit nicht gemeinsam überschreiten können. Wird der Abgang danach
+     * doch nicht gebucht, muss die Reservierung mit {@link #freigeben(long[], long, double)} zurückgegeben
+     * werden.
+     *
+     * @param zaehler      die Zähler des Kontos
+     * @param betragInEuro der Betrag des Abgangs
+     * @return die Reservierung, d.h. der Abschnitt, in dem der Abgang gezählt wurde, oder {@link #ABGELEHNT},
+     * wenn Anzahl oder Summe im Fenster einschließlich dieses Abgangs über dem Limit lägen
+     */
+    long reservieren(long[] zaehler, double betragInEuro) {
+        long abschnitt = uhr.getAsLong() / eimerDauer;
+        weiterruecken(zaehler, abschnitt);
+        long summe = zaehler[SUMME];
+        long cent = inCent(betragInEuro);
+        if ((summe >>> BETRAG_BITS) >= maxAnzahl || cent > maxBetragInCent - (summe & BETRAG_MASKE))
+            return ABGELEHNT;
+        long buchung = EINE_BUCHUNG | cent;
+        zaehler[EIMER + (int) (abschnitt % anzahlEimer)] += buchung;
+        zaehler[SUMME] += buchung;
+        return abschnitt;
+    }
+
+    /**
+     * gibt die Reservierung eines nicht gebuchten Abgangs zurück. Ist ihr Abschnitt bereits aus dem Fenster
+     * gelaufen, zählt sie ohnehin nicht mehr mit.
+     *
+     * @param zaehler      die Zähler des Kontos
+     * @param reservierung die Reservierung aus {@link #reservieren(long[], double)}
+     * @param betragInEuro der Betrag des Abgangs
+     */
+    void freigeben(long[] zaehler, long reservierung, double betragInEuro) {
+        if (reservierung < 0 || reservierung <= zaehler[ABSCHNITT] - anzahlEimer
+                || reservierung > zaehler[ABSCHNITT])
+            return;
+        int platz = EIMER + (int) (reservierung % anzahlEimer);
+        long eimer = zaehler[platz];
+        if (eimer >>> BETRAG_BITS == 0)
+            return;
+        long buchung = EINE_BUCHUNG | Math.min(inCent(betragInEuro), eimer & BETRAG_MASKE);
+        zaehler[platz] -= buchung;
+        zaehler[SUMME] -= buchung;
+    }
+
+    /**
+     * leert die Eimer der Abschnitte, die seit der letzten Buchung aus dem Fenster gelaufen sind,
+     * höchstens einmal rundherum
+     */
+    private void weiterruecken(long[] zaehler, long abschnitt) {
+        long letzter = zaehler[ABSCHNITT];
+        if (abschnitt <= letzter)
+            return;
+        long erster = Math.max(letzter + 1, abschnitt - anzahlEimer + 1);
+        for (long a = erster; a <= abschnitt; a++) {
+            int platz = EIMER + (int) (a % anzahlEimer);
+            zaehler[SUMME] -= zaehler[platz];
+            zaehler[platz] = 0;
+        }
+        zaehler[ABSCHNITT] = abschnitt;
+    }
+
+    /**
+     * liefert die Länge des Fensters
+     *
+     * @return das Fenster
+     */
+    public Duration getFenster() {
+        return Duration.ofMillis(eimerDauer * anzahlEimer);
+    }
+
+    /**
+     * liefert die höchste Anzahl von Abgängen im Fenster
+     *
+     * @return die Anzahl oder {@link #UNBEGRENZT}
+     */
+    public int getMaxAnzahl() {
+        return maxAnzahl == MAX_ANZAHL ? UNBEGRENZT : (int) maxAnzahl;
+    }
+
+    /**
+     * liefert die höchste Summe der Abgänge im Fenster
+     *
+     * @return der Betrag in Euro oder {@link #UNBEGRENZT}
+     */
+    public double getMaxBetragInEuro() {
+        return maxBetragInCent == BETRAG_MASKE ? UNBEGRENZT : maxBetragInCent / 100.0;
+    }
+
+    private static long inCent(double betrag) {
+        return Math.round(betrag * 100);
+    }
+}
@@ -1,5 +1,9 @@
 package bankprojekt.verarbeitung;
 
+import formatierung.Formatpuffer;
+
+import java.util.concurrent.locks.Lock;
+
 /**
  * Ein Girokonto, d.h. ein Konto mit einem Dispo und der Fähigkeit,
  * Überweisungen zu senden und zu empfangen.
@@ -49,18 +53,30 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig {
             throw new GesperrtException(this.getKontonummer());
         if (betrag < 0 || Double.isNaN(betrag) || Double.isInfinite(betrag) || empfaenger == null || verwendungszweck == null)
             throw new IllegalArgumentException("Parameter fehlerhaft");
-        if (getKontostand() - betrag >= -dispo) {
-            setKontostand(getKontostand() - betrag);
-            return true;
-        } else
-            return false;
+        Lock sperre = getBuchungssperre();
+        sperre.lock();
+        try {
+            if (getKontostand() - betrag >= -dispo) {
+                setKontostand(getKontostand() - betrag);
+                return true;
+            } else
+                return false;
+        } finally {
+            sperre.unlock();
+        }
     }
 
     @Override
     public void ueberweisungEmpfangen(double betrag, String vonName, long vonKontonr, long vonBlz, String verwendungszweck) {
         if (betrag < 0 || Double.isNaN(betrag) || Double.isInfinite(betrag) || vonName == null || verwendungszweck == null)
             throw new IllegalArgumentException("Parameter fehlerhaft");
-        setKontostand(getKontostand() + betrag);
+        Lock sperre = getBuchungssperre();
+        sperre.lock();
+        try {
+            setKontostand(getKontostand() + betrag);
+        } finally {
+            sperre.unlock();
+        }
     }
 
     @Override
@@ -81,13 +97,24 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig {
 
     @Override
     public void waehrungswechsel(Waehrung neu) {
-        double kontoInEuro = getAktuelleWaehrung().waehrungInEuroUmrechnen(getKontostand());
-        double dispoInEuro = getAktuelleWaehrung().waehrungInEuroUmrechnen(getDispo());
-
-        setKontostand(neu.euroInWaehrungUmrechnen(kontoInEuro));
-        setDispo(neu.euroInWaehrungUmrechnen(dispoInEuro));
+        Lock sperre = getBuchungssperre();
+        sperre.lock();
+        try {
+            double kontoInEuro = getAktuelleWaehrung().waehrungInEuroUmrechnen(getKontostand());
+            double dispoInEuro = getAktuelleWaehrung().waehrungInEuroUmrechnen(getDispo());
+
+            setKontostand(neu.euroInWaehrungUmrechnen(kontoInEuro));
+            setDispo(neu.euroInWaehrungUmrechnen(dispoInEuro));
+
+            super.waehrungswechsel(neu);
+        } finally {
+            sperre.unlock();
+        }
+    }
 
-        super.waehrungswechsel(neu);
+    @Override
+    protected void weitereBetraegeUmrechnen(double kurs) {
+        this.dispo = Waehrung.mitKursUmrechnen(this.dispo, kurs);
     }
 
     /**
@@ -112,10 +139,16 @@ public class Girokonto extends Konto implements Ueberweisungsfaehig {
     }
 
     @Override
-    public String toString() {
-        return "-- GIROKONTO --" + System.lineSeparator() +
-                super.toString()
-                + "Dispo: " + this.dispo + " " + getAktuelleWaehrung() + System.lineSeparator();
+    public Kontoart getKontoart() {
+        return Kontoart.GIROKONTO;
+    }
+
+    @Override
+    public Formatpuffer formatieren(Formatpuffer puffer) {
+        puffer.append("-- GIROKONTO --").zeilenende();
+        super.formatieren(puffer);
+        return puffer.append("Dispo: ").append(this.dispo).append(' ').append(getAktuelleWaehrung().name())
+                .zeilenende();
     }
 
 }
@@ -8,7 +8,7 @@ public class GirokontoFabrik extends Kontofabrik{
      * The DEFAULT_DISPO variable represents the default value for the Disposition
      * The initial value is 500.
      */
-    private static final int DEFAULT_DISPO = 500;
+    public static final int DEFAULT_DISPO = 500;
 
     @Override
     public Konto erstellenKonto(Kunde inhaber, long kontoNr) {
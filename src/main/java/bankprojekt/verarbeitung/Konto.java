@@ -1,6 +1,10 @@
 package bankprojekt.verarbeitung;
 
+import bankprojekt.jfr.AbhebungEvent;
+import bankprojekt.jfr.OrderausfuehrungEvent;
+import bankprojekt.metriken.Kontoaggregate;
 import com.google.common.primitives.Doubles;
+import formatierung.Formatpuffer;
 import javafx.beans.property.ReadOnlyBooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanWrapper;
 import javafx.beans.property.ReadOnlyDoubleProperty;
@@ -12,16 +16,18 @@ import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
 
 /**
  * stellt ein allgemeines Bank-Konto dar
  */
-public abstract class Konto implements Comparable<Konto>, Serializable {
+public abstract class Konto implements Comparable<Konto>, Serializable, Buchbar {
     /**
      * der Kontoinhaber
      */
@@ -58,11 +64,31 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
      */
     private int aktienStueckzahl;
 
+    /**
+     * die Historie der Kontostände; wird nicht mit dem Konto serialisiert oder geklont
+     */
+    private final transient Buchungsjournal journal = new Buchungsjournal();
+
     /**
      * Represents a lock that can be used for synchronizing access to a specific section of code.
      */
     private final transient Lock lock = new ReentrantLock();
 
+    /**
+     * die Aggregate der Bank, die über Änderungen dieses Kontos informiert werden, null wenn keine
+     */
+    private transient volatile Kontoaggregate aggregate;
+
+    /**
+     * das Limit für Abgänge in einem Zeitfenster oder null, wenn keines gilt
+     */
+    private transient volatile Geschwindigkeitslimit limit;
+
+    /**
+     * die Zähler der Abgänge für das Limit, werden bei der ersten Buchung angelegt
+     */
+    private transient long[] limitzaehler;
+
 
     /**
      * This variable represents a map that stores the stock portfolio of a user.
@@ -127,6 +153,10 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
     /**
      * Führt einen Kaufauftrag für eine bestimmte Aktie aus, indem der Kontostand des Kontos überprüft wird
      * und entsprechend Aktien gekauft werden. Gibt den Gesamtpreis der gekauften Aktien zurück.
+     * <p>
+     * Der Auftrag wartet als Abonnement bei der Aktie, bis der Kurs den Höchstpreis erreicht oder
+     * unterschreitet, und wird dann zu diesem Kurs auf dem Order-Thread ausgeführt. Wird das Ergebnis
+     * vorher abgebrochen, wird auch das Abonnement gekündigt.
      *
      * @param a            die Aktie, die gekauft werden soll
      * @param anzahl       die Anzahl der zu kaufenden Aktien
@@ -134,94 +164,191 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
      * @return Gesamtpreis der gekauften Aktien
      */
     public Future<Double> kaufauftrag(Aktie a, int anzahl, double hoechstpreis) {
-        return executorService.submit(() -> {
-            while (true) {
-                double kurs;
-                lock.lock();
-                try {
-                    kurs = a.getKurs();
-                } finally {
-                    lock.unlock();
-                }
-
-                if (kurs <= hoechstpreis) {
-                    double kontostandTemp;
-
-                    lock.lock();
-                    try {
-                        kontostandTemp = getKontostand();
-                    } finally {
-                        lock.unlock();
-                    }
-
-                    if (kontostandTemp >= kurs * anzahl) {
-                        lock.lock();
-                        try {
-                            this.setKontostand(kontostandTemp - anzahl * kurs);
-                            setAktienStueckzahl(getAktienStueckzahl() + anzahl);
-                            depotMap.put(a.getWertpapierkennummer(), new AbstractMap.SimpleEntry<>(a, anzahl));
-                        } finally {
-                            lock.unlock();
-                        }
-                        return anzahl * kurs;
-                    } else {
-                        return 0.0;
-                    }
-                }
+        OrderausfuehrungEvent ereignis = new OrderausfuehrungEvent();
+        ereignis.begin();
+        CompletableFuture<Double> ergebnis = new CompletableFuture<>();
+        Kursabonnement abonnement = a.abonnierenUnter(hoechstpreis, (aktie, kurs) ->
+                ausfuehren(ergebnis, () -> kaufen(aktie, anzahl, kurs, ereignis)));
+        ergebnis.whenComplete((preis, fehler) -> abonnement.kuendigen());
+        return ergebnis;
+    }
+
+    /**
+     * kauft anzahl Aktien zum angegebenen Kurs, wenn der Kontostand reicht. Prüfung, Abbuchung und Depot
+     * werden gemeinsam unter der Sperre des Kontos geändert; die Aktien kommen zu einem vorhandenen Bestand hinzu.
+     *
+     * @return Gesamtpreis der gekauften Aktien oder 0, wenn der Kontostand nicht reicht
+     */
+    private double kaufen(Aktie a, int anzahl, double kurs, OrderausfuehrungEvent ereignis) {
+        boolean gekauft;
+        lock.lock();
+        try {
+            gekauft = getKontostand() >= kurs * anzahl;
+            if (gekauft) {
+                this.setKontostand(getKontostand() - anzahl * kurs);
+                depotAendern(a, anzahl);
             }
-        });
+        } finally {
+            lock.unlock();
+        }
+
+        if (gekauft) {
+            ereignis.abschliessen(nummer, String.valueOf(a.getWertpapierkennummer()), true, anzahl, kurs,
+                    anzahl * kurs);
+            return anzahl * kurs;
+        } else {
+            ereignis.abschliessen(nummer, String.valueOf(a.getWertpapierkennummer()), true, 0, kurs, 0);
+            return 0.0;
+        }
     }
 
     /**
      * Führt einen Verkaufsauftrag für eine bestimmte Aktie aus, indem der Kontostand des Kontos überprüft wird
      * und entsprechend Aktien verkauft werden. Gibt den Gesamtpreis der verkauften Aktien zurück.
+     * <p>
+     * Der Auftrag wartet als Abonnement bei der Aktie, bis der Kurs den Minimalpreis erreicht oder
+     * überschreitet, und wird dann zu diesem Kurs auf dem Order-Thread ausgeführt.
      *
      * @param wkn          die Wertpapierkennnummer der Aktie, die verkauft werden soll
      * @param minimalpreis der Minimalpreis pro Aktie, zu dem der Verkauf erfolgt
-     * @return Gesamtpreis der verkauften Aktien
+     * @return Gesamtpreis der verkauften Aktien, 0 wenn die Aktie nicht im Depot ist
      */
     public Future<Double> verkaufauftrag(String wkn, double minimalpreis) {
-        return executorService.submit(() -> {
-            Aktie a;
-            AbstractMap.SimpleEntry<Aktie, Integer> aktieIntegerSimpleEntry;
-            lock.lock();
-            try {
-                a = getAktieMitWkn(wkn);
-                if (a == null) {
-                    executorService.shutdownNow();
-                    return 0.0;
-                }
-                aktieIntegerSimpleEntry = depotMap.get(Integer.parseInt(wkn));
+        OrderausfuehrungEvent ereignis = new OrderausfuehrungEvent();
+        ereignis.begin();
+        Aktie a;
+        lock.lock();
+        try {
+            a = getAktieMitWkn(wkn);
+        } finally {
+            lock.unlock();
+        }
+        if (a == null)
+            return CompletableFuture.completedFuture(0.0);
 
-            } finally {
-                lock.unlock();
-            }
+        CompletableFuture<Double> ergebnis = new CompletableFuture<>();
+        Kursabonnement abonnement = a.abonnierenUeber(minimalpreis, (aktie, kurs) ->
+                ausfuehren(ergebnis, () -> verkaufen(wkn, kurs, ereignis)));
+        ergebnis.whenComplete((preis, fehler) -> abonnement.kuendigen());
+        return ergebnis;
+    }
+
+    /**
+     * verkauft alle Aktien mit der Wertpapierkennnummer zum angegebenen Kurs
+     *
+     * @return Gesamtpreis der verkauften Aktien
+     */
+    private double verkaufen(String wkn, double kurs, OrderausfuehrungEvent ereignis) {
+        int aktienStueckzahlTemp;
+        lock.lock();
+        try {
+            aktienStueckzahlTemp = getNumberOfAktien(wkn);
+            if (aktienStueckzahlTemp < 0)
+                return 0.0;
+            this.setKontostand(this.getKontostand() + kurs * aktienStueckzahlTemp);
+            setAktienStueckzahl(getAktienStueckzahl() - aktienStueckzahlTemp);
+            depotMap.remove(Integer.parseInt(wkn));
+        } finally {
+            lock.unlock();
+        }
+        ereignis.abschliessen(nummer, wkn, false, aktienStueckzahlTemp, kurs,
+                kurs * aktienStueckzahlTemp);
+        return kurs * aktienStueckzahlTemp;
+    }
 
-            while (true) {
-                double kurs;
-                lock.lock();
-                try {
-                    kurs = a.getKurs();
-                } finally {
-                    lock.unlock();
-                }
-                if (kurs >= minimalpreis) {
-                    int aktienStueckzahlTemp;
-                    lock.lock();
-                    try {
-                        aktienStueckzahlTemp = getNumberOfAktien(wkn);
-                        this.setKontostand(this.getKontostand() + kurs * aktienStueckzahlTemp);
-                        setAktienStueckzahl(getAktienStueckzahl() - aktieIntegerSimpleEntry.getValue());
-                        depotMap.remove(Integer.parseInt(wkn));
-                    } finally {
-                        lock.unlock();
-                    }
-                    return kurs * aktienStueckzahlTemp;
-                }
+    /**
+     * führt eine ausgelöste Order auf dem Order-Thread aus, sofern ihr Ergebnis nicht inzwischen abgebrochen wurde
+     */
+    private static void ausfuehren(CompletableFuture<Double> ergebnis, DoubleSupplier order) {
+        executorService.execute(() -> {
+            if (ergebnis.isDone())
+                return;
+            try {
+                ergebnis.complete(order.getAsDouble());
+            } catch (RuntimeException e) {
+                ergebnis.completeExceptionally(e);
             }
         });
     }
 
+    /**
+     * Überträgt anzahl Aktien vom Depot des Verkäufers in das Depot des Käufers und den Kaufpreis vom Konto
+     * des Käufers auf das Konto des Verkäufers. Beide Konten werden dafür in der Reihenfolge ihrer
+     * Kontonummern gesperrt, so dass der Handel entweder ganz oder gar nicht stattfindet und sich zwei
+     * gleichzeitige Abschlüsse nicht verklemmen. Wie beim {@link #kaufauftrag(Aktie, int, double)} muss der
+     * Kaufpreis durch den Kontostand gedeckt sein. Der Preis gilt in Euro und wird für jedes Konto in dessen
+     * Währung umgerechnet, so dass auch zwischen Konten verschiedener Währungen kein Geld entsteht oder
+     * verloren geht.
+     *
+     * @param kaeufer    das Konto des Käufers
+     * @param verkaeufer das Konto des Verkäufers
+     * @param aktie      die gehandelte Aktie
+     * @param anzahl     die Stückzahl
+     * @param preis      der Preis je Aktie in Euro
+     * @return ERFOLGREICH; GESPERRT, wenn eines der Konten gesperrt ist; NICHT_GEDECKT, wenn der Käufer den
+     * Kaufpreis nicht bezahlen kann; DEPOT_NICHT_GEDECKT, wenn der Verkäufer nicht genug Aktien hat;
+     * UNGUELTIGER_BETRAG, wenn anzahl oder preis nicht positiv ist
+     */
+    public static Buchungsstatus aktienHandeln(Konto kaeufer, Konto verkaeufer, Aktie aktie, int anzahl,
+                                               double preis) {
+        if (anzahl <= 0 || !(preis > 0) || !Doubles.isFinite(preis))
+            return Buchungsstatus.UNGUELTIGER_BETRAG;
+        Konto erstes = kaeufer.nummer <= verkaeufer.nummer ? kaeufer : verkaeufer;
+        Konto zweites = erstes == kaeufer ? verkaeufer : kaeufer;
+        erstes.lock.lock();
+        zweites.lock.lock();
+        try {
+            if (kaeufer.isGesperrt() || verkaeufer.isGesperrt())
+                return Buchungsstatus.GESPERRT;
+            double betragInEuro = anzahl * preis;
+            double zahlung = kaeufer.getAktuelleWaehrung().euroInWaehrungUmrechnen(betragInEuro);
+            double erloes = verkaeufer.getAktuelleWaehrung().euroInWaehrungUmrechnen(betragInEuro);
+            Buchungsstatus status = Buchungsstatus.ERFOLGREICH;
+            if (kaeufer.getKontostand() < zahlung)
+                status = Buchungsstatus.NICHT_GEDECKT;
+            else if (verkaeufer.getAktienImDepot(aktie.getWertpapierkennummer()) < anzahl)
+                status = Buchungsstatus.DEPOT_NICHT_GEDECKT;
+            if (status != Buchungsstatus.ERFOLGREICH || kaeufer == verkaeufer)
+                return status;
+            kaeufer.setKontostand(kaeufer.getKontostand() - zahlung);
+            verkaeufer.setKontostand(verkaeufer.getKontostand() + erloes);
+            verkaeufer.depotAendern(aktie, -anzahl);
+            kaeufer.depotAendern(aktie, anzahl);
+            return status;
+        } finally {
+            zweites.lock.unlock();
+            erstes.lock.unlock();
+        }
+    }
+
+    /**
+     * liefert die Anzahl der Aktien mit der Wertpapierkennnummer im Depot
+     *
+     * @param wkn die Wertpapierkennnummer
+     * @return die Anzahl der Aktien, 0 wenn keine im Depot sind
+     */
+    public int getAktienImDepot(int wkn) {
+        lock.lock();
+        try {
+            AbstractMap.SimpleEntry<Aktie, Integer> eintrag = depotMap.get(wkn);
+            return eintrag == null ? 0 : eintrag.getValue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * ändert die Anzahl der Aktien im Depot um differenz und entfernt den Eintrag, wenn keine mehr übrig sind
+     */
+    private void depotAendern(Aktie aktie, int differenz) {
+        int neu = getAktienImDepot(aktie.getWertpapierkennummer()) + differenz;
+        if (neu == 0)
+            depotMap.remove(aktie.getWertpapierkennummer());
+        else
+            depotMap.put(aktie.getWertpapierkennummer(), new AbstractMap.SimpleEntry<>(aktie, neu));
+        setAktienStueckzahl(getAktienStueckzahl() + differenz);
+    }
+
     /**
      * Gibt eine Aktie mit der angegebenen Wertpapierkennnummer zurück.
      *
@@ -268,7 +395,7 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
     }
 
     /**
-     * Erhöht den Kontostand um den eingezahlten Betrag.
+     * Erhöht den Kontostand um den eingezahlten Betrag. Die Buchung erfolgt unter der Sperre des Kontos.
      *
      * @param betrag double
      * @throws IllegalArgumentException wenn der betrag negativ ist
@@ -277,7 +404,12 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
         if (betrag < 0 || !Doubles.isFinite(betrag)) {
             throw new IllegalArgumentException("Falscher Betrag");
         }
-        setKontostand(getKontostand() + betrag);
+        lock.lock();
+        try {
+            setKontostand(getKontostand() + betrag);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -301,15 +433,113 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
      * @throws IllegalArgumentException wenn der Betrag ungültig ist
      */
     public final boolean abheben(double betrag) throws GesperrtException {
-        if (betrag < 0 || Double.isNaN(betrag) || Double.isInfinite(betrag)) {
+        Buchungsstatus status = abhebenStatus(betrag);
+        if (status == Buchungsstatus.UNGUELTIGER_BETRAG)
             throw new IllegalArgumentException("Betrag ungültig");
-        }
-        if (this.isGesperrt())
+        if (status == Buchungsstatus.GESPERRT)
             throw new GesperrtException(this.getKontonummer());
-        if (validateBetrag(betrag)) {
-            return executeAbheben(betrag);
-        } else
-            return false;
+        return status.isErfolgreich();
+    }
+
+    /**
+     * Versucht den angegebenen Betrag vom Konto abzuheben, ohne im Fehlerfall eine Exception zu erzeugen.
+     * Prüfung und Buchung erfolgen gemeinsam unter der Sperre des Kontos, wie bei
+     * {@link #einzahlen(double)} und {@link #waehrungUmstellen(Waehrung, Waehrung, double)}.
+     *
+     * @param betrag der abzuhebende Betrag
+     * @return ERFOLGREICH, UNGUELTIGER_BETRAG, GESPERRT, LIMIT_UEBERSCHRITTEN oder NICHT_GEDECKT
+     */
+    public final Buchungsstatus abhebenStatus(double betrag) {
+        AbhebungEvent ereignis = new AbhebungEvent();
+        ereignis.begin();
+        Buchungsstatus status = abhebenPruefen(betrag);
+        ereignis.abschliessen(nummer, betrag, status);
+        return status;
+    }
+
+    private Buchungsstatus abhebenPruefen(double betrag) {
+        if (betrag < 0 || Double.isNaN(betrag) || Double.isInfinite(betrag))
+            return Buchungsstatus.UNGUELTIGER_BETRAG;
+        lock.lock();
+        try {
+            if (this.isGesperrt())
+                return Buchungsstatus.GESPERRT;
+            long reservierung = limitReservieren(betrag);
+            if (reservierung == Geschwindigkeitslimit.ABGELEHNT)
+                return Buchungsstatus.LIMIT_UEBERSCHRITTEN;
+            boolean gebucht = false;
+            try {
+                gebucht = validateBetrag(betrag) && executeAbheben(betrag);
+            } finally {
+                if (!gebucht)
+                    limitFreigeben(reservierung, betrag);
+            }
+            return gebucht ? Buchungsstatus.ERFOLGREICH : Buchungsstatus.NICHT_GEDECKT;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * zählt einen Abgang über den Betrag für das {@link Geschwindigkeitslimit} des Kontos, sofern er noch im
+     * Limit liegt. Prüfung und Zählung erfolgen unter einer Sperre, gleichzeitige Abgänge können das Limit also
+     * nicht gemeinsam überschreiten. Scheitert die anschließende Buchung, muss die Reservierung mit
+     * {@link #limitFreigeben(long, double)} zurückgegeben werden.
+     *
+     * @param betrag der Betrag in Kontowährung
+     * @return die Reservierung, {@link Geschwindigkeitslimit#NICHT_GEZAEHLT}, wenn kein Limit gilt, oder
+     * {@link Geschwindigkeitslimit#ABGELEHNT}, wenn der Abgang das Limit überschreiten würde
+     */
+    public final long limitReservieren(double betrag) {
+        if (limit == null || !(betrag > 0))
+            return Geschwindigkeitslimit.NICHT_GEZAEHLT;
+        double betragInEuro = betrag / getAktuelleWaehrung().getUmrechnungskurs();
+        lock.lock();
+        try {
+            Geschwindigkeitslimit l = limit;
+            if (l == null)
+                return Geschwindigkeitslimit.NICHT_GEZAEHLT;
+            if (limitzaehler == null)
+                limitzaehler = l.zaehlerAnlegen();
+            return l.reservieren(limitzaehler, betragInEuro);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * gibt die Reservierung eines Abgangs zurück, der nicht gebucht wurde
+     *
+     * @param reservierung die Reservierung aus {@link #limitReservieren(double)}
+     * @param betrag       der Betrag in Kontowährung
+     */
+    public final void limitFreigeben(long reservierung, double betrag) {
+        if (reservierung < 0)
+            return;
+        double betragInEuro = betrag / getAktuelleWaehrung().getUmrechnungskurs();
+        lock.lock();
+        try {
+            Geschwindigkeitslimit l = limit;
+            if (l != null && limitzaehler != null)
+                l.freigeben(limitzaehler, reservierung, betragInEuro);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * setzt das Limit für Abgänge in einem Zeitfenster; die bisher gezählten Abgänge werden vergessen
+     *
+     * @param neu das Limit oder null, wenn keines gelten soll
+     */
+    public void limitSetzen(Geschwindigkeitslimit neu) {
+        lock.lock();
+        try {
+            limit = neu;
+            limitzaehler = null;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -367,24 +597,143 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
      * @param neu The new currency to be set.
      */
     public void waehrungswechsel(Waehrung neu) {
-        Waehrung old = this.w;
-        this.w = neu;
-        prop.firePropertyChange("waehrung", old, getAktuelleWaehrung());
+        lock.lock();
+        try {
+            Waehrung old = this.w;
+            this.w = neu;
+            Kontoaggregate a = aggregate;
+            if (a != null)
+                a.waehrungGeaendert(old, getKontostand(), neu, getKontostand());
+            journalEintragen();
+            prop.firePropertyChange("waehrung", old, getAktuelleWaehrung());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stellt das Konto mit einem vorab berechneten Kurs von der Währung alt auf die Währung neu um, sofern es
+     * noch in alt geführt wird. Jeder Betrag wird nur einmal umgerechnet und gerundet; an die angemeldeten
+     * Beobachter werden keine Ereignisse gesendet. Gedacht für die Umstellung vieler Konten auf einmal,
+     * ein wiederholter Aufruf ändert nichts. Die Oberfläche erfährt davon nicht über die Properties des Kontos,
+     * sondern über {@link bankprojekt.oberflaeche.Kontobruecke#umstellungVerfolgen}.
+     *
+     * @param alt  die bisherige Währung
+     * @param neu  die neue Währung
+     * @param kurs der Kurs von alt nach neu, siehe {@link Waehrung#kursNach(Waehrung)}
+     * @return true, wenn das Konto umgestellt wurde, false, wenn es nicht in alt geführt wird
+     */
+    public boolean waehrungUmstellen(Waehrung alt, Waehrung neu, double kurs) {
+        lock.lock();
+        try {
+            if (this.w != alt)
+                return false;
+            double alterStand = getKontostand();
+            double neuerStand = Waehrung.mitKursUmrechnen(alterStand, kurs);
+            Kontoaggregate a = aggregate;
+            if (a != null)
+                a.waehrungGeaendert(alt, alterStand, neu, neuerStand);
+            this.kontostand.set(neuerStand);
+            kontoImPlus.set(neuerStand >= 0);
+            weitereBetraegeUmrechnen(kurs);
+            this.w = neu;
+            journalEintragen();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * liefert die Sperre, unter der das Konto gebucht wird. Unterklassen, die den Kontostand selbst lesen und
+     * mit {@link #setKontostand(double)} ändern, tun das unter dieser Sperre.
+     *
+     * @return die Sperre des Kontos
+     */
+    protected final Lock getBuchungssperre() {
+        return lock;
+    }
+
+    /**
+     * rechnet bei {@link #waehrungUmstellen(Waehrung, Waehrung, double)} die Beträge der Unterklasse,
+     * die in der Kontowährung geführt werden, mit dem Kurs um
+     *
+     * @param kurs der Umrechnungskurs
+     */
+    protected void weitereBetraegeUmrechnen(double kurs) {
     }
 
     /**
      * Sets the kontostand (account balance) to the specified value, fires a property change.
+     * Runs under the account lock, so the aggregates see either the old or the new balance
+     * when they are attached by {@link #aggregateSetzen(Kontoaggregate)}, never both.
      *
      * @param kontostand the new kontostand to be set
      */
     protected void setKontostand(double kontostand) {
-        double oldKontoStand = this.kontostand.get();
-        this.kontostand.set(kontostand);
-        kontoImPlus.set(this.kontostand.get() >= 0);
-        prop.firePropertyChange("kontostand", oldKontoStand, getKontostand());
+        lock.lock();
+        try {
+            double oldKontoStand = this.kontostand.get();
+            Kontoaggregate a = aggregate;
+            if (a != null)
+                a.kontostandGeaendert(w, oldKontoStand, kontostand);
+            this.kontostand.set(kontostand);
+            journalEintragen();
+            kontoImPlus.set(this.kontostand.get() >= 0);
+            prop.firePropertyChange("kontostand", oldKontoStand, getKontostand());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * trägt Kontostand, Währung und Sperre mit der aktuellen Zeit ins Journal ein
+     */
+    private void journalEintragen() {
+        journal.eintragen(System.currentTimeMillis(), kontostand.get(), w, gesperrt.get());
     }
 
 
+    /**
+     * liefert die Historie der Kontostände
+     *
+     * @return das Journal des Kontos
+     */
+    public Buchungsjournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * meldet das Konto bei den Aggregaten einer Bank an, die ab jetzt jede Änderung von Kontostand, Währung
+     * und Sperre nachführen; bei bisherigen Aggregaten wird es mit seinem aktuellen Zustand abgemeldet
+     *
+     * @param neu die Aggregate oder null, um das Konto nur abzumelden
+     */
+    public void aggregateSetzen(Kontoaggregate neu) {
+        lock.lock();
+        try {
+            Kontoaggregate alt = aggregate;
+            if (alt == neu)
+                return;
+            if (alt != null)
+                alt.entfernen(this);
+            aggregate = neu;
+            if (neu != null)
+                neu.hinzufuegen(this);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * liefert die Kontoart
+     *
+     * @return die Kontoart oder null, wenn das Konto keiner der angebotenen Kontoarten entspricht
+     */
+    public Kontoart getKontoart() {
+        return null;
+    }
+
     /**
      * liefert den Kontoinhaber zurück
      *
@@ -410,7 +759,8 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
     }
 
     /**
-     * Retrieves the property describing the current balance.
+     * Retrieves the property describing the current balance. It changes on the thread that books the account;
+     * user interfaces should bind to a {@link bankprojekt.oberflaeche.Kontospiegel} instead.
      *
      * @return ReadOnlyDoubleProperty representing current balance.
      */
@@ -467,7 +817,16 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
      * Sets the "gesperrt" flag to true and fires a property change event.
      */
     public void sperren() {
-        this.gesperrt.set(true);
+        lock.lock();
+        try {
+            Kontoaggregate a = aggregate;
+            if (a != null && !this.gesperrt.get())
+                a.sperreGeaendert(true);
+            this.gesperrt.set(true);
+            journalEintragen();
+        } finally {
+            lock.unlock();
+        }
         prop.firePropertyChange("gesperrt", false, true);
     }
 
@@ -475,7 +834,16 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
      * Sets the "gesperrt" flag to false and fires a property change event.
      */
     public final void entsperren() {
-        this.gesperrt.set(false);
+        lock.lock();
+        try {
+            Kontoaggregate a = aggregate;
+            if (a != null && this.gesperrt.get())
+                a.sperreGeaendert(false);
+            this.gesperrt.set(false);
+            journalEintragen();
+        } finally {
+            lock.unlock();
+        }
         prop.firePropertyChange("entsperren", true, false);
     }
 
@@ -485,7 +853,17 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
      * @return auf 10 Stellen formatierte Kontonummer
      */
     public String getKontonummerFormatiert() {
-        return String.format("%10d", this.nummer);
+        return kontonummerFormatieren(Formatpuffer.fuerDiesenThread()).toString();
+    }
+
+    /**
+     * schreibt die auf 10 Stellen formatierte Kontonummer in den Puffer
+     *
+     * @param puffer der Puffer
+     * @return der Puffer
+     */
+    public Formatpuffer kontonummerFormatieren(Formatpuffer puffer) {
+        return puffer.ganzzahl(this.nummer, 10);
     }
 
     /**
@@ -494,7 +872,17 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
      * @return formatierter Kontostand mit 2 Nachkommastellen und Währungssymbol
      */
     public String getKontostandFormatiert() {
-        return String.format("%10.2f %s", this.getKontostand(), this.w);
+        return kontostandFormatieren(Formatpuffer.fuerDiesenThread()).toString();
+    }
+
+    /**
+     * schreibt den Kontostand mit 2 Nachkommastellen und Währungssymbol in den Puffer
+     *
+     * @param puffer der Puffer
+     * @return der Puffer
+     */
+    public Formatpuffer kontostandFormatieren(Formatpuffer puffer) {
+        return puffer.kommazahl(this.getKontostand(), 10, 2).append(' ').append(this.w.name());
     }
 
     /**
@@ -547,12 +935,22 @@ public abstract class Konto implements Comparable<Konto>, Serializable {
 
     @Override
     public String toString() {
-        String ausgabe;
-        ausgabe = "Kontonummer: " + this.getKontonummerFormatiert()
-                + System.lineSeparator();
-        ausgabe += "Inhaber: " + this.inhaber;
-        ausgabe += "Aktueller Kontostand: " + getKontostandFormatiert() + " ";
-        ausgabe += this.getGesperrtText() + System.lineSeparator();
-        return ausgabe;
+        return formatieren(Formatpuffer.fuerDiesenThread()).toString();
+    }
+
+    /**
+     * schreibt alle Daten des Kontos in den Puffer, wie sie {@link #toString()} liefert
+     *
+     * @param puffer der Puffer
+     * @return der Puffer
+     */
+    public Formatpuffer formatieren(Formatpuffer puffer) {
+        puffer.append("Kontonummer: ");
+        kontonummerFormatieren(puffer).zeilenende();
+        puffer.append("Inhaber: ");
+        this.inhaber.formatieren(puffer);
+        puffer.append("Aktueller Kontostand: ");
+        kontostandFormatieren(puffer).append(' ');
+        return puffer.append(this.getGesperrtText()).zeilenende();
     }
 }
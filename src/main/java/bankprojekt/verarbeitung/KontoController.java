@@ -1,17 +1,46 @@
 package bankprojekt.verarbeitung;
 
 import bankprojekt.oberflaeche.KontoOberflaeche;
+import bankprojekt.oberflaeche.Kontobruecke;
 import javafx.application.Application;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.concurrent.Task;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class KontoController extends Application {
     private Stage primaryStage;
     private Konto model;
     private KontoOberflaeche kontoUI;
+    /**
+     * überträgt Änderungen des Kontos einmal pro Bildaufbau auf die Oberfläche
+     */
+    private Kontobruecke bruecke;
     private Alert alert = new Alert(Alert.AlertType.ERROR);
+    /**
+     * führt die Buchungen nacheinander im Hintergrund aus, damit der FX-Thread nie blockiert
+     */
+    private final ExecutorService buchungen = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Buchungen");
+        t.setDaemon(true);
+        return t;
+    });
+    /**
+     * die noch nicht beendeten Buchungen, nur auf dem FX-Thread verwendet
+     */
+    private final Set<Buchungsauftrag> offen = new HashSet<>();
+    private final ReadOnlyBooleanWrapper beschaeftigt = new ReadOnlyBooleanWrapper();
 
     /**
      * Starts the application by creating a stage, setting up the necessary components, and displaying the stage.
@@ -24,20 +53,35 @@ public class KontoController extends Application {
         this.primaryStage = stage;
 
         model = new Girokonto(Kunde.MUSTERMANN, 512411251L, 1000, 0);
-        kontoUI = new KontoOberflaeche(model, this);
+        bruecke = new Kontobruecke();
+        kontoUI = new KontoOberflaeche(bruecke.spiegeln(model), this);
+        bruecke.start();
         Scene scene = new Scene(kontoUI, 500, 500);
         stage.setScene(scene);
         stage.show();
     }
 
     /**
-     * Changes the lock status of the account.
+     * Stops the background bookings and the bridge when the application is closed.
+     */
+    @Override
+    public void stop() {
+        buchungen.shutdownNow();
+        if (bruecke != null)
+            bruecke.stop();
+    }
+
+    /**
+     * Changes the lock status of the account in the background.
      *
      * @param selected true to lock the account, false to unlock the account
      */
     public void sperrenAendern(boolean selected) {
-        if (selected) model.sperren();
-        if (!selected) model.entsperren();
+        ausfuehren(() -> {
+            if (selected) model.sperren();
+            if (!selected) model.entsperren();
+            return true;
+        }, null, null);
     }
 
     /**
@@ -50,54 +94,139 @@ public class KontoController extends Application {
     }
 
     /**
-     * Deposits the specified amount into the account.
+     * Deposits the specified amount into the account in the background.
      *
      * @param betragText the text field containing the deposit amount
      */
     public void einzahlen(TextField betragText) {
-        if (model.isGesperrt()) {
-            alert.setTitle("Error");
-            alert.setHeaderText("Account is locked");
-            alert.setContentText("Cannot withdraw money from a locked account");
-            alert.showAndWait();
+        Double betrag = betragLesen(betragText);
+        if (betrag == null)
             return;
-        }
-        double betrag = Double.parseDouble(betragText.getText());
-        try {
+        ausfuehren(() -> {
+            if (model.isGesperrt())
+                throw new GesperrtException(model.getKontonummer());
             model.einzahlen(betrag);
-        } catch (IllegalArgumentException e) {
-            alert.setTitle("Error");
-            alert.setHeaderText("Illegal Value");
-            alert.setContentText("Cannot deposit a negative or zero value");
-            alert.showAndWait();
-        }
+            return true;
+        }, null, "Cannot deposit a negative or zero value");
     }
 
     /**
-     * Tries to withdraw the specified amount from the account.
+     * Tries to withdraw the specified amount from the account in the background.
      *
      * @param betragText the text field containing the withdrawal amount
      * */
     public void abheben(TextField betragText) {
-        double betrag = Double.parseDouble(betragText.getText());
+        Double betrag = betragLesen(betragText);
+        if (betrag == null)
+            return;
+        ausfuehren(() -> model.abheben(betrag), "The withdrawal amount exceeds the dispo limit.",
+                "Cannot withdraw a negative or zero value");
+    }
+
+    /**
+     * Cancels all bookings that have not started yet. A booking that is already running is completed.
+     */
+    public void abbrechen() {
+        for (Buchungsauftrag auftrag : new ArrayList<>(offen)) {
+            auftrag.abbrechen();
+        }
+    }
+
+    /**
+     * Returns whether bookings are pending or running.
+     *
+     * @return true while at least one booking has not finished
+     */
+    public ReadOnlyBooleanProperty beschaeftigtProperty() {
+        return beschaeftigt.getReadOnlyProperty();
+    }
+
+    /**
+     * liest den Betrag aus dem Textfeld und zeigt einen Fehler an, wenn er keine Zahl ist
+     *
+     * @return der Betrag oder null
+     */
+    private Double betragLesen(TextField betragText) {
         try {
-            boolean successfulWithdrawal = model.abheben(betrag);
-            if (!successfulWithdrawal) {
-                alert.setTitle("Error");
-                alert.setHeaderText("Withdrawal Error");
-                alert.setContentText("The withdrawal amount exceeds the dispo limit.");
-                alert.showAndWait();
-            }
-        } catch (GesperrtException e) {
-            alert.setTitle("Error");
-            alert.setHeaderText("Account is locked");
-            alert.setContentText("Cannot withdraw money from a locked account");
-            alert.showAndWait();
-        } catch (IllegalArgumentException e) {
-            alert.setTitle("Error");
-            alert.setHeaderText("Illegal Value");
-            alert.setContentText("Cannot withdraw a negative or zero value");
-            alert.showAndWait();
+            return Double.parseDouble(betragText.getText().strip().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            fehlerAnzeigen("Illegal Value", "Please enter a number");
+            return null;
+        }
+    }
+
+    /**
+     * führt die Buchung im Hintergrund aus und zeigt das Ergebnis danach auf dem FX-Thread an
+     *
+     * @param buchung   die Buchung, liefert false, wenn sie abgelehnt wurde
+     * @param abgelehnt die Meldung, wenn die Buchung abgelehnt wurde
+     * @param ungueltig die Meldung bei einem ungültigen Betrag
+     */
+    private void ausfuehren(Callable<Boolean> buchung, String abgelehnt, String ungueltig) {
+        Buchungsauftrag auftrag = new Buchungsauftrag(buchung);
+        auftrag.setOnSucceeded(e -> {
+            beenden(auftrag);
+            if (!auftrag.getValue())
+                fehlerAnzeigen("Withdrawal Error", abgelehnt);
+        });
+        auftrag.setOnFailed(e -> {
+            beenden(auftrag);
+            Throwable fehler = auftrag.getException();
+            if (fehler instanceof GesperrtException)
+                fehlerAnzeigen("Account is locked", "Cannot withdraw money from a locked account");
+            else if (fehler instanceof IllegalArgumentException)
+                fehlerAnzeigen("Illegal Value", ungueltig);
+            else
+                fehlerAnzeigen("Error", String.valueOf(fehler));
+        });
+        auftrag.setOnCancelled(e -> beenden(auftrag));
+        offen.add(auftrag);
+        beschaeftigt.set(true);
+        buchungen.execute(auftrag);
+    }
+
+    private void beenden(Buchungsauftrag auftrag) {
+        offen.remove(auftrag);
+        beschaeftigt.set(!offen.isEmpty());
+    }
+
+    /**
+     * zeigt den Fehler an, ohne auf das Schließen des Dialogs zu warten
+     */
+    private void fehlerAnzeigen(String ueberschrift, String text) {
+        alert.setTitle("Error");
+        alert.setHeaderText(ueberschrift);
+        alert.setContentText(text);
+        if (!alert.isShowing())
+            alert.show();
+    }
+
+    /**
+     * eine Buchung, die im Hintergrund ausgeführt wird und abgebrochen werden kann, solange sie nicht begonnen hat
+     */
+    private static class Buchungsauftrag extends Task<Boolean> {
+        private final Callable<Boolean> buchung;
+
+        /**
+         * wird von dem gesetzt, der zuerst kommt: dem ausführenden Thread oder {@link #abbrechen()}
+         */
+        private final AtomicBoolean begonnen = new AtomicBoolean();
+
+        Buchungsauftrag(Callable<Boolean> buchung) {
+            this.buchung = buchung;
+        }
+
+        @Override
+        protected Boolean call() throws Exception {
+            updateProgress(-1, 1);
+            if (!begonnen.compareAndSet(false, true))
+                return false;
+            return buchung.call();
+        }
+
+        void abbrechen() {
+            if (begonnen.compareAndSet(false, true))
+                cancel(false);
         }
     }
 }
@@ -0,0 +1,42 @@
+package bankprojekt.verarbeitung;
+
+/**
+ * Die Kerndaten eines Kontos, unabhängig davon, wie es gespeichert ist: als {@link Konto}-Objekt oder als
+ * Zeile einer {@link Kontotabelle}, die über einen {@link Kontozeiger} gelesen wird.
+ */
+public interface Kontoansicht {
+    /**
+     * liefert die Kontonummer
+     *
+     * @return die Kontonummer
+     */
+    long getKontonummer();
+
+    /**
+     * liefert den Kontostand
+     *
+     * @return der Kontostand in der Währung des Kontos
+     */
+    double getKontostand();
+
+    /**
+     * liefert die Währung, in der das Konto geführt wird
+     *
+     * @return die Währung
+     */
+    Waehrung getAktuelleWaehrung();
+
+    /**
+     * liefert zurück, ob das Konto gesperrt ist
+     *
+     * @return true, wenn das Konto gesperrt ist
+     */
+    boolean isGesperrt();
+
+    /**
+     * liefert die Kontoart
+     *
+     * @return die Kontoart oder null, wenn das Konto keiner der angebotenen Kontoarten entspricht
+     */
+    Kontoart getKontoart();
+}
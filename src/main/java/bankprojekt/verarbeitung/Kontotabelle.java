@@ -0,0 +1,291 @@
+package bankprojekt.verarbeitung;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Speichert die Kerndaten vieler Girokonten und Sparbücher außerhalb des Heaps, ohne ein Objekt pro Konto.
+ * <p>
+ * Die Konten liegen zeilenweise in Segmenten zu je {@link #SEGMENT_ZEILEN} Zeilen. Jedes Segment ist ein
+ * direkter {@link ByteBuffer}, in dem die Felder spaltenweise hintereinander stehen: erst alle Kontonummern,
+ * dann alle Kontostände usw. Eine Zeile belegt 39 Byte; 50 Millionen Konten brauchen also knapp 2 GB, die der
+ * Garbage Collector nie durchsuchen muss. Zu jeder Kontonummer findet ein Index aus zwei primitiven Arrays
+ * (offene Adressierung) die Zeile. Auf dem Heap liegen damit unabhängig von der Zahl der Konten nur eine
+ * Handvoll Objekte.
+ * <p>
+ * Gelesen und gebucht wird über einen {@link Kontozeiger}, der auf eine Zeile gesetzt und beliebig oft
+ * wiederverwendet wird. Gespeichert werden Kontonummer, Kontostand, Währung, Sperre, Kontoart, Dispo bzw.
+ * Zinssatz und beim Sparbuch die im laufenden Monat abgehobene Summe; Inhaber, Depot, Journal und Beobachter
+ * eines {@link Konto} gibt es in der Tabelle nicht.
+ * <p>
+ * Beim Löschen rückt die letzte Zeile an die Stelle der gelöschten, ein Zeiger muss danach neu gesetzt
+ * werden. Die Klasse ist nicht threadsicher.
+ */
+public class Kontotabelle {
+    /**
+     * Anzahl der Zeilen eines Segments
+     */
+    public static final int SEGMENT_ZEILEN = 1 << 16;
+    private static final int SEGMENT_BITS = 16;
+    static final int ZEILE_MASKE = SEGMENT_ZEILEN - 1;
+
+    /**
+     * Beginn der Spalten im Segment in Byte
+     */
+    static final int NUMMER = 0;
+    static final int KONTOSTAND = NUMMER + Long.BYTES * SEGMENT_ZEILEN;
+    static final int PARAMETER = KONTOSTAND + Double.BYTES * SEGMENT_ZEILEN;
+    static final int ABGEHOBEN = PARAMETER + Double.BYTES * SEGMENT_ZEILEN;
+    static final int MONAT = ABGEHOBEN + Double.BYTES * SEGMENT_ZEILEN;
+    static final int WAEHRUNG = MONAT + Integer.BYTES * SEGMENT_ZEILEN;
+    static final int ART = WAEHRUNG + SEGMENT_ZEILEN;
+    static final int GESPERRT = ART + SEGMENT_ZEILEN;
+    private static final int SEGMENT_GROESSE = GESPERRT + SEGMENT_ZEILEN;
+
+    static final Waehrung[] WAEHRUNGEN = Waehrung.values();
+    static final Kontoart[] KONTOARTEN = Kontoart.values();
+
+    private ByteBuffer[] segmente = new ByteBuffer[0];
+    private int anzahl;
+
+    /**
+     * der Index als Hashtabelle mit offener Adressierung: Kontonummer und Zeile + 1, 0 für einen freien Platz
+     */
+    private long[] schluessel;
+    private int[] zeilen;
+
+    /**
+     * erstellt eine leere Tabelle
+     */
+    public Kontotabelle() {
+        this(1024);
+    }
+
+    /**
+     * erstellt eine leere Tabelle, deren Index für die angegebene Anzahl von Konten nicht wachsen muss
+     *
+     * @param erwarteteAnzahl die erwartete Anzahl von Konten
+     * @throws IllegalArgumentException wenn erwarteteAnzahl negativ ist
+     */
+    public Kontotabelle(int erwarteteAnzahl) {
+        if (erwarteteAnzahl < 0)
+            throw new IllegalArgumentException("Anzahl darf nicht negativ sein");
+        int kapazitaet = Integer.highestOneBit(Math.max(16, erwarteteAnzahl) * 2 - 1) << 1;
+        schluessel = new long[kapazitaet];
+        zeilen = new int[kapazitaet];
+    }
+
+    /**
+     * legt ein leeres, nicht gesperrtes Konto in Euro an
+     *
+     * @param nummer    die Kontonummer
+     * @param art       GIROKONTO oder SPARBUCH
+     * @param parameter der Dispo des Girokontos bzw. der Zinssatz des Sparbuchs
+     * @throws IllegalArgumentException wenn es die Kontonummer schon gibt, die Kontoart nicht gespeichert werden
+     *                                  kann oder parameter negativ, NaN oder unendlich ist
+     */
+    public void anlegen(long nummer, Kontoart art, double parameter) {
+        if (art != Kontoart.GIROKONTO && art != Kontoart.SPARBUCH)
+            throw new IllegalArgumentException("Kontoart " + art + " kann nicht gespeichert werden");
+        if (parameter < 0 || Double.isNaN(parameter) || Double.isInfinite(parameter))
+            throw new IllegalArgumentException("Parameter ist nicht gültig");
+        zeileAnlegen(nummer, art, Waehrung.EUR, 0, false, parameter, 0, monat(LocalDate.now()));
+    }
+
+    /**
+     * übernimmt die Kerndaten eines Girokontos oder Sparbuchs in die Tabelle
+     *
+     * @param konto das Konto
+     * @throws IllegalArgumentException wenn es die Kontonummer schon gibt oder das Konto weder Girokonto noch
+     *                                  Sparbuch ist
+     */
+    public void einfuegen(Konto konto) {
+        if (konto instanceof Girokonto) {
+            zeileAnlegen(konto.getKontonummer(), Kontoart.GIROKONTO, konto.getAktuelleWaehrung(),
+                    konto.getKontostand(), konto.isGesperrt(), ((Girokonto) konto).getDispo(), 0,
+                    monat(LocalDate.now()));
+        } else if (konto instanceof Sparbuch) {
+            Sparbuch s = (Sparbuch) konto;
+            zeileAnlegen(s.getKontonummer(), Kontoart.SPARBUCH, s.getAktuelleWaehrung(), s.getKontostand(),
+                    s.isGesperrt(), s.getZinssatz(), s.getBereitsAbgehoben(), monat(s.getZeitpunkt()));
+        } else {
+            throw new IllegalArgumentException("Konto " + konto.getKontonummer() + " kann nicht gespeichert werden");
+        }
+    }
+
+    private void zeileAnlegen(long nummer, Kontoart art, Waehrung waehrung, double kontostand, boolean gesperrt,
+                              double parameter, double abgehoben, int monat) {
+        if (zeileSuchen(nummer) >= 0)
+            throw new IllegalArgumentException("Kontonummer " + nummer + " ist schon vergeben");
+        int zeile = anzahl;
+        if ((zeile >>> SEGMENT_BITS) == segmente.length) {
+            segmente = Arrays.copyOf(segmente, segmente.length + 1);
+            segmente[segmente.length - 1] = ByteBuffer.allocateDirect(SEGMENT_GROESSE).order(ByteOrder.nativeOrder());
+        }
+        ByteBuffer s = segment(zeile);
+        int i = zeile & ZEILE_MASKE;
+        s.putLong(NUMMER + i * Long.BYTES, nummer);
+        s.putDouble(KONTOSTAND + i * Double.BYTES, kontostand);
+        s.putDouble(PARAMETER + i * Double.BYTES, parameter);
+        s.putDouble(ABGEHOBEN + i * Double.BYTES, abgehoben);
+        s.putInt(MONAT + i * Integer.BYTES, monat);
+        s.put(WAEHRUNG + i, (byte) waehrung.ordinal());
+        s.put(ART + i, (byte) art.ordinal());
+        s.put(GESPERRT + i, (byte) (gesperrt ? 1 : 0));
+        anzahl++;
+        if (anzahl * 2 > schluessel.length)
+            indexVergroessern();
+        indexEintragen(nummer, zeile);
+    }
+
+    /**
+     * löscht das Konto; die bisher letzte Zeile rückt an seine Stelle
+     *
+     * @param nummer die Kontonummer
+     * @return true, wenn es das Konto gab
+     */
+    public boolean loeschen(long nummer) {
+        int platz = platzSuchen(nummer);
+        if (zeilen[platz] == 0)
+            return false;
+        int zeile = zeilen[platz] - 1;
+        indexEntfernen(platz);
+        int letzte = --anzahl;
+        if (zeile != letzte) {
+            ByteBuffer von = segment(letzte);
+            ByteBuffer nach = segment(zeile);
+            int v = letzte & ZEILE_MASKE;
+            int n = zeile & ZEILE_MASKE;
+            long verschoben = von.getLong(NUMMER + v * Long.BYTES);
+            nach.putLong(NUMMER + n * Long.BYTES, verschoben);
+            nach.putDouble(KONTOSTAND + n * Double.BYTES, von.getDouble(KONTOSTAND + v * Double.BYTES));
+            nach.putDouble(PARAMETER + n * Double.BYTES, von.getDouble(PARAMETER + v * Double.BYTES));
+            nach.putDouble(ABGEHOBEN + n * Double.BYTES, von.getDouble(ABGEHOBEN + v * Double.BYTES));
+            nach.putInt(MONAT + n * Integer.BYTES, von.getInt(MONAT + v * Integer.BYTES));
+            nach.put(WAEHRUNG + n, von.get(WAEHRUNG + v));
+            nach.put(ART + n, von.get(ART + v));
+            nach.put(GESPERRT + n, von.get(GESPERRT + v));
+            zeilen[platzSuchen(verschoben)] = zeile + 1;
+        }
+        return true;
+    }
+
+    /**
+     * liefert zurück, ob es ein Konto mit der Kontonummer gibt
+     *
+     * @param nummer die Kontonummer
+     * @return true, wenn es das Konto gibt
+     */
+    public boolean enthaelt(long nummer) {
+        return zeileSuchen(nummer) >= 0;
+    }
+
+    /**
+     * liefert die Anzahl der Konten
+     *
+     * @return Anzahl der Konten
+     */
+    public int getAnzahl() {
+        return anzahl;
+    }
+
+    /**
+     * liefert den außerhalb des Heaps belegten Speicher
+     *
+     * @return Größe aller Segmente in Byte
+     */
+    public long getBelegterSpeicher() {
+        return (long) segmente.length * SEGMENT_GROESSE;
+    }
+
+    /**
+     * erstellt einen neuen, noch nicht gesetzten Zeiger auf diese Tabelle
+     *
+     * @return der Zeiger
+     */
+    public Kontozeiger zeiger() {
+        return new Kontozeiger(this);
+    }
+
+    /**
+     * sucht die Zeile des Kontos
+     *
+     * @param nummer die Kontonummer
+     * @return die Zeile oder -1, wenn es das Konto nicht gibt
+     */
+    int zeileSuchen(long nummer) {
+        return zeilen[platzSuchen(nummer)] - 1;
+    }
+
+    /**
+     * liefert das Segment, in dem die Zeile liegt
+     */
+    ByteBuffer segment(int zeile) {
+        return segmente[zeile >>> SEGMENT_BITS];
+    }
+
+    /**
+     * liefert den Platz der Kontonummer im Index oder den freien Platz, an den sie gehört
+     */
+    private int platzSuchen(long nummer) {
+        int maske = schluessel.length - 1;
+        int platz = streuen(nummer, maske);
+        while (zeilen[platz] != 0 && schluessel[platz] != nummer) {
+            platz = (platz + 1) & maske;
+        }
+        return platz;
+    }
+
+    private void indexEintragen(long nummer, int zeile) {
+        int platz = platzSuchen(nummer);
+        schluessel[platz] = nummer;
+        zeilen[platz] = zeile + 1;
+    }
+
+    /**
+     * leert den Platz und schiebt nachfolgende Einträge zurück, damit keine Suchkette unterbrochen wird
+     */
+    private void indexEntfernen(int frei) {
+        int maske = schluessel.length - 1;
+        int platz = frei;
+        while (true) {
+            platz = (platz + 1) & maske;
+            if (zeilen[platz] == 0)
+                break;
+            int ziel = streuen(schluessel[platz], maske);
+            // der Eintrag darf nur zurück, wenn sein Zielplatz nicht zwischen frei und platz liegt
+            boolean dazwischen = frei <= platz ? frei < ziel && ziel <= platz : frei < ziel || ziel <= platz;
+            if (!dazwischen) {
+                schluessel[frei] = schluessel[platz];
+                zeilen[frei] = zeilen[platz];
+                frei = platz;
+            }
+        }
+        zeilen[frei] = 0;
+    }
+
+    private void indexVergroessern() {
+        long[] alteSchluessel = schluessel;
+        int[] alteZeilen = zeilen;
+        schluessel = new long[alteSchluessel.length * 2];
+        zeilen = new int[alteZeilen.length * 2];
+        for (int p = 0; p < alteZeilen.length; p++) {
+            if (alteZeilen[p] != 0)
+                indexEintragen(alteSchluessel[p], alteZeilen[p] - 1);
+        }
+    }
+
+    private static int streuen(long nummer, int maske) {
+        long h = nummer * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & maske;
+    }
+
+    /**
+     * liefert die laufende Nummer des Monats, in dem der Tag liegt
+     */
+    static int monat(LocalDate tag) {
+        return tag.getYear() * 12 + tag.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,206 @@
+package bankprojekt.verarbeitung;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Ein wiederverwendbarer Zeiger auf eine Zeile einer {@link Kontotabelle}. Er wird mit
+ * {@link #positionieren(long)} oder {@link #aufZeile(int)} auf ein Konto gesetzt und liest und bucht dann
+ * direkt in der Tabelle; dabei entsteht kein Objekt. Die Buchungsregeln sind die von {@link Girokonto} und
+ * {@link Sparbuch}. Über {@link Buchbar} kann derselbe Code einen Zeiger oder ein {@link Konto} buchen; dort, wo
+ * ein Konto-Objekt verlangt wird, z.B. in der {@link bankprojekt.verwaltung.Bank}, lässt sich ein Zeiger nicht
+ * verwenden.
+ * <p>
+ * Ein Zeiger ist nicht threadsicher. Nach dem Löschen eines Kontos aus der Tabelle muss er neu gesetzt werden.
+ */
+public final class Kontozeiger implements Buchbar {
+    private final Kontotabelle tabelle;
+    private ByteBuffer segment;
+    private int i;
+
+    Kontozeiger(Kontotabelle tabelle) {
+        this.tabelle = tabelle;
+    }
+
+    /**
+     * setzt den Zeiger auf das Konto mit der Kontonummer
+     *
+     * @param nummer die Kontonummer
+     * @return true, wenn es das Konto gibt; andernfalls ist der Zeiger danach nicht gesetzt
+     */
+    public boolean positionieren(long nummer) {
+        int zeile = tabelle.zeileSuchen(nummer);
+        if (zeile < 0) {
+            segment = null;
+            return false;
+        }
+        aufZeile(zeile);
+        return true;
+    }
+
+    /**
+     * setzt den Zeiger auf eine Zeile, z.B. um alle Konten der Tabelle zu durchlaufen
+     *
+     * @param zeile die Zeile, von 0 bis {@link Kontotabelle#getAnzahl()} - 1
+     * @throws IndexOutOfBoundsException wenn es die Zeile nicht gibt
+     */
+    public void aufZeile(int zeile) {
+        if (zeile < 0 || zeile >= tabelle.getAnzahl())
+            throw new IndexOutOfBoundsException("Zeile " + zeile + " gibt es nicht");
+        segment = tabelle.segment(zeile);
+        i = zeile & Kontotabelle.ZEILE_MASKE;
+    }
+
+    /**
+     * liefert zurück, ob der Zeiger auf ein Konto gesetzt ist
+     *
+     * @return true, wenn der Zeiger gesetzt ist
+     */
+    public boolean isGesetzt() {
+        return segment != null;
+    }
+
+    private ByteBuffer zeile() {
+        if (segment == null)
+            throw new IllegalStateException("Zeiger ist nicht gesetzt");
+        return segment;
+    }
+
+    @Override
+    public long getKontonummer() {
+        return zeile().getLong(Kontotabelle.NUMMER + i * Long.BYTES);
+    }
+
+    @Override
+    public double getKontostand() {
+        return zeile().getDouble(Kontotabelle.KONTOSTAND + i * Double.BYTES);
+    }
+
+    private void setKontostand(double kontostand) {
+        zeile().putDouble(Kontotabelle.KONTOSTAND + i * Double.BYTES, kontostand);
+    }
+
+    @Override
+    public Waehrung getAktuelleWaehrung() {
+        return Kontotabelle.WAEHRUNGEN[zeile().get(Kontotabelle.WAEHRUNG + i)];
+    }
+
+    @Override
+    public boolean isGesperrt() {
+        return zeile().get(Kontotabelle.GESPERRT + i) != 0;
+    }
+
+    @Override
+    public Kontoart getKontoart() {
+        return Kontotabelle.KONTOARTEN[zeile().get(Kontotabelle.ART + i)];
+    }
+
+    /**
+     * liefert den Dispo eines Girokontos
+     *
+     * @return der Dispo in Kontowährung
+     * @throws IllegalStateException wenn das Konto kein Girokonto ist
+     */
+    public double getDispo() {
+        if (getKontoart() != Kontoart.GIROKONTO)
+            throw new IllegalStateException("Konto " + getKontonummer() + " ist kein Girokonto");
+        return parameter();
+    }
+
+    /**
+     * liefert den Zinssatz eines Sparbuchs
+     *
+     * @return Zinssatz, 0,03 entspricht 3%
+     * @throws IllegalStateException wenn das Konto kein Sparbuch ist
+     */
+    public double getZinssatz() {
+        if (getKontoart() != Kontoart.SPARBUCH)
+            throw new IllegalStateException("Konto " + getKontonummer() + " ist kein Sparbuch");
+        return parameter();
+    }
+
+    private double parameter() {
+        return zeile().getDouble(Kontotabelle.PARAMETER + i * Double.BYTES);
+    }
+
+    /**
+     * sperrt das Konto
+     */
+    @Override
+    public void sperren() {
+        zeile().put(Kontotabelle.GESPERRT + i, (byte) 1);
+    }
+
+    /**
+     * entsperrt das Konto
+     */
+    @Override
+    public void entsperren() {
+        zeile().put(Kontotabelle.GESPERRT + i, (byte) 0);
+    }
+
+    /**
+     * Erhöht den Kontostand um den eingezahlten Betrag.
+     *
+     * @param betrag der Betrag in Kontowährung
+     * @throws IllegalArgumentException wenn der betrag negativ, NaN oder unendlich ist
+     */
+    @Override
+    public void einzahlen(double betrag) {
+        if (betrag < 0 || Double.isNaN(betrag) || Double.isInfinite(betrag))
+            throw new IllegalArgumentException("Falscher Betrag");
+        setKontostand(getKontostand() + betrag);
+    }
+
+    /**
+     * Versucht den angegebenen Betrag vom Konto abzuheben, ohne im Fehlerfall eine Exception zu erzeugen.
+     * Ein Girokonto darf bis zum Dispo ins Minus gehen; bei einem Sparbuch bleiben mindestens 0,50 € stehen,
+     * und im Monat dürfen höchstens {@link Sparbuch#ABHEBESUMME} abgehoben werden.
+     *
+     * @param betrag der Betrag in Kontowährung
+     * @return ERFOLGREICH, UNGUELTIGER_BETRAG, GESPERRT oder NICHT_GEDECKT
+     */
+    @Override
+    public Buchungsstatus abhebenStatus(double betrag) {
+        if (betrag < 0 || Double.isNaN(betrag) || Double.isInfinite(betrag))
+            return Buchungsstatus.UNGUELTIGER_BETRAG;
+        if (isGesperrt())
+            return Buchungsstatus.GESPERRT;
+        double stand = getKontostand();
+        if (getKontoart() == Kontoart.GIROKONTO) {
+            if (stand - betrag < -parameter())
+                return Buchungsstatus.NICHT_GEDECKT;
+        } else {
+            ByteBuffer s = zeile();
+            Waehrung w = getAktuelleWaehrung();
+            int monat = Kontotabelle.monat(LocalDate.now());
+            double abgehoben = s.getInt(Kontotabelle.MONAT + i * Integer.BYTES) == monat
+                    ? s.getDouble(Kontotabelle.ABGEHOBEN + i * Double.BYTES) : 0;
+            if (stand - betrag < w.euroInWaehrungUmrechnen(0.50)
+                    || abgehoben + betrag > w.euroInWaehrungUmrechnen(Sparbuch.ABHEBESUMME))
+                return Buchungsstatus.NICHT_GEDECKT;
+            s.putDouble(Kontotabelle.ABGEHOBEN + i * Double.BYTES, abgehoben + betrag);
+            s.putInt(Kontotabelle.MONAT + i * Integer.BYTES, monat);
+        }
+        setKontostand(stand - betrag);
+        return Buchungsstatus.ERFOLGREICH;
+    }
+
+    /**
+     * Stellt das Konto auf eine andere Währung um. Kontostand und Dispo bzw. die im Monat abgehobene Summe
+     * werden wie bei {@link Konto#waehrungUmstellen(Waehrung, Waehrung, double)} einmal umgerechnet und
+     * kaufmännisch gerundet.
+     *
+     * @param neu die neue Währung
+     */
+    @Override
+    public void waehrungswechsel(Waehrung neu) {
+        ByteBuffer s = zeile();
+        double kurs = getAktuelleWaehrung().kursNach(neu);
+        setKontostand(Waehrung.mitKursUmrechnen(getKontostand(), kurs));
+        int spalte = getKontoart() == Kontoart.GIROKONTO ? Kontotabelle.PARAMETER : Kontotabelle.ABGEHOBEN;
+        int index = spalte + i * Double.BYTES;
+        s.putDouble(index, Waehrung.mitKursUmrechnen(s.getDouble(index), kurs));
+        s.put(Kontotabelle.WAEHRUNG + i, (byte) neu.ordinal());
+    }
+}
@@ -1,5 +1,6 @@
 package bankprojekt.verarbeitung;
 
+import formatierung.Formatpuffer;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
@@ -70,12 +71,33 @@ public class Kunde implements Comparable<Kunde>, Serializable {
      * @throws IllegalArgumentException wenn einer der Parameter null ist
      */
     public Kunde(String vorname, String nachname, String adresse, LocalDate gebdat) {
+        this(vorname, nachname, adresse, gebdat, true);
+    }
+
+    /**
+     * Erzeugt einen Kunden mit den übergebenen Werten, ohne dafür eine Aufräumarbeit beim Beenden
+     * der Laufzeitumgebung anzumelden. Gedacht für Massenimporte mit sehr vielen Kunden.
+     *
+     * @param vorname  Vorname
+     * @param nachname Nachname
+     * @param adresse  Adresse
+     * @param gebdat   Geburtstag
+     * @return der neue Kunde
+     * @throws IllegalArgumentException wenn einer der Parameter null ist
+     */
+    public static Kunde fuerImport(String vorname, String nachname, String adresse, LocalDate gebdat) {
+        return new Kunde(vorname, nachname, adresse, gebdat, false);
+    }
+
+    private Kunde(String vorname, String nachname, String adresse, LocalDate gebdat, boolean aufraeumen) {
         if (vorname == null || nachname == null || adresse == null || gebdat == null)
             throw new IllegalArgumentException("null als Parameter nich erlaubt");
         this.vorname = vorname;
         this.nachname = nachname;
         this.adresse = new SimpleStringProperty(adresse);
         this.geburtstag = gebdat;
+        if (!aufraeumen)
+            return;
 
         Runtime umgebung = Runtime.getRuntime();
         Runnable r = new Zerstoerer();
@@ -116,12 +138,19 @@ public class Kunde implements Comparable<Kunde>, Serializable {
      */
     @Override
     public String toString() {
-        String ausgabe;
-        DateTimeFormatter df = DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT);
-        ausgabe = this.vorname + " " + this.nachname + System.getProperty("line.separator");
-        ausgabe += this.adresse + System.getProperty("line.separator");
-        ausgabe += df.format(this.geburtstag) + System.getProperty("line.separator");
-        return ausgabe;
+        return formatieren(Formatpuffer.fuerDiesenThread()).toString();
+    }
+
+    /**
+     * schreibt alle Daten des Kunden in den Puffer, wie sie {@link #toString()} liefert
+     *
+     * @param puffer der Puffer
+     * @return der Puffer
+     */
+    public Formatpuffer formatieren(Formatpuffer puffer) {
+        puffer.append(this.vorname).append(' ').append(this.nachname).zeilenende();
+        puffer.append(this.adresse).zeilenende();
+        return puffer.datum(this.geburtstag).zeilenende();
     }
 
     /**
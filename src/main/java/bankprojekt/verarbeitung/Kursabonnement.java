@@ -0,0 +1,102 @@
+package bankprojekt.verarbeitung;
+
+/**
+ * Ein Abonnement auf Kursänderungen einer {@link Aktie}, erstellt mit einer der abonnieren-Methoden der Aktie.
+ * <p>
+ * Ein Abonnement auf das Über- oder Unterschreiten einer Schwelle endet, sobald es ausgelöst wurde. Ein
+ * Abonnement auf jede Änderung oder auf eine prozentuale Bewegung bleibt bestehen, bis es gekündigt wird;
+ * nach jeder Auslösung einer Bewegung gilt der auslösende Kurs als neuer Bezugskurs.
+ */
+public final class Kursabonnement {
+    private final Aktie aktie;
+    private final Kursbeobachter beobachter;
+
+    /**
+     * Reihenfolge der Anmeldung, unterscheidet Abonnements mit gleicher Schwelle
+     */
+    final long folge;
+
+    /**
+     * die obere Schwelle, NaN wenn es keine gibt; nur unter der Sperre der Aktie ändern
+     */
+    double oben;
+
+    /**
+     * die untere Schwelle, NaN wenn es keine gibt; nur unter der Sperre der Aktie ändern
+     */
+    double unten;
+
+    /**
+     * die Bewegung in Prozent, nach der das Abonnement neu gesetzt wird, NaN für einmalige Abonnements
+     */
+    final double prozent;
+
+    /**
+     * true für ein Abonnement auf das einmalige Über- oder Unterschreiten einer Schwelle
+     */
+    final boolean einmalig;
+
+    /**
+     * false, sobald das Abonnement gekündigt oder als einmaliges ausgelöst wurde
+     */
+    volatile boolean aktiv = true;
+
+    Kursabonnement(Aktie aktie, Kursbeobachter beobachter, long folge, double oben, double unten, double prozent) {
+        this.aktie = aktie;
+        this.beobachter = beobachter;
+        this.folge = folge;
+        this.oben = oben;
+        this.unten = unten;
+        this.prozent = prozent;
+        this.einmalig = Double.isNaN(prozent) && !(Double.isNaN(oben) && Double.isNaN(unten));
+    }
+
+    /**
+     * setzt die Schwellen einer Bewegung um den angegebenen Bezugskurs
+     *
+     * @param bezug der Bezugskurs
+     */
+    void bezugSetzen(double bezug) {
+        oben = bezug * (1 + prozent / 100);
+        unten = bezug * (1 - prozent / 100);
+    }
+
+    /**
+     * benachrichtigt den Beobachter, wenn das Abonnement nicht inzwischen gekündigt wurde
+     *
+     * @param kurs der auslösende Kurs
+     */
+    void benachrichtigen(double kurs) {
+        // ein einmaliges Abonnement wurde schon beim Auslösen beendet
+        if (aktiv || einmalig)
+            beobachter.kursGeaendert(aktie, kurs);
+    }
+
+    /**
+     * beendet das Abonnement; der Beobachter wird danach nicht mehr benachrichtigt, außer für eine Auslösung,
+     * die bereits unterwegs ist
+     *
+     * @return true, wenn das Abonnement bis jetzt bestand
+     */
+    public boolean kuendigen() {
+        return aktie.kuendigen(this);
+    }
+
+    /**
+     * liefert, ob das Abonnement noch besteht
+     *
+     * @return false, wenn es gekündigt oder als einmaliges bereits ausgelöst wurde
+     */
+    public boolean isAktiv() {
+        return aktiv;
+    }
+
+    /**
+     * liefert die Aktie des Abonnements
+     *
+     * @return die Aktie
+     */
+    public Aktie getAktie() {
+        return aktie;
+    }
+}
@@ -0,0 +1,16 @@
+package bankprojekt.verarbeitung;
+
+/**
+ * wird über Kursänderungen einer {@link Aktie} benachrichtigt
+ */
+@FunctionalInterface
+public interface Kursbeobachter {
+    /**
+     * wird aufgerufen, wenn der Kurs der Aktie die Bedingung des Abonnements erfüllt. Der Aufruf erfolgt im
+     * Thread, der den Kurs geändert hat; längere Arbeit sollte an einen anderen Thread abgegeben werden.
+     *
+     * @param aktie die Aktie
+     * @param kurs  der neue Kurs
+     */
+    void kursGeaendert(Aktie aktie, double kurs);
+}
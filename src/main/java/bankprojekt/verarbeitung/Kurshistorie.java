@@ -0,0 +1,283 @@
+package bankprojekt.verarbeitung;
+
+/**
+ * Die Kursgeschichte eines Wertpapiers mit fest begrenztem Speicher.
+ * <p>
+ * Die letzten Ticks liegen in einem Ring aus zwei primitiven Arrays (Zeitpunkt und Kurs). Zusätzlich wird jeder
+ * Tick beim Hinzufügen sofort in Kerzen (Eröffnung, Hoch, Tief, Schluss) für jede {@link Aufloesung}
+ * eingerechnet. Auch die Kerzen liegen je Auflösung in einem Ring, und zwar an der Stelle
+ * (Nummer des Zeitabschnitts) % Kapazität, so dass keine Startzeiten gespeichert werden müssen. Abschnitte
+ * ohne Tick bleiben leer.
+ * <p>
+ * Mit den Standardgrößen (128 Ticks, je 60 Sekunden- und Minutenkerzen, 24 Stundenkerzen) belegt eine
+ * Historie gut 4 KB, 100.000 Wertpapiere also rund 450 MB. Kerzen werden als float gespeichert, das
+ * reicht für die Darstellung; die Ticks behalten den genauen Kurs.
+ * <p>
+ * Ticks müssen in zeitlicher Reihenfolge kommen; ein Tick mit einem früheren Zeitpunkt als der letzte wird
+ * dem Zeitpunkt des letzten zugerechnet. Die Klasse ist threadsicher.
+ */
+public class Kurshistorie {
+    /**
+     * die Auflösungen, in denen Kerzen gebildet werden
+     */
+    public enum Aufloesung {
+        /**
+         * eine Kerze pro Sekunde
+         */
+        SEKUNDE(1_000L),
+        /**
+         * eine Kerze pro Minute
+         */
+        MINUTE(60_000L),
+        /**
+         * eine Kerze pro Stunde
+         */
+        STUNDE(3_600_000L);
+
+        private final long dauer;
+
+        Aufloesung(long dauer) {
+            this.dauer = dauer;
+        }
+
+        /**
+         * liefert die Dauer einer Kerze
+         *
+         * @return Dauer in Millisekunden
+         */
+        public long getDauer() {
+            return dauer;
+        }
+    }
+
+    /**
+     * empfängt die Ticks einer Bereichsabfrage
+     */
+    @FunctionalInterface
+    public interface Tickverbraucher {
+        /**
+         * empfängt einen Tick
+         *
+         * @param zeit Zeitpunkt in Millisekunden seit 1970
+         * @param kurs der Kurs
+         */
+        void tick(long zeit, double kurs);
+    }
+
+    /**
+     * empfängt die Kerzen einer Bereichsabfrage
+     */
+    @FunctionalInterface
+    public interface Kerzenverbraucher {
+        /**
+         * empfängt eine Kerze
+         *
+         * @param beginn     Beginn des Zeitabschnitts in Millisekunden seit 1970
+         * @param eroeffnung der erste Kurs im Abschnitt
+         * @param hoch       der höchste Kurs im Abschnitt
+         * @param tief       der niedrigste Kurs im Abschnitt
+         * @param schluss    der letzte Kurs im Abschnitt
+         */
+        void kerze(long beginn, double eroeffnung, double hoch, double tief, double schluss);
+    }
+
+    private static final Aufloesung[] AUFLOESUNGEN = Aufloesung.values();
+
+    /**
+     * Felder einer Kerze im Array, die Kerze mit Platz p beginnt bei Index p * FELDER
+     */
+    private static final int FELDER = 4;
+    private static final int EROEFFNUNG = 0;
+    private static final int HOCH = 1;
+    private static final int TIEF = 2;
+    private static final int SCHLUSS = 3;
+
+    private final long[] tickZeiten;
+    private final double[] tickKurse;
+    /**
+     * Anzahl aller bisher hinzugefügten Ticks, der nächste kommt an Index anzahlTicks % Kapazität
+     */
+    private long anzahlTicks;
+
+    /**
+     * die Kerzen je Auflösung, ein leerer Platz hat NaN als Eröffnung
+     */
+    private final float[][] kerzen;
+    /**
+     * je Auflösung die Nummer des Zeitabschnitts des letzten Ticks
+     */
+    private final long[] letzterAbschnitt;
+
+    /**
+     * erstellt eine Historie mit den Standardgrößen
+     */
+    public Kurshistorie() {
+        this(128, 60, 60, 24);
+    }
+
+    /**
+     * erstellt eine Historie mit den angegebenen Größen
+     *
+     * @param ticks    Anzahl der aufbewahrten Ticks
+     * @param sekunden Anzahl der aufbewahrten Sekundenkerzen
+     * @param minuten  Anzahl der aufbewahrten Minutenkerzen
+     * @param stunden  Anzahl der aufbewahrten Stundenkerzen
+     * @throws IllegalArgumentException wenn eine Größe kleiner als 1 ist
+     */
+    public Kurshistorie(int ticks, int sekunden, int minuten, int stunden) {
+        if (ticks < 1 || sekunden < 1 || minuten < 1 || stunden < 1)
+            throw new IllegalArgumentException("Größen müssen positiv sein");
+        this.tickZeiten = new long[ticks];
+        this.tickKurse = new double[ticks];
+        int[] kapazitaeten = {sekunden, minuten, stunden};
+        this.kerzen = new float[AUFLOESUNGEN.length][];
+        this.letzterAbschnitt = new long[AUFLOESUNGEN.length];
+        for (int r = 0; r < AUFLOESUNGEN.length; r++) {
+            kerzen[r] = new float[kapazitaeten[r] * FELDER];
+            for (int p = 0; p < kapazitaeten[r]; p++) {
+                kerzen[r][p * FELDER + EROEFFNUNG] = Float.NaN;
+            }
+            letzterAbschnitt[r] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * fügt einen Tick hinzu und rechnet ihn in die Kerzen aller Auflösungen ein
+     *
+     * @param zeit Zeitpunkt in Millisekunden seit 1970
+     * @param kurs der Kurs
+     */
+    public synchronized void hinzufuegen(long zeit, double kurs) {
+        int kapazitaet = tickZeiten.length;
+        if (anzahlTicks > 0)
+            zeit = Math.max(zeit, tickZeiten[(int) ((anzahlTicks - 1) % kapazitaet)]);
+        int index = (int) (anzahlTicks % kapazitaet);
+        tickZeiten[index] = zeit;
+        tickKurse[index] = kurs;
+        anzahlTicks++;
+
+        float wert = (float) kurs;
+        for (int r = 0; r < AUFLOESUNGEN.length; r++) {
+            float[] ring = kerzen[r];
+            int plaetze = ring.length / FELDER;
+            long abschnitt = Math.floorDiv(zeit, AUFLOESUNGEN[r].dauer);
+            if (abschnitt > letzterAbschnitt[r]) {
+                // Plätze der übersprungenen Abschnitte und des neuen leeren, höchstens einmal rundherum
+                long erster = Math.max(letzterAbschnitt[r] + 1, abschnitt - plaetze + 1);
+                for (long a = erster; a <= abschnitt; a++) {
+                    ring[platz(a, plaetze) * FELDER + EROEFFNUNG] = Float.NaN;
+                }
+                letzterAbschnitt[r] = abschnitt;
+            }
+            int basis = platz(abschnitt, plaetze) * FELDER;
+            if (Float.isNaN(ring[basis + EROEFFNUNG])) {
+                ring[basis + EROEFFNUNG] = wert;
+                ring[basis + HOCH] = wert;
+                ring[basis + TIEF] = wert;
+            } else {
+                ring[basis + HOCH] = Math.max(ring[basis + HOCH], wert);
+                ring[basis + TIEF] = Math.min(ring[basis + TIEF], wert);
+            }
+            ring[basis + SCHLUSS] = wert;
+        }
+    }
+
+    /**
+     * liefert alle noch aufbewahrten Ticks mit von &lt;= Zeitpunkt &lt; bis in zeitlicher Reihenfolge
+     *
+     * @param von        Beginn des Bereichs in Millisekunden seit 1970, einschließlich
+     * @param bis        Ende des Bereichs in Millisekunden seit 1970, ausschließlich
+     * @param verbraucher empfängt die Ticks; wird unter der Sperre der Historie aufgerufen
+     * @return die Anzahl der gelieferten Ticks
+     */
+    public synchronized int ticks(long von, long bis, Tickverbraucher verbraucher) {
+        int kapazitaet = tickZeiten.length;
+        long aeltester = Math.max(0, anzahlTicks - kapazitaet);
+        // die Zeitpunkte sind aufsteigend, also den ersten Tick im Bereich binär suchen
+        long links = aeltester;
+        long rechts = anzahlTicks;
+        while (links < rechts) {
+            long mitte = (links + rechts) >>> 1;
+            if (tickZeiten[(int) (mitte % kapazitaet)] < von)
+                links = mitte + 1;
+            else
+                rechts = mitte;
+        }
+        int anzahl = 0;
+        for (long n = links; n < anzahlTicks; n++) {
+            int index = (int) (n % kapazitaet);
+            if (tickZeiten[index] >= bis)
+                break;
+            verbraucher.tick(tickZeiten[index], tickKurse[index]);
+            anzahl++;
+        }
+        return anzahl;
+    }
+
+    /**
+     * liefert alle noch aufbewahrten Kerzen der Auflösung, deren Abschnitt im Bereich von &lt;= Beginn &lt; bis
+     * liegt, in zeitlicher Reihenfolge. Abschnitte ohne Tick werden übersprungen.
+     *
+     * @param aufloesung  die Auflösung
+     * @param von         Beginn des Bereichs in Millisekunden seit 1970, einschließlich
+     * @param bis         Ende des Bereichs in Millisekunden seit 1970, ausschließlich
+     * @param verbraucher empfängt die Kerzen; wird unter der Sperre der Historie aufgerufen
+     * @return die Anzahl der gelieferten Kerzen
+     */
+    public synchronized int kerzen(Aufloesung aufloesung, long von, long bis, Kerzenverbraucher verbraucher) {
+        int r = aufloesung.ordinal();
+        if (letzterAbschnitt[r] == Long.MIN_VALUE)
+            return 0;
+        float[] ring = kerzen[r];
+        int plaetze = ring.length / FELDER;
+        long dauer = aufloesung.dauer;
+        long erster = Math.max(Math.floorDiv(von + dauer - 1, dauer), letzterAbschnitt[r] - plaetze + 1);
+        long letzter = Math.min(Math.floorDiv(bis - 1, dauer), letzterAbschnitt[r]);
+        int anzahl = 0;
+        for (long a = erster; a <= letzter; a++) {
+            int basis = platz(a, plaetze) * FELDER;
+            if (Float.isNaN(ring[basis + EROEFFNUNG]))
+                continue;
+            verbraucher.kerze(a * dauer, ring[basis + EROEFFNUNG], ring[basis + HOCH], ring[basis + TIEF],
+                    ring[basis + SCHLUSS]);
+            anzahl++;
+        }
+        return anzahl;
+    }
+
+    /**
+     * liefert den Zeitpunkt des letzten Ticks
+     *
+     * @return Millisekunden seit 1970 oder Long.MIN_VALUE, wenn es noch keinen Tick gibt
+     */
+    public synchronized long getLetzteZeit() {
+        return anzahlTicks == 0 ? Long.MIN_VALUE : tickZeiten[(int) ((anzahlTicks - 1) % tickZeiten.length)];
+    }
+
+    /**
+     * liefert die Anzahl aller bisher hinzugefügten Ticks, auch der nicht mehr aufbewahrten
+     *
+     * @return Anzahl der Ticks
+     */
+    public synchronized long getAnzahlTicks() {
+        return anzahlTicks;
+    }
+
+    /**
+     * vergisst alle Ticks und Kerzen
+     */
+    public synchronized void leeren() {
+        anzahlTicks = 0;
+        for (int r = 0; r < AUFLOESUNGEN.length; r++) {
+            float[] ring = kerzen[r];
+            for (int basis = 0; basis < ring.length; basis += FELDER) {
+                ring[basis + EROEFFNUNG] = Float.NaN;
+            }
+            letzterAbschnitt[r] = Long.MIN_VALUE;
+        }
+    }
+
+    private static int platz(long abschnitt, int plaetze) {
+        return (int) Math.floorMod(abschnitt, (long) plaetze);
+    }
+}
@@ -0,0 +1,124 @@
+package bankprojekt.verarbeitung;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spielt Kursticks aus einer {@link Tickquelle} in Aktien ein, in Echtzeit, beschleunigt oder so schnell wie
+ * möglich.
+ * <p>
+ * Jeder Tick wird mit {@link Aktie#kursSetzen(long, double)} an die Aktie mit seiner Wertpapierkennnummer
+ * übergeben, so dass Historie und Abonnements, also auch wartende Kauf- und Verkaufaufträge, genau wie bei
+ * echten Kursänderungen reagieren. Ticks zu unbekannten Wertpapierkennnummern werden übersprungen. Die
+ * Wiedergabe läuft im aufrufenden Thread.
+ */
+public class Marktwiedergabe {
+    /**
+     * Tempo für eine Wiedergabe ohne Wartezeiten
+     */
+    public static final double SO_SCHNELL_WIE_MOEGLICH = Double.POSITIVE_INFINITY;
+
+    /**
+     * die Wertpapierkennnummern aufsteigend sortiert, für die binäre Suche ohne Boxing
+     */
+    private final int[] wertpapierkennummern;
+
+    /**
+     * die Aktien in der Reihenfolge von wertpapierkennummern
+     */
+    private final Aktie[] aktien;
+
+    private long uebersprungen;
+
+    /**
+     * erstellt die Wiedergabe für die Aktien
+     *
+     * @param aktien die Aktien, in die Ticks eingespielt werden
+     * @throws IllegalArgumentException wenn zwei Aktien dieselbe Wertpapierkennnummer haben
+     */
+    public Marktwiedergabe(Aktie... aktien) {
+        this.aktien = aktien.clone();
+        Arrays.sort(this.aktien, (a, b) -> Integer.compare(a.getWertpapierkennummer(), b.getWertpapierkennummer()));
+        this.wertpapierkennummern = new int[aktien.length];
+        for (int i = 0; i < aktien.length; i++) {
+            wertpapierkennummern[i] = this.aktien[i].getWertpapierkennummer();
+            if (i > 0 && wertpapierkennummern[i] == wertpapierkennummern[i - 1])
+                throw new IllegalArgumentException("Wertpapierkennnummer doppelt: " + wertpapierkennummern[i]);
+        }
+    }
+
+    /**
+     * spielt alle Ticks der Quelle so schnell wie möglich ein
+     *
+     * @param quelle die Ticks
+     * @return die Anzahl der eingespielten Ticks
+     * @throws IOException wenn die Quelle nicht gelesen werden kann
+     */
+    public long abspielen(Tickquelle quelle) throws IOException {
+        try {
+            return abspielen(quelle, SO_SCHNELL_WIE_MOEGLICH);
+        } catch (InterruptedException e) {
+            // ohne Wartezeiten wird nie unterbrochen
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * spielt alle Ticks der Quelle ein. Bei Tempo 1 werden die Abstände zwischen den Zeitpunkten der Ticks
+     * eingehalten, bei Tempo 10 sind sie zehnmal kürzer, bei {@link #SO_SCHNELL_WIE_MOEGLICH} wird nicht
+     * gewartet.
+     *
+     * @param quelle die Ticks
+     * @param tempo  der Beschleunigungsfaktor gegenüber Echtzeit
+     * @return die Anzahl der eingespielten Ticks
+     * @throws IOException              wenn die Quelle nicht gelesen werden kann
+     * @throws InterruptedException     wenn der Thread beim Warten unterbrochen wird
+     * @throws IllegalArgumentException wenn das Tempo nicht positiv ist
+     */
+    public long abspielen(Tickquelle quelle, double tempo) throws IOException, InterruptedException {
+        if (!(tempo > 0))
+            throw new IllegalArgumentException("Tempo muss positiv sein");
+        boolean warten = tempo != SO_SCHNELL_WIE_MOEGLICH;
+        long eingespielt = 0;
+        long ersteZeit = Long.MIN_VALUE;
+        long beginn = 0;
+        while (quelle.naechster()) {
+            long zeit = quelle.getZeit();
+            if (warten) {
+                if (ersteZeit == Long.MIN_VALUE) {
+                    ersteZeit = zeit;
+                    beginn = System.nanoTime();
+                }
+                warten(beginn + (long) (TimeUnit.MILLISECONDS.toNanos(zeit - ersteZeit) / tempo));
+            }
+            int index = Arrays.binarySearch(wertpapierkennummern, quelle.getWertpapierkennummer());
+            if (index < 0) {
+                uebersprungen++;
+                continue;
+            }
+            aktien[index].kursSetzen(zeit, quelle.getKurs());
+            eingespielt++;
+        }
+        return eingespielt;
+    }
+
+    private static void warten(long bisNanos) throws InterruptedException {
+        long rest;
+        while ((rest = bisNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(rest);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+        }
+    }
+
+    /**
+     * liefert die Anzahl der Ticks zu unbekannten Wertpapierkennnummern
+     *
+     * @return Anzahl der übersprungenen Ticks
+     */
+    public long getAnzahlUebersprungen() {
+        return uebersprungen;
+    }
+}
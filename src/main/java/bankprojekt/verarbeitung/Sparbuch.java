@@ -1,6 +1,9 @@
 package bankprojekt.verarbeitung;
 
+import formatierung.Formatpuffer;
+
 import java.time.LocalDate;
+import java.util.concurrent.locks.Lock;
 
 /**
  * ein Sparbuch, d.h. ein Konto, das nur recht eingeschränkt genutzt
@@ -57,13 +60,24 @@ public class Sparbuch extends Konto {
      */
     @Override
     public void waehrungswechsel(Waehrung neu) {
-        double kontoInEuro = getAktuelleWaehrung().waehrungInEuroUmrechnen(getKontostand());
-        double dispoInEuro = getAktuelleWaehrung().waehrungInEuroUmrechnen(bereitsAbgehoben);
+        Lock sperre = getBuchungssperre();
+        sperre.lock();
+        try {
+            double kontoInEuro = getAktuelleWaehrung().waehrungInEuroUmrechnen(getKontostand());
+            double dispoInEuro = getAktuelleWaehrung().waehrungInEuroUmrechnen(bereitsAbgehoben);
+
+            setKontostand(neu.euroInWaehrungUmrechnen(kontoInEuro));
+            bereitsAbgehoben = neu.euroInWaehrungUmrechnen(dispoInEuro);
 
-        setKontostand(neu.euroInWaehrungUmrechnen(kontoInEuro));
-        bereitsAbgehoben = neu.euroInWaehrungUmrechnen(dispoInEuro);
+            super.waehrungswechsel(neu);
+        } finally {
+            sperre.unlock();
+        }
+    }
 
-        super.waehrungswechsel(neu);
+    @Override
+    protected void weitereBetraegeUmrechnen(double kurs) {
+        this.bereitsAbgehoben = Waehrung.mitKursUmrechnen(this.bereitsAbgehoben, kurs);
     }
 
     @Override
@@ -92,10 +106,42 @@ public class Sparbuch extends Konto {
         return abheben(betragInKontoWaehrung);
     }
 
+    /**
+     * liefert den Zinssatz
+     *
+     * @return Zinssatz, 0,03 entspricht 3%
+     */
+    public double getZinssatz() {
+        return zinssatz;
+    }
+
+    /**
+     * liefert den Betrag, der im Monat der letzten Abhebung bereits abgehoben wurde
+     *
+     * @return Betrag in Kontowährung
+     */
+    double getBereitsAbgehoben() {
+        return bereitsAbgehoben;
+    }
+
+    /**
+     * liefert den Tag der letzten Abhebung
+     *
+     * @return der Tag
+     */
+    LocalDate getZeitpunkt() {
+        return zeitpunkt;
+    }
+
+    @Override
+    public Kontoart getKontoart() {
+        return Kontoart.SPARBUCH;
+    }
+
     @Override
-    public String toString() {
-        return "-- SPARBUCH --" + System.lineSeparator() +
-                super.toString()
-                + "Zinssatz: " + this.zinssatz * 100 + "%" + System.lineSeparator();
+    public Formatpuffer formatieren(Formatpuffer puffer) {
+        puffer.append("-- SPARBUCH --").zeilenende();
+        super.formatieren(puffer);
+        return puffer.append("Zinssatz: ").append(this.zinssatz * 100).append('%').zeilenende();
     }
 }
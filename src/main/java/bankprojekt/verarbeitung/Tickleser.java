@@ -0,0 +1,72 @@
+package bankprojekt.verarbeitung;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Liest eine mit einem {@link Tickschreiber} erstellte Aufzeichnung als {@link Tickquelle}.
+ */
+public class Tickleser implements Tickquelle, Closeable {
+    private final DataInputStream ein;
+    private int wertpapierkennummer;
+    private long zeit;
+    private double kurs;
+
+    /**
+     * erstellt einen Leser und prüft den Kopf der Aufzeichnung
+     *
+     * @param quelle woher gelesen wird; wird gepuffert und mit {@link #close()} geschlossen
+     * @throws IOException wenn der Kopf fehlt, nicht zu einer Tickaufzeichnung gehört oder eine unbekannte
+     *                     Version hat
+     */
+    public Tickleser(InputStream quelle) throws IOException {
+        if (quelle == null)
+            throw new IllegalArgumentException("Quelle darf nicht null sein");
+        this.ein = new DataInputStream(new BufferedInputStream(quelle, 1 << 16));
+        if (ein.readInt() != Tickschreiber.KENNUNG)
+            throw new IOException("keine Tickaufzeichnung");
+        short version = ein.readShort();
+        if (version != Tickschreiber.VERSION)
+            throw new IOException("unbekannte Version " + version);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws EOFException wenn die Aufzeichnung mitten in einem Satz endet
+     */
+    @Override
+    public boolean naechster() throws IOException {
+        int erstes = ein.read();
+        if (erstes < 0)
+            return false;
+        wertpapierkennummer = erstes << 24 | ein.readUnsignedByte() << 16 | ein.readUnsignedShort();
+        zeit = ein.readLong();
+        kurs = ein.readDouble();
+        return true;
+    }
+
+    @Override
+    public int getWertpapierkennummer() {
+        return wertpapierkennummer;
+    }
+
+    @Override
+    public long getZeit() {
+        return zeit;
+    }
+
+    @Override
+    public double getKurs() {
+        return kurs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ein.close();
+    }
+}
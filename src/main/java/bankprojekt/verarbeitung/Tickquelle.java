@@ -0,0 +1,38 @@
+package bankprojekt.verarbeitung;
+
+import java.io.IOException;
+
+/**
+ * Eine Folge von Kursticks, die wie ein Cursor durchlaufen wird: {@link #naechster()} rückt zum nächsten Tick
+ * vor, die Getter liefern dessen Werte. So entsteht pro Tick kein Objekt.
+ */
+public interface Tickquelle {
+    /**
+     * rückt zum nächsten Tick vor
+     *
+     * @return false, wenn es keinen weiteren Tick gibt
+     * @throws IOException wenn der Tick nicht gelesen werden kann
+     */
+    boolean naechster() throws IOException;
+
+    /**
+     * liefert die Wertpapierkennnummer des aktuellen Ticks
+     *
+     * @return die Wertpapierkennnummer
+     */
+    int getWertpapierkennummer();
+
+    /**
+     * liefert den Zeitpunkt des aktuellen Ticks
+     *
+     * @return Millisekunden seit 1970
+     */
+    long getZeit();
+
+    /**
+     * liefert den Kurs des aktuellen Ticks
+     *
+     * @return der Kurs
+     */
+    double getKurs();
+}
@@ -0,0 +1,136 @@
+package bankprojekt.verarbeitung;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Zeichnet Kursticks in einem Binärformat auf, das ein {@link Tickleser} wieder liest.
+ * <p>
+ * Alle Zahlen werden im Big-Endian-Format geschrieben. Die Aufzeichnung beginnt mit dem Kopf
+ * <pre>
+ *   int    0x5449434B ("TICK")
+ *   short  Version (1)
+ * </pre>
+ * Danach folgt jeder Tick als Satz fester Länge von {@value #SATZGROESSE} Byte
+ * <pre>
+ *   int    Wertpapierkennnummer
+ *   long   Zeitpunkt in Millisekunden seit 1970
+ *   double Kurs
+ * </pre>
+ * bis zum Ende des Streams. Die Sätze stehen in der Reihenfolge, in der sie geschrieben wurden.
+ * <p>
+ * Als {@link Kursbeobachter} kann ein Tickschreiber die Kursänderungen von Aktien mitschreiben, siehe
+ * {@link #aufzeichnen(Aktie)}. Die Methoden sind synchronisiert, mehrere Aktien können also in dieselbe
+ * Aufzeichnung schreiben.
+ */
+public class Tickschreiber implements Closeable, Kursbeobachter {
+    /**
+     * kennzeichnet eine Tickaufzeichnung
+     */
+    public static final int KENNUNG = 0x5449434B;
+
+    /**
+     * die Version des Formats
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * die Länge eines Satzes in Byte
+     */
+    public static final int SATZGROESSE = Integer.BYTES + Long.BYTES + Double.BYTES;
+
+    private final DataOutputStream aus;
+    private long anzahl;
+
+    /**
+     * erstellt einen Schreiber und schreibt den Kopf der Aufzeichnung
+     *
+     * @param ziel wohin geschrieben wird; wird gepuffert und mit {@link #close()} geschlossen
+     * @throws IOException wenn der Kopf nicht geschrieben werden kann
+     */
+    public Tickschreiber(OutputStream ziel) throws IOException {
+        if (ziel == null)
+            throw new IllegalArgumentException("Ziel darf nicht null sein");
+        this.aus = new DataOutputStream(new BufferedOutputStream(ziel, 1 << 16));
+        aus.writeInt(KENNUNG);
+        aus.writeShort(VERSION);
+    }
+
+    /**
+     * schreibt einen Tick
+     *
+     * @param wertpapierkennummer die Wertpapierkennnummer
+     * @param zeit                Zeitpunkt in Millisekunden seit 1970
+     * @param kurs                der Kurs
+     * @throws IOException wenn nicht geschrieben werden kann
+     */
+    public synchronized void schreiben(int wertpapierkennummer, long zeit, double kurs) throws IOException {
+        aus.writeInt(wertpapierkennummer);
+        aus.writeLong(zeit);
+        aus.writeDouble(kurs);
+        anzahl++;
+    }
+
+    /**
+     * schreibt alle Ticks der Quelle
+     *
+     * @param quelle die Ticks
+     * @return die Anzahl der geschriebenen Ticks
+     * @throws IOException wenn nicht gelesen oder geschrieben werden kann
+     */
+    public long schreiben(Tickquelle quelle) throws IOException {
+        long geschrieben = 0;
+        while (quelle.naechster()) {
+            schreiben(quelle.getWertpapierkennummer(), quelle.getZeit(), quelle.getKurs());
+            geschrieben++;
+        }
+        return geschrieben;
+    }
+
+    /**
+     * schreibt ab jetzt jede Kursänderung der Aktie mit dem aktuellen Zeitpunkt mit
+     *
+     * @param aktie die Aktie
+     * @return das Abonnement, mit dessen Kündigung die Aufzeichnung der Aktie endet
+     */
+    public Kursabonnement aufzeichnen(Aktie aktie) {
+        return aktie.abonnieren(this);
+    }
+
+    /**
+     * schreibt die Kursänderung mit dem aktuellen Zeitpunkt
+     *
+     * @throws UncheckedIOException wenn nicht geschrieben werden kann
+     */
+    @Override
+    public void kursGeaendert(Aktie aktie, double kurs) {
+        try {
+            schreiben(aktie.getWertpapierkennummer(), System.currentTimeMillis(), kurs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * liefert die Anzahl der bisher geschriebenen Ticks
+     *
+     * @return Anzahl der Ticks
+     */
+    public synchronized long getAnzahl() {
+        return anzahl;
+    }
+
+    /**
+     * schreibt den Puffer aus und schließt das Ziel
+     *
+     * @throws IOException wenn nicht geschrieben werden kann
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        aus.close();
+    }
+}
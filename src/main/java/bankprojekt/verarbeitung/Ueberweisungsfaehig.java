@@ -13,7 +13,7 @@ public interface Ueberweisungsfaehig {
      * falls es nicht gesperrt ist und alle kontospezifischen 
      * Regeln für die Überweisung eingehalten werden.
      * Am Empfängerkonto wird keine Änderung vorgenommen, da davon ausgegangen wird, dass dieses sich
-     * bei einer anderen Bank befindet.
+     * bei einer anderen Bank befindet. Die Gutschrift dort übernimmt z.B. die Clearingstelle.
      * @param betrag double
      * @param empfaenger String
      * @param nachKontonr int
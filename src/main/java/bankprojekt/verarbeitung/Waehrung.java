@@ -77,4 +77,30 @@ public enum Waehrung implements Serializable {
         }
         return DoubleRounder.round(betrag / this.umrechnungskurs, 2, RoundingMode.DOWN);
     }
+
+    /**
+     * liefert den Kurs, mit dem ein Betrag in dieser Währung direkt in die Zielwährung umgerechnet wird
+     *
+     * @param ziel die Zielwährung
+     * @return Einheiten der Zielwährung je Einheit dieser Währung
+     */
+    public double kursNach(Waehrung ziel) {
+        return ziel.umrechnungskurs / this.umrechnungskurs;
+    }
+
+    /**
+     * rechnet den Betrag mit dem Kurs um und rundet einmal kaufmännisch auf zwei Nachkommastellen; der Betrag
+     * darf negativ sein
+     *
+     * @param betrag der Betrag
+     * @param kurs   der Kurs, siehe {@link #kursNach(Waehrung)}
+     * @return der umgerechnete Betrag
+     * @throws IllegalArgumentException wenn betrag NaN oder unendlich ist
+     */
+    public static double mitKursUmrechnen(double betrag, double kurs) {
+        if (Double.isNaN(betrag) || Double.isInfinite(betrag)) {
+            throw new IllegalArgumentException("Betrag ungültig");
+        }
+        return DoubleRounder.round(betrag * kurs, 2, RoundingMode.HALF_UP);
+    }
 }
@@ -0,0 +1,72 @@
+package bankprojekt.verarbeitung;
+
+import java.util.Random;
+
+/**
+ * Erzeugt reproduzierbare zufällige Kursticks für mehrere Aktien als {@link Tickquelle}.
+ * <p>
+ * Die Kurse entwickeln sich wie beim Kursgenerator einer {@link Aktie}, aber aus einem festen Startwert: Zwei
+ * Quellen mit denselben Parametern liefern genau dieselben Ticks. Die Aktien kommen reihum an die Reihe, der
+ * Abstand zwischen zwei aufeinanderfolgenden Ticks ist fest.
+ */
+public class Zufallsticks implements Tickquelle {
+    private final Random zufall;
+    private final int[] wertpapierkennummern;
+    private final double[] kurse;
+    private final long anzahl;
+    private final long startzeit;
+    private final long abstand;
+
+    private long erzeugt;
+    private int aktuelle = -1;
+
+    /**
+     * erstellt die Quelle; die Startkurse sind die aktuellen Kurse der Aktien
+     *
+     * @param startwert Startwert des Zufallsgenerators
+     * @param anzahl    Anzahl der Ticks insgesamt
+     * @param startzeit Zeitpunkt des ersten Ticks in Millisekunden seit 1970
+     * @param abstand   Abstand zwischen zwei Ticks in Millisekunden
+     * @param aktien    die Aktien, für die Ticks erzeugt werden
+     * @throws IllegalArgumentException wenn keine Aktien angegeben sind oder anzahl bzw. abstand negativ ist
+     */
+    public Zufallsticks(long startwert, long anzahl, long startzeit, long abstand, Aktie... aktien) {
+        if (aktien == null || aktien.length == 0 || anzahl < 0 || abstand < 0)
+            throw new IllegalArgumentException("ungültige Parameter");
+        this.zufall = new Random(startwert);
+        this.wertpapierkennummern = new int[aktien.length];
+        this.kurse = new double[aktien.length];
+        for (int i = 0; i < aktien.length; i++) {
+            wertpapierkennummern[i] = aktien[i].getWertpapierkennummer();
+            kurse[i] = aktien[i].getKurs();
+        }
+        this.anzahl = anzahl;
+        this.startzeit = startzeit;
+        this.abstand = abstand;
+    }
+
+    @Override
+    public boolean naechster() {
+        if (erzeugt == anzahl)
+            return false;
+        aktuelle = (int) (erzeugt % kurse.length);
+        kurse[aktuelle] = Aktie.naechsterKurs(kurse[aktuelle], zufall);
+        erzeugt++;
+        return true;
+    }
+
+    @Override
+    public int getWertpapierkennummer() {
+        return wertpapierkennummern[aktuelle];
+    }
+
+    @Override
+    public long getZeit() {
+        return startzeit + (erzeugt - 1) * abstand;
+    }
+
+    @Override
+    public double getKurs() {
+        return kurse[aktuelle];
+    }
+}
@@ -0,0 +1,273 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+import bankprojekt.verarbeitung.Kontofabrik;
+import bankprojekt.verarbeitung.Kunde;
+
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Eine asynchrone Fassade über einer {@link Bank}. Alle Operationen liefern sofort ein
+ * {@link CompletableFuture} zurück, Fehler werden als {@link Buchungsstatus} gemeldet statt als Exception.
+ * <p>
+ * Die Operationen werden auf einem frei wählbaren {@link Executor} ausgeführt, z.B. einem Executor, der für
+ * jede Aufgabe einen virtuellen Thread startet. Alternativ kann mit {@link #partitioniert(Bank, int)} eine
+ * feste Anzahl von Threads verwendet werden, bei der alle Operationen auf dasselbe Konto vom selben Thread
+ * und damit in Eingangsreihenfolge ausgeführt werden.
+ * <p>
+ * Da die Bank selbst nicht threadsicher ist, werden die Zugriffe gesperrt, aber nicht alle mit derselben Sperre:
+ * Operationen auf einzelne Konten teilen sich die Lesesperre der Kontenliste und sperren zusätzlich nur die
+ * Konten, die sie buchen, über eine von {@value #ANZAHL_STREIFEN} Sperren je nach Kontonummer. Buchungen auf
+ * verschiedene Konten laufen also parallel, solange die Konten nicht zufällig dieselbe Sperre haben. Nur das
+ * Eröffnen und Löschen von Konten und Operationen über alle Konten nehmen die Schreibsperre und laufen allein.
+ * Anders als bei synchronized wird ein virtueller Thread beim Warten auf eine dieser Sperren nicht an seinen
+ * Träger-Thread gebunden.
+ */
+public class AsynchroneBank implements AutoCloseable {
+    /**
+     * die Bank, auf die alle Operationen weitergeleitet werden
+     */
+    private final Bank bank;
+
+    /**
+     * die Anzahl der Sperren für die Konten
+     */
+    static final int ANZAHL_STREIFEN = 64;
+
+    /**
+     * schützt die Kontenliste der nicht threadsicheren Bank; die Schreibsperre nur für Änderungen der Liste und
+     * Operationen über alle Konten
+     */
+    private final ReadWriteLock kontenliste = new ReentrantReadWriteLock();
+
+    /**
+     * schützen die Konten, das Konto mit der Nummer n gehört zur Sperre n mod {@value #ANZAHL_STREIFEN}
+     */
+    private final Lock[] streifen = new Lock[ANZAHL_STREIFEN];
+
+    /**
+     * die Executoren, auf die die Operationen verteilt werden
+     */
+    private final Executor[] ausfuehrer;
+
+    /**
+     * true, wenn die Executoren von this erzeugt wurden und beim Schließen beendet werden müssen
+     */
+    private final boolean eigeneAusfuehrer;
+
+    /**
+     * verteilt Operationen ohne Kontonummer reihum auf die Executoren
+     */
+    private final AtomicInteger naechsterAusfuehrer = new AtomicInteger();
+
+    /**
+     * erstellt eine Fassade, die alle Operationen auf dem angegebenen Executor ausführt.
+     * Der Executor wird beim Schließen nicht beendet.
+     *
+     * @param bank       die Bank
+     * @param ausfuehrer der Executor, z.B. Executors.newVirtualThreadPerTaskExecutor()
+     * @throws IllegalArgumentException wenn einer der Parameter null ist
+     */
+    public AsynchroneBank(Bank bank, Executor ausfuehrer) {
+        this(bank, new Executor[]{ausfuehrer}, false);
+        if (ausfuehrer == null)
+            throw new IllegalArgumentException("Executor darf nicht null sein");
+    }
+
+    private AsynchroneBank(Bank bank, Executor[] ausfuehrer, boolean eigeneAusfuehrer) {
+        if (bank == null)
+            throw new IllegalArgumentException("Bank darf nicht null sein");
+        this.bank = bank;
+        this.ausfuehrer = ausfuehrer;
+        this.eigeneAusfuehrer = eigeneAusfuehrer;
+        for (int i = 0; i < streifen.length; i++) {
+            streifen[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * erstellt eine Fassade mit der angegebenen Anzahl von Threads. Operationen auf ein Konto werden
+     * anhand der Kontonummer immer demselben Thread zugeordnet.
+     *
+     * @param bank        die Bank
+     * @param partitionen die Anzahl der Threads
+     * @return die Fassade, die beim Schließen ihre Threads beendet
+     * @throws IllegalArgumentException wenn bank null oder partitionen kleiner als 1 ist
+     */
+    public static AsynchroneBank partitioniert(Bank bank, int partitionen) {
+        if (partitionen < 1)
+            throw new IllegalArgumentException("Es wird mindestens eine Partition benötigt");
+        Executor[] ausfuehrer = new Executor[partitionen];
+        for (int i = 0; i < partitionen; i++) {
+            ausfuehrer[i] = Executors.newSingleThreadExecutor();
+        }
+        return new AsynchroneBank(bank, ausfuehrer, true);
+    }
+
+    /**
+     * erstellt asynchron ein neues Konto
+     *
+     * @param kontofabrik die Fabrik für das Konto
+     * @param inhaber     der Inhaber
+     * @return die vergebene Kontonummer
+     */
+    public CompletableFuture<Long> kontoErstellen(Kontofabrik kontofabrik, Kunde inhaber) {
+        return ausfuehrenAllein(ausfuehrerReihum(), () -> bank.kontoErstellen(kontofabrik, inhaber));
+    }
+
+    /**
+     * zahlt asynchron den Betrag auf das angegebene Konto ein
+     *
+     * @param auf    die Kontonummer
+     * @param betrag der Betrag
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN oder UNGUELTIGER_BETRAG
+     */
+    public CompletableFuture<Buchungsstatus> geldEinzahlen(long auf, double betrag) {
+        return ausfuehren(ausfuehrerFuer(auf), auf, auf, () -> bank.geldEinzahlenStatus(auf, betrag));
+    }
+
+    /**
+     * hebt asynchron den Betrag vom angegebenen Konto ab
+     *
+     * @param von    die Kontonummer
+     * @param betrag der Betrag
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN, GESPERRT, NICHT_GEDECKT oder UNGUELTIGER_BETRAG
+     */
+    public CompletableFuture<Buchungsstatus> geldAbheben(long von, double betrag) {
+        return ausfuehren(ausfuehrerFuer(von), von, von, () -> bank.geldAbhebenStatus(von, betrag));
+    }
+
+    /**
+     * überweist asynchron den Betrag zwischen zwei Konten der Bank.
+     * Die Überweisung wird dem Thread des Auftraggebers zugeordnet.
+     *
+     * @param vonKontoNr       die Kontonummer des Auftraggebers
+     * @param nachKontoNr      die Kontonummer des Empfängers
+     * @param betrag           der Betrag
+     * @param verwendungszweck der Verwendungszweck
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN, NICHT_UEBERWEISUNGSFAEHIG, GESPERRT, NICHT_GEDECKT
+     * oder UNGUELTIGER_BETRAG
+     */
+    public CompletableFuture<Buchungsstatus> geldUeberweisen(long vonKontoNr, long nachKontoNr, double betrag,
+                                                             String verwendungszweck) {
+        return ausfuehren(ausfuehrerFuer(vonKontoNr), vonKontoNr, nachKontoNr, () -> {
+            try {
+                return bank.geldUeberweisenStatus(vonKontoNr, nachKontoNr, betrag, verwendungszweck);
+            } catch (IllegalArgumentException e) {
+                return Buchungsstatus.UNGUELTIGER_BETRAG;
+            }
+        });
+    }
+
+    /**
+     * liefert asynchron den Kontostand
+     *
+     * @param nummer die Kontonummer
+     * @return der Kontostand oder ein leeres Optional, wenn es das Konto nicht gibt
+     */
+    public CompletableFuture<OptionalDouble> getKontostand(long nummer) {
+        return ausfuehren(ausfuehrerFuer(nummer), nummer, nummer, () -> {
+            try {
+                return OptionalDouble.of(bank.getKontostand(nummer));
+            } catch (KontonummerNichtVorhandenException e) {
+                return OptionalDouble.empty();
+            }
+        });
+    }
+
+    /**
+     * löscht asynchron das angegebene Konto
+     *
+     * @param nummer die Kontonummer
+     * @return true, wenn das Konto gelöscht wurde
+     */
+    public CompletableFuture<Boolean> kontoLoeschen(long nummer) {
+        return ausfuehrenAllein(ausfuehrerFuer(nummer), () -> bank.kontoLoeschen(nummer));
+    }
+
+    /**
+     * sperrt asynchron alle Konten, deren Kontostand im Minus ist
+     *
+     * @return ist abgeschlossen, wenn alle Konten geprüft wurden
+     */
+    public CompletableFuture<Void> pleitegeierSperren() {
+        return ausfuehrenAllein(ausfuehrerReihum(), () -> {
+            bank.pleitegeierSperren();
+            return null;
+        });
+    }
+
+    /**
+     * führt die Operation auf die beiden Konten (oder zweimal dasselbe) unter der Lesesperre der Kontenliste und
+     * den Sperren der Konten auf dem angegebenen Executor aus. Die Sperren der Konten werden immer in
+     * aufsteigender Reihenfolge genommen, so dass sich zwei Überweisungen nicht gegenseitig blockieren können.
+     */
+    private <T> CompletableFuture<T> ausfuehren(Executor executor, long konto1, long konto2, Supplier<T> operation) {
+        int s1 = (int) Math.floorMod(konto1, (long) ANZAHL_STREIFEN);
+        int s2 = (int) Math.floorMod(konto2, (long) ANZAHL_STREIFEN);
+        Lock erste = streifen[Math.min(s1, s2)];
+        Lock zweite = s1 == s2 ? null : streifen[Math.max(s1, s2)];
+        return CompletableFuture.supplyAsync(() -> {
+            Lock lesen = kontenliste.readLock();
+            lesen.lock();
+            erste.lock();
+            if (zweite != null)
+                zweite.lock();
+            try {
+                return operation.get();
+            } finally {
+                if (zweite != null)
+                    zweite.unlock();
+                erste.unlock();
+                lesen.unlock();
+            }
+        }, executor);
+    }
+
+    /**
+     * führt die Operation unter der Schreibsperre der Kontenliste, also ohne gleichzeitige andere Operationen,
+     * auf dem angegebenen Executor aus
+     */
+    private <T> CompletableFuture<T> ausfuehrenAllein(Executor executor, Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            Lock schreiben = kontenliste.writeLock();
+            schreiben.lock();
+            try {
+                return operation.get();
+            } finally {
+                schreiben.unlock();
+            }
+        }, executor);
+    }
+
+    private Executor ausfuehrerFuer(long kontonummer) {
+        return ausfuehrer[(int) Math.floorMod(kontonummer, (long) ausfuehrer.length)];
+    }
+
+    private Executor ausfuehrerReihum() {
+        return ausfuehrer[Math.floorMod(naechsterAusfuehrer.getAndIncrement(), ausfuehrer.length)];
+    }
+
+    /**
+     * beendet die Threads, falls sie von {@link #partitioniert(Bank, int)} erzeugt wurden.
+     * Bereits angenommene Operationen werden noch ausgeführt.
+     */
+    @Override
+    public void close() {
+        if (eigeneAusfuehrer) {
+            for (Executor executor : ausfuehrer) {
+                ((ExecutorService) executor).shutdown();
+            }
+        }
+    }
+}
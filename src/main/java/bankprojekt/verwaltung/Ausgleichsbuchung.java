@@ -0,0 +1,84 @@
+package bankprojekt.verwaltung;
+
+/**
+ * Eine Ausgleichsbuchung zwischen zwei Banken, die bei der Abrechnung der {@link Clearingstelle}
+ * entsteht. Sie fasst alle Überweisungen eines Abrechnungsfensters zwischen den beiden Banken
+ * zu einem Nettobetrag zusammen.
+ */
+public class Ausgleichsbuchung {
+    /**
+     * die Bankleitzahl der Bank, die den Nettobetrag schuldet
+     */
+    private final long zahlerBlz;
+
+    /**
+     * die Bankleitzahl der Bank, die den Nettobetrag erhält
+     */
+    private final long empfaengerBlz;
+
+    /**
+     * der Nettobetrag, immer größer als 0
+     */
+    private final double betrag;
+
+    /**
+     * die Anzahl der Überweisungen in beide Richtungen, die in diese Buchung eingeflossen sind
+     */
+    private final int anzahlUeberweisungen;
+
+    /**
+     * erstellt eine Ausgleichsbuchung
+     *
+     * @param zahlerBlz            die Bankleitzahl der zahlenden Bank
+     * @param empfaengerBlz        die Bankleitzahl der empfangenden Bank
+     * @param betrag               der Nettobetrag
+     * @param anzahlUeberweisungen die Anzahl der zusammengefassten Überweisungen
+     */
+    Ausgleichsbuchung(long zahlerBlz, long empfaengerBlz, double betrag, int anzahlUeberweisungen) {
+        this.zahlerBlz = zahlerBlz;
+        this.empfaengerBlz = empfaengerBlz;
+        this.betrag = betrag;
+        this.anzahlUeberweisungen = anzahlUeberweisungen;
+    }
+
+    /**
+     * liefert die Bankleitzahl der zahlenden Bank
+     *
+     * @return Bankleitzahl
+     */
+    public long getZahlerBlz() {
+        return zahlerBlz;
+    }
+
+    /**
+     * liefert die Bankleitzahl der empfangenden Bank
+     *
+     * @return Bankleitzahl
+     */
+    public long getEmpfaengerBlz() {
+        return empfaengerBlz;
+    }
+
+    /**
+     * liefert den Nettobetrag
+     *
+     * @return Nettobetrag
+     */
+    public double getBetrag() {
+        return betrag;
+    }
+
+    /**
+     * liefert die Anzahl der zusammengefassten Überweisungen
+     *
+     * @return Anzahl der Überweisungen
+     */
+    public int getAnzahlUeberweisungen() {
+        return anzahlUeberweisungen;
+    }
+
+    @Override
+    public String toString() {
+        return zahlerBlz + " -> " + empfaengerBlz + ": " + betrag + " (" + anzahlUeberweisungen + " Überweisungen)";
+    }
+}
@@ -1,13 +1,25 @@
 package bankprojekt.verwaltung;
 
 
+import bankprojekt.jfr.BankKlonEvent;
+import bankprojekt.jfr.UeberweisungEvent;
+import bankprojekt.metriken.Bankmetriken;
+import bankprojekt.metriken.Bankoperation;
+import bankprojekt.metriken.Kontoaggregate;
 import bankprojekt.verarbeitung.*;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +43,29 @@ public class Bank implements Cloneable, Serializable {
      */
     private final HashMap<Long, Konto> bankKonten = new HashMap<>();
 
+    /**
+     * die Ergebnisse der zuletzt mit Idempotenzschlüssel ausgeführten Buchungen,
+     * wird beim ersten Gebrauch angelegt
+     */
+    private transient volatile Idempotenzfenster idempotenzfenster;
+
+    /**
+     * die Metriken der Bank, null wenn keine erfasst werden
+     */
+    private transient Bankmetriken metriken;
+
+    /**
+     * die laufend nachgeführten Summen über alle Konten, wird bei der ersten Abfrage angelegt; volatile, damit
+     * andere Threads die vollständig angemeldeten Aggregate sehen
+     */
+    private transient volatile Kontoaggregate aggregate;
+
+    /**
+     * die Limits für Abgänge je Kontoart; nebenläufig, weil neue Konten ihr Limit auch auf anderen Threads
+     * nachschlagen, während es gesetzt wird
+     */
+    private final transient Map<Kontoart, Geschwindigkeitslimit> limits = new ConcurrentHashMap<>();
+
 
     /**
      * Erstellt eine Bank mit der angegebenen Bankleitzahl
@@ -96,14 +131,27 @@ public class Bank implements Cloneable, Serializable {
     }
 
     /**
-     * Erstellt eine neue, noch nie vorgegebene Kontonummer
+     * Erstellt eine neue, noch nie vorgegebene Kontonummer.
+     * Die Nummern werden über alle Bank-Objekte hinweg eindeutig vergeben.
      *
      * @return die neue Kontonummer
      */
-    private static long erstellKontonummer() {
-        if (currKontoNum < MAX_KONTO_NUM)
-            return currKontoNum++;
-        else {
+    static long erstellKontonummer() {
+        return kontonummernReservieren(1);
+    }
+
+    /**
+     * Reserviert einen zusammenhängenden Block neuer, noch nie vorgegebener Kontonummern.
+     *
+     * @param anzahl die Anzahl der benötigten Kontonummern
+     * @return die erste Kontonummer des Blocks, der Block reicht bis ausschließlich erste + anzahl
+     */
+    static synchronized long kontonummernReservieren(int anzahl) {
+        if (currKontoNum + anzahl <= MAX_KONTO_NUM) {
+            long erste = currKontoNum;
+            currKontoNum += anzahl;
+            return erste;
+        } else {
             throw new RuntimeException("Max Limit reached for konto Numbers");
         }
     }
@@ -119,44 +167,156 @@ public class Bank implements Cloneable, Serializable {
     public long mockEinfuegen(Konto k) {
         long kontoNr = erstellKontonummer();
         bankKonten.put(kontoNr, k);
+        anmelden(k);
 
         return kontoNr;
     }
 
+    /**
+     * fügt das Konto unter der angegebenen, bereits vergebenen Kontonummer ein
+     *
+     * @param kontoNr die Kontonummer aus {@link #erstellKontonummer()}
+     * @param k       das Konto
+     */
+    void kontoEinfuegen(long kontoNr, Konto k) {
+        bankKonten.put(kontoNr, k);
+        anmelden(k);
+    }
+
+    /**
+     * fügt die Konten in einem Schritt unter den fortlaufenden Kontonummern ab ersteNummer ein
+     *
+     * @param ersteNummer die erste Kontonummer eines Blocks aus {@link #kontonummernReservieren(int)}
+     * @param konten      die Konten, konten[i] erhält die Nummer ersteNummer + i
+     */
+    void kontenEinfuegen(long ersteNummer, Konto[] konten) {
+        for (int i = 0; i < konten.length; i++) {
+            bankKonten.put(ersteNummer + i, konten[i]);
+            anmelden(konten[i]);
+        }
+    }
+
+    /**
+     * liefert das Konto mit der angegebenen Nummer
+     *
+     * @param nummer die Kontonummer
+     * @return das Konto oder null, wenn es die Kontonummer nicht gibt
+     */
+    Konto kontoSuchen(long nummer) {
+        return bankKonten.get(nummer);
+    }
+
     public long kontoErstellen(Kontofabrik kontofabrik, Kunde inhaber) throws NullPointerException {
         if (kontofabrik == null || inhaber == null)
             throw new NullPointerException("Kontofabrik und Inhaber dürfen nicht null sein");
 
+        Bankmetriken m = metriken;
+        long start = m == null ? 0 : m.beginnen();
         long kontoNr = erstellKontonummer();
         Konto konto = kontofabrik.erstellenKonto(inhaber, kontoNr);
         bankKonten.put(kontoNr, konto);
+        anmelden(konto);
+        if (m != null)
+            m.erfassen(Bankoperation.KONTO_ERSTELLEN, Buchungsstatus.ERFOLGREICH, start);
         return kontoNr;
     }
 
     /**
-     * liefert eine Auflistung von Kontonummer und Kontostand zu jedem Konto zurück
+     * liefert eine Auflistung von Kontonummer und Kontostand zu jedem Konto zurück, nach Kontonummer sortiert.
+     * Für sehr viele Konten sollte {@link #getAlleKonten(Appendable)} verwendet werden.
      *
      * @return die Kontonummer und deren Kontostand
      */
     public String getAlleKonten() {
         StringBuilder str = new StringBuilder();
-        for (Long key : bankKonten.keySet()) {
-            Konto k = bankKonten.get(key);
-            str.append(key);
-            str.append(": ");
-            str.append(k.getKontostand()).append(" ").append(k.getAktuelleWaehrung());
-            str.append(System.lineSeparator());
+        try {
+            getAlleKonten(str);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         return str.toString();
     }
 
     /**
-     * liefert eine Liste aller gültigen Kontonummern in der Bank
+     * schreibt Kontonummer und Kontostand zu jedem Konto nach Kontonummer sortiert in das Ziel, eine Zeile je Konto.
+     * Außer den sortierten Kontonummern wird nichts zwischengespeichert; ein Konto, das währenddessen gelöscht
+     * wird, wird übersprungen.
+     *
+     * @param ziel wohin geschrieben wird, z.B. ein Writer
+     * @throws IOException wenn das Schreiben fehlschlägt
+     */
+    public void getAlleKonten(Appendable ziel) throws IOException {
+        StringBuilder zeile = new StringBuilder(64);
+        String zeilenende = System.lineSeparator();
+        for (long nummer : sortierteKontonummern()) {
+            Konto k = bankKonten.get(nummer);
+            if (k == null)
+                continue;
+            zeile.setLength(0);
+            zeileAnhaengen(zeile, nummer, k).append(zeilenende);
+            ziel.append(zeile);
+        }
+    }
+
+    /**
+     * hängt die Zeile des Kontos für {@link #getAlleKonten()} ohne Zeilenende an
+     *
+     * @return das Ziel
+     */
+    static StringBuilder zeileAnhaengen(StringBuilder ziel, long nummer, Konto k) {
+        return ziel.append(nummer).append(": ").append(k.getKontostand()).append(" ").append(k.getAktuelleWaehrung());
+    }
+
+    /**
+     * schreibt Kontonummer und Kontostand zu jedem Konto nach Kontonummer sortiert als UTF-8 in den Kanal.
+     * Der Kanal wird nicht geschlossen.
+     *
+     * @param kanal wohin geschrieben wird, z.B. ein FileChannel
+     * @throws IOException wenn das Schreiben fehlschlägt
+     */
+    public void getAlleKonten(WritableByteChannel kanal) throws IOException {
+        Writer schreiber = Channels.newWriter(kanal, StandardCharsets.UTF_8);
+        getAlleKonten(schreiber);
+        schreiber.flush();
+    }
+
+    /**
+     * liefert eine Liste aller gültigen Kontonummern in der Bank, aufsteigend sortiert
      *
      * @return eine Liste von Kontonummern
      */
     public List<Long> getAlleKontonummern() {
-        return new LinkedList<>(bankKonten.keySet());
+        long[] nummern = sortierteKontonummern();
+        List<Long> liste = new ArrayList<>(nummern.length);
+        for (long nummer : nummern) {
+            liste.add(nummer);
+        }
+        return liste;
+    }
+
+    /**
+     * liefert die Kontonummern aufsteigend sortiert, ohne sie einzeln als Long-Objekte zu liefern.
+     * Der Iterator arbeitet auf einer Momentaufnahme; später eröffnete oder gelöschte Konten ändern ihn nicht.
+     *
+     * @return ein Iterator über die Kontonummern
+     */
+    public PrimitiveIterator.OfLong kontonummernIterator() {
+        return Arrays.stream(sortierteKontonummern()).iterator();
+    }
+
+    /**
+     * liefert alle Kontonummern aufsteigend sortiert
+     *
+     * @return die Kontonummern
+     */
+    long[] sortierteKontonummern() {
+        long[] nummern = new long[bankKonten.size()];
+        int i = 0;
+        for (long nummer : bankKonten.keySet()) {
+            nummern[i++] = nummer;
+        }
+        Arrays.sort(nummern);
+        return nummern;
     }
 
     /**
@@ -171,13 +331,43 @@ public class Bank implements Cloneable, Serializable {
      */
     public boolean geldAbheben(long von, double betrag) throws
             GesperrtException, IllegalArgumentException, KontonummerNichtVorhandenException {
-        if (containsKey(von)) {
-            if (betrag <= 0)
+        Buchungsstatus status = geldAbhebenStatus(von, betrag);
+        switch (status) {
+            case KONTO_NICHT_VORHANDEN:
+                throw new KontonummerNichtVorhandenException(von);
+            case UNGUELTIGER_BETRAG:
                 throw new IllegalArgumentException("Betrag muss größer als 0 sein");
-            Konto k = bankKonten.get(von);
-            return k.abheben(betrag);
-        } else
-            throw new KontonummerNichtVorhandenException(von);
+            case GESPERRT:
+                throw new GesperrtException(von);
+            default:
+                return status.isErfolgreich();
+        }
+    }
+
+    /**
+     * hebt den Betrag vom Konto mit der angegebenen Kontonummer ab, ohne im Fehlerfall eine Exception zu erzeugen.
+     *
+     * @param von    die Kontonummer, von der der Betrag abgehoben werden soll
+     * @param betrag der abzuhebende Betrag
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN, UNGUELTIGER_BETRAG, GESPERRT, LIMIT_UEBERSCHRITTEN oder NICHT_GEDECKT
+     */
+    public Buchungsstatus geldAbhebenStatus(long von, double betrag) {
+        Bankmetriken m = metriken;
+        if (m == null)
+            return abhebenAusfuehren(von, betrag);
+        long start = m.beginnen();
+        Buchungsstatus status = abhebenAusfuehren(von, betrag);
+        m.erfassen(Bankoperation.ABHEBEN, status, start);
+        return status;
+    }
+
+    private Buchungsstatus abhebenAusfuehren(long von, double betrag) {
+        Konto k = bankKonten.get(von);
+        if (k == null)
+            return Buchungsstatus.KONTO_NICHT_VORHANDEN;
+        if (betrag <= 0)
+            return Buchungsstatus.UNGUELTIGER_BETRAG;
+        return k.abhebenStatus(betrag);
     }
 
 
@@ -191,13 +381,39 @@ public class Bank implements Cloneable, Serializable {
      */
     public void geldEinzahlen(long auf, double betrag) throws
             IllegalArgumentException, KontonummerNichtVorhandenException {
-        if (containsKey(auf)) {
-            if (betrag <= 0)
-                throw new IllegalArgumentException("Betrag muss größer als 0 sein");
-            Konto k = bankKonten.get(auf);
-            k.einzahlen(betrag);
-        } else
+        Buchungsstatus status = geldEinzahlenStatus(auf, betrag);
+        if (status == Buchungsstatus.KONTO_NICHT_VORHANDEN)
             throw new KontonummerNichtVorhandenException(auf);
+        if (status == Buchungsstatus.UNGUELTIGER_BETRAG)
+            throw new IllegalArgumentException("Betrag muss größer als 0 sein");
+    }
+
+    /**
+     * zahlt den angegebenen Betrag auf das Konto mit der angegebenen Kontonummer ein,
+     * ohne im Fehlerfall eine Exception zu erzeugen.
+     *
+     * @param auf    die Kontonummer, auf das der Betrag eingezahlt werden soll
+     * @param betrag der einzuzahlende Betrag
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN oder UNGUELTIGER_BETRAG
+     */
+    public Buchungsstatus geldEinzahlenStatus(long auf, double betrag) {
+        Bankmetriken m = metriken;
+        if (m == null)
+            return einzahlenAusfuehren(auf, betrag);
+        long start = m.beginnen();
+        Buchungsstatus status = einzahlenAusfuehren(auf, betrag);
+        m.erfassen(Bankoperation.EINZAHLEN, status, start);
+        return status;
+    }
+
+    private Buchungsstatus einzahlenAusfuehren(long auf, double betrag) {
+        Konto k = bankKonten.get(auf);
+        if (k == null)
+            return Buchungsstatus.KONTO_NICHT_VORHANDEN;
+        if (!(betrag > 0) || Double.isInfinite(betrag))
+            return Buchungsstatus.UNGUELTIGER_BETRAG;
+        k.einzahlen(betrag);
+        return Buchungsstatus.ERFOLGREICH;
     }
 
     /**
@@ -208,7 +424,9 @@ public class Bank implements Cloneable, Serializable {
      */
     public boolean kontoLoeschen(long nummer) {
         if (containsKey(nummer)) {
-            bankKonten.remove(nummer);
+            Konto k = bankKonten.remove(nummer);
+            if (aggregate != null)
+                k.aggregateSetzen(null);
             return true;
         } else
             return false;
@@ -228,26 +446,54 @@ public class Bank implements Cloneable, Serializable {
      */
     public boolean geldUeberweisen(long vonKontoNr, long nachKontoNr, double betrag, String verwendungszweck)
             throws IllegalArgumentException {
+        return geldUeberweisenStatus(vonKontoNr, nachKontoNr, betrag, verwendungszweck).isErfolgreich();
+    }
 
-        if (!containsKey(nachKontoNr) || !containsKey(vonKontoNr)) {
-            return false;
+    /**
+     * Überweist den angegebenen Betrag vom überweisungsfähigen Konto mit der Nummer vonKontoNr zum überweisungsfähigen
+     * Konto mit der Nummer nachKontoNr und liefert das Ergebnis als Status zurück.
+     *
+     * @param vonKontoNr       die Kontonummer des überweisungsfähigen Kontos, von dem der Betrag abgebucht wird
+     * @param nachKontoNr      die Kontonummer des überweisungsfähigen Kontos, auf das der Betrag überwiesen wird
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck optionaler Verwendungszweck für die Überweisung
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN, NICHT_UEBERWEISUNGSFAEHIG, GESPERRT, LIMIT_UEBERSCHRITTEN
+     * oder NICHT_GEDECKT
+     * @throws IllegalArgumentException wenn einer der Parameter fehlerhaft ist
+     */
+    public Buchungsstatus geldUeberweisenStatus(long vonKontoNr, long nachKontoNr, double betrag,
+                                                String verwendungszweck) throws IllegalArgumentException {
+        Bankmetriken m = metriken;
+        long start = m == null ? 0 : m.beginnen();
+        UeberweisungEvent ereignis = new UeberweisungEvent();
+        ereignis.begin();
+        Buchungsstatus status = Buchungsstatus.UNGUELTIGER_BETRAG;
+        try {
+            status = ueberweisenAusfuehren(vonKontoNr, nachKontoNr, betrag, verwendungszweck);
+            return status;
+        } finally {
+            ereignis.abschliessen(vonKontoNr, nachKontoNr, betrag, status);
+            if (m != null)
+                m.erfassen(Bankoperation.UEBERWEISEN, status, start);
         }
+    }
 
+    private Buchungsstatus ueberweisenAusfuehren(long vonKontoNr, long nachKontoNr, double betrag,
+                                                 String verwendungszweck) {
         Konto vonKonto = bankKonten.get(vonKontoNr);
         Konto nachKonto = bankKonten.get(nachKontoNr);
-
-        if (vonKonto instanceof Ueberweisungsfaehig && nachKonto instanceof Ueberweisungsfaehig) {
-            boolean ueberweisungGeklappt = sendeUeberweisung((Ueberweisungsfaehig) vonKonto, betrag, nachKonto.getInhaber().getName(), nachKonto.getKontonummer(),
-                    getBankleitzahl(), verwendungszweck);
-
-            if (ueberweisungGeklappt) {
-                empfangeUeberweisung((Ueberweisungsfaehig) nachKonto, betrag, vonKonto.getInhaber().getName(), vonKonto.getKontonummer(),
-                        bankleitzahl, verwendungszweck);
-                return true;
-            }
-            return false;
+        if (vonKonto == null || nachKonto == null)
+            return Buchungsstatus.KONTO_NICHT_VORHANDEN;
+        if (!(vonKonto instanceof Ueberweisungsfaehig) || !(nachKonto instanceof Ueberweisungsfaehig))
+            return Buchungsstatus.NICHT_UEBERWEISUNGSFAEHIG;
+
+        Buchungsstatus status = limitiertSenden(vonKonto, betrag, nachKonto.getInhaber().getName(),
+                nachKonto.getKontonummer(), getBankleitzahl(), verwendungszweck);
+        if (status.isErfolgreich()) {
+            empfangeUeberweisung((Ueberweisungsfaehig) nachKonto, betrag, vonKonto.getInhaber().getName(),
+                    vonKonto.getKontonummer(), bankleitzahl, verwendungszweck);
         }
-        return false;
+        return status;
     }
 
     /**
@@ -260,18 +506,87 @@ public class Bank implements Cloneable, Serializable {
      * @param nachKontonr     the account number of the recipient's account
      * @param nachBlz         the bank code of the recipient's bank
      * @param verwendugszweck optional purpose for the transfer
-     * @return true if the transfer was successful, false otherwise
+     * @return ERFOLGREICH if the transfer was successful, GESPERRT or NICHT_GEDECKT otherwise
      * @throws IllegalArgumentException if any of the parameters are invalid
      */
-    boolean sendeUeberweisung(Ueberweisungsfaehig sender, double betrag, String empfaenger, long nachKontonr,
-                              long nachBlz, String verwendugszweck) {
+    Buchungsstatus sendeUeberweisung(Ueberweisungsfaehig sender, double betrag, String empfaenger, long nachKontonr,
+                                     long nachBlz, String verwendugszweck) {
         try {
-            return sender.ueberweisungAbsenden(betrag, empfaenger, nachKontonr, nachBlz, verwendugszweck);
+            if (sender.ueberweisungAbsenden(betrag, empfaenger, nachKontonr, nachBlz, verwendugszweck))
+                return Buchungsstatus.ERFOLGREICH;
+            return Buchungsstatus.NICHT_GEDECKT;
         } catch (GesperrtException e) {
-            return false;
+            return Buchungsstatus.GESPERRT;
         }
     }
 
+    /**
+     * bucht eine Überweisung vom Konto mit der Nummer vonKontoNr ab, ohne einem Empfänger in dieser Bank etwas
+     * gutzuschreiben. Die Gutschrift erfolgt durch den Aufrufer, z.B. in einer anderen Partition oder Bank.
+     *
+     * @param vonKontoNr       die Kontonummer des Auftraggebers
+     * @param betrag           der Betrag
+     * @param empfaenger       der Name des Empfängers
+     * @param nachKontoNr      die Kontonummer des Empfängers
+     * @param nachBlz          die Bankleitzahl des Empfängers
+     * @param verwendungszweck der Verwendungszweck
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN, NICHT_UEBERWEISUNGSFAEHIG, GESPERRT, LIMIT_UEBERSCHRITTEN
+     * oder NICHT_GEDECKT
+     * @throws IllegalArgumentException wenn einer der Parameter fehlerhaft ist
+     */
+    Buchungsstatus ueberweisungAbbuchen(long vonKontoNr, double betrag, String empfaenger, long nachKontoNr,
+                                        long nachBlz, String verwendungszweck) {
+        Konto vonKonto = bankKonten.get(vonKontoNr);
+        if (vonKonto == null)
+            return Buchungsstatus.KONTO_NICHT_VORHANDEN;
+        if (!(vonKonto instanceof Ueberweisungsfaehig))
+            return Buchungsstatus.NICHT_UEBERWEISUNGSFAEHIG;
+        return limitiertSenden(vonKonto, betrag, empfaenger, nachKontoNr, nachBlz, verwendungszweck);
+    }
+
+    /**
+     * sendet die Überweisung, sofern sie im Limit des Kontos liegt. Der Betrag wird vor der Abbuchung im Limit
+     * reserviert und wieder freigegeben, wenn die Abbuchung scheitert.
+     */
+    private Buchungsstatus limitiertSenden(Konto vonKonto, double betrag, String empfaenger, long nachKontonr,
+                                           long nachBlz, String verwendungszweck) {
+        long reservierung = vonKonto.limitReservieren(betrag);
+        if (reservierung == Geschwindigkeitslimit.ABGELEHNT)
+            return vonKonto.isGesperrt() ? Buchungsstatus.GESPERRT : Buchungsstatus.LIMIT_UEBERSCHRITTEN;
+        Buchungsstatus status = null;
+        try {
+            status = sendeUeberweisung((Ueberweisungsfaehig) vonKonto, betrag, empfaenger, nachKontonr, nachBlz,
+                    verwendungszweck);
+        } finally {
+            if (status == null || !status.isErfolgreich())
+                vonKonto.limitFreigeben(reservierung, betrag);
+        }
+        return status;
+    }
+
+    /**
+     * schreibt dem Konto mit der Nummer nachKontoNr eine Überweisung gut, deren Abbuchung bereits
+     * an anderer Stelle erfolgt ist.
+     *
+     * @param nachKontoNr      die Kontonummer des Empfängers
+     * @param betrag           der Betrag
+     * @param vonName          der Name des Auftraggebers
+     * @param vonKontoNr       die Kontonummer des Auftraggebers
+     * @param vonBlz           die Bankleitzahl des Auftraggebers
+     * @param verwendungszweck der Verwendungszweck
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN oder NICHT_UEBERWEISUNGSFAEHIG
+     */
+    Buchungsstatus ueberweisungGutschreiben(long nachKontoNr, double betrag, String vonName, long vonKontoNr,
+                                            long vonBlz, String verwendungszweck) {
+        Konto nachKonto = bankKonten.get(nachKontoNr);
+        if (nachKonto == null)
+            return Buchungsstatus.KONTO_NICHT_VORHANDEN;
+        if (!(nachKonto instanceof Ueberweisungsfaehig))
+            return Buchungsstatus.NICHT_UEBERWEISUNGSFAEHIG;
+        empfangeUeberweisung((Ueberweisungsfaehig) nachKonto, betrag, vonName, vonKontoNr, vonBlz, verwendungszweck);
+        return Buchungsstatus.ERFOLGREICH;
+    }
+
     /**
      * Receives a money transfer from the sender's account and updates the recipient's account balance.
      *
@@ -288,6 +603,168 @@ public class Bank implements Cloneable, Serializable {
         empfaenger.ueberweisungEmpfangen(betrag, vorname, vonKontonr, vonBlz, verwendungszweck);
     }
 
+    /**
+     * zahlt den Betrag ein, sofern unter dem Idempotenzschlüssel nicht bereits eine Buchung ausgeführt wurde.
+     * Bei einer Wiederholung, auch einer gleichzeitigen, wird das Ergebnis der ersten Buchung zurückgegeben.
+     *
+     * @param schluessel vom Aufrufer vergebener, eindeutiger Schlüssel der Buchung
+     * @param auf        die Kontonummer, auf das der Betrag eingezahlt werden soll
+     * @param betrag     der einzuzahlende Betrag
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN oder UNGUELTIGER_BETRAG
+     */
+    public Buchungsstatus geldEinzahlenIdempotent(long schluessel, long auf, double betrag) {
+        return getIdempotenzfenster().ausfuehren(schluessel, () -> geldEinzahlenStatus(auf, betrag));
+    }
+
+    /**
+     * hebt den Betrag ab, sofern unter dem Idempotenzschlüssel nicht bereits eine Buchung ausgeführt wurde.
+     * Bei einer Wiederholung, auch einer gleichzeitigen, wird das Ergebnis der ersten Buchung zurückgegeben.
+     *
+     * @param schluessel vom Aufrufer vergebener, eindeutiger Schlüssel der Buchung
+     * @param von        die Kontonummer, von der der Betrag abgehoben werden soll
+     * @param betrag     der abzuhebende Betrag
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN, UNGUELTIGER_BETRAG, GESPERRT oder NICHT_GEDECKT
+     */
+    public Buchungsstatus geldAbhebenIdempotent(long schluessel, long von, double betrag) {
+        return getIdempotenzfenster().ausfuehren(schluessel, () -> geldAbhebenStatus(von, betrag));
+    }
+
+    /**
+     * überweist den Betrag, sofern unter dem Idempotenzschlüssel nicht bereits eine Buchung ausgeführt wurde.
+     * Bei einer Wiederholung, z.B. nach einem Timeout beim Aufrufer, wird das Ergebnis der ersten Überweisung
+     * zurückgegeben, ohne erneut zu buchen; läuft die erste noch, wartet die Wiederholung auf ihr Ergebnis.
+     *
+     * @param schluessel       vom Aufrufer vergebener, eindeutiger Schlüssel der Überweisung
+     * @param vonKontoNr       die Kontonummer des Auftraggebers
+     * @param nachKontoNr      die Kontonummer des Empfängers
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck der Verwendungszweck
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN, NICHT_UEBERWEISUNGSFAEHIG, GESPERRT oder NICHT_GEDECKT
+     * @throws IllegalArgumentException wenn einer der Parameter fehlerhaft ist; der Schlüssel wird dann nicht gemerkt
+     */
+    public Buchungsstatus geldUeberweisenIdempotent(long schluessel, long vonKontoNr, long nachKontoNr, double betrag,
+                                                    String verwendungszweck) {
+        return getIdempotenzfenster().ausfuehren(schluessel,
+                () -> geldUeberweisenStatus(vonKontoNr, nachKontoNr, betrag, verwendungszweck));
+    }
+
+    /**
+     * ersetzt das Fenster, in dem sich die Bank die Idempotenzschlüssel merkt.
+     * Ohne Aufruf wird ein Fenster von einer Stunde in sechs Abschnitten verwendet.
+     *
+     * @param fenster das neue Fenster
+     * @throws IllegalArgumentException wenn fenster null ist
+     */
+    public void setIdempotenzfenster(Idempotenzfenster fenster) {
+        if (fenster == null)
+            throw new IllegalArgumentException("Fenster darf nicht null sein");
+        this.idempotenzfenster = fenster;
+    }
+
+    private Idempotenzfenster getIdempotenzfenster() {
+        Idempotenzfenster f = idempotenzfenster;
+        if (f == null) {
+            synchronized (this) {
+                f = idempotenzfenster;
+                if (f == null) {
+                    f = new Idempotenzfenster(Duration.ofHours(1), 6);
+                    idempotenzfenster = f;
+                }
+            }
+        }
+        return f;
+    }
+
+    /**
+     * setzt die Metriken, in denen Kontoeröffnungen und Buchungen dieser Bank erfasst werden.
+     * Dieselben Metriken können von mehreren Banken gleichzeitig genutzt werden.
+     *
+     * @param metriken die Metriken oder null, um die Erfassung abzuschalten
+     */
+    public void setMetriken(Bankmetriken metriken) {
+        this.metriken = metriken;
+    }
+
+    /**
+     * Liefert die Summen über alle Konten der Bank: Guthaben und genutzter Dispo je Währung, Anzahl der Konten
+     * je Kontoart und Anzahl der gesperrten Konten. Beim ersten Aufruf werden alle Konten einmal durchlaufen
+     * und angemeldet; danach führen die Konten die Summen bei jeder Änderung selbst nach, und jeder weitere
+     * Aufruf kostet nichts. Rufen mehrere Threads gleichzeitig zum ersten Mal auf, werden die Aggregate nur
+     * einmal angelegt.
+     *
+     * @return die Aggregate
+     */
+    public Kontoaggregate getAggregate() {
+        Kontoaggregate a = aggregate;
+        if (a == null) {
+            synchronized (this) {
+                a = aggregate;
+                if (a == null) {
+                    a = new Kontoaggregate();
+                    for (Konto k : bankKonten.values()) {
+                        k.aggregateSetzen(a);
+                    }
+                    aggregate = a;
+                }
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Setzt das Limit für Abgänge in einem Zeitfenster für alle bestehenden und künftigen Konten der Kontoart.
+     * Es gilt für Abhebungen und für ausgehende Überweisungen; eine abgelehnte Buchung liefert
+     * LIMIT_UEBERSCHRITTEN. Die bisher gezählten Abgänge der Konten werden dabei vergessen.
+     *
+     * @param art   die Kontoart
+     * @param limit das Limit oder null, um das Limit der Kontoart aufzuheben
+     * @throws IllegalArgumentException wenn art null ist
+     */
+    public void setGeschwindigkeitslimit(Kontoart art, Geschwindigkeitslimit limit) {
+        if (art == null)
+            throw new IllegalArgumentException("Kontoart darf nicht null sein");
+        if (limit == null)
+            limits.remove(art);
+        else
+            limits.put(art, limit);
+        for (Konto k : bankKonten.values()) {
+            if (k.getKontoart() == art)
+                k.limitSetzen(limit);
+        }
+    }
+
+    /**
+     * liefert das Limit für Abgänge der Kontoart
+     *
+     * @param art die Kontoart
+     * @return das Limit oder null, wenn für die Kontoart keines gilt
+     */
+    public Geschwindigkeitslimit getGeschwindigkeitslimit(Kontoart art) {
+        return art == null ? null : limits.get(art);
+    }
+
+    /**
+     * meldet ein neues Konto bei den Aggregaten an, sofern sie schon angelegt sind, und setzt das Limit
+     * seiner Kontoart
+     */
+    private void anmelden(Konto k) {
+        Kontoaggregate a = aggregate;
+        if (a != null)
+            k.aggregateSetzen(a);
+        Geschwindigkeitslimit limit = getGeschwindigkeitslimit(k.getKontoart());
+        if (limit != null)
+            k.limitSetzen(limit);
+    }
+
+    /**
+     * liefert die Metriken dieser Bank
+     *
+     * @return die Metriken oder null, wenn keine erfasst werden
+     */
+    public Bankmetriken getMetriken() {
+        return metriken;
+    }
+
     /**
      * Liefert den Kontostand des Kontos mit der angegebenen Kontonummer zurück.
      *
@@ -313,6 +790,8 @@ public class Bank implements Cloneable, Serializable {
 
     @Override
     public Bank clone() throws CloneNotSupportedException {
+        BankKlonEvent ereignis = new BankKlonEvent();
+        ereignis.begin();
         byte[] arr;
         try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
              ObjectOutputStream os = new ObjectOutputStream(bos)) {
@@ -326,6 +805,7 @@ public class Bank implements Cloneable, Serializable {
 
             Bank copy = (Bank) is.readObject();
             is.close();
+            ereignis.abschliessen(bankleitzahl, copy.bankKonten.size(), arr.length);
             return copy;
         } catch (IOException | ClassNotFoundException e) {
             e.printStackTrace();
@@ -0,0 +1,75 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.oberflaeche.BankOberflaeche;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Kontofabrik;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.SparbuchFabrik;
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Zeigt alle Konten einer Bank in einer {@link BankOberflaeche} an. Die Bank wird mit der als erstem
+ * Programmparameter angegebenen Anzahl zufälliger Konten gefüllt, ohne Angabe mit einer Million.
+ */
+public class BankController extends Application {
+    /**
+     * die Anzahl der Konten, wenn kein Programmparameter angegeben ist
+     */
+    private static final int STANDARDANZAHL = 1_000_000;
+
+    private Bank bank;
+
+    /**
+     * Starts the application by filling a bank with accounts and displaying all of them in a table.
+     *
+     * @param stage the primary stage of the application
+     */
+    @Override
+    public void start(Stage stage) {
+        List<String> parameter = getParameters().getUnnamed();
+        int anzahl = parameter.isEmpty() ? STANDARDANZAHL : Integer.parseInt(parameter.get(0));
+        bank = new Bank(12345678L);
+        fuellen(anzahl);
+
+        BankOberflaeche bankUI = new BankOberflaeche(new Kontoauswahl(bank));
+        Scene scene = new Scene(bankUI, 900, 700);
+        stage.setTitle("Bank " + bank.getBankleitzahl());
+        stage.setScene(scene);
+        stage.show();
+    }
+
+    /**
+     * eröffnet anzahl Konten mit zufälligen Kontoständen für eine begrenzte Zahl von Kunden
+     */
+    private void fuellen(int anzahl) {
+        Random zufall = new Random(42);
+        Kunde[] kunden = new Kunde[Math.max(1, Math.min(anzahl, 10_000))];
+        for (int i = 0; i < kunden.length; i++) {
+            kunden[i] = Kunde.fuerImport("Vorname" + i, "Nachname" + i, "Straße " + i,
+                    LocalDate.of(1950 + zufall.nextInt(50), 1 + zufall.nextInt(12), 1 + zufall.nextInt(28)));
+        }
+        Kontofabrik giro = new GirokontoFabrik();
+        Kontofabrik spar = new SparbuchFabrik();
+        for (int i = 0; i < anzahl; i++) {
+            long nummer = bank.kontoErstellen(i % 4 == 0 ? spar : giro, kunden[zufall.nextInt(kunden.length)]);
+            bank.geldEinzahlenStatus(nummer, zufall.nextInt(1_000_000) / 100.0);
+            if (zufall.nextInt(100) == 0)
+                bank.kontoSuchen(nummer).sperren();
+        }
+    }
+
+    /**
+     * startet die Anwendung
+     *
+     * @param args optional die Anzahl der Konten
+     */
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
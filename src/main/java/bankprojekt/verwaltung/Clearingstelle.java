@@ -0,0 +1,304 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Verrechnet Überweisungen zwischen mehreren Banken im selben Prozess.
+ * <p>
+ * Die Banken werden über ihre Bankleitzahl registriert. Eine Überweisung an eine andere Bank wird beim
+ * Auftraggeber sofort abgebucht und bis zur nächsten Abrechnung gesammelt. Bei der Abrechnung werden alle
+ * gesammelten Gutschriften gebucht und die Überweisungen je Bankpaar gegeneinander aufgerechnet, so dass
+ * pro Bankpaar und Abrechnungsfenster nur eine {@link Ausgleichsbuchung} entsteht. Kann eine Gutschrift nicht
+ * gebucht werden, z.B. weil das Empfängerkonto nicht existiert, wird der Betrag an den Auftraggeber
+ * zurücküberwiesen. Eine Überweisung verlässt die Warteschlange erst, wenn sie gutgeschrieben oder
+ * zurücküberwiesen ist; scheitert beides, wird sie bei der nächsten Abrechnung erneut versucht.
+ * <p>
+ * Die Clearingstelle serialisiert ihre eigenen Zugriffe auf die Banken; die Banken dürfen währenddessen nicht
+ * von anderen Threads verändert werden.
+ */
+public class Clearingstelle implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(Clearingstelle.class.getName());
+
+    /**
+     * die registrierten Banken, Bankleitzahl als Key
+     */
+    private final Map<Long, Bank> banken = new HashMap<>();
+
+    /**
+     * die seit der letzten Abrechnung abgebuchten, aber noch nicht gutgeschriebenen Überweisungen
+     */
+    private final List<Zahlung> offeneZahlungen = new ArrayList<>();
+
+    /**
+     * der aufgelaufene Verrechnungssaldo je Bank; positiv, wenn die Bank mehr erhalten als gezahlt hat
+     */
+    private final Map<Long, Double> verrechnungssalden = new HashMap<>();
+
+    /**
+     * schützt die Banken und die offenen Zahlungen
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * führt die Abrechnung regelmäßig aus, null solange {@link #starten(Duration)} nicht aufgerufen wurde
+     */
+    private ScheduledExecutorService zeitgeber;
+
+    /**
+     * registriert die Bank unter ihrer Bankleitzahl
+     *
+     * @param bank die Bank
+     * @throws IllegalArgumentException wenn bank null ist oder die Bankleitzahl bereits registriert ist
+     */
+    public void registrieren(Bank bank) {
+        if (bank == null)
+            throw new IllegalArgumentException("Bank darf nicht null sein");
+        lock.lock();
+        try {
+            if (banken.containsKey(bank.getBankleitzahl()))
+                throw new IllegalArgumentException("Bankleitzahl " + bank.getBankleitzahl() + " ist bereits registriert");
+            banken.put(bank.getBankleitzahl(), bank);
+            verrechnungssalden.put(bank.getBankleitzahl(), 0.0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Überweist den Betrag vom Konto vonKontoNr der Bank vonBlz an das Konto nachKontoNr der Bank nachBlz.
+     * Bei verschiedenen Banken wird sofort abgebucht, die Gutschrift erfolgt bei der nächsten Abrechnung.
+     *
+     * @param vonBlz           die Bankleitzahl des Auftraggebers
+     * @param vonKontoNr       die Kontonummer des Auftraggebers
+     * @param nachBlz          die Bankleitzahl des Empfängers
+     * @param nachKontoNr      die Kontonummer des Empfängers
+     * @param empfaenger       der Name des Empfängers
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck der Verwendungszweck
+     * @return ERFOLGREICH, wenn abgebucht wurde; KONTO_NICHT_VORHANDEN, wenn eine der Banken nicht registriert
+     * ist oder das Konto des Auftraggebers nicht existiert; sonst NICHT_UEBERWEISUNGSFAEHIG, GESPERRT oder
+     * NICHT_GEDECKT
+     * @throws IllegalArgumentException wenn einer der Parameter fehlerhaft ist
+     */
+    public Buchungsstatus ueberweisen(long vonBlz, long vonKontoNr, long nachBlz, long nachKontoNr,
+                                      String empfaenger, double betrag, String verwendungszweck) {
+        lock.lock();
+        try {
+            Bank von = banken.get(vonBlz);
+            Bank nach = banken.get(nachBlz);
+            if (von == null || nach == null)
+                return Buchungsstatus.KONTO_NICHT_VORHANDEN;
+            if (von == nach)
+                return von.geldUeberweisenStatus(vonKontoNr, nachKontoNr, betrag, verwendungszweck);
+
+            Buchungsstatus status = von.ueberweisungAbbuchen(vonKontoNr, betrag, empfaenger, nachKontoNr, nachBlz,
+                    verwendungszweck);
+            if (status.isErfolgreich()) {
+                String vonName = von.kontoSuchen(vonKontoNr).getInhaber().getName();
+                offeneZahlungen.add(new Zahlung(vonBlz, vonKontoNr, vonName, nachBlz, nachKontoNr, empfaenger,
+                        betrag, verwendungszweck));
+            }
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * liefert die Anzahl der Überweisungen, die auf die nächste Abrechnung warten
+     *
+     * @return Anzahl der offenen Überweisungen
+     */
+    public int getAnzahlOffeneUeberweisungen() {
+        lock.lock();
+        try {
+            return offeneZahlungen.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * liefert den seit der Registrierung aufgelaufenen Verrechnungssaldo der Bank
+     *
+     * @param blz die Bankleitzahl
+     * @return positiv, wenn die Bank mehr erhalten als gezahlt hat
+     * @throws IllegalArgumentException wenn die Bankleitzahl nicht registriert ist
+     */
+    public double getVerrechnungssaldo(long blz) {
+        lock.lock();
+        try {
+            Double saldo = verrechnungssalden.get(blz);
+            if (saldo == null)
+                throw new IllegalArgumentException("Bankleitzahl " + blz + " ist nicht registriert");
+            return saldo;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * bucht alle offenen Gutschriften und rechnet die Überweisungen je Bankpaar gegeneinander auf
+     *
+     * @return eine Ausgleichsbuchung je Bankpaar mit einem Nettobetrag ungleich 0
+     */
+    public List<Ausgleichsbuchung> abrechnen() {
+        lock.lock();
+        try {
+            Map<Long, Map<Long, Paarsaldo>> salden = new HashMap<>();
+            Iterator<Zahlung> offen = offeneZahlungen.iterator();
+            while (offen.hasNext()) {
+                Zahlung z = offen.next();
+                Buchungsstatus gutschrift;
+                try {
+                    gutschrift = banken.get(z.nachBlz).ueberweisungGutschreiben(z.nachKontoNr, z.betrag,
+                            z.vonName, z.vonKontoNr, z.vonBlz, z.verwendungszweck);
+                    if (!gutschrift.isErfolgreich()) {
+                        Buchungsstatus rueckbuchung = banken.get(z.vonBlz).ueberweisungGutschreiben(z.vonKontoNr,
+                                z.betrag, z.empfaenger, z.nachKontoNr, z.nachBlz,
+                                "Rücküberweisung: " + z.verwendungszweck);
+                        if (rueckbuchung.isErfolgreich())
+                            offen.remove();
+                        else
+                            LOG.warning("Rücküberweisung an Konto " + z.vonKontoNr + " der Bank " + z.vonBlz
+                                    + " gescheitert (" + rueckbuchung + "), wird erneut versucht");
+                        continue;
+                    }
+                } catch (RuntimeException e) {
+                    LOG.log(Level.WARNING, "Überweisung an Konto " + z.nachKontoNr + " der Bank " + z.nachBlz
+                            + " gescheitert, wird erneut versucht", e);
+                    continue;
+                }
+                offen.remove();
+                long kleiner = Math.min(z.vonBlz, z.nachBlz);
+                long groesser = Math.max(z.vonBlz, z.nachBlz);
+                Paarsaldo saldo = salden.computeIfAbsent(kleiner, k -> new HashMap<>())
+                        .computeIfAbsent(groesser, k -> new Paarsaldo());
+                saldo.netto += z.vonBlz == kleiner ? z.betrag : -z.betrag;
+                saldo.anzahl++;
+            }
+
+            List<Ausgleichsbuchung> buchungen = new ArrayList<>();
+            for (Map.Entry<Long, Map<Long, Paarsaldo>> eintrag : salden.entrySet()) {
+                long kleiner = eintrag.getKey();
+                for (Map.Entry<Long, Paarsaldo> paar : eintrag.getValue().entrySet()) {
+                    long groesser = paar.getKey();
+                    double netto = paar.getValue().netto;
+                    if (netto == 0)
+                        continue;
+                    Ausgleichsbuchung buchung = netto > 0
+                            ? new Ausgleichsbuchung(kleiner, groesser, netto, paar.getValue().anzahl)
+                            : new Ausgleichsbuchung(groesser, kleiner, -netto, paar.getValue().anzahl);
+                    verrechnungssalden.merge(buchung.getZahlerBlz(), -buchung.getBetrag(), Double::sum);
+                    verrechnungssalden.merge(buchung.getEmpfaengerBlz(), buchung.getBetrag(), Double::sum);
+                    buchungen.add(buchung);
+                }
+            }
+            return buchungen;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * startet die regelmäßige Abrechnung im angegebenen Abstand
+     *
+     * @param fenster die Länge eines Abrechnungsfensters
+     * @throws IllegalStateException    wenn die Abrechnung bereits gestartet wurde
+     * @throws IllegalArgumentException wenn fenster null oder nicht positiv ist
+     */
+    public void starten(Duration fenster) {
+        if (fenster == null || fenster.isNegative() || fenster.isZero())
+            throw new IllegalArgumentException("Das Abrechnungsfenster muss positiv sein");
+        lock.lock();
+        try {
+            if (zeitgeber != null)
+                throw new IllegalStateException("Die Abrechnung läuft bereits");
+            zeitgeber = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "Clearingstelle");
+                t.setDaemon(true);
+                return t;
+            });
+            long millis = fenster.toMillis();
+            zeitgeber.scheduleAtFixedRate(this::geplantAbrechnen, millis, millis, TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * rechnet im Zeitgeber ab; eine Exception würde alle weiteren Abrechnungen stillschweigend beenden
+     */
+    private void geplantAbrechnen() {
+        try {
+            abrechnen();
+        } catch (RuntimeException e) {
+            LOG.log(Level.SEVERE, "Abrechnung gescheitert", e);
+        }
+    }
+
+    /**
+     * beendet die regelmäßige Abrechnung und rechnet die noch offenen Überweisungen ab
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (zeitgeber != null) {
+                zeitgeber.shutdown();
+                zeitgeber = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        abrechnen();
+    }
+
+    /**
+     * eine abgebuchte, noch nicht gutgeschriebene Überweisung
+     */
+    private static class Zahlung {
+        private final long vonBlz;
+        private final long vonKontoNr;
+        private final String vonName;
+        private final long nachBlz;
+        private final long nachKontoNr;
+        private final String empfaenger;
+        private final double betrag;
+        private final String verwendungszweck;
+
+        Zahlung(long vonBlz, long vonKontoNr, String vonName, long nachBlz, long nachKontoNr, String empfaenger,
+                double betrag, String verwendungszweck) {
+            this.vonBlz = vonBlz;
+            this.vonKontoNr = vonKontoNr;
+            this.vonName = vonName;
+            this.nachBlz = nachBlz;
+            this.nachKontoNr = nachKontoNr;
+            this.empfaenger = empfaenger;
+            this.betrag = betrag;
+            this.verwendungszweck = verwendungszweck;
+        }
+    }
+
+    /**
+     * der Nettobetrag zwischen zwei Banken, positiv in Richtung der kleineren Bankleitzahl zur größeren
+     */
+    private static class Paarsaldo {
+        private double netto;
+        private int anzahl;
+    }
+}
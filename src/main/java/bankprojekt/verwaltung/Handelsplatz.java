@@ -0,0 +1,196 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Aktie;
+import bankprojekt.verarbeitung.Buchungsstatus;
+import bankprojekt.verarbeitung.Konto;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Führt Kauf- und Verkaufsorders der Konten einer Bank direkt gegeneinander aus.
+ * <p>
+ * Für jede zugelassene Aktie gibt es ein {@link Orderbuch} mit Preis-Zeit-Priorität. Jeder Abschluss wird
+ * sofort mit {@link Konto#aktienHandeln(Konto, Konto, Aktie, int, double)} abgerechnet: Geld und Aktien
+ * wechseln in einem Schritt das Konto. Kann eine Seite nicht zahlen oder liefern, wird ihre Order gestrichen;
+ * ist das die wartende Order, wird die neue Order mit der nächsten versucht. Preise gelten in Euro und
+ * werden für Konten in anderen Währungen umgerechnet.
+ * <p>
+ * Orders verschiedener Aktien werden parallel ausgeführt, Orders derselben Aktie nacheinander. Während des
+ * Handels dürfen keine Konten der Bank eröffnet oder gelöscht werden.
+ */
+public class Handelsplatz {
+    private final Bank bank;
+
+    /**
+     * die Orderbücher, Wertpapierkennnummer als Key
+     */
+    private final Map<Integer, Buch> buecher = new ConcurrentHashMap<>();
+
+    /**
+     * erstellt einen Handelsplatz für die Konten der Bank
+     *
+     * @param bank die Bank
+     * @throws IllegalArgumentException wenn bank null ist
+     */
+    public Handelsplatz(Bank bank) {
+        if (bank == null)
+            throw new IllegalArgumentException("Bank darf nicht null sein");
+        this.bank = bank;
+    }
+
+    /**
+     * lässt die Aktie zum Handel zu
+     *
+     * @param aktie die Aktie
+     * @throws IllegalArgumentException wenn eine Aktie mit dieser Wertpapierkennnummer schon zugelassen ist
+     */
+    public void zulassen(Aktie aktie) {
+        Buch neu = new Buch(aktie);
+        if (buecher.putIfAbsent(aktie.getWertpapierkennummer(), neu) != null)
+            throw new IllegalArgumentException("Wertpapier " + aktie.getWertpapierkennummer() + " ist schon zugelassen");
+    }
+
+    /**
+     * gibt eine Kauforder auf
+     *
+     * @param kontonummer das Konto des Käufers
+     * @param wkn         die Wertpapierkennnummer
+     * @param anzahl      die Stückzahl
+     * @param limit       der höchste Preis je Aktie in Euro, auf Cent gerundet
+     * @return die Nummer der wartenden Order oder {@link Orderbuch#KEINE_ORDER}, wenn die Order vollständig
+     * ausgeführt oder gestrichen wurde
+     * @throws KontonummerNichtVorhandenException wenn es das Konto nicht gibt
+     * @throws IllegalArgumentException           wenn das Wertpapier nicht zugelassen oder anzahl bzw. limit
+     *                                            nicht positiv ist
+     */
+    public long kaufen(long kontonummer, int wkn, int anzahl, double limit) throws KontonummerNichtVorhandenException {
+        Buch buch = buchSuchen(wkn);
+        kontoPruefen(kontonummer);
+        synchronized (buch) {
+            return buch.orderbuch.kaufen(kontonummer, anzahl, inCent(limit), buch);
+        }
+    }
+
+    /**
+     * gibt eine Verkauforder auf
+     *
+     * @param kontonummer das Konto des Verkäufers
+     * @param wkn         die Wertpapierkennnummer
+     * @param anzahl      die Stückzahl
+     * @param limit       der niedrigste Preis je Aktie in Euro, auf Cent gerundet
+     * @return die Nummer der wartenden Order oder {@link Orderbuch#KEINE_ORDER}, wenn die Order vollständig
+     * ausgeführt oder gestrichen wurde
+     * @throws KontonummerNichtVorhandenException wenn es das Konto nicht gibt
+     * @throws IllegalArgumentException           wenn das Wertpapier nicht zugelassen oder anzahl bzw. limit
+     *                                            nicht positiv ist
+     */
+    public long verkaufen(long kontonummer, int wkn, int anzahl, double limit)
+            throws KontonummerNichtVorhandenException {
+        Buch buch = buchSuchen(wkn);
+        kontoPruefen(kontonummer);
+        synchronized (buch) {
+            return buch.orderbuch.verkaufen(kontonummer, anzahl, inCent(limit), buch);
+        }
+    }
+
+    /**
+     * streicht eine wartende Order
+     *
+     * @param wkn   die Wertpapierkennnummer
+     * @param order die Nummer der Order
+     * @return true, wenn die Order noch wartete
+     * @throws IllegalArgumentException wenn das Wertpapier nicht zugelassen ist
+     */
+    public boolean stornieren(int wkn, long order) {
+        Buch buch = buchSuchen(wkn);
+        synchronized (buch) {
+            return buch.orderbuch.stornieren(order);
+        }
+    }
+
+    /**
+     * liefert die noch offene Stückzahl einer Order
+     *
+     * @param wkn   die Wertpapierkennnummer
+     * @param order die Nummer der Order
+     * @return die offene Stückzahl, 0 wenn die Order ausgeführt oder gestrichen ist
+     * @throws IllegalArgumentException wenn das Wertpapier nicht zugelassen ist
+     */
+    public int getOffen(int wkn, long order) {
+        Buch buch = buchSuchen(wkn);
+        synchronized (buch) {
+            return buch.orderbuch.getOffen(order);
+        }
+    }
+
+    /**
+     * liefert die Anzahl der Abschlüsse in einem Wertpapier
+     *
+     * @param wkn die Wertpapierkennnummer
+     * @return Anzahl der Abschlüsse
+     * @throws IllegalArgumentException wenn das Wertpapier nicht zugelassen ist
+     */
+    public long getAnzahlAbschluesse(int wkn) {
+        Buch buch = buchSuchen(wkn);
+        synchronized (buch) {
+            return buch.orderbuch.getAnzahlAbschluesse();
+        }
+    }
+
+    private Buch buchSuchen(int wkn) {
+        Buch buch = buecher.get(wkn);
+        if (buch == null)
+            throw new IllegalArgumentException("Wertpapier " + wkn + " ist nicht zugelassen");
+        return buch;
+    }
+
+    private void kontoPruefen(long kontonummer) throws KontonummerNichtVorhandenException {
+        if (bank.kontoSuchen(kontonummer) == null)
+            throw new KontonummerNichtVorhandenException(kontonummer);
+    }
+
+    private static long inCent(double betrag) {
+        return Math.round(betrag * 100);
+    }
+
+    /**
+     * das Orderbuch einer Aktie, das seine Abschlüsse selbst abrechnet
+     */
+    private class Buch implements Orderbuch.Abwicklung {
+        private final Aktie aktie;
+        private final Orderbuch orderbuch;
+
+        Buch(Aktie aktie) {
+            this.aktie = aktie;
+            this.orderbuch = new Orderbuch(aktie.getWertpapierkennummer());
+        }
+
+        @Override
+        public int abwickeln(long kaeufernummer, long verkaeufernummer, int anzahl, long preisInCent) {
+            Konto kaeufer = bank.kontoSuchen(kaeufernummer);
+            Konto verkaeufer = bank.kontoSuchen(verkaeufernummer);
+            if (kaeufer == null || verkaeufer == null) {
+                // inzwischen gelöscht
+                return (kaeufer == null ? Orderbuch.KAEUFER_ABGELEHNT : 0)
+                        | (verkaeufer == null ? Orderbuch.VERKAEUFER_ABGELEHNT : 0);
+            }
+            Buchungsstatus status = Konto.aktienHandeln(kaeufer, verkaeufer, aktie, anzahl, preisInCent / 100.0);
+            switch (status) {
+                case ERFOLGREICH:
+                    return Orderbuch.ABGEWICKELT;
+                case NICHT_GEDECKT:
+                    return Orderbuch.KAEUFER_ABGELEHNT;
+                case DEPOT_NICHT_GEDECKT:
+                    return Orderbuch.VERKAEUFER_ABGELEHNT;
+                case GESPERRT:
+                    int gesperrt = (kaeufer.isGesperrt() ? Orderbuch.KAEUFER_ABGELEHNT : 0)
+                            | (verkaeufer.isGesperrt() ? Orderbuch.VERKAEUFER_ABGELEHNT : 0);
+                    // inzwischen wieder entsperrt: trotzdem nicht als abgewickelt zählen
+                    return gesperrt != 0 ? gesperrt : Orderbuch.KAEUFER_ABGELEHNT | Orderbuch.VERKAEUFER_ABGELEHNT;
+                default:
+                    return Orderbuch.KAEUFER_ABGELEHNT | Orderbuch.VERKAEUFER_ABGELEHNT;
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Merkt sich für einen begrenzten Zeitraum die Ergebnisse von Buchungen zu ihrem Idempotenzschlüssel,
+ * damit eine wiederholt eingereichte Buchung nicht ein zweites Mal ausgeführt wird.
+ * <p>
+ * Das Fenster ist in gleich lange Zeitabschnitte (Eimer) aufgeteilt. Jeder Eimer ist eine Hashtabelle aus
+ * primitiven Arrays, Schlüssel und Ergebnis belegen darin zusammen 9 Byte pro Platz. Läuft ein Eimer aus dem
+ * Fenster, wird er als Ganzes geleert und für den neuen Zeitabschnitt wiederverwendet; einzelne Einträge
+ * müssen also nie entfernt werden. Ein Schlüssel bleibt mindestens (anzahlEimer - 1) / anzahlEimer der
+ * Fensterdauer und höchstens die volle Fensterdauer bekannt.
+ * <p>
+ * Die Klasse ist threadsicher. {@link #ausfuehren(long, Supplier)} schlägt den Schlüssel nach und reserviert
+ * ihn in einem Schritt; wer denselben Schlüssel einreicht, während die Buchung noch läuft, wartet auf deren
+ * Ergebnis, statt selbst zu buchen.
+ */
+public class Idempotenzfenster {
+    /**
+     * Anfangsgröße der Hashtabelle eines Eimers, muss eine Zweierpotenz sein
+     */
+    private static final int ANFANGSKAPAZITAET = 1024;
+
+    /**
+     * alle Werte von Buchungsstatus, damit beim Nachschlagen kein neues Array erzeugt wird
+     */
+    private static final Buchungsstatus[] STATUSWERTE = Buchungsstatus.values();
+
+    /**
+     * die Dauer eines Eimers in Millisekunden
+     */
+    private final long eimerDauer;
+
+    /**
+     * die Eimer als Ring, der Eimer für den Zeitabschnitt p liegt an Index p % eimer.length
+     */
+    private final Eimer[] eimer;
+
+    /**
+     * liefert die aktuelle Zeit in Millisekunden
+     */
+    private final LongSupplier uhr;
+
+    /**
+     * die Schlüssel, deren Buchung gerade ausgeführt wird, mit dem künftigen Ergebnis
+     */
+    private final Map<Long, CompletableFuture<Buchungsstatus>> laufend = new HashMap<>();
+
+    /**
+     * erstellt ein Fenster der angegebenen Dauer
+     *
+     * @param fenster     wie lange ein Schlüssel bekannt bleibt
+     * @param anzahlEimer in wie viele Zeitabschnitte das Fenster aufgeteilt wird
+     * @throws IllegalArgumentException wenn fenster nicht positiv oder anzahlEimer kleiner als 1 ist
+     */
+    public Idempotenzfenster(Duration fenster, int anzahlEimer) {
+        this(fenster, anzahlEimer, System::currentTimeMillis);
+    }
+
+    /**
+     * erstellt ein Fenster der angegebenen Dauer mit der angegebenen Zeitquelle
+     *
+     * @param fenster     wie lange ein Schlüssel bekannt bleibt
+     * @param anzahlEimer in wie viele Zeitabschnitte das Fenster aufgeteilt wird
+     * @param uhr         liefert die aktuelle Zeit in Millisekunden
+     */
+    Idempotenzfenster(Duration fenster, int anzahlEimer, LongSupplier uhr) {
+        if (fenster == null || fenster.toMillis() < anzahlEimer || anzahlEimer < 1)
+            throw new IllegalArgumentException("Fenster und Anzahl der Eimer müssen positiv sein");
+        this.eimerDauer = fenster.toMillis() / anzahlEimer;
+        this.eimer = new Eimer[anzahlEimer];
+        for (int i = 0; i < anzahlEimer; i++) {
+            eimer[i] = new Eimer();
+        }
+        this.uhr = uhr;
+    }
+
+    /**
+     * liefert das gemerkte Ergebnis zum Schlüssel
+     *
+     * @param schluessel der Idempotenzschlüssel
+     * @return das Ergebnis der ersten Buchung mit diesem Schlüssel oder null, wenn der Schlüssel im Fenster
+     * nicht bekannt ist
+     */
+    public synchronized Buchungsstatus nachschlagen(long schluessel) {
+        long periode = aktuellePeriode();
+        for (Eimer e : eimer) {
+            if (e.periode > periode - eimer.length) {
+                Buchungsstatus status = e.suchen(schluessel);
+                if (status != null)
+                    return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * merkt sich das Ergebnis zum Schlüssel im aktuellen Zeitabschnitt
+     *
+     * @param schluessel der Idempotenzschlüssel
+     * @param status     das Ergebnis der Buchung
+     */
+    public synchronized void merken(long schluessel, Buchungsstatus status) {
+        eimer[(int) (aktuellePeriode() % eimer.length)].einfuegen(schluessel, status);
+    }
+
+    /**
+     * führt die Buchung aus, sofern unter dem Schlüssel noch keine ausgeführt wurde, und merkt sich ihr
+     * Ergebnis. Ist der Schlüssel bekannt, wird das gemerkte Ergebnis geliefert; läuft die Buchung zum Schlüssel
+     * gerade in einem anderen Thread, wird auf ihr Ergebnis gewartet. Scheitert eine Buchung mit einer
+     * Exception, wird der Schlüssel nicht gemerkt, und ein wartender Aufruf versucht es selbst erneut.
+     *
+     * @param schluessel der Idempotenzschlüssel
+     * @param buchung    die Buchung, wird höchstens einmal je Schlüssel erfolgreich ausgeführt
+     * @return das Ergebnis der ersten Buchung mit diesem Schlüssel
+     */
+    public Buchungsstatus ausfuehren(long schluessel, Supplier<Buchungsstatus> buchung) {
+        while (true) {
+            CompletableFuture<Buchungsstatus> eigene = new CompletableFuture<>();
+            CompletableFuture<Buchungsstatus> andere;
+            synchronized (this) {
+                Buchungsstatus status = nachschlagen(schluessel);
+                if (status != null)
+                    return status;
+                andere = laufend.putIfAbsent(schluessel, eigene);
+            }
+            if (andere == null)
+                return buchen(schluessel, buchung, eigene);
+            try {
+                return andere.join();
+            } catch (CompletionException e) {
+                // die andere Buchung ist gescheitert und wurde nicht gemerkt
+            }
+        }
+    }
+
+    private Buchungsstatus buchen(long schluessel, Supplier<Buchungsstatus> buchung,
+                                  CompletableFuture<Buchungsstatus> ergebnis) {
+        Buchungsstatus status;
+        try {
+            status = buchung.get();
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                laufend.remove(schluessel);
+            }
+            ergebnis.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            merken(schluessel, status);
+            laufend.remove(schluessel);
+        }
+        ergebnis.complete(status);
+        return status;
+    }
+
+    /**
+     * liefert die Anzahl der gemerkten Schlüssel im Fenster
+     *
+     * @return Anzahl der Schlüssel
+     */
+    public synchronized int getAnzahl() {
+        long periode = aktuellePeriode();
+        int anzahl = 0;
+        for (Eimer e : eimer) {
+            if (e.periode > periode - eimer.length)
+                anzahl += e.anzahl;
+        }
+        return anzahl;
+    }
+
+    /**
+     * liefert den aktuellen Zeitabschnitt und leert dessen Eimer, falls er noch einen älteren Abschnitt enthält
+     */
+    private long aktuellePeriode() {
+        long periode = uhr.getAsLong() / eimerDauer;
+        Eimer aktuell = eimer[(int) (periode % eimer.length)];
+        if (aktuell.periode != periode) {
+            aktuell.leeren();
+            aktuell.periode = periode;
+        }
+        return periode;
+    }
+
+    /**
+     * verteilt die Bits des Schlüssels, damit auch fortlaufende Schlüssel gut gestreut werden
+     */
+    private static int streuen(long schluessel) {
+        schluessel ^= schluessel >>> 33;
+        schluessel *= 0xff51afd7ed558ccdL;
+        schluessel ^= schluessel >>> 33;
+        return (int) schluessel;
+    }
+
+    /**
+     * eine Hashtabelle mit linearer Sondierung; ein Platz ist frei, wenn sein Ergebnis 0 ist,
+     * sonst steht dort die Ordinalzahl des Buchungsstatus plus 1
+     */
+    private static class Eimer {
+        private long periode = -1;
+        private long[] schluessel = new long[ANFANGSKAPAZITAET];
+        private byte[] ergebnis = new byte[ANFANGSKAPAZITAET];
+        private int anzahl;
+
+        Buchungsstatus suchen(long gesucht) {
+            int maske = schluessel.length - 1;
+            for (int i = streuen(gesucht) & maske; ergebnis[i] != 0; i = (i + 1) & maske) {
+                if (schluessel[i] == gesucht)
+                    return STATUSWERTE[ergebnis[i] - 1];
+            }
+            return null;
+        }
+
+        void einfuegen(long neu, Buchungsstatus status) {
+            if ((anzahl + 1) * 4L > schluessel.length * 3L)
+                vergroessern();
+            int maske = schluessel.length - 1;
+            int i = streuen(neu) & maske;
+            while (ergebnis[i] != 0) {
+                if (schluessel[i] == neu)
+                    return;
+                i = (i + 1) & maske;
+            }
+            schluessel[i] = neu;
+            ergebnis[i] = (byte) (status.ordinal() + 1);
+            anzahl++;
+        }
+
+        void leeren() {
+            if (anzahl > 0) {
+                Arrays.fill(ergebnis, (byte) 0);
+                anzahl = 0;
+            }
+        }
+
+        private void vergroessern() {
+            long[] alteSchluessel = schluessel;
+            byte[] alteErgebnisse = ergebnis;
+            schluessel = new long[alteSchluessel.length * 2];
+            ergebnis = new byte[alteErgebnisse.length * 2];
+            int maske = schluessel.length - 1;
+            for (int j = 0; j < alteSchluessel.length; j++) {
+                if (alteErgebnisse[j] != 0) {
+                    int i = streuen(alteSchluessel[j]) & maske;
+                    while (ergebnis[i] != 0)
+                        i = (i + 1) & maske;
+                    schluessel[i] = alteSchluessel[j];
+                    ergebnis[i] = alteErgebnisse[j];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package bankprojekt.verwaltung;
+
+import java.time.Duration;
+
+/**
+ * Das Ergebnis eines {@link Kontoimport}s
+ */
+public class Importergebnis {
+    /**
+     * die Anzahl der eröffneten Konten
+     */
+    private final int anzahlKonten;
+
+    /**
+     * die Anzahl der Zeilen, die nicht gelesen werden konnten
+     */
+    private final int anzahlFehlerhaft;
+
+    /**
+     * die Dauer des Imports in Nanosekunden
+     */
+    private final long dauerNanos;
+
+    /**
+     * erstellt ein Importergebnis
+     *
+     * @param anzahlKonten     die Anzahl der eröffneten Konten
+     * @param anzahlFehlerhaft die Anzahl der fehlerhaften Zeilen
+     * @param dauerNanos       die Dauer des Imports in Nanosekunden
+     */
+    Importergebnis(int anzahlKonten, int anzahlFehlerhaft, long dauerNanos) {
+        this.anzahlKonten = anzahlKonten;
+        this.anzahlFehlerhaft = anzahlFehlerhaft;
+        this.dauerNanos = dauerNanos;
+    }
+
+    /**
+     * liefert die Anzahl der eröffneten Konten
+     *
+     * @return Anzahl der Konten
+     */
+    public int getAnzahlKonten() {
+        return anzahlKonten;
+    }
+
+    /**
+     * liefert die Anzahl der Zeilen, die nicht gelesen werden konnten und übersprungen wurden
+     *
+     * @return Anzahl der fehlerhaften Zeilen
+     */
+    public int getAnzahlFehlerhaft() {
+        return anzahlFehlerhaft;
+    }
+
+    /**
+     * liefert die Dauer des Imports
+     *
+     * @return Dauer
+     */
+    public Duration getDauer() {
+        return Duration.ofNanos(dauerNanos);
+    }
+
+    /**
+     * liefert die Anzahl der gelesenen Zeilen, fehlerhafte eingeschlossen, pro Sekunde
+     *
+     * @return Zeilen pro Sekunde
+     */
+    public double getZeilenProSekunde() {
+        if (dauerNanos == 0)
+            return 0;
+        return (anzahlKonten + anzahlFehlerhaft) * 1e9 / dauerNanos;
+    }
+
+    @Override
+    public String toString() {
+        return anzahlKonten + " Konten, " + anzahlFehlerhaft + " fehlerhafte Zeilen in " + dauerNanos / 1_000_000
+                + " ms (" + Math.round(getZeilenProSekunde()) + " Zeilen/s)";
+    }
+}
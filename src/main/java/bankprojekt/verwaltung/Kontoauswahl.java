@@ -0,0 +1,201 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Konto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Eine gefilterte und sortierte Auswahl der Konten einer Bank, z.B. als Grundlage einer Tabelle.
+ * <p>
+ * Filtern und Sortieren erfolgen parallel auf Arrays, ohne die Konten zu kopieren. Sortiert wird nach einem
+ * Schnappschuss der Sortierschlüssel, der vor dem Sortieren einmal je Konto gelesen wird; Buchungen während des
+ * Sortierens ändern die Reihenfolge also nicht mitten im Sortieren. Jede Änderung der Auswahl erzeugt ein neues
+ * Array; eine zuvor mit {@link #getKonten()} geholte Liste bleibt also unverändert und kann z.B. als Liste der
+ * entfernten Elemente in einem Änderungsereignis dienen.
+ * <p>
+ * Filtern, Sortieren und Aktualisieren dürfen nicht gleichzeitig aufgerufen werden, z.B. nur von einem
+ * Hintergrund-Thread; {@link #getKonten()} und {@link #getAnzahl()} darf ein anderer Thread währenddessen
+ * aufrufen und erhält dann die vorherige Auswahl. Ein Konto, das während {@link #aktualisieren()} gelöscht wird,
+ * wird übersprungen.
+ */
+public class Kontoauswahl {
+    /**
+     * die Spalten, nach denen sortiert werden kann
+     */
+    public enum Sortierung {
+        /** nach Kontonummer */
+        KONTONUMMER(null),
+        /** nach Name des Inhabers, dann Kontonummer */
+        INHABER(k -> k.getInhaber().getName()),
+        /** nach Kontostand, dann Kontonummer */
+        KONTOSTAND(Konto::getKontostand),
+        /** nicht gesperrte vor gesperrten Konten, dann Kontonummer */
+        GESPERRT(Konto::isGesperrt);
+
+        /**
+         * liest den Sortierschlüssel eines Kontos, null bei der Kontonummer, die sich nie ändert
+         */
+        private final Function<Konto, Comparable<?>> schluessel;
+
+        Sortierung(Function<Konto, Comparable<?>> schluessel) {
+            this.schluessel = schluessel;
+        }
+    }
+
+    /**
+     * ein Konto mit dem beim Sortieren einmal gelesenen Sortierschlüssel
+     */
+    private record Eintrag(Konto konto, long nummer, Comparable<Object> schluessel) {
+    }
+
+    private static final Comparator<Eintrag> NACH_SCHLUESSEL =
+            Comparator.comparing(Eintrag::schluessel).thenComparingLong(Eintrag::nummer);
+
+    private static final Comparator<Konto> NACH_NUMMER = Comparator.comparingLong(Konto::getKontonummer);
+
+    private final Bank bank;
+
+    /**
+     * alle Konten der Bank nach Kontonummer sortiert, Stand des letzten {@link #aktualisieren()}
+     */
+    private Konto[] alle;
+
+    /**
+     * die ausgewählten Konten in der aktuellen Sortierung; volatile, damit ein anderer Thread die neue Auswahl
+     * vollständig sieht
+     */
+    private volatile Konto[] auswahl;
+
+    private String suchtext = "";
+    private boolean nurGesperrte;
+    private Sortierung sortierung = Sortierung.KONTONUMMER;
+    private boolean absteigend;
+
+    /**
+     * erstellt eine Auswahl aller Konten der Bank, nach Kontonummer sortiert
+     *
+     * @param bank die Bank
+     * @throws IllegalArgumentException wenn bank null ist
+     */
+    public Kontoauswahl(Bank bank) {
+        if (bank == null)
+            throw new IllegalArgumentException("Bank darf nicht null sein");
+        this.bank = bank;
+        aktualisieren();
+    }
+
+    /**
+     * liest die Konten der Bank neu ein und wendet Filter und Sortierung erneut an
+     */
+    public void aktualisieren() {
+        long[] nummern = bank.sortierteKontonummern();
+        Konto[] konten = new Konto[nummern.length];
+        int anzahl = 0;
+        for (long nummer : nummern) {
+            Konto k = bank.kontoSuchen(nummer);
+            if (k != null)
+                konten[anzahl++] = k;
+        }
+        alle = anzahl == konten.length ? konten : Arrays.copyOf(konten, anzahl);
+        auswaehlen();
+    }
+
+    /**
+     * wählt nur die Konten aus, deren Kontonummer mit dem Suchtext beginnt oder deren Inhabername ihn
+     * enthält, ohne Beachtung der Groß- und Kleinschreibung; die Sortierung bleibt erhalten
+     *
+     * @param suchtext     der Suchtext, leer oder null für alle Konten
+     * @param nurGesperrte true, wenn nur gesperrte Konten ausgewählt werden sollen
+     */
+    public void filtern(String suchtext, boolean nurGesperrte) {
+        this.suchtext = suchtext == null ? "" : suchtext.strip().toLowerCase(Locale.ROOT);
+        this.nurGesperrte = nurGesperrte;
+        auswaehlen();
+    }
+
+    /**
+     * sortiert die ausgewählten Konten
+     *
+     * @param sortierung die Spalte
+     * @param absteigend true für absteigende Reihenfolge
+     * @throws IllegalArgumentException wenn sortierung null ist
+     */
+    public void sortieren(Sortierung sortierung, boolean absteigend) {
+        if (sortierung == null)
+            throw new IllegalArgumentException("Sortierung darf nicht null sein");
+        this.sortierung = sortierung;
+        this.absteigend = absteigend;
+        Konto[] sortiert = auswahl.clone();
+        sortierungAnwenden(sortiert, false);
+        auswahl = sortiert;
+    }
+
+    /**
+     * liefert die ausgewählten Konten in der aktuellen Sortierung
+     *
+     * @return eine unveränderliche Liste, die sich bei späteren Änderungen der Auswahl nicht ändert
+     */
+    public List<Konto> getKonten() {
+        return Collections.unmodifiableList(Arrays.asList(auswahl));
+    }
+
+    /**
+     * liefert die Anzahl der ausgewählten Konten
+     *
+     * @return Anzahl der Konten
+     */
+    public int getAnzahl() {
+        return auswahl.length;
+    }
+
+    private void auswaehlen() {
+        Konto[] ergebnis;
+        if (suchtext.isEmpty() && !nurGesperrte) {
+            ergebnis = alle.clone();
+        } else {
+            String text = suchtext;
+            boolean gesperrt = nurGesperrte;
+            ergebnis = Arrays.stream(alle).parallel()
+                    .filter(k -> (!gesperrt || k.isGesperrt()) && passt(k, text))
+                    .toArray(Konto[]::new);
+        }
+        sortierungAnwenden(ergebnis, true);
+        auswahl = ergebnis;
+    }
+
+    private static boolean passt(Konto konto, String text) {
+        if (text.isEmpty())
+            return true;
+        return Long.toString(konto.getKontonummer()).startsWith(text)
+                || konto.getInhaber().getName().toLowerCase(Locale.ROOT).contains(text);
+    }
+
+    /**
+     * sortiert das Array
+     *
+     * @param nachNummer true, wenn das Array bereits aufsteigend nach Kontonummer sortiert ist
+     */
+    @SuppressWarnings("unchecked")
+    private void sortierungAnwenden(Konto[] konten, boolean nachNummer) {
+        if (sortierung == Sortierung.KONTONUMMER) {
+            if (!nachNummer)
+                Arrays.parallelSort(konten, NACH_NUMMER);
+            if (absteigend)
+                Collections.reverse(Arrays.asList(konten));
+            return;
+        }
+        Function<Konto, Comparable<?>> schluessel = sortierung.schluessel;
+        Eintrag[] eintraege = new Eintrag[konten.length];
+        Arrays.parallelSetAll(eintraege, i -> new Eintrag(konten[i], konten[i].getKontonummer(),
+                (Comparable<Object>) schluessel.apply(konten[i])));
+        Arrays.parallelSort(eintraege, absteigend ? NACH_SCHLUESSEL.reversed() : NACH_SCHLUESSEL);
+        for (int i = 0; i < konten.length; i++) {
+            konten[i] = eintraege[i].konto();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Buchungsjournal;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Waehrung;
+import formatierung.Formatpuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Erzeugt die monatlichen Kontoauszüge aller Konten einer Bank aus den {@link Buchungsjournal}en der Konten.
+ * <p>
+ * Die Konten werden nach Kontonummer sortiert in gleich große Teile aufgeteilt, jeder Teil wird von einem
+ * eigenen Thread in eine eigene Datei geschrieben. Jeder Thread formatiert in einen {@link Formatpuffer} und
+ * schreibt über einen festen Bytepuffer in die Datei; der Speicherbedarf hängt also nicht von der Anzahl der
+ * Konten oder Buchungen ab. Während der Erzeugung dürfen Konten gebucht, aber nicht eröffnet oder gelöscht werden.
+ * <p>
+ * Jeder Betrag wird in der Währung ausgewiesen, die das Konto zum Zeitpunkt der Buchung hatte. Eine
+ * Währungsumstellung im Monat erscheint als eigene Zeile mit dem umgerechneten Saldo.
+ */
+public class Kontoauszugsgenerator {
+    /**
+     * Größe des Bytepuffers je Thread
+     */
+    private static final int PUFFERGROESSE = 1 << 18;
+
+    /**
+     * wie viele Millisekunden bei einem Währungswechsel höchstens zwischen dem umgerechneten Kontostand und der
+     * neuen Währung im Journal liegen
+     */
+    private static final long UMSTELLUNGSDAUER = 1000;
+
+    private final Locale locale;
+    private final ZoneId zone;
+
+    /**
+     * erstellt einen Generator für das Standard-Locale und die Zeitzone des Systems
+     */
+    public Kontoauszugsgenerator() {
+        this(Locale.getDefault(Locale.Category.FORMAT), ZoneId.systemDefault());
+    }
+
+    /**
+     * erstellt einen Generator
+     *
+     * @param locale nach dem Zahlen und Daten formatiert werden
+     * @param zone   in der die Monatsgrenzen liegen
+     */
+    public Kontoauszugsgenerator(Locale locale, ZoneId zone) {
+        this.locale = locale;
+        this.zone = zone;
+    }
+
+    /**
+     * schreibt die Kontoauszüge des Monats für alle Konten der Bank in das Verzeichnis, in die Dateien
+     * kontoauszuege-JJJJ-MM-T.txt mit T von 0 bis anzahlThreads-1
+     *
+     * @param bank          die Bank
+     * @param monat         der Monat
+     * @param verzeichnis   das Zielverzeichnis, es wird angelegt, falls nötig
+     * @param anzahlThreads die Anzahl der Threads und Dateien
+     * @return die Anzahl der geschriebenen Kontoauszüge
+     * @throws IOException              wenn eine Datei nicht geschrieben werden kann
+     * @throws InterruptedException     wenn der aufrufende Thread unterbrochen wird
+     * @throws IllegalArgumentException wenn anzahlThreads kleiner als 1 ist
+     */
+    public long erzeugen(Bank bank, YearMonth monat, Path verzeichnis, int anzahlThreads)
+            throws IOException, InterruptedException {
+        if (anzahlThreads < 1)
+            throw new IllegalArgumentException("Es wird mindestens ein Thread benötigt");
+        Files.createDirectories(verzeichnis);
+        long[] nummern = bank.sortierteKontonummern();
+        Konto[] konten = new Konto[nummern.length];
+        for (int i = 0; i < nummern.length; i++) {
+            konten[i] = bank.kontoSuchen(nummern[i]);
+        }
+        long von = monat.atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        long bis = monat.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+
+        ExecutorService threads = Executors.newFixedThreadPool(anzahlThreads);
+        try {
+            List<Future<Integer>> teile = new ArrayList<>();
+            for (int t = 0; t < anzahlThreads; t++) {
+                int anfang = (int) ((long) konten.length * t / anzahlThreads);
+                int ende = (int) ((long) konten.length * (t + 1) / anzahlThreads);
+                Path datei = verzeichnis.resolve("kontoauszuege-" + monat + "-" + t + ".txt");
+                teile.add(threads.submit(() -> teilSchreiben(konten, anfang, ende, monat, von, bis, datei)));
+            }
+            long anzahl = 0;
+            for (Future<Integer> teil : teile) {
+                anzahl += teil.get();
+            }
+            return anzahl;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io)
+                throw io;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * schreibt die Auszüge der Konten von anfang bis ausschließlich ende in die Datei
+     */
+    private int teilSchreiben(Konto[] konten, int anfang, int ende, YearMonth monat, long von, long bis, Path datei)
+            throws IOException {
+        Formatpuffer text = new Formatpuffer(locale);
+        ByteBuffer bytes = ByteBuffer.allocate(PUFFERGROESSE);
+        try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = anfang; i < ende; i++) {
+                auszugSchreiben(konten[i], monat, von, bis, text, bytes, kanal);
+            }
+            leeren(bytes, kanal);
+        }
+        return ende - anfang;
+    }
+
+    private void auszugSchreiben(Konto konto, YearMonth monat, long von, long bis, Formatpuffer text,
+                                 ByteBuffer bytes, FileChannel kanal) throws IOException {
+        Buchungsjournal journal = konto.getJournal();
+
+        text.append("Kontoauszug ").append(monat).append("    Kontonummer: ");
+        konto.kontonummerFormatieren(text).zeilenende();
+        text.append("Inhaber: ").append(konto.getInhaber().getName()).zeilenende();
+        zeileSchreiben(text, bytes, kanal);
+
+        int index = journal.eintragVor(von);
+        double saldo = index < 0 ? 0 : journal.getSaldo(index);
+        Waehrung waehrung = index < 0 ? Waehrung.EUR : journal.getWaehrung(index);
+        text.append("Anfangssaldo          ").kommazahl(saldo, 14, 2).append(' ').append(waehrung.name())
+                .zeilenende();
+        zeileSchreiben(text, bytes, kanal);
+
+        int anzahl = journal.getAnzahl();
+        for (index++; index < anzahl && journal.getZeit(index) < bis; index++) {
+            double neu = journal.getSaldo(index);
+            Waehrung w = journal.getWaehrung(index);
+            if (w == waehrung && (neu == saldo || umstellungFolgt(journal, index, anzahl)))
+                continue;
+            LocalDate tag = LocalDate.ofInstant(Instant.ofEpochMilli(journal.getZeit(index)), zone);
+            text.datum(tag).append("  ");
+            if (w == waehrung)
+                text.kommazahl(neu - saldo, 12, 2).kommazahl(neu, 14, 2).zeilenende();
+            else
+                text.append("Umstellung  ").kommazahl(neu, 14, 2).append(' ').append(w.name()).zeilenende();
+            zeileSchreiben(text, bytes, kanal);
+            saldo = neu;
+            waehrung = w;
+        }
+        text.append("Endsaldo              ").kommazahl(saldo, 14, 2).append(' ').append(waehrung.name())
+                .zeilenende();
+        text.zeilenende();
+        zeileSchreiben(text, bytes, kanal);
+    }
+
+    /**
+     * prüft, ob auf den Eintrag unmittelbar die Umstellung auf eine andere Währung mit demselben Saldo folgt.
+     * Der Eintrag ist dann der bereits umgerechnete Kontostand, siehe {@link Girokonto#waehrungswechsel(Waehrung)}.
+     */
+    private static boolean umstellungFolgt(Buchungsjournal journal, int index, int anzahl) {
+        return index + 1 < anzahl && journal.getWaehrung(index + 1) != journal.getWaehrung(index)
+                && journal.getSaldo(index + 1) == journal.getSaldo(index)
+                && journal.getZeit(index + 1) - journal.getZeit(index) <= UMSTELLUNGSDAUER;
+    }
+
+    /**
+     * überträgt den Text in den Bytepuffer und schreibt diesen vorher in die Datei, falls er zu voll ist
+     */
+    private static void zeileSchreiben(Formatpuffer text, ByteBuffer bytes, FileChannel kanal) throws IOException {
+        if (bytes.remaining() < text.length() * 3)
+            leeren(bytes, kanal);
+        text.alsUtf8(bytes);
+        text.leeren();
+    }
+
+    private static void leeren(ByteBuffer bytes, FileChannel kanal) throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            kanal.write(bytes);
+        }
+        bytes.clear();
+    }
+}
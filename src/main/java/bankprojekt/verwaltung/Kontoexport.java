@@ -0,0 +1,186 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Buchungsjournal;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kontoart;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Waehrung;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportiert alle Konten einer Bank spaltenweise in ein Binärformat für Auswertungen.
+ * <p>
+ * Alle Zahlen werden im Big-Endian-Format geschrieben. Die Datei beginnt mit dem Kopf
+ * <pre>
+ *   int    0x4B544558 ("KTEX")
+ *   short  Version (1)
+ *   long   Stichzeitpunkt in Millisekunden seit 1970
+ * </pre>
+ * Danach folgen die Konten nach Kontonummer sortiert in Blöcken von höchstens {@value #BLOCKGROESSE} Konten.
+ * Ein Block besteht aus der Anzahl n als int und den Spalten
+ * <pre>
+ *   long[n]   Kontonummer
+ *   double[n] Kontostand zum Stichzeitpunkt
+ *   byte[n]   Ordinalzahl der Währung
+ *   byte[n]   1, wenn das Konto gesperrt ist, sonst 0
+ *   byte[n]   Ordinalzahl der Kontoart oder -1
+ *   int[n]    Kundennummer
+ * </pre>
+ * Auf den letzten Block folgt ein int 0 und die Kundentabelle: die Anzahl der Kunden als int, dann für jeden
+ * Kunden in der Reihenfolge der Kundennummern Vorname, Nachname und Adresse (je modifiziertes UTF-8 wie bei
+ * {@link DataOutputStream#writeUTF(String)}) und der Geburtstag als long (Tage seit 1970). Die Kundennummern
+ * werden in der Reihenfolge des ersten Vorkommens vergeben und gelten nur innerhalb eines Exports.
+ * <p>
+ * Kontostand, Währung und Sperre werden aus den Journalen der Konten zum Stichzeitpunkt gelesen; Buchungen
+ * dürfen während des Exports also weiterlaufen, ohne das Ergebnis zu verfälschen. Ein Konto ohne Eintrag bis
+ * zum Stichzeitpunkt wird mit seinem Anfangszustand exportiert: Kontostand 0 in Euro, nicht gesperrt.
+ * Während des Exports dürfen keine Konten eröffnet oder gelöscht werden.
+ */
+public class Kontoexport {
+    /**
+     * kennzeichnet eine Exportdatei
+     */
+    public static final int KENNUNG = 0x4B544558;
+
+    /**
+     * die Version des Formats
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * die Höchstzahl der Konten in einem Block
+     */
+    public static final int BLOCKGROESSE = 1 << 16;
+
+    /**
+     * die Größe einer Zeile über alle Spalten in Byte
+     */
+    private static final int ZEILENGROESSE = Long.BYTES + Double.BYTES + 3 + Integer.BYTES;
+
+    /**
+     * ob die Ausgabe mit GZIP komprimiert wird
+     */
+    private final boolean komprimieren;
+
+    /**
+     * erstellt einen Export ohne Kompression
+     */
+    public Kontoexport() {
+        this(false);
+    }
+
+    /**
+     * erstellt einen Export
+     *
+     * @param komprimieren true, wenn die Ausgabe mit GZIP komprimiert werden soll
+     */
+    public Kontoexport(boolean komprimieren) {
+        this.komprimieren = komprimieren;
+    }
+
+    /**
+     * exportiert die Konten der Bank mit dem aktuellen Zeitpunkt als Stichzeitpunkt in die Datei
+     *
+     * @param bank  die Bank
+     * @param datei die Zieldatei, sie wird überschrieben
+     * @return die Anzahl der exportierten Konten
+     * @throws IOException wenn die Datei nicht geschrieben werden kann
+     */
+    public long exportieren(Bank bank, Path datei) throws IOException {
+        try (OutputStream aus = new BufferedOutputStream(Files.newOutputStream(datei), 1 << 16)) {
+            return exportieren(bank, aus, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * exportiert die Konten der Bank mit ihren Kontoständen zum Stichzeitpunkt. Der Stream wird nicht
+     * geschlossen.
+     *
+     * @param bank      die Bank
+     * @param ziel      wohin geschrieben wird
+     * @param stichzeit der Stichzeitpunkt in Millisekunden seit 1970
+     * @return die Anzahl der exportierten Konten
+     * @throws IOException              wenn das Schreiben fehlschlägt
+     * @throws IllegalArgumentException wenn bank oder ziel null ist oder der Stichzeitpunkt vor der
+     *                                  {@link Buchungsjournal#STANDARD_AUFBEWAHRUNG} eines Journals liegt
+     */
+    public long exportieren(Bank bank, OutputStream ziel, long stichzeit) throws IOException {
+        if (bank == null || ziel == null)
+            throw new IllegalArgumentException("Bank und Ziel dürfen nicht null sein");
+        GZIPOutputStream gzip = komprimieren ? new GZIPOutputStream(ziel, 1 << 16) : null;
+        DataOutputStream aus = new DataOutputStream(gzip != null ? gzip : ziel);
+        aus.writeInt(KENNUNG);
+        aus.writeShort(VERSION);
+        aus.writeLong(stichzeit);
+
+        long[] nummern = bank.sortierteKontonummern();
+        Map<Kunde, Integer> kundennummern = new IdentityHashMap<>();
+        List<Kunde> kunden = new ArrayList<>();
+        Konto[] konten = new Konto[Math.min(nummern.length, BLOCKGROESSE)];
+        int[] eintraege = new int[konten.length];
+        ByteBuffer block = ByteBuffer.allocate(konten.length * ZEILENGROESSE);
+        for (int anfang = 0; anfang < nummern.length; anfang += BLOCKGROESSE) {
+            int n = Math.min(BLOCKGROESSE, nummern.length - anfang);
+            for (int i = 0; i < n; i++) {
+                konten[i] = bank.kontoSuchen(nummern[anfang + i]);
+                eintraege[i] = konten[i].getJournal().eintragVor(stichzeit + 1);
+            }
+            block.clear();
+            for (int i = 0; i < n; i++) {
+                block.putLong(nummern[anfang + i]);
+            }
+            for (int i = 0; i < n; i++) {
+                block.putDouble(eintraege[i] < 0 ? 0 : konten[i].getJournal().getSaldo(eintraege[i]));
+            }
+            for (int i = 0; i < n; i++) {
+                Waehrung w = eintraege[i] < 0 ? Waehrung.EUR : konten[i].getJournal().getWaehrung(eintraege[i]);
+                block.put((byte) w.ordinal());
+            }
+            for (int i = 0; i < n; i++) {
+                boolean gesperrt = eintraege[i] >= 0 && konten[i].getJournal().isGesperrt(eintraege[i]);
+                block.put((byte) (gesperrt ? 1 : 0));
+            }
+            for (int i = 0; i < n; i++) {
+                Kontoart art = konten[i].getKontoart();
+                block.put((byte) (art == null ? -1 : art.ordinal()));
+            }
+            for (int i = 0; i < n; i++) {
+                Kunde inhaber = konten[i].getInhaber();
+                Integer nummer = kundennummern.get(inhaber);
+                if (nummer == null) {
+                    nummer = kunden.size();
+                    kundennummern.put(inhaber, nummer);
+                    kunden.add(inhaber);
+                }
+                block.putInt(nummer);
+            }
+            aus.writeInt(n);
+            aus.write(block.array(), 0, block.position());
+        }
+        aus.writeInt(0);
+
+        aus.writeInt(kunden.size());
+        for (Kunde kunde : kunden) {
+            aus.writeUTF(kunde.getVorname());
+            aus.writeUTF(kunde.getNachname());
+            aus.writeUTF(kunde.getAdresse());
+            aus.writeLong(kunde.getGeburtstag().toEpochDay());
+        }
+        if (gzip != null)
+            gzip.finish();
+        aus.flush();
+        return nummern.length;
+    }
+}
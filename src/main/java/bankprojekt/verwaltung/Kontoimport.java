@@ -0,0 +1,448 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kontoart;
+import bankprojekt.verarbeitung.Kontofabrik;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.SparbuchFabrik;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Eröffnet Konten in großer Zahl aus einer UTF-8-Datei mit einer Zeile pro Konto.
+ * <p>
+ * Jede Zeile enthält die Spalten Kontoart, Vorname, Nachname, Adresse, Geburtstag und Kontostand, entweder durch
+ * ein Trennzeichen getrennt ({@link #csv(char)}) oder in Spalten fester Breite ({@link #festeBreite(int...)}).
+ * Die Kontoart ist der Name aus {@link Kontoart} oder dessen Anfangsbuchstabe, der Geburtstag hat die Form
+ * tt.mm.jjjj, der Kontostand hat höchstens zwei Nachkommastellen mit Punkt oder Komma und darf fehlen. Bei
+ * einem Girokonto darf er mit - beginnen, aber nicht unter den Dispo der {@link GirokontoFabrik} fallen.
+ * Leere Zeilen und Zeilen, die mit # beginnen, werden übersprungen, fehlerhafte Zeilen werden gezählt und
+ * ebenfalls übersprungen. Trennzeichen innerhalb der Felder werden nicht unterstützt.
+ * <p>
+ * Die Datei wird in den Speicher eingeblendet, an Zeilengrenzen in Teile zerlegt und parallel direkt auf den
+ * Bytes gelesen; Strings werden nur für Namen und Adresse erzeugt. Die Kontonummern werden danach als ein Block
+ * in der Reihenfolge der Datei vergeben und alle Konten in einem Schritt in die Bank eingefügt. Während des
+ * Imports darf die Bank nicht von anderen Threads verändert werden.
+ */
+public class Kontoimport {
+    /**
+     * die Anzahl der Spalten einer Zeile
+     */
+    private static final int SPALTEN = 6;
+
+    /**
+     * die ungefähre Höchstgröße eines Teils in Byte, damit auch sehr große Dateien eingeblendet werden können
+     */
+    private static final long MAX_TEILGROESSE = 1L << 28;
+
+    /**
+     * die Kontoarten, nach Ordinalzahl
+     */
+    private static final Kontoart[] ARTEN = Kontoart.values();
+
+    /**
+     * die Fabrik je Kontoart, null für Kontoarten, die nicht importiert werden können
+     */
+    private static final Kontofabrik[] FABRIKEN = new Kontofabrik[ARTEN.length];
+
+    /**
+     * der niedrigste Kontostand eines importierten Girokontos in Cent
+     */
+    private static final long GIROKONTO_MINIMUM = -100L * GirokontoFabrik.DEFAULT_DISPO;
+
+    /**
+     * das Ergebnis von betragLesen für ein Feld, das kein gültiger Betrag ist
+     */
+    private static final long UNGUELTIG = Long.MIN_VALUE;
+
+    static {
+        FABRIKEN[Kontoart.GIROKONTO.ordinal()] = new GirokontoFabrik();
+        FABRIKEN[Kontoart.SPARBUCH.ordinal()] = new SparbuchFabrik();
+    }
+
+    /**
+     * das Trennzeichen, 0 bei Spalten fester Breite
+     */
+    private final byte trenner;
+
+    /**
+     * die Breiten der Spalten, null bei Trennzeichen
+     */
+    private final int[] breiten;
+
+    private Kontoimport(byte trenner, int[] breiten) {
+        this.trenner = trenner;
+        this.breiten = breiten;
+    }
+
+    /**
+     * erstellt einen Import für Zeilen, deren Spalten durch das Trennzeichen getrennt sind
+     *
+     * @param trenner das Trennzeichen, z.B. ';'
+     * @return der Import
+     * @throws IllegalArgumentException wenn trenner kein ASCII-Zeichen oder ein Zeilenumbruch ist
+     */
+    public static Kontoimport csv(char trenner) {
+        if (trenner == 0 || trenner > 127 || trenner == '\n' || trenner == '\r')
+            throw new IllegalArgumentException("Das Trennzeichen muss ein ASCII-Zeichen sein");
+        return new Kontoimport((byte) trenner, null);
+    }
+
+    /**
+     * erstellt einen Import für Zeilen mit Spalten fester Breite; Leerzeichen am Anfang und Ende einer Spalte
+     * werden ignoriert, fehlende Spalten am Zeilenende gelten als leer
+     *
+     * @param breiten die Breiten der sechs Spalten in Byte
+     * @return der Import
+     * @throws IllegalArgumentException wenn nicht genau sechs positive Breiten angegeben sind
+     */
+    public static Kontoimport festeBreite(int... breiten) {
+        if (breiten == null || breiten.length != SPALTEN)
+            throw new IllegalArgumentException("Es müssen genau " + SPALTEN + " Breiten angegeben werden");
+        for (int breite : breiten) {
+            if (breite < 1)
+                throw new IllegalArgumentException("Die Breiten müssen positiv sein");
+        }
+        return new Kontoimport((byte) 0, breiten.clone());
+    }
+
+    /**
+     * liest die Datei und eröffnet für jede gültige Zeile ein Konto in der Bank
+     *
+     * @param bank          die Bank
+     * @param datei         die zu lesende Datei
+     * @param anzahlThreads die Anzahl der Threads
+     * @return die Anzahl der eröffneten Konten und der fehlerhaften Zeilen sowie die Dauer
+     * @throws IOException              wenn die Datei nicht gelesen werden kann
+     * @throws InterruptedException     wenn der aufrufende Thread unterbrochen wird
+     * @throws IllegalArgumentException wenn bank oder datei null ist oder anzahlThreads kleiner als 1 ist
+     */
+    public Importergebnis importieren(Bank bank, Path datei, int anzahlThreads)
+            throws IOException, InterruptedException {
+        if (bank == null || datei == null)
+            throw new IllegalArgumentException("Bank und Datei dürfen nicht null sein");
+        if (anzahlThreads < 1)
+            throw new IllegalArgumentException("Es wird mindestens ein Thread benötigt");
+        long start = System.nanoTime();
+
+        ExecutorService threads = Executors.newFixedThreadPool(anzahlThreads);
+        try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.READ)) {
+            long[] grenzen = teilen(kanal, anzahlThreads);
+            List<Future<Teil>> auftraege = new ArrayList<>();
+            for (int i = 0; i + 1 < grenzen.length; i++) {
+                ByteBuffer bytes = kanal.map(FileChannel.MapMode.READ_ONLY, grenzen[i], grenzen[i + 1] - grenzen[i]);
+                auftraege.add(threads.submit(() -> new Teil(bytes).lesen()));
+            }
+            Teil[] teile = new Teil[auftraege.size()];
+            int anzahl = 0;
+            int fehlerhaft = 0;
+            for (int i = 0; i < teile.length; i++) {
+                teile[i] = auftraege.get(i).get();
+                anzahl += teile[i].anzahl;
+                fehlerhaft += teile[i].fehlerhaft;
+            }
+
+            long ersteNummer = Bank.kontonummernReservieren(anzahl);
+            Konto[] konten = new Konto[anzahl];
+            List<Future<?>> erzeugung = new ArrayList<>();
+            int versatz = 0;
+            for (Teil teil : teile) {
+                int anfang = versatz;
+                erzeugung.add(threads.submit(() -> teil.kontenErzeugen(ersteNummer, anfang, konten)));
+                versatz += teil.anzahl;
+            }
+            for (Future<?> f : erzeugung) {
+                f.get();
+            }
+            bank.kontenEinfuegen(ersteNummer, konten);
+            return new Importergebnis(anzahl, fehlerhaft, System.nanoTime() - start);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r)
+                throw r;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * teilt die Datei in etwa gleich große Teile, die jeweils am Anfang einer Zeile beginnen
+     *
+     * @return die Grenzen der Teile, Teil i reicht von grenzen[i] bis ausschließlich grenzen[i + 1]
+     */
+    private static long[] teilen(FileChannel kanal, int anzahlThreads) throws IOException {
+        long groesse = kanal.size();
+        int anzahlTeile = (int) Math.max(anzahlThreads * 4L, (groesse + MAX_TEILGROESSE - 1) / MAX_TEILGROESSE);
+        long[] grenzen = new long[anzahlTeile + 1];
+        int n = 1;
+        ByteBuffer suche = ByteBuffer.allocate(4096);
+        for (int t = 1; t < anzahlTeile; t++) {
+            long grenze = zeilenanfang(kanal, groesse * t / anzahlTeile, groesse, suche);
+            if (grenze >= groesse)
+                break;
+            if (grenze > grenzen[n - 1])
+                grenzen[n++] = grenze;
+        }
+        grenzen[n++] = groesse;
+        return Arrays.copyOf(grenzen, n);
+    }
+
+    /**
+     * liefert den Anfang der ersten Zeile, die an oder nach der Position beginnt
+     */
+    private static long zeilenanfang(FileChannel kanal, long position, long groesse, ByteBuffer suche)
+            throws IOException {
+        if (position == 0)
+            return 0;
+        long p = position - 1;
+        while (p < groesse) {
+            suche.clear();
+            int gelesen = kanal.read(suche, p);
+            if (gelesen <= 0)
+                break;
+            for (int i = 0; i < gelesen; i++) {
+                if (suche.get(i) == '\n')
+                    return p + i + 1;
+            }
+            p += gelesen;
+        }
+        return groesse;
+    }
+
+    /**
+     * ein Teil der Datei und die daraus gelesenen Zeilen
+     */
+    private class Teil {
+        private final ByteBuffer bytes;
+
+        /**
+         * Anfang und Ende jeder Spalte der aktuellen Zeile
+         */
+        private final int[] felder = new int[2 * SPALTEN];
+
+        /**
+         * Zwischenspeicher für die Bytes eines Textfelds
+         */
+        private byte[] zeichen = new byte[64];
+
+        private int anzahl;
+        private int fehlerhaft;
+        private byte[] arten = new byte[256];
+        private Kunde[] kunden = new Kunde[256];
+        private long[] cent = new long[256];
+
+        Teil(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        Teil lesen() {
+            int ende = bytes.limit();
+            int anfang = 0;
+            while (anfang < ende) {
+                int zeilenende = anfang;
+                while (zeilenende < ende && bytes.get(zeilenende) != '\n')
+                    zeilenende++;
+                int naechste = zeilenende + 1;
+                if (zeilenende > anfang && bytes.get(zeilenende - 1) == '\r')
+                    zeilenende--;
+                if (zeilenende > anfang && bytes.get(anfang) != '#')
+                    zeileLesen(anfang, zeilenende);
+                anfang = naechste;
+            }
+            return this;
+        }
+
+        private void zeileLesen(int anfang, int ende) {
+            if (!felderFinden(anfang, ende)) {
+                fehlerhaft++;
+                return;
+            }
+            int art = kontoartLesen(felder[0], felder[1]);
+            LocalDate geburtstag = datumLesen(felder[8], felder[9]);
+            long betrag = betragLesen(felder[10], felder[11]);
+            if (art < 0 || FABRIKEN[art] == null || geburtstag == null || betrag == UNGUELTIG
+                    || betrag < (art == Kontoart.GIROKONTO.ordinal() ? GIROKONTO_MINIMUM : 0)) {
+                fehlerhaft++;
+                return;
+            }
+            if (anzahl == kunden.length) {
+                arten = Arrays.copyOf(arten, anzahl * 2);
+                kunden = Arrays.copyOf(kunden, anzahl * 2);
+                cent = Arrays.copyOf(cent, anzahl * 2);
+            }
+            arten[anzahl] = (byte) art;
+            kunden[anzahl] = Kunde.fuerImport(text(felder[2], felder[3]), text(felder[4], felder[5]),
+                    text(felder[6], felder[7]), geburtstag);
+            cent[anzahl] = betrag;
+            anzahl++;
+        }
+
+        /**
+         * trägt Anfang und Ende jeder Spalte ohne umgebende Leerzeichen in felder ein
+         *
+         * @return false, wenn die Zeile nicht die richtige Anzahl Spalten hat
+         */
+        private boolean felderFinden(int anfang, int ende) {
+            if (breiten == null) {
+                int spalte = 0;
+                int von = anfang;
+                for (int i = anfang; i <= ende; i++) {
+                    if (i == ende || bytes.get(i) == trenner) {
+                        if (spalte == SPALTEN)
+                            return false;
+                        feldEintragen(spalte++, von, i);
+                        von = i + 1;
+                    }
+                }
+                return spalte == SPALTEN;
+            }
+            int von = anfang;
+            for (int spalte = 0; spalte < SPALTEN; spalte++) {
+                int bis = (int) Math.min((long) von + breiten[spalte], ende);
+                feldEintragen(spalte, Math.min(von, ende), bis);
+                von = bis;
+            }
+            return true;
+        }
+
+        private void feldEintragen(int spalte, int von, int bis) {
+            while (von < bis && bytes.get(von) == ' ')
+                von++;
+            while (bis > von && bytes.get(bis - 1) == ' ')
+                bis--;
+            felder[2 * spalte] = von;
+            felder[2 * spalte + 1] = bis;
+        }
+
+        /**
+         * @return die Ordinalzahl der Kontoart oder -1
+         */
+        private int kontoartLesen(int von, int bis) {
+            int laenge = bis - von;
+            for (Kontoart art : ARTEN) {
+                String name = art.name();
+                if (laenge == 1 && grossbuchstabe(bytes.get(von)) == name.charAt(0))
+                    return art.ordinal();
+                if (laenge == name.length()) {
+                    int i = 0;
+                    while (i < laenge && grossbuchstabe(bytes.get(von + i)) == name.charAt(i))
+                        i++;
+                    if (i == laenge)
+                        return art.ordinal();
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return das Datum der Form tt.mm.jjjj oder null
+         */
+        private LocalDate datumLesen(int von, int bis) {
+            int tag = 0;
+            int monat = 0;
+            int jahr = 0;
+            int teil = 0;
+            int stellen = 0;
+            for (int i = von; i < bis; i++) {
+                byte b = bytes.get(i);
+                if (b >= '0' && b <= '9' && stellen < 4) {
+                    int ziffer = b - '0';
+                    if (teil == 0)
+                        tag = tag * 10 + ziffer;
+                    else if (teil == 1)
+                        monat = monat * 10 + ziffer;
+                    else
+                        jahr = jahr * 10 + ziffer;
+                    stellen++;
+                } else if (b == '.' && stellen > 0 && teil < 2) {
+                    teil++;
+                    stellen = 0;
+                } else {
+                    return null;
+                }
+            }
+            if (teil != 2 || stellen != 4)
+                return null;
+            try {
+                return LocalDate.of(jahr, monat, tag);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+
+        /**
+         * @return der Betrag in Cent, 0 für ein leeres Feld oder {@link #UNGUELTIG}, wenn das Feld kein gültiger
+         * Betrag ist
+         */
+        private long betragLesen(int von, int bis) {
+            long betrag = 0;
+            int vorkomma = 0;
+            int nachkomma = -1;
+            boolean negativ = von < bis && bytes.get(von) == '-';
+            if (negativ)
+                von++;
+            for (int i = von; i < bis; i++) {
+                byte b = bytes.get(i);
+                if (b >= '0' && b <= '9') {
+                    if (nachkomma >= 0) {
+                        if (++nachkomma > 2)
+                            return UNGUELTIG;
+                    } else if (++vorkomma > 15) {
+                        return UNGUELTIG;
+                    }
+                    betrag = betrag * 10 + (b - '0');
+                } else if ((b == ',' || b == '.') && nachkomma < 0) {
+                    nachkomma = 0;
+                } else {
+                    return UNGUELTIG;
+                }
+            }
+            if (negativ && vorkomma + Math.max(nachkomma, 0) == 0)
+                return UNGUELTIG;
+            for (int i = Math.max(nachkomma, 0); i < 2; i++)
+                betrag *= 10;
+            return negativ ? -betrag : betrag;
+        }
+
+        private String text(int von, int bis) {
+            int laenge = bis - von;
+            if (zeichen.length < laenge)
+                zeichen = new byte[Math.max(laenge, zeichen.length * 2)];
+            bytes.get(von, zeichen, 0, laenge);
+            return new String(zeichen, 0, laenge, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * erzeugt die Konten dieses Teils mit den Nummern ab ersteNummer + anfang und legt sie ab anfang in konten ab
+         */
+        void kontenErzeugen(long ersteNummer, int anfang, Konto[] konten) {
+            for (int i = 0; i < anzahl; i++) {
+                Konto konto = FABRIKEN[arten[i]].erstellenKonto(kunden[i], ersteNummer + anfang + i);
+                if (cent[i] > 0)
+                    konto.einzahlen(cent[i] / 100.0);
+                else if (cent[i] < 0)
+                    konto.abhebenStatus(-cent[i] / 100.0);
+                konten[anfang + i] = konto;
+            }
+        }
+    }
+
+    private static char grossbuchstabe(byte b) {
+        return (char) (b >= 'a' && b <= 'z' ? b - 32 : b);
+    }
+}
@@ -0,0 +1,372 @@
+package bankprojekt.verwaltung;
+
+import java.util.Arrays;
+
+/**
+ * Ein Limit-Orderbuch für ein Wertpapier mit Preis-Zeit-Priorität.
+ * <p>
+ * Eine neue Order wird zuerst gegen die besten Orders der Gegenseite ausgeführt, solange deren Preis ihr Limit
+ * nicht überschreitet (Kauf) bzw. unterschreitet (Verkauf); bei gleichem Preis kommt die ältere Order zuerst.
+ * Ausgeführt wird zum Preis der wartenden Order. Was übrig bleibt, wartet im Buch.
+ * <p>
+ * Orders sind keine Objekte, sondern Plätze in parallelen primitiven Arrays, die über eine Freiliste
+ * wiederverwendet werden. Jede Preisstufe ist eine doppelt verkettete Liste dieser Plätze. Die Preisstufen
+ * einer Seite liegen sortiert in einem Array, die beste Stufe am Ende, so dass Ausführen und Entfernen der
+ * besten Stufe nichts verschieben. Allokiert wird nur, wenn ein Array wachsen muss. Preise sind ganze Cent.
+ * <p>
+ * Die Klasse ist nicht threadsicher.
+ */
+public class Orderbuch {
+    /**
+     * rechnet einen Abschluss zwischen zwei Konten ab
+     */
+    @FunctionalInterface
+    public interface Abwicklung {
+        /**
+         * überträgt anzahl Stück zum Preis vom Verkäufer an den Käufer
+         *
+         * @param kaeufer     Kontonummer des Käufers
+         * @param verkaeufer  Kontonummer des Verkäufers
+         * @param anzahl      Stückzahl
+         * @param preisInCent Preis je Stück in Cent
+         * @return {@link #ABGEWICKELT} oder die Kombination von {@link #KAEUFER_ABGELEHNT} und
+         * {@link #VERKAEUFER_ABGELEHNT} für die Seiten, an denen der Abschluss gescheitert ist
+         */
+        int abwickeln(long kaeufer, long verkaeufer, int anzahl, long preisInCent);
+    }
+
+    /**
+     * der Abschluss wurde abgerechnet
+     */
+    public static final int ABGEWICKELT = 0;
+    /**
+     * der Käufer kann den Abschluss nicht bezahlen; seine Order wird gestrichen
+     */
+    public static final int KAEUFER_ABGELEHNT = 1;
+    /**
+     * der Verkäufer kann die Stücke nicht liefern; seine Order wird gestrichen
+     */
+    public static final int VERKAEUFER_ABGELEHNT = 2;
+
+    /**
+     * steht für keine Order, z.B. wenn eine neue Order vollständig ausgeführt wurde
+     */
+    public static final long KEINE_ORDER = -1;
+
+    private static final int ANFANGSKAPAZITAET = 1024;
+    private static final int ENDE = -1;
+
+    private final int wertpapierkennummer;
+
+    // die Orderplätze
+    private long[] kontonummer = new long[ANFANGSKAPAZITAET];
+    private long[] preis = new long[ANFANGSKAPAZITAET];
+    private int[] rest = new int[ANFANGSKAPAZITAET];
+    private boolean[] kauf = new boolean[ANFANGSKAPAZITAET];
+    private int[] naechster = new int[ANFANGSKAPAZITAET];
+    private int[] vorheriger = new int[ANFANGSKAPAZITAET];
+    /**
+     * wird bei jeder Freigabe eines Platzes erhöht, damit eine alte Ordernummer ungültig wird
+     */
+    private int[] generation = new int[ANFANGSKAPAZITAET];
+    /**
+     * Kopf der Freiliste, verkettet über naechster
+     */
+    private int frei;
+    /**
+     * Anzahl der je benutzten Plätze; alle dahinter sind frei, aber nicht in der Freiliste
+     */
+    private int benutzt;
+
+    private final Seite kaeufe = new Seite(true);
+    private final Seite verkaeufe = new Seite(false);
+
+    private int anzahlOrders;
+    private long anzahlAbschluesse;
+    private long ausgefuehrteStueck;
+
+    /**
+     * erstellt ein leeres Buch
+     *
+     * @param wertpapierkennummer die Wertpapierkennnummer
+     */
+    public Orderbuch(int wertpapierkennummer) {
+        this.wertpapierkennummer = wertpapierkennummer;
+        this.frei = ENDE;
+    }
+
+    /**
+     * führt eine Kauforder aus, soweit es passende Verkauforders gibt, und stellt den Rest ins Buch
+     *
+     * @param konto       Kontonummer des Käufers
+     * @param anzahl      Stückzahl
+     * @param limitInCent der höchste Preis je Stück in Cent
+     * @param abwicklung  rechnet die Abschlüsse ab
+     * @return die Nummer der wartenden Order oder {@link #KEINE_ORDER}, wenn nichts übrig ist
+     * @throws IllegalArgumentException wenn anzahl oder limitInCent nicht positiv ist
+     */
+    public long kaufen(long konto, int anzahl, long limitInCent, Abwicklung abwicklung) {
+        return einstellen(true, konto, anzahl, limitInCent, abwicklung);
+    }
+
+    /**
+     * führt eine Verkauforder aus, soweit es passende Kauforders gibt, und stellt den Rest ins Buch
+     *
+     * @param konto       Kontonummer des Verkäufers
+     * @param anzahl      Stückzahl
+     * @param limitInCent der niedrigste Preis je Stück in Cent
+     * @param abwicklung  rechnet die Abschlüsse ab
+     * @return die Nummer der wartenden Order oder {@link #KEINE_ORDER}, wenn nichts übrig ist
+     * @throws IllegalArgumentException wenn anzahl oder limitInCent nicht positiv ist
+     */
+    public long verkaufen(long konto, int anzahl, long limitInCent, Abwicklung abwicklung) {
+        return einstellen(false, konto, anzahl, limitInCent, abwicklung);
+    }
+
+    private long einstellen(boolean istKauf, long konto, int anzahl, long limit, Abwicklung abwicklung) {
+        if (anzahl <= 0 || limit <= 0)
+            throw new IllegalArgumentException("Stückzahl und Limit müssen positiv sein");
+        Seite gegenseite = istKauf ? verkaeufe : kaeufe;
+        while (anzahl > 0 && gegenseite.anzahl > 0) {
+            int stufe = gegenseite.anzahl - 1;
+            long bester = gegenseite.preis(stufe);
+            if (istKauf ? bester > limit : bester < limit)
+                break;
+            int o = gegenseite.kopf[stufe];
+            int menge = Math.min(anzahl, rest[o]);
+            int ergebnis = istKauf
+                    ? abwicklung.abwickeln(konto, kontonummer[o], menge, bester)
+                    : abwicklung.abwickeln(kontonummer[o], konto, menge, bester);
+            if (ergebnis == ABGEWICKELT) {
+                anzahl -= menge;
+                rest[o] -= menge;
+                anzahlAbschluesse++;
+                ausgefuehrteStueck += menge;
+                if (rest[o] == 0)
+                    entfernen(o);
+                continue;
+            }
+            int eigene = istKauf ? KAEUFER_ABGELEHNT : VERKAEUFER_ABGELEHNT;
+            if ((ergebnis & ~eigene) != 0)
+                entfernen(o);
+            if ((ergebnis & eigene) != 0)
+                return KEINE_ORDER;
+        }
+        if (anzahl == 0)
+            return KEINE_ORDER;
+        int o = platzBelegen();
+        kontonummer[o] = konto;
+        preis[o] = limit;
+        rest[o] = anzahl;
+        kauf[o] = istKauf;
+        (istKauf ? kaeufe : verkaeufe).anhaengen(o, limit);
+        anzahlOrders++;
+        return (long) generation[o] << 32 | o;
+    }
+
+    /**
+     * streicht eine wartende Order
+     *
+     * @param order die Nummer der Order
+     * @return true, wenn die Order noch im Buch war
+     */
+    public boolean stornieren(long order) {
+        int o = platz(order);
+        if (o < 0)
+            return false;
+        entfernen(o);
+        return true;
+    }
+
+    /**
+     * liefert die noch offene Stückzahl einer Order
+     *
+     * @param order die Nummer der Order
+     * @return die offene Stückzahl, 0 wenn die Order ausgeführt oder gestrichen ist
+     */
+    public int getOffen(long order) {
+        int o = platz(order);
+        return o < 0 ? 0 : rest[o];
+    }
+
+    /**
+     * liefert den höchsten Preis einer wartenden Kauforder
+     *
+     * @return Preis in Cent oder -1, wenn es keine gibt
+     */
+    public long getBesterKauf() {
+        return kaeufe.anzahl == 0 ? -1 : kaeufe.preis(kaeufe.anzahl - 1);
+    }
+
+    /**
+     * liefert den niedrigsten Preis einer wartenden Verkauforder
+     *
+     * @return Preis in Cent oder -1, wenn es keine gibt
+     */
+    public long getBesterVerkauf() {
+        return verkaeufe.anzahl == 0 ? -1 : verkaeufe.preis(verkaeufe.anzahl - 1);
+    }
+
+    /**
+     * liefert die Anzahl der wartenden Orders
+     *
+     * @return Anzahl der Orders im Buch
+     */
+    public int getAnzahlOrders() {
+        return anzahlOrders;
+    }
+
+    /**
+     * liefert die Anzahl aller Abschlüsse
+     *
+     * @return Anzahl der Abschlüsse
+     */
+    public long getAnzahlAbschluesse() {
+        return anzahlAbschluesse;
+    }
+
+    /**
+     * liefert die Summe der Stückzahlen aller Abschlüsse
+     *
+     * @return ausgeführte Stückzahl
+     */
+    public long getAusgefuehrteStueck() {
+        return ausgefuehrteStueck;
+    }
+
+    /**
+     * liefert die Wertpapierkennnummer
+     *
+     * @return die Wertpapierkennnummer
+     */
+    public int getWertpapierkennummer() {
+        return wertpapierkennummer;
+    }
+
+    /**
+     * liefert den Platz einer wartenden Order oder -1, wenn die Nummer nicht (mehr) gültig ist
+     */
+    private int platz(long order) {
+        int o = (int) order;
+        if (order < 0 || o >= benutzt || generation[o] != (int) (order >>> 32) || rest[o] == 0)
+            return -1;
+        return o;
+    }
+
+    /**
+     * nimmt eine Order aus ihrer Preisstufe und gibt ihren Platz frei
+     */
+    private void entfernen(int o) {
+        (kauf[o] ? kaeufe : verkaeufe).aushaengen(o);
+        rest[o] = 0;
+        generation[o] = (generation[o] + 1) & Integer.MAX_VALUE;
+        naechster[o] = frei;
+        frei = o;
+        anzahlOrders--;
+    }
+
+    private int platzBelegen() {
+        if (frei != ENDE) {
+            int o = frei;
+            frei = naechster[o];
+            return o;
+        }
+        if (benutzt == rest.length) {
+            int neu = rest.length * 2;
+            kontonummer = Arrays.copyOf(kontonummer, neu);
+            preis = Arrays.copyOf(preis, neu);
+            rest = Arrays.copyOf(rest, neu);
+            kauf = Arrays.copyOf(kauf, neu);
+            naechster = Arrays.copyOf(naechster, neu);
+            vorheriger = Arrays.copyOf(vorheriger, neu);
+            generation = Arrays.copyOf(generation, neu);
+        }
+        return benutzt++;
+    }
+
+    /**
+     * die Preisstufen einer Seite des Buchs
+     */
+    private class Seite {
+        /**
+         * true für die Kaufseite
+         */
+        private final boolean kaufseite;
+        /**
+         * die Preise der Stufen als Schlüssel, aufsteigend sortiert mit der besten Stufe am Ende; auf der
+         * Kaufseite der Preis, auf der Verkaufseite der negative Preis
+         */
+        private long[] schluessel = new long[64];
+        /**
+         * je Stufe die älteste und die jüngste Order
+         */
+        private int[] kopf = new int[64];
+        private int[] ende = new int[64];
+        private int anzahl;
+
+        Seite(boolean kaufseite) {
+            this.kaufseite = kaufseite;
+        }
+
+        long preis(int stufe) {
+            return kaufseite ? schluessel[stufe] : -schluessel[stufe];
+        }
+
+        /**
+         * hängt die Order ans Ende ihrer Preisstufe und legt die Stufe bei Bedarf an
+         */
+        void anhaengen(int o, long preisInCent) {
+            long s = kaufseite ? preisInCent : -preisInCent;
+            int stufe = Arrays.binarySearch(schluessel, 0, anzahl, s);
+            if (stufe < 0) {
+                stufe = -stufe - 1;
+                if (anzahl == schluessel.length) {
+                    schluessel = Arrays.copyOf(schluessel, anzahl * 2);
+                    kopf = Arrays.copyOf(kopf, anzahl * 2);
+                    ende = Arrays.copyOf(ende, anzahl * 2);
+                }
+                System.arraycopy(schluessel, stufe, schluessel, stufe + 1, anzahl - stufe);
+                System.arraycopy(kopf, stufe, kopf, stufe + 1, anzahl - stufe);
+                System.arraycopy(ende, stufe, ende, stufe + 1, anzahl - stufe);
+                schluessel[stufe] = s;
+                kopf[stufe] = o;
+                ende[stufe] = o;
+                anzahl++;
+                vorheriger[o] = ENDE;
+                naechster[o] = ENDE;
+                return;
+            }
+            int letzte = ende[stufe];
+            naechster[letzte] = o;
+            vorheriger[o] = letzte;
+            naechster[o] = ENDE;
+            ende[stufe] = o;
+        }
+
+        /**
+         * nimmt die Order aus ihrer Preisstufe und entfernt die Stufe, wenn sie leer wird
+         */
+        void aushaengen(int o) {
+            long s = kaufseite ? preis[o] : -preis[o];
+            // die beste Stufe ist die häufigste, sie liegt am Ende
+            int stufe = anzahl > 0 && schluessel[anzahl - 1] == s
+                    ? anzahl - 1 : Arrays.binarySearch(schluessel, 0, anzahl, s);
+            int vor = vorheriger[o];
+            int nach = naechster[o];
+            if (vor == ENDE)
+                kopf[stufe] = nach;
+            else
+                naechster[vor] = nach;
+            if (nach == ENDE)
+                ende[stufe] = vor;
+            else
+                vorheriger[nach] = vor;
+            if (kopf[stufe] == ENDE) {
+                anzahl--;
+                System.arraycopy(schluessel, stufe + 1, schluessel, stufe, anzahl - stufe);
+                System.arraycopy(kopf, stufe + 1, kopf, stufe, anzahl - stufe);
+                System.arraycopy(ende, stufe + 1, ende, stufe, anzahl - stufe);
+            }
+        }
+    }
+}
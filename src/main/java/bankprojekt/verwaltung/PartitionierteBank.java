@@ -0,0 +1,449 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Eine Bank, deren Konten anhand der Kontonummer auf mehrere Partitionen verteilt sind.
+ * Jede Partition ist eine eigene {@link Bank} und gehört genau einem Thread, nur dieser Thread greift
+ * auf ihre Konten zu. Operationen auf ein einzelnes Konto werden an den Thread der zuständigen Partition
+ * weitergeleitet, so dass Operationen auf Konten verschiedener Partitionen parallel laufen.
+ * <p>
+ * Überweisungen zwischen zwei Partitionen werden in zwei Schritten ausgeführt: erst wird beim Auftraggeber
+ * abgebucht, dann beim Empfänger gutgeschrieben. Scheitert die Gutschrift, wird die Abbuchung durch eine
+ * Rückbuchung ausgeglichen. Abfragen über alle Konten laufen parallel in allen Partitionen.
+ */
+public class PartitionierteBank implements AutoCloseable {
+    /**
+     * die Bankleitzahl von der Bank
+     */
+    private final long bankleitzahl;
+
+    /**
+     * die Partitionen, jeweils mit eigener Kontenliste
+     */
+    private final Bank[] partitionen;
+
+    /**
+     * die Threads, denen die Partitionen gehören, gleicher Index wie in partitionen
+     */
+    private final ExecutorService[] besitzer;
+
+    /**
+     * Erstellt eine Bank mit der angegebenen Bankleitzahl und Anzahl von Partitionen
+     *
+     * @param bankleitzahl      Bankleitzahl
+     * @param anzahlPartitionen die Anzahl der Partitionen und damit der Threads
+     * @throws IllegalArgumentException falls die Bankleitzahl oder die Anzahl der Partitionen kleiner als 1 ist
+     */
+    public PartitionierteBank(long bankleitzahl, int anzahlPartitionen) {
+        if (anzahlPartitionen < 1)
+            throw new IllegalArgumentException("Es wird mindestens eine Partition benötigt");
+        this.bankleitzahl = bankleitzahl;
+        this.partitionen = new Bank[anzahlPartitionen];
+        this.besitzer = new ExecutorService[anzahlPartitionen];
+        for (int i = 0; i < anzahlPartitionen; i++) {
+            partitionen[i] = new Bank(bankleitzahl);
+            String name = "Bankpartition-" + i;
+            besitzer[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Gibt die Bankleitzahl der Bank zurück.
+     *
+     * @return die Bankleitzahl der Bank
+     */
+    public long getBankleitzahl() {
+        return bankleitzahl;
+    }
+
+    /**
+     * liefert die Anzahl der Partitionen
+     *
+     * @return die Anzahl der Partitionen
+     */
+    public int getAnzahlPartitionen() {
+        return partitionen.length;
+    }
+
+    /**
+     * Erstellt ein Konto mit der angegebenen Kontofabrik in der zur neuen Kontonummer gehörenden Partition
+     *
+     * @param kontofabrik die Fabrik für das Konto
+     * @param inhaber     der Inhaber
+     * @return die neue Kontonummer
+     * @throws NullPointerException wenn kontofabrik oder inhaber null ist
+     */
+    public long kontoErstellen(Kontofabrik kontofabrik, Kunde inhaber) {
+        if (kontofabrik == null || inhaber == null)
+            throw new NullPointerException("Kontofabrik und Inhaber dürfen nicht null sein");
+        long kontoNr = Bank.erstellKontonummer();
+        Konto konto = kontofabrik.erstellenKonto(inhaber, kontoNr);
+        int p = partition(kontoNr);
+        return aufPartition(p, () -> {
+            partitionen[p].kontoEinfuegen(kontoNr, konto);
+            return kontoNr;
+        });
+    }
+
+    /**
+     * zahlt den angegebenen Betrag auf das Konto mit der angegebenen Kontonummer ein.
+     *
+     * @param auf    die Kontonummer, auf das der Betrag eingezahlt werden soll
+     * @param betrag der einzuzahlende Betrag
+     * @throws IllegalArgumentException           wenn Betrag kleiner-gleich 0 ist
+     * @throws KontonummerNichtVorhandenException wenn die angegebene Kontonummer nicht vorhanden ist
+     */
+    public void geldEinzahlen(long auf, double betrag) throws KontonummerNichtVorhandenException {
+        Buchungsstatus status = geldEinzahlenStatus(auf, betrag);
+        if (status == Buchungsstatus.KONTO_NICHT_VORHANDEN)
+            throw new KontonummerNichtVorhandenException(auf);
+        if (status == Buchungsstatus.UNGUELTIGER_BETRAG)
+            throw new IllegalArgumentException("Betrag muss größer als 0 sein");
+    }
+
+    /**
+     * zahlt den angegebenen Betrag auf das Konto mit der angegebenen Kontonummer ein,
+     * ohne im Fehlerfall eine Exception zu erzeugen.
+     *
+     * @param auf    die Kontonummer, auf das der Betrag eingezahlt werden soll
+     * @param betrag der einzuzahlende Betrag
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN oder UNGUELTIGER_BETRAG
+     */
+    public Buchungsstatus geldEinzahlenStatus(long auf, double betrag) {
+        int p = partition(auf);
+        return aufPartition(p, () -> partitionen[p].geldEinzahlenStatus(auf, betrag));
+    }
+
+    /**
+     * hebt den Betrag vom Konto mit der angegebenen Kontonummer ab und gibt zurück, ob die Abhebung erfolgreich war.
+     *
+     * @param von    die Kontonummer, von der der Betrag abgehoben werden soll
+     * @param betrag der abzuhebende Betrag
+     * @return true, wenn die Abhebung erfolgreich war, sonst false
+     * @throws GesperrtException                  wenn das Konto gesperrt ist
+     * @throws IllegalArgumentException           wenn Betrag kleiner-gleich 0 ist
+     * @throws KontonummerNichtVorhandenException wenn die angegebene Kontonummer nicht vorhanden ist
+     */
+    public boolean geldAbheben(long von, double betrag) throws GesperrtException, KontonummerNichtVorhandenException {
+        Buchungsstatus status = geldAbhebenStatus(von, betrag);
+        switch (status) {
+            case KONTO_NICHT_VORHANDEN:
+                throw new KontonummerNichtVorhandenException(von);
+            case UNGUELTIGER_BETRAG:
+                throw new IllegalArgumentException("Betrag muss größer als 0 sein");
+            case GESPERRT:
+                throw new GesperrtException(von);
+            default:
+                return status.isErfolgreich();
+        }
+    }
+
+    /**
+     * hebt den Betrag vom Konto mit der angegebenen Kontonummer ab, ohne im Fehlerfall eine Exception zu erzeugen.
+     *
+     * @param von    die Kontonummer, von der der Betrag abgehoben werden soll
+     * @param betrag der abzuhebende Betrag
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN, UNGUELTIGER_BETRAG, GESPERRT oder NICHT_GEDECKT
+     */
+    public Buchungsstatus geldAbhebenStatus(long von, double betrag) {
+        int p = partition(von);
+        return aufPartition(p, () -> partitionen[p].geldAbhebenStatus(von, betrag));
+    }
+
+    /**
+     * Überweist den angegebenen Betrag zwischen zwei überweisungsfähigen Konten dieser Bank
+     *
+     * @param vonKontoNr       die Kontonummer des Auftraggebers
+     * @param nachKontoNr      die Kontonummer des Empfängers
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck der Verwendungszweck
+     * @return true, wenn die Überweisung erfolgreich war, false sonst
+     * @throws IllegalArgumentException wenn einer der Parameter fehlerhaft ist
+     */
+    public boolean geldUeberweisen(long vonKontoNr, long nachKontoNr, double betrag, String verwendungszweck) {
+        return geldUeberweisenStatus(vonKontoNr, nachKontoNr, betrag, verwendungszweck).isErfolgreich();
+    }
+
+    /**
+     * Überweist den angegebenen Betrag zwischen zwei überweisungsfähigen Konten dieser Bank und liefert das
+     * Ergebnis als Status. Liegen die Konten in verschiedenen Partitionen, wird zuerst abgebucht und dann
+     * gutgeschrieben; scheitert die Gutschrift, wird der Betrag dem Auftraggeber zurückgebucht.
+     *
+     * @param vonKontoNr       die Kontonummer des Auftraggebers
+     * @param nachKontoNr      die Kontonummer des Empfängers
+     * @param betrag           der zu überweisende Betrag
+     * @param verwendungszweck der Verwendungszweck
+     * @return ERFOLGREICH, KONTO_NICHT_VORHANDEN, NICHT_UEBERWEISUNGSFAEHIG, GESPERRT oder NICHT_GEDECKT
+     * @throws IllegalArgumentException wenn einer der Parameter fehlerhaft ist
+     * @throws IllegalStateException    wenn nach einer gescheiterten Gutschrift auch die Rückbuchung scheitert
+     */
+    public Buchungsstatus geldUeberweisenStatus(long vonKontoNr, long nachKontoNr, double betrag,
+                                                String verwendungszweck) {
+        int von = partition(vonKontoNr);
+        int nach = partition(nachKontoNr);
+        if (von == nach)
+            return aufPartition(von, () ->
+                    partitionen[von].geldUeberweisenStatus(vonKontoNr, nachKontoNr, betrag, verwendungszweck));
+
+        CompletableFuture<String> vonSuche = asynchron(von, () -> inhaberSuchen(partitionen[von], vonKontoNr));
+        CompletableFuture<String> nachSuche = asynchron(nach, () -> inhaberSuchen(partitionen[nach], nachKontoNr));
+        String vonName = warten(vonSuche);
+        String nachName = warten(nachSuche);
+        if (vonName == null || nachName == null)
+            return Buchungsstatus.KONTO_NICHT_VORHANDEN;
+        if (vonName.isEmpty() || nachName.isEmpty())
+            return Buchungsstatus.NICHT_UEBERWEISUNGSFAEHIG;
+
+        Buchungsstatus abbuchung = aufPartition(von, () -> partitionen[von].ueberweisungAbbuchen(vonKontoNr, betrag,
+                nachName, nachKontoNr, bankleitzahl, verwendungszweck));
+        if (!abbuchung.isErfolgreich())
+            return abbuchung;
+
+        Buchungsstatus gutschrift;
+        try {
+            gutschrift = aufPartition(nach, () -> partitionen[nach].ueberweisungGutschreiben(nachKontoNr,
+                    betrag, vonName, vonKontoNr, bankleitzahl, verwendungszweck));
+        } catch (RuntimeException e) {
+            zurueckbuchen(von, vonKontoNr, betrag, nachName, nachKontoNr, verwendungszweck, e);
+            throw e;
+        }
+        if (!gutschrift.isErfolgreich())
+            zurueckbuchen(von, vonKontoNr, betrag, nachName, nachKontoNr, verwendungszweck, null);
+        return gutschrift;
+    }
+
+    /**
+     * liefert den Namen des Inhabers, ausgeführt im Thread der Partition
+     *
+     * @return der Name, null, wenn es das Konto nicht gibt, oder einen leeren String, wenn das Konto nicht
+     * überweisungsfähig ist
+     */
+    private static String inhaberSuchen(Bank partition, long kontoNr) {
+        Konto konto = partition.kontoSuchen(kontoNr);
+        if (konto == null)
+            return null;
+        if (!(konto instanceof Ueberweisungsfaehig))
+            return "";
+        return konto.getInhaber().getName();
+    }
+
+    /**
+     * bucht eine bereits abgebuchte Überweisung, deren Gutschrift gescheitert ist, dem Auftraggeber zurück
+     *
+     * @param grund die Exception der gescheiterten Gutschrift oder null
+     * @throws IllegalStateException wenn auch die Rückbuchung scheitert; der Betrag ist dann weder beim
+     *                               Auftraggeber noch beim Empfänger gebucht
+     */
+    private void zurueckbuchen(int von, long vonKontoNr, double betrag, String nachName, long nachKontoNr,
+                               String verwendungszweck, RuntimeException grund) {
+        IllegalStateException fehler;
+        try {
+            Buchungsstatus rueckbuchung = aufPartition(von, () -> partitionen[von].ueberweisungGutschreiben(vonKontoNr, betrag,
+                    nachName, nachKontoNr, bankleitzahl, "Rückbuchung: " + verwendungszweck));
+            if (rueckbuchung.isErfolgreich())
+                return;
+            fehler = new IllegalStateException("Rückbuchung von " + betrag + " an Konto " + vonKontoNr
+                    + " ist gescheitert: " + rueckbuchung);
+        } catch (RuntimeException e) {
+            fehler = new IllegalStateException("Rückbuchung von " + betrag + " an Konto " + vonKontoNr
+                    + " ist gescheitert", e);
+        }
+        if (grund != null)
+            fehler.addSuppressed(grund);
+        throw fehler;
+    }
+
+    /**
+     * Liefert den Kontostand des Kontos mit der angegebenen Kontonummer zurück.
+     *
+     * @param nummer die Kontonummer des Kontos
+     * @return den Kontostand des Kontos mit der angegebenen Kontonummer
+     * @throws KontonummerNichtVorhandenException wenn die angegebene Kontonummer nicht existiert
+     */
+    public double getKontostand(long nummer) throws KontonummerNichtVorhandenException {
+        int p = partition(nummer);
+        Konto konto = aufPartition(p, () -> partitionen[p].kontoSuchen(nummer));
+        if (konto == null)
+            throw new KontonummerNichtVorhandenException(nummer);
+        return aufPartition(p, konto::getKontostand);
+    }
+
+    /**
+     * Löscht das Konto mit der angegebenen Kontonummer.
+     *
+     * @param nummer die Kontonummer des zu löschenden Kontos
+     * @return true, wenn das Konto erfolgreich gelöscht wurde, false, wenn die Kontonummer nicht existiert
+     */
+    public boolean kontoLoeschen(long nummer) {
+        int p = partition(nummer);
+        return aufPartition(p, () -> partitionen[p].kontoLoeschen(nummer));
+    }
+
+    /**
+     * sperrt in allen Partitionen parallel alle Konten, deren Kontostand im Minus ist.
+     */
+    public void pleitegeierSperren() {
+        List<CompletableFuture<Void>> ergebnisse = new ArrayList<>();
+        for (int p = 0; p < partitionen.length; p++) {
+            Bank partition = partitionen[p];
+            ergebnisse.add(asynchron(p, () -> {
+                partition.pleitegeierSperren();
+                return null;
+            }));
+        }
+        ergebnisse.forEach(this::warten);
+    }
+
+    /**
+     * liefert eine Auflistung von Kontonummer und Kontostand zu jedem Konto zurück, nach Kontonummer sortiert.
+     * Die Partitionen werden parallel ausgelesen, ihre sortierten Listen danach zusammengemischt.
+     *
+     * @return die Kontonummer und deren Kontostand
+     */
+    public String getAlleKonten() {
+        List<CompletableFuture<Auflistung>> teile = new ArrayList<>();
+        for (int p = 0; p < partitionen.length; p++) {
+            Bank partition = partitionen[p];
+            teile.add(asynchron(p, () -> auflisten(partition)));
+        }
+        Auflistung[] auflistungen = new Auflistung[teile.size()];
+        long[][] nummern = new long[auflistungen.length][];
+        for (int p = 0; p < auflistungen.length; p++) {
+            auflistungen[p] = warten(teile.get(p));
+            nummern[p] = auflistungen[p].nummern();
+        }
+        String zeilenende = System.lineSeparator();
+        int[] naechste = new int[auflistungen.length];
+        StringBuilder str = new StringBuilder();
+        for (int p : mischen(nummern)) {
+            str.append(auflistungen[p].zeilen()[naechste[p]++]).append(zeilenende);
+        }
+        return str.toString();
+    }
+
+    /**
+     * liefert eine Liste aller gültigen Kontonummern in der Bank, aufsteigend sortiert.
+     * Die Partitionen werden parallel ausgelesen, ihre sortierten Listen danach zusammengemischt.
+     *
+     * @return eine Liste von Kontonummern
+     */
+    public List<Long> getAlleKontonummern() {
+        List<CompletableFuture<long[]>> teile = new ArrayList<>();
+        for (int p = 0; p < partitionen.length; p++) {
+            Bank partition = partitionen[p];
+            teile.add(asynchron(p, partition::sortierteKontonummern));
+        }
+        long[][] nummern = new long[teile.size()][];
+        for (int p = 0; p < nummern.length; p++) {
+            nummern[p] = warten(teile.get(p));
+        }
+        int[] naechste = new int[nummern.length];
+        int[] reihenfolge = mischen(nummern);
+        List<Long> liste = new ArrayList<>(reihenfolge.length);
+        for (int p : reihenfolge) {
+            liste.add(nummern[p][naechste[p]++]);
+        }
+        return liste;
+    }
+
+    /**
+     * die sortierten Kontonummern einer Partition und die Zeile zu jeder Nummer, gleicher Index
+     */
+    private record Auflistung(long[] nummern, String[] zeilen) {
+    }
+
+    /**
+     * liest die Konten einer Partition aus; läuft auf dem Thread der Partition
+     */
+    private static Auflistung auflisten(Bank partition) {
+        long[] nummern = partition.sortierteKontonummern();
+        String[] zeilen = new String[nummern.length];
+        StringBuilder zeile = new StringBuilder(64);
+        for (int i = 0; i < nummern.length; i++) {
+            zeile.setLength(0);
+            zeilen[i] = Bank.zeileAnhaengen(zeile, nummern[i], partition.kontoSuchen(nummern[i])).toString();
+        }
+        return new Auflistung(nummern, zeilen);
+    }
+
+    /**
+     * mischt die aufsteigend sortierten Kontonummern der Partitionen wie beim Mergesort über eine
+     * Prioritätswarteschlange der Partitionen
+     *
+     * @return für jede Stelle der gemischten Folge die Partition, aus der die Nummer stammt; innerhalb einer
+     * Partition werden die Nummern der Reihe nach entnommen
+     */
+    private static int[] mischen(long[][] nummern) {
+        int gesamt = 0;
+        for (long[] n : nummern) {
+            gesamt += n.length;
+        }
+        int[] naechste = new int[nummern.length];
+        PriorityQueue<Integer> koepfe = new PriorityQueue<>(Math.max(1, nummern.length),
+                (a, b) -> Long.compare(nummern[a][naechste[a]], nummern[b][naechste[b]]));
+        for (int p = 0; p < nummern.length; p++) {
+            if (nummern[p].length > 0)
+                koepfe.add(p);
+        }
+        int[] herkunft = new int[gesamt];
+        for (int i = 0; i < gesamt; i++) {
+            int p = koepfe.remove();
+            herkunft[i] = p;
+            if (++naechste[p] < nummern[p].length)
+                koepfe.add(p);
+        }
+        return herkunft;
+    }
+
+    /**
+     * beendet die Threads der Partitionen. Bereits angenommene Operationen werden noch ausgeführt.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService executor : besitzer) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * liefert den Index der Partition, der das Konto mit der angegebenen Nummer gehört
+     */
+    private int partition(long kontonummer) {
+        return (int) Math.floorMod(kontonummer, (long) partitionen.length);
+    }
+
+    private <T> CompletableFuture<T> asynchron(int partition, Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, besitzer[partition]);
+    }
+
+    private <T> T aufPartition(int partition, Supplier<T> operation) {
+        return warten(asynchron(partition, operation));
+    }
+
+    /**
+     * wartet auf das Ergebnis und gibt eine in der Partition aufgetretene RuntimeException unverändert weiter
+     */
+    private <T> T warten(CompletableFuture<T> ergebnis) {
+        try {
+            return ergebnis.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Waehrung;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stellt alle Konten einer Bank, die in einer bestimmten Währung geführt werden, auf eine andere Währung um.
+ * <p>
+ * Der Kurs wird einmal vorab berechnet, jedes Konto wird mit {@link Konto#waehrungUmstellen} direkt umgerechnet.
+ * Die bei der Erstellung vorhandenen Konten werden nach Kontonummer in Partitionen aufgeteilt, die parallel
+ * umgestellt werden. Statt eines Ereignisses pro Konto erhalten die angemeldeten Beobachter ein einziges
+ * Ereignis "waehrung", wenn alle Partitionen umgestellt sind.
+ * <p>
+ * Wird {@link #ausfuehren(int)} unterbrochen oder scheitert, kann es erneut aufgerufen werden: abgeschlossene
+ * Partitionen werden übersprungen, bereits umgestellte Konten werden nicht noch einmal umgerechnet. Während der
+ * Umstellung dürfen keine Konten eröffnet oder gelöscht werden.
+ */
+public class Waehrungsumstellung {
+    private final Bank bank;
+    private final Waehrung von;
+    private final Waehrung nach;
+
+    /**
+     * der Kurs von der alten in die neue Währung
+     */
+    private final double kurs;
+
+    /**
+     * die Kontonummern bei Erstellung der Umstellung, aufsteigend sortiert
+     */
+    private final long[] nummern;
+
+    /**
+     * 1 für jede abgeschlossene Partition
+     */
+    private final AtomicIntegerArray erledigt;
+
+    private final LongAdder umgestellt = new LongAdder();
+
+    private final PropertyChangeSupport prop = new PropertyChangeSupport(this);
+
+    private volatile boolean abgeschlossen;
+
+    /**
+     * bereitet die Umstellung aller Konten der Bank in der Währung von auf die Währung nach vor
+     *
+     * @param bank              die Bank
+     * @param von               die bisherige Währung
+     * @param nach              die neue Währung
+     * @param anzahlPartitionen in wie viele Teile die Konten aufgeteilt werden
+     * @throws IllegalArgumentException wenn ein Parameter null ist, die Währungen gleich sind oder
+     *                                  anzahlPartitionen kleiner als 1 ist
+     */
+    public Waehrungsumstellung(Bank bank, Waehrung von, Waehrung nach, int anzahlPartitionen) {
+        if (bank == null || von == null || nach == null)
+            throw new IllegalArgumentException("null als Parameter nicht erlaubt");
+        if (von == nach)
+            throw new IllegalArgumentException("Die Währungen müssen verschieden sein");
+        if (anzahlPartitionen < 1)
+            throw new IllegalArgumentException("Es wird mindestens eine Partition benötigt");
+        this.bank = bank;
+        this.von = von;
+        this.nach = nach;
+        this.kurs = von.kursNach(nach);
+        this.nummern = bank.sortierteKontonummern();
+        this.erledigt = new AtomicIntegerArray(anzahlPartitionen);
+    }
+
+    /**
+     * meldet einen Beobachter für das Ereignis am Ende der Umstellung an
+     *
+     * @param beobachter der Beobachter
+     */
+    public void anmelden(PropertyChangeListener beobachter) {
+        prop.addPropertyChangeListener(beobachter);
+    }
+
+    /**
+     * meldet den Beobachter wieder ab
+     *
+     * @param beobachter der Beobachter
+     */
+    public void abmelden(PropertyChangeListener beobachter) {
+        prop.removePropertyChangeListener(beobachter);
+    }
+
+    /**
+     * stellt alle noch offenen Partitionen um
+     *
+     * @param anzahlThreads die Anzahl der Threads
+     * @return true, wenn danach alle Partitionen umgestellt sind
+     * @throws InterruptedException     wenn der aufrufende Thread unterbrochen wird; die Umstellung kann
+     *                                  danach erneut ausgeführt werden
+     * @throws IllegalArgumentException wenn anzahlThreads kleiner als 1 ist
+     */
+    public boolean ausfuehren(int anzahlThreads) throws InterruptedException {
+        if (anzahlThreads < 1)
+            throw new IllegalArgumentException("Es wird mindestens ein Thread benötigt");
+        if (abgeschlossen)
+            return true;
+
+        ExecutorService threads = Executors.newFixedThreadPool(anzahlThreads);
+        try {
+            List<Future<?>> teile = new ArrayList<>();
+            for (int p = 0; p < erledigt.length(); p++) {
+                if (erledigt.get(p) == 0) {
+                    int partition = p;
+                    teile.add(threads.submit(() -> partitionUmstellen(partition)));
+                }
+            }
+            for (Future<?> teil : teile) {
+                teil.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r)
+                throw r;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            threads.shutdownNow();
+        }
+
+        if (getAnzahlOffenePartitionen() > 0)
+            return false;
+        synchronized (this) {
+            if (abgeschlossen)
+                return true;
+            abgeschlossen = true;
+        }
+        prop.firePropertyChange("waehrung", von, nach);
+        return true;
+    }
+
+    private void partitionUmstellen(int partition) {
+        int anzahl = erledigt.length();
+        int anfang = (int) ((long) nummern.length * partition / anzahl);
+        int ende = (int) ((long) nummern.length * (partition + 1) / anzahl);
+        for (int i = anfang; i < ende; i++) {
+            if (Thread.currentThread().isInterrupted())
+                return;
+            Konto konto = bank.kontoSuchen(nummern[i]);
+            if (konto != null && konto.waehrungUmstellen(von, nach, kurs))
+                umgestellt.increment();
+        }
+        erledigt.set(partition, 1);
+    }
+
+    /**
+     * liefert die Anzahl der Partitionen, die noch nicht umgestellt sind
+     *
+     * @return Anzahl der offenen Partitionen
+     */
+    public int getAnzahlOffenePartitionen() {
+        int offen = 0;
+        for (int p = 0; p < erledigt.length(); p++) {
+            if (erledigt.get(p) == 0)
+                offen++;
+        }
+        return offen;
+    }
+
+    /**
+     * liefert die Anzahl der bisher umgestellten Konten
+     *
+     * @return Anzahl der Konten
+     */
+    public long getAnzahlUmgestellt() {
+        return umgestellt.sum();
+    }
+
+    /**
+     * liefert, ob alle Partitionen umgestellt sind
+     *
+     * @return true, wenn die Umstellung abgeschlossen ist
+     */
+    public boolean isAbgeschlossen() {
+        return abgeschlossen;
+    }
+}
@@ -0,0 +1,406 @@
+package formatierung;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+
+/**
+ * Ein wiederverwendbarer Puffer, in den Zahlen und Daten formatiert geschrieben werden, ohne dafür wie
+ * {@link String#format(String, Object...)} bei jedem Aufruf Objekte zu erzeugen.
+ * <p>
+ * Die Ausgaben sind identisch mit den entsprechenden Formatangaben von String.format bzw. mit
+ * {@link DateTimeFormatter#ofLocalizedDate(FormatStyle)} im Stil SHORT, jeweils für das Locale des Puffers.
+ * Kommazahlen werden wie von String.format kaufmännisch gerundet; nur wenn eine Zahl sehr nahe an der
+ * Rundungsgrenze liegt oder sehr groß ist, wird zur Sicherheit über BigDecimal gerechnet.
+ * <p>
+ * Ein Puffer ist nicht threadsicher. {@link #fuerDiesenThread()} liefert einen geleerten Puffer je Thread.
+ */
+public class Formatpuffer implements CharSequence, Appendable {
+    /**
+     * ab dieser Größe wird nicht mehr mit long gerechnet
+     */
+    private static final double GRENZE_LONG = 0x1p52;
+
+    private static final long[] ZEHNERPOTENZEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000,
+            100_000_000, 1_000_000_000};
+
+    private static final ThreadLocal<Formatpuffer> PUFFER_JE_THREAD = new ThreadLocal<>();
+
+    private final StringBuilder puffer = new StringBuilder(128);
+    private final Locale locale;
+    private final char dezimaltrennzeichen;
+    private final char nullziffer;
+
+    /**
+     * das Datumsmuster, zerlegt in Felder: 'd', 'M', 'y' mit der Anzahl der Stellen, sonst Literale
+     */
+    private final char[] datumsfelder;
+    private final int[] datumsstellen;
+    private final String[] datumsliterale;
+
+    /**
+     * wird verwendet, wenn das Datumsmuster Felder enthält, die hier nicht nachgebildet werden
+     */
+    private final DateTimeFormatter datumsformat;
+
+    /**
+     * erstellt einen Puffer für das Standard-Locale zur Formatierung
+     */
+    public Formatpuffer() {
+        this(Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * erstellt einen Puffer für das angegebene Locale
+     *
+     * @param locale das Locale, nach dem Dezimaltrennzeichen, Ziffern und Datumsformat gewählt werden
+     */
+    public Formatpuffer(Locale locale) {
+        this.locale = locale;
+        DecimalFormatSymbols symbole = DecimalFormatSymbols.getInstance(locale);
+        this.dezimaltrennzeichen = symbole.getDecimalSeparator();
+        this.nullziffer = symbole.getZeroDigit();
+        this.datumsformat = DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT).withLocale(locale);
+
+        String muster = DateTimeFormatterBuilder.getLocalizedDateTimePattern(FormatStyle.SHORT, null,
+                IsoChronology.INSTANCE, locale);
+        char[] felder = new char[muster.length()];
+        int[] stellen = new int[muster.length()];
+        String[] literale = new String[muster.length()];
+        int anzahl = 0;
+        boolean nachbildbar = true;
+        for (int i = 0; i < muster.length(); ) {
+            char c = muster.charAt(i);
+            if (c == '\'') {
+                int ende = muster.indexOf('\'', i + 1);
+                if (ende < 0 || ende == i + 1) {
+                    nachbildbar = false;
+                    break;
+                }
+                literale[anzahl++] = muster.substring(i + 1, ende);
+                i = ende + 1;
+            } else if (Character.isLetter(c)) {
+                int j = i;
+                while (j < muster.length() && muster.charAt(j) == c) {
+                    j++;
+                }
+                int n = j - i;
+                char feld = c == 'u' ? 'y' : c;
+                if ((feld != 'd' && feld != 'M' && feld != 'y') || (feld != 'y' && n > 2) || n == 3) {
+                    nachbildbar = false;
+                    break;
+                }
+                felder[anzahl] = feld;
+                stellen[anzahl++] = n;
+                i = j;
+            } else {
+                literale[anzahl++] = String.valueOf(c);
+                i++;
+            }
+        }
+        this.datumsfelder = nachbildbar ? felder : null;
+        this.datumsstellen = stellen;
+        this.datumsliterale = literale;
+    }
+
+    /**
+     * liefert den Puffer des aktuellen Threads, geleert und passend zum aktuellen Standard-Locale
+     *
+     * @return der Puffer
+     */
+    public static Formatpuffer fuerDiesenThread() {
+        Formatpuffer p = PUFFER_JE_THREAD.get();
+        if (p == null || !p.locale.equals(Locale.getDefault(Locale.Category.FORMAT))) {
+            p = new Formatpuffer();
+            PUFFER_JE_THREAD.set(p);
+        }
+        p.leeren();
+        return p;
+    }
+
+    /**
+     * leert den Puffer, die Kapazität bleibt erhalten
+     *
+     * @return this
+     */
+    public Formatpuffer leeren() {
+        puffer.setLength(0);
+        return this;
+    }
+
+    /**
+     * schreibt die Ganzzahl rechtsbündig, wie {@code String.format("%<breite>d", wert)}
+     *
+     * @param wert   die Zahl
+     * @param breite die Mindestbreite, links mit Leerzeichen aufgefüllt
+     * @return this
+     */
+    public Formatpuffer ganzzahl(long wert, int breite) {
+        int laenge = wert < 0 ? stellen(wert == Long.MIN_VALUE ? Long.MAX_VALUE : -wert) + 1 : stellen(wert);
+        leerzeichen(breite - laenge);
+        int anfang = puffer.length();
+        puffer.append(wert);
+        ziffernLokalisieren(anfang);
+        return this;
+    }
+
+    /**
+     * schreibt die Kommazahl rechtsbündig, wie {@code String.format("%<breite>.<nachkommastellen>f", wert)}
+     *
+     * @param wert             die Zahl
+     * @param breite           die Mindestbreite, links mit Leerzeichen aufgefüllt
+     * @param nachkommastellen die Anzahl der Nachkommastellen, 0 bis 9
+     * @return this
+     * @throws IllegalArgumentException wenn nachkommastellen außerhalb von 0 bis 9 liegt
+     */
+    public Formatpuffer kommazahl(double wert, int breite, int nachkommastellen) {
+        if (nachkommastellen < 0 || nachkommastellen >= ZEHNERPOTENZEN.length)
+            throw new IllegalArgumentException("Nachkommastellen müssen zwischen 0 und 9 liegen");
+        if (Double.isNaN(wert) || Double.isInfinite(wert)) {
+            String text = Double.isNaN(wert) ? "NaN" : wert > 0 ? "Infinity" : "-Infinity";
+            leerzeichen(breite - text.length());
+            puffer.append(text);
+            return this;
+        }
+        boolean negativ = Double.compare(wert, 0.0) < 0;
+        long faktor = ZEHNERPOTENZEN[nachkommastellen];
+        double skaliert = Math.abs(wert) * faktor;
+        double ganz = Math.floor(skaliert);
+        double rest = skaliert - ganz;
+        if (skaliert >= GRENZE_LONG || Math.abs(rest - 0.5) <= 4 * Math.ulp(skaliert)) {
+            kommazahlLangsam(wert, breite, nachkommastellen);
+            return this;
+        }
+        long gerundet = (long) ganz + (rest > 0.5 ? 1 : 0);
+        long vorkomma = gerundet / faktor;
+        long nachkomma = gerundet % faktor;
+
+        int laenge = (negativ ? 1 : 0) + stellen(vorkomma) + (nachkommastellen > 0 ? nachkommastellen + 1 : 0);
+        leerzeichen(breite - laenge);
+        int anfang = puffer.length();
+        if (negativ)
+            puffer.append('-');
+        puffer.append(vorkomma);
+        if (nachkommastellen > 0) {
+            puffer.append(dezimaltrennzeichen);
+            for (int i = nachkomma > 0 ? stellen(nachkomma) : 0; i < nachkommastellen; i++) {
+                puffer.append('0');
+            }
+            if (nachkomma > 0)
+                puffer.append(nachkomma);
+        }
+        ziffernLokalisieren(anfang);
+        return this;
+    }
+
+    /**
+     * rundet über die kürzeste Dezimaldarstellung der Zahl, wie es String.format tut
+     */
+    private void kommazahlLangsam(double wert, int breite, int nachkommastellen) {
+        String text = new BigDecimal(Double.toString(Math.abs(wert)))
+                .setScale(nachkommastellen, RoundingMode.HALF_UP).toPlainString();
+        boolean negativ = Double.compare(wert, 0.0) < 0;
+        leerzeichen(breite - text.length() - (negativ ? 1 : 0));
+        int anfang = puffer.length();
+        if (negativ)
+            puffer.append('-');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            puffer.append(c == '.' ? dezimaltrennzeichen : c);
+        }
+        ziffernLokalisieren(anfang);
+    }
+
+    /**
+     * schreibt das Datum wie {@code DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT)} für das Locale
+     *
+     * @param datum das Datum
+     * @return this
+     */
+    public Formatpuffer datum(LocalDate datum) {
+        int jahr = datum.getYear();
+        if (datumsfelder == null || jahr < 0 || jahr > 9999) {
+            datumsformat.formatTo(datum, puffer);
+            return this;
+        }
+        for (int i = 0; i < datumsstellen.length; i++) {
+            if (datumsliterale[i] != null) {
+                puffer.append(datumsliterale[i]);
+                continue;
+            }
+            int n = datumsstellen[i];
+            switch (datumsfelder[i]) {
+                case 'd' -> zweistellig(datum.getDayOfMonth(), n);
+                case 'M' -> zweistellig(datum.getMonthValue(), n);
+                case 'y' -> {
+                    if (n == 2) {
+                        zweistellig(jahr % 100, 2);
+                    } else {
+                        for (int s = stellen(jahr); s < n; s++) {
+                            puffer.append('0');
+                        }
+                        puffer.append(jahr);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return this;
+    }
+
+    private void zweistellig(int wert, int mindestens) {
+        if (mindestens == 2 && wert < 10)
+            puffer.append('0');
+        puffer.append(wert);
+    }
+
+    /**
+     * hängt die Zahl ohne Formatierung an, wie {@link String#valueOf(double)}
+     *
+     * @param wert die Zahl
+     * @return this
+     */
+    public Formatpuffer append(double wert) {
+        puffer.append(wert);
+        return this;
+    }
+
+    /**
+     * hängt die Zahl ohne Formatierung an, wie {@link String#valueOf(long)}
+     *
+     * @param wert die Zahl
+     * @return this
+     */
+    public Formatpuffer append(long wert) {
+        puffer.append(wert);
+        return this;
+    }
+
+    /**
+     * hängt den Text des Objekts an, wie {@link String#valueOf(Object)}
+     *
+     * @param objekt das Objekt
+     * @return this
+     */
+    public Formatpuffer append(Object objekt) {
+        if (objekt instanceof CharSequence text)
+            puffer.append(text);
+        else
+            puffer.append(objekt);
+        return this;
+    }
+
+    @Override
+    public Formatpuffer append(CharSequence text) {
+        puffer.append(text);
+        return this;
+    }
+
+    @Override
+    public Formatpuffer append(CharSequence text, int start, int ende) {
+        puffer.append(text, start, ende);
+        return this;
+    }
+
+    @Override
+    public Formatpuffer append(char c) {
+        puffer.append(c);
+        return this;
+    }
+
+    /**
+     * hängt einen Zeilenumbruch des Systems an
+     *
+     * @return this
+     */
+    public Formatpuffer zeilenende() {
+        puffer.append(System.lineSeparator());
+        return this;
+    }
+
+    /**
+     * schreibt den Inhalt des Puffers als UTF-8 in den ByteBuffer
+     *
+     * @param ziel wohin geschrieben wird
+     * @throws BufferOverflowException wenn im Ziel nicht genug Platz ist
+     */
+    public void alsUtf8(ByteBuffer ziel) {
+        for (int i = 0; i < puffer.length(); i++) {
+            char c = puffer.charAt(i);
+            if (c < 0x80) {
+                ziel.put((byte) c);
+            } else if (c < 0x800) {
+                ziel.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < puffer.length()
+                    && Character.isLowSurrogate(puffer.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, puffer.charAt(++i));
+                ziel.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                        .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                ziel.put((byte) '?');
+            } else {
+                ziel.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    @Override
+    public int length() {
+        return puffer.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return puffer.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return puffer.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return puffer.toString();
+    }
+
+    private void leerzeichen(int anzahl) {
+        for (int i = 0; i < anzahl; i++) {
+            puffer.append(' ');
+        }
+    }
+
+    /**
+     * ersetzt ab anfang die Ziffern 0-9 durch die Ziffern des Locale, wie String.format es tut
+     */
+    private void ziffernLokalisieren(int anfang) {
+        if (nullziffer == '0')
+            return;
+        for (int i = anfang; i < puffer.length(); i++) {
+            char c = puffer.charAt(i);
+            if (c >= '0' && c <= '9')
+                puffer.setCharAt(i, (char) (nullziffer + (c - '0')));
+        }
+    }
+
+    /**
+     * liefert die Anzahl der Dezimalstellen einer nicht negativen Zahl
+     */
+    private static int stellen(long wert) {
+        int n = 1;
+        while (wert >= 10) {
+            wert /= 10;
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,254 @@
+package spielereien;
+
+import bankprojekt.metriken.Bankmetriken;
+import bankprojekt.metriken.Latenzhistogramm;
+import bankprojekt.verarbeitung.Aktie;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kontofabrik;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.SparbuchFabrik;
+import bankprojekt.verarbeitung.Waehrung;
+import bankprojekt.verwaltung.Bank;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Erzeugt eine synthetische Last auf einer {@link Bank}, um das Verhalten unter produktionsähnlicher Last
+ * offline nachzustellen.
+ * <p>
+ * Die Bank wird mit Girokonten und Sparbüchern über die normalen Kontofabriken gefüllt. Danach führen mehrere
+ * Threads eine Mischung aus Einzahlungen, Abhebungen, Überweisungen, Währungswechseln und Aktienorders aus,
+ * wobei die Konten nach einer Zipf-Verteilung gewählt werden, also wenige Konten sehr oft benutzt werden.
+ * Während der Last werden keine Konten angelegt oder gelöscht; die Buchungen selbst schützt jedes Konto mit seiner
+ * eigenen Sperre, der Generator fügt keine gemeinsame Sperre hinzu. Gemessen wird also die Bank, nicht die
+ * Wartezeit der Threads aufeinander.
+ * Ausgegeben werden Durchsatz, Latenzperzentile je Operation und die Ergebnisse der Buchungen.
+ * <p>
+ * Aufruf mit optionalen Parametern der Form name=wert, z.B.
+ * {@code konten=100000 sparbuecher=0.2 threads=8 dauer=10 zipf=0.99
+ * mix=einzahlen:30,abheben:25,ueberweisen:35,waehrung:5,aktien:5}
+ */
+public class Lastgenerator {
+    private static final String[] OPERATIONEN = {"einzahlen", "abheben", "ueberweisen", "waehrung", "aktien"};
+    private static final int EINZAHLEN = 0;
+    private static final int ABHEBEN = 1;
+    private static final int UEBERWEISEN = 2;
+    private static final int WAEHRUNG = 3;
+
+    private final Bank bank = new Bank(12345678L);
+    private final Latenzhistogramm[] latenzen = new Latenzhistogramm[OPERATIONEN.length];
+    private final int[] mix;
+    private final Aktie[] aktien = {new Aktie("Bank AG", 100001, 50), new Aktie("Versicherung AG", 100002, 80)};
+    private long[] kontonummern;
+    private Konto[] konten;
+    private Zipfverteilung verteilung;
+
+    /**
+     * Main method to execute the load generator
+     *
+     * @param args Parameter der Form name=wert, siehe Klassenbeschreibung
+     * @throws InterruptedException shouldn't happen
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> parameter = new HashMap<>();
+        for (String arg : args) {
+            String[] teile = arg.split("=", 2);
+            if (teile.length != 2)
+                throw new IllegalArgumentException("Parameter müssen die Form name=wert haben: " + arg);
+            parameter.put(teile[0], teile[1]);
+        }
+        int anzahlKonten = Integer.parseInt(parameter.getOrDefault("konten", "100000"));
+        double sparbuchAnteil = Double.parseDouble(parameter.getOrDefault("sparbuecher", "0.2"));
+        int threads = Integer.parseInt(parameter.getOrDefault("threads", "8"));
+        int dauer = Integer.parseInt(parameter.getOrDefault("dauer", "10"));
+        double zipf = Double.parseDouble(parameter.getOrDefault("zipf", "0.99"));
+        int[] mix = mixLesen(parameter.getOrDefault("mix", "einzahlen:30,abheben:25,ueberweisen:35,waehrung:5,aktien:5"));
+
+        Lastgenerator generator = new Lastgenerator(mix);
+        long start = System.nanoTime();
+        generator.kontenAnlegen(anzahlKonten, sparbuchAnteil, zipf);
+        System.out.printf("%d Konten in %d ms angelegt%n", anzahlKonten,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        generator.ausfuehren(threads, TimeUnit.SECONDS.toNanos(Math.max(1, dauer / 5)));
+        generator.zuruecksetzen();
+        double sekunden = generator.ausfuehren(threads, TimeUnit.SECONDS.toNanos(dauer));
+        generator.ausgeben(sekunden);
+        // die Aktien und die Orders laufen auf Threads, die nicht von selbst enden
+        System.exit(0);
+    }
+
+    /**
+     * liest den Operationsmix, z.B. "einzahlen:30,abheben:70", und liefert die kumulierten Gewichte
+     */
+    private static int[] mixLesen(String text) {
+        int[] gewichte = new int[OPERATIONEN.length];
+        for (String teil : text.split(",")) {
+            String[] nameGewicht = teil.split(":");
+            int index = -1;
+            for (int i = 0; i < OPERATIONEN.length; i++) {
+                if (OPERATIONEN[i].equals(nameGewicht[0].trim()))
+                    index = i;
+            }
+            if (index < 0 || nameGewicht.length != 2)
+                throw new IllegalArgumentException("Unbekannte Operation im Mix: " + teil);
+            gewichte[index] = Integer.parseInt(nameGewicht[1].trim());
+        }
+        for (int i = 1; i < gewichte.length; i++) {
+            gewichte[i] += gewichte[i - 1];
+        }
+        if (gewichte[gewichte.length - 1] <= 0)
+            throw new IllegalArgumentException("Der Mix muss mindestens eine Operation enthalten");
+        return gewichte;
+    }
+
+    private Lastgenerator(int[] mix) {
+        this.mix = mix;
+        for (int i = 0; i < latenzen.length; i++) {
+            latenzen[i] = new Latenzhistogramm();
+        }
+        bank.setMetriken(new Bankmetriken());
+    }
+
+    /**
+     * legt die Konten über die Kontofabriken an und merkt sich die erzeugten Konten,
+     * damit Währungswechsel und Aktienorders direkt am Konto ausgeführt werden können
+     */
+    private void kontenAnlegen(int anzahl, double sparbuchAnteil, double zipf) {
+        Kunde kunde = new Kunde("Max", "Mustermann", "zuhause", LocalDate.of(1990, 1, 1));
+        AufzeichnendeKontofabrik girokonten = new AufzeichnendeKontofabrik(new GirokontoFabrik());
+        AufzeichnendeKontofabrik sparbuecher = new AufzeichnendeKontofabrik(new SparbuchFabrik());
+        kontonummern = new long[anzahl];
+        konten = new Konto[anzahl];
+        ThreadLocalRandom zufall = ThreadLocalRandom.current();
+        for (int i = 0; i < anzahl; i++) {
+            AufzeichnendeKontofabrik fabrik = zufall.nextDouble() < sparbuchAnteil ? sparbuecher : girokonten;
+            kontonummern[i] = bank.kontoErstellen(fabrik, kunde);
+            konten[i] = fabrik.letztesKonto;
+            bank.geldEinzahlenStatus(kontonummern[i], 10_000);
+        }
+        verteilung = new Zipfverteilung(anzahl, zipf, 42);
+    }
+
+    /**
+     * lässt alle Threads für die angegebene Dauer Operationen ausführen
+     *
+     * @return die tatsächliche Dauer in Sekunden
+     */
+    private double ausfuehren(int threads, long dauerNanos) throws InterruptedException {
+        CountDownLatch fertig = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        long ende = start + dauerNanos;
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    while (System.nanoTime() < ende) {
+                        int operation = operationZiehen();
+                        long beginn = System.nanoTime();
+                        operationAusfuehren(operation);
+                        latenzen[operation].aufzeichnen(System.nanoTime() - beginn);
+                    }
+                } finally {
+                    fertig.countDown();
+                }
+            }, "Last-" + t).start();
+        }
+        fertig.await();
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private int operationZiehen() {
+        int wert = ThreadLocalRandom.current().nextInt(mix[mix.length - 1]);
+        int operation = 0;
+        while (mix[operation] <= wert) {
+            operation++;
+        }
+        return operation;
+    }
+
+    private void operationAusfuehren(int operation) {
+        ThreadLocalRandom zufall = ThreadLocalRandom.current();
+        int index = verteilung.ziehen();
+        double betrag = 1 + zufall.nextInt(200);
+        switch (operation) {
+            case EINZAHLEN -> bank.geldEinzahlenStatus(kontonummern[index], betrag);
+            case ABHEBEN -> bank.geldAbhebenStatus(kontonummern[index], betrag);
+            case UEBERWEISEN -> bank.geldUeberweisenStatus(kontonummern[index],
+                    kontonummern[verteilung.ziehen()], betrag, "Last");
+            case WAEHRUNG -> {
+                Waehrung[] waehrungen = Waehrung.values();
+                konten[index].waehrungswechsel(waehrungen[zufall.nextInt(waehrungen.length)]);
+            }
+            default -> aktienHandeln(konten[index], aktien[zufall.nextInt(aktien.length)]);
+        }
+    }
+
+    /**
+     * kauft eine Aktie zum aktuellen Kurs und verkauft sie sofort wieder. Die Orders laufen auf dem
+     * gemeinsamen Order-Thread der Konten und buchen unter der Sperre des Kontos; der Lastthread wartet auf ihr
+     * Ergebnis, ohne selbst eine Sperre zu halten.
+     */
+    private void aktienHandeln(Konto konto, Aktie aktie) {
+        try {
+            double kaufpreis = konto.kaufauftrag(aktie, 1, Double.MAX_VALUE).get();
+            if (kaufpreis > 0)
+                konto.verkaufauftrag(String.valueOf(aktie.getWertpapierkennummer()), 0).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void zuruecksetzen() {
+        for (Latenzhistogramm h : latenzen) {
+            h.zuruecksetzen();
+        }
+        bank.getMetriken().zuruecksetzen();
+    }
+
+    private void ausgeben(double sekunden) {
+        long gesamt = 0;
+        for (Latenzhistogramm h : latenzen) {
+            gesamt += h.getAnzahl();
+        }
+        System.out.printf("%n%d Operationen in %.1f s: %.0f Operationen/s%n%n", gesamt, sekunden, gesamt / sekunden);
+        System.out.printf("%-12s %12s %10s %10s %10s %10s %12s%n", "Latenz (µs)", "Anzahl", "p50", "p90", "p99",
+                "p99.9", "Max");
+        for (int i = 0; i < OPERATIONEN.length; i++) {
+            Latenzhistogramm h = latenzen[i];
+            if (h.getAnzahl() == 0)
+                continue;
+            System.out.printf("%-12s %12d %10.1f %10.1f %10.1f %10.1f %12.1f%n", OPERATIONEN[i], h.getAnzahl(),
+                    h.getPerzentil(50) / 1e3, h.getPerzentil(90) / 1e3, h.getPerzentil(99) / 1e3,
+                    h.getPerzentil(99.9) / 1e3, h.getMaximum() / 1e3);
+        }
+        System.out.println();
+        System.out.println(bank.getMetriken().getTextausgabe());
+    }
+
+    /**
+     * eine Kontofabrik, die das zuletzt erzeugte Konto festhält
+     */
+    private static class AufzeichnendeKontofabrik extends Kontofabrik {
+        private final Kontofabrik fabrik;
+        private Konto letztesKonto;
+
+        AufzeichnendeKontofabrik(Kontofabrik fabrik) {
+            this.fabrik = fabrik;
+        }
+
+        @Override
+        public Konto erstellenKonto(Kunde inhaber, long kontoNr) {
+            letztesKonto = fabrik.erstellenKonto(inhaber, kontoNr);
+            return letztesKonto;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package spielereien;
+
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.KontonummerNichtVorhandenException;
+import bankprojekt.verwaltung.PartitionierteBank;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Misst den Durchsatz der {@link PartitionierteBank} bei 1 bis 64 Partitionen.
+ * Eine feste Anzahl von Client-Threads führt eine Mischung aus Einzahlungen, Abhebungen und Überweisungen
+ * auf zufälligen Konten aus; ausgegeben werden die Operationen pro Sekunde je Partitionsanzahl.
+ */
+public class PartitionierteBankSkalierung {
+    private static final int ANZAHL_KONTEN = 100_000;
+    private static final int CLIENT_THREADS = 128;
+    private static final long MESSDAUER_MS = 3_000;
+
+    /**
+     * Main method to execute the benchmark
+     *
+     * @param args not used
+     * @throws InterruptedException shouldn't happen
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%12s %15s%n", "Partitionen", "Operationen/s");
+        for (int partitionen = 1; partitionen <= 64; partitionen *= 2) {
+            try (PartitionierteBank bank = new PartitionierteBank(12345678L, partitionen)) {
+                long[] konten = kontenAnlegen(bank);
+                messen(bank, konten, MESSDAUER_MS / 3);
+                double durchsatz = messen(bank, konten, MESSDAUER_MS);
+                System.out.printf("%12d %15.0f%n", partitionen, durchsatz);
+            }
+        }
+    }
+
+    private static long[] kontenAnlegen(PartitionierteBank bank) {
+        Kunde kunde = new Kunde("Max", "Mustermann", "zuhause", LocalDate.of(1990, 1, 1));
+        long[] konten = new long[ANZAHL_KONTEN];
+        for (int i = 0; i < konten.length; i++) {
+            konten[i] = bank.kontoErstellen(new GirokontoFabrik(), kunde);
+        }
+        return konten;
+    }
+
+    /**
+     * lässt alle Client-Threads für die angegebene Dauer Buchungen ausführen
+     *
+     * @return die Anzahl der Operationen pro Sekunde
+     */
+    private static double messen(PartitionierteBank bank, long[] konten, long dauerMs) throws InterruptedException {
+        LongAdder operationen = new LongAdder();
+        CountDownLatch fertig = new CountDownLatch(CLIENT_THREADS);
+        long ende = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dauerMs);
+        long start = System.nanoTime();
+        for (int t = 0; t < CLIENT_THREADS; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom zufall = ThreadLocalRandom.current();
+                try {
+                    while (System.nanoTime() < ende) {
+                        long konto = konten[zufall.nextInt(konten.length)];
+                        int art = zufall.nextInt(10);
+                        if (art < 4)
+                            bank.geldEinzahlen(konto, 10);
+                        else if (art < 7)
+                            bank.geldAbhebenStatus(konto, 10);
+                        else
+                            bank.geldUeberweisenStatus(konto, konten[zufall.nextInt(konten.length)], 5, "Test");
+                        operationen.increment();
+                    }
+                } catch (KontonummerNichtVorhandenException e) {
+                    e.printStackTrace();
+                } finally {
+                    fertig.countDown();
+                }
+            }).start();
+        }
+        fertig.await();
+        double sekunden = (System.nanoTime() - start) / 1e9;
+        return operationen.sum() / sekunden;
+    }
+}
@@ -0,0 +1,76 @@
+package spielereien;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zieht Indizes 0 bis n-1 nach einer Zipf-Verteilung: Der Index mit Rang r wird mit einer Wahrscheinlichkeit
+ * proportional zu 1 / r^s gezogen. Damit nicht immer die ersten Indizes die beliebtesten sind, werden die Ränge
+ * einmalig zufällig auf die Indizes verteilt.
+ * <p>
+ * Die Verteilungsfunktion wird vorab berechnet, eine Ziehung ist eine binäre Suche. Die Klasse ist
+ * threadsicher, weil jeder Thread seinen eigenen Zufallsgenerator verwendet.
+ */
+class Zipfverteilung {
+    /**
+     * die kumulierte Wahrscheinlichkeit bis einschließlich Rang i+1
+     */
+    private final double[] verteilung;
+
+    /**
+     * der Index, der zu Rang i+1 gehört
+     */
+    private final int[] indexZuRang;
+
+    /**
+     * erstellt die Verteilung
+     *
+     * @param n        Anzahl der Indizes
+     * @param exponent der Exponent s, 0 ergibt eine Gleichverteilung, übliche Werte liegen um 1
+     * @param seed     Startwert für die Zuordnung der Ränge
+     * @throws IllegalArgumentException wenn n kleiner als 1 oder exponent negativ ist
+     */
+    Zipfverteilung(int n, double exponent, long seed) {
+        if (n < 1 || exponent < 0)
+            throw new IllegalArgumentException("n muss positiv und der Exponent nicht negativ sein");
+        verteilung = new double[n];
+        double summe = 0;
+        for (int i = 0; i < n; i++) {
+            summe += 1 / Math.pow(i + 1, exponent);
+            verteilung[i] = summe;
+        }
+        for (int i = 0; i < n; i++) {
+            verteilung[i] /= summe;
+        }
+        indexZuRang = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexZuRang[i] = i;
+        }
+        Random zufall = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = zufall.nextInt(i + 1);
+            int tmp = indexZuRang[i];
+            indexZuRang[i] = indexZuRang[j];
+            indexZuRang[j] = tmp;
+        }
+    }
+
+    /**
+     * zieht einen Index
+     *
+     * @return ein Index zwischen 0 und n-1
+     */
+    int ziehen() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        int links = 0;
+        int rechts = verteilung.length - 1;
+        while (links < rechts) {
+            int mitte = (links + rechts) >>> 1;
+            if (verteilung[mitte] < u)
+                links = mitte + 1;
+            else
+                rechts = mitte;
+        }
+        return indexZuRang[links];
+    }
+}
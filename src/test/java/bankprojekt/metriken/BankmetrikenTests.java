@@ -0,0 +1,82 @@
+package bankprojekt.metriken;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verwaltung.Bank;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests für die Zähler und Latenzhistogramme einer Bank
+ */
+class BankmetrikenTests {
+    Bank bank;
+    Bankmetriken metriken;
+    long konto1;
+    long konto2;
+
+    @BeforeEach
+    void setup() {
+        bank = new Bank(12312L);
+        metriken = new Bankmetriken();
+        bank.setMetriken(metriken);
+        konto1 = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        konto2 = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+    }
+
+    @Test
+    void ergebnisseZaehlenTest() {
+        bank.geldEinzahlenStatus(konto1, 100);
+        bank.geldUeberweisenStatus(konto1, konto2, 50, "Test");
+        bank.geldUeberweisenStatus(konto1, konto2, 5000, "Test");
+        bank.geldAbhebenStatus(12345L, 10);
+        Assertions.assertEquals(2, metriken.getAnzahl(Bankoperation.KONTO_ERSTELLEN, Buchungsstatus.ERFOLGREICH));
+        Assertions.assertEquals(1, metriken.getAnzahl(Bankoperation.EINZAHLEN, Buchungsstatus.ERFOLGREICH));
+        Assertions.assertEquals(1, metriken.getAnzahl(Bankoperation.UEBERWEISEN, Buchungsstatus.ERFOLGREICH));
+        Assertions.assertEquals(1, metriken.getAnzahl(Bankoperation.UEBERWEISEN, Buchungsstatus.NICHT_GEDECKT));
+        Assertions.assertEquals(1, metriken.getAnzahl(Bankoperation.ABHEBEN, Buchungsstatus.KONTO_NICHT_VORHANDEN));
+        Assertions.assertEquals(2, metriken.getLatenzhistogramm(Bankoperation.UEBERWEISEN).getAnzahl());
+        Assertions.assertEquals(Long.valueOf(1), metriken.getZaehler().get("UEBERWEISEN.NICHT_GEDECKT"));
+        Assertions.assertTrue(metriken.getTextausgabe().contains("KONTO_NICHT_VORHANDEN"));
+    }
+
+    @Test
+    void abgeschaltetTest() {
+        bank.setMetriken(null);
+        bank.geldEinzahlenStatus(konto1, 100);
+        Assertions.assertEquals(0, metriken.getAnzahl(Bankoperation.EINZAHLEN));
+    }
+
+    @Test
+    void zuruecksetzenTest() {
+        bank.geldEinzahlenStatus(konto1, 100);
+        metriken.zuruecksetzen();
+        Assertions.assertEquals(0, metriken.getAnzahl(Bankoperation.EINZAHLEN));
+        Assertions.assertEquals(0, metriken.getLatenzhistogramm(Bankoperation.EINZAHLEN).getAnzahl());
+    }
+
+    @Test
+    void klassenTest() {
+        for (long wert : new long[]{0, 1, 31, 63, 64, 65, 1000, 123456789, Long.MAX_VALUE}) {
+            int klasse = Latenzhistogramm.klasse(wert);
+            Assertions.assertTrue(Latenzhistogramm.obergrenze(klasse) >= wert);
+            Assertions.assertTrue(klasse == 0 || Latenzhistogramm.obergrenze(klasse - 1) < wert);
+        }
+    }
+
+    @Test
+    void perzentileTest() {
+        Latenzhistogramm h = new Latenzhistogramm();
+        for (int i = 1; i <= 10000; i++) {
+            h.aufzeichnen(i * 100L);
+        }
+        Assertions.assertEquals(10000, h.getAnzahl());
+        Assertions.assertEquals(1_000_000, h.getMaximum());
+        Assertions.assertEquals(500_000, h.getPerzentil(50), 500_000 / 32.0);
+        Assertions.assertEquals(990_000, h.getPerzentil(99), 990_000 / 32.0);
+        Assertions.assertEquals(1_000_000, h.getPerzentil(100));
+        Assertions.assertEquals(500_050, h.getMittelwert(), 0.001);
+    }
+}
@@ -0,0 +1,142 @@
+package bankprojekt.metriken;
+
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Kontoart;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.SparbuchFabrik;
+import bankprojekt.verarbeitung.Waehrung;
+import bankprojekt.verwaltung.Bank;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests für die laufend nachgeführten Summen über alle Konten
+ */
+class KontoaggregateTests {
+    Kontoaggregate aggregate;
+    Girokonto konto;
+
+    @BeforeEach
+    void setup() {
+        aggregate = new Kontoaggregate();
+        konto = new Girokonto(Kunde.MUSTERMANN, 1234L, 500, 0);
+    }
+
+    @Test
+    void kontostandNachfuehrenTest() throws Exception {
+        konto.einzahlen(100);
+        konto.aggregateSetzen(aggregate);
+        Assertions.assertEquals(1, aggregate.getAnzahlKonten());
+        Assertions.assertEquals(1, aggregate.getAnzahlKonten(Kontoart.GIROKONTO));
+        Assertions.assertEquals(100, aggregate.getGuthaben(Waehrung.EUR), 0.001);
+
+        konto.abheben(250);
+        Assertions.assertEquals(0, aggregate.getGuthaben(Waehrung.EUR), 0.001);
+        Assertions.assertEquals(150, aggregate.getGenutzterDispo(Waehrung.EUR), 0.001);
+        Assertions.assertEquals(-150, aggregate.getSaldo(Waehrung.EUR), 0.001);
+
+        konto.einzahlen(200.55);
+        Assertions.assertEquals(50.55, aggregate.getGuthaben(Waehrung.EUR), 0.001);
+        Assertions.assertEquals(0, aggregate.getGenutzterDispo(Waehrung.EUR), 0.001);
+    }
+
+    @Test
+    void sperreNachfuehrenTest() {
+        konto.aggregateSetzen(aggregate);
+        konto.sperren();
+        konto.sperren();
+        Assertions.assertEquals(1, aggregate.getAnzahlGesperrt());
+        konto.entsperren();
+        konto.entsperren();
+        Assertions.assertEquals(0, aggregate.getAnzahlGesperrt());
+    }
+
+    @Test
+    void waehrungswechselTest() throws Exception {
+        konto.einzahlen(100);
+        konto.aggregateSetzen(aggregate);
+        konto.waehrungswechsel(Waehrung.BGN);
+        Assertions.assertEquals(0, aggregate.getGuthaben(Waehrung.EUR), 0.001);
+        Assertions.assertEquals(konto.getKontostand(), aggregate.getGuthaben(Waehrung.BGN), 0.001);
+        Assertions.assertEquals(Waehrung.BGN.waehrungInEuroUmrechnen(konto.getKontostand()),
+                aggregate.getGuthabenInEuro(), 0.001);
+    }
+
+    @Test
+    void abmeldenTest() throws Exception {
+        konto.einzahlen(100);
+        konto.sperren();
+        konto.aggregateSetzen(aggregate);
+        Assertions.assertEquals(1, aggregate.getAnzahlGesperrt());
+        konto.aggregateSetzen(null);
+        Assertions.assertEquals(0, aggregate.getAnzahlKonten());
+        Assertions.assertEquals(0, aggregate.getAnzahlGesperrt());
+        Assertions.assertEquals(0, aggregate.getGuthaben(Waehrung.EUR), 0.001);
+        konto.entsperren();
+        Assertions.assertEquals(0, aggregate.getAnzahlGesperrt());
+    }
+
+    @Test
+    void bankTest() {
+        Bank bank = new Bank(12312L);
+        long giro = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        bank.geldEinzahlenStatus(giro, 300);
+        Kontoaggregate summen = bank.getAggregate();
+        Assertions.assertSame(summen, bank.getAggregate());
+        Assertions.assertEquals(300, summen.getGuthaben(Waehrung.EUR), 0.001);
+
+        long spar = bank.kontoErstellen(new SparbuchFabrik(), Kunde.MUSTERMANN);
+        bank.geldEinzahlenStatus(spar, 50);
+        bank.geldAbhebenStatus(giro, 400);
+        Assertions.assertEquals(1, summen.getAnzahlKonten(Kontoart.GIROKONTO));
+        Assertions.assertEquals(1, summen.getAnzahlKonten(Kontoart.SPARBUCH));
+        Assertions.assertEquals(50, summen.getGuthaben(Waehrung.EUR), 0.001);
+        Assertions.assertEquals(100, summen.getGenutzterDispo(Waehrung.EUR), 0.001);
+
+        bank.pleitegeierSperren();
+        Assertions.assertEquals(1, summen.getAnzahlGesperrt());
+        Assertions.assertTrue(bank.kontoLoeschen(giro));
+        Assertions.assertEquals(1, summen.getAnzahlKonten());
+        Assertions.assertEquals(0, summen.getAnzahlGesperrt());
+        Assertions.assertEquals(0, summen.getGenutzterDispo(Waehrung.EUR), 0.001);
+    }
+
+    @Test
+    void anmeldenWaehrendBuchungenTest() throws InterruptedException {
+        Thread buchen = new Thread(() -> {
+            for (int n = 0; n < 20000; n++) {
+                konto.einzahlen(1);
+            }
+        });
+        buchen.start();
+        konto.aggregateSetzen(aggregate);
+        buchen.join();
+        Assertions.assertEquals(20000, aggregate.getGuthaben(Waehrung.EUR), 0.001);
+    }
+
+    @Test
+    void gleichzeitigesAnlegenTest() throws InterruptedException {
+        Bank bank = new Bank(12312L);
+        for (int n = 0; n < 100; n++) {
+            long nummer = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+            bank.geldEinzahlenStatus(nummer, 10);
+        }
+        Kontoaggregate[] ergebnisse = new Kontoaggregate[4];
+        Thread[] threads = new Thread[ergebnisse.length];
+        for (int t = 0; t < threads.length; t++) {
+            int platz = t;
+            threads[t] = new Thread(() -> ergebnisse[platz] = bank.getAggregate());
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (Kontoaggregate ergebnis : ergebnisse) {
+            Assertions.assertSame(ergebnisse[0], ergebnis);
+        }
+        Assertions.assertEquals(100, ergebnisse[0].getAnzahlKonten());
+        Assertions.assertEquals(1000, ergebnisse[0].getGuthaben(Waehrung.EUR), 0.001);
+    }
+}
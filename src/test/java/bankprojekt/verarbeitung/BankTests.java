@@ -6,7 +6,13 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.PrimitiveIterator;
 
 /**
  * Performs unit tests for the Bank class.
@@ -58,6 +64,62 @@ class BankTests {
         System.out.println(b.getAlleKonten());
     }
 
+    @Test
+    void alleKontenSortiertTest() throws IOException {
+        String[] zeilen = b.getAlleKonten().split(System.lineSeparator());
+        List<Long> nummern = b.getAlleKontonummern();
+        Assertions.assertEquals(30, zeilen.length);
+        Assertions.assertEquals(30, nummern.size());
+        for (int i = 0; i < zeilen.length; i++) {
+            Assertions.assertEquals(nummern.get(i) + ": 0.0 EUR", zeilen[i]);
+            if (i > 0)
+                Assertions.assertTrue(nummern.get(i - 1) < nummern.get(i));
+        }
+
+        ByteArrayOutputStream ausgabe = new ByteArrayOutputStream();
+        b.getAlleKonten(Channels.newChannel(ausgabe));
+        Assertions.assertEquals(b.getAlleKonten(), ausgabe.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void geloeschtesKontoWirdUebersprungenTest() throws IOException {
+        List<Long> nummern = b.getAlleKontonummern();
+        long geloescht = nummern.get(1);
+        StringBuilder ausgabe = new StringBuilder();
+        // löscht das zweite Konto, nachdem die Kontonummern schon gelesen wurden
+        b.getAlleKonten(new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) {
+                b.kontoLoeschen(geloescht);
+                ausgabe.append(csq);
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) {
+                return append(csq.subSequence(start, end));
+            }
+
+            @Override
+            public Appendable append(char c) {
+                return append(String.valueOf(c));
+            }
+        });
+        String[] zeilen = ausgabe.toString().split(System.lineSeparator());
+        Assertions.assertEquals(nummern.size() - 1, zeilen.length);
+        Assertions.assertFalse(ausgabe.toString().contains(geloescht + ": "));
+    }
+
+    @Test
+    void kontonummernIteratorTest() {
+        PrimitiveIterator.OfLong iterator = b.kontonummernIterator();
+        for (long nummer : b.getAlleKontonummern()) {
+            Assertions.assertTrue(iterator.hasNext());
+            Assertions.assertEquals(nummer, iterator.nextLong());
+        }
+        Assertions.assertFalse(iterator.hasNext());
+    }
+
     @Test
     void cloneTest() throws CloneNotSupportedException {
         b.clone();
@@ -269,4 +331,34 @@ class BankTests {
                 () -> b.geldUeberweisen(k1No, k2No, -100, ""));
 
     }
+
+    @Test
+    void geldAbhebenStatusTest() {
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, b.geldAbhebenStatus(DEFAULT_KONTO, 100));
+        Assertions.assertEquals(Buchungsstatus.NICHT_GEDECKT, b.geldAbhebenStatus(DEFAULT_KONTO, 1000));
+        Assertions.assertEquals(Buchungsstatus.KONTO_NICHT_VORHANDEN, b.geldAbhebenStatus(1000000000L, 100));
+        Assertions.assertEquals(Buchungsstatus.UNGUELTIGER_BETRAG, b.geldAbhebenStatus(DEFAULT_KONTO, 0));
+    }
+
+    @Test
+    void geldAbhebenStatusGesperrtTest() {
+        b.geldAbhebenStatus(DEFAULT_KONTO, 100);
+        b.pleitegeierSperren();
+        Assertions.assertEquals(Buchungsstatus.GESPERRT, b.geldAbhebenStatus(DEFAULT_KONTO, 100));
+        Assertions.assertThrows(GesperrtException.class, () -> b.geldAbheben(DEFAULT_KONTO, 100));
+    }
+
+    @Test
+    void geldEinzahlenStatusTest() throws KontonummerNichtVorhandenException {
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, b.geldEinzahlenStatus(DEFAULT_KONTO, 100));
+        Assertions.assertEquals(Buchungsstatus.KONTO_NICHT_VORHANDEN, b.geldEinzahlenStatus(1000000000L, 100));
+        Assertions.assertEquals(Buchungsstatus.UNGUELTIGER_BETRAG, b.geldEinzahlenStatus(DEFAULT_KONTO, -100));
+        Assertions.assertEquals(100, b.getKontostand(DEFAULT_KONTO));
+    }
+
+    @Test
+    void geldUeberweisenStatusSparTest() throws KontonummerNichtVorhandenException {
+        setUpUeberweisenSpar();
+        Assertions.assertEquals(Buchungsstatus.NICHT_UEBERWEISUNGSFAEHIG, b.geldUeberweisenStatus(k1No, k2No, 500, ""));
+    }
 }
@@ -0,0 +1,84 @@
+package bankprojekt.verarbeitung;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+/**
+ * Tests für die Historie der Kontostände
+ */
+class BuchungsjournalTests {
+
+    @Test
+    void eintragenUndSuchenTest() {
+        Buchungsjournal journal = new Buchungsjournal();
+        for (int i = 0; i < 100; i++) {
+            journal.eintragen(1000 + i * 10L, i, Waehrung.EUR, false);
+        }
+        Assertions.assertEquals(100, journal.getAnzahl());
+        Assertions.assertEquals(1990, journal.getZeit(99));
+        Assertions.assertEquals(0, journal.suchen(0));
+        Assertions.assertEquals(5, journal.suchen(1050));
+        Assertions.assertEquals(6, journal.suchen(1051));
+        Assertions.assertEquals(100, journal.suchen(5000));
+        Assertions.assertEquals(0, journal.getSaldoVor(1000));
+        Assertions.assertEquals(4, journal.getSaldoVor(1050));
+        Assertions.assertEquals(99, journal.getSaldoVor(5000));
+    }
+
+    @Test
+    void zeitLaeuftNichtRueckwaertsTest() {
+        Buchungsjournal journal = new Buchungsjournal();
+        journal.eintragen(2000, 1, Waehrung.EUR, false);
+        journal.eintragen(1000, 2, Waehrung.EUR, false);
+        Assertions.assertEquals(2000, journal.getZeit(1));
+    }
+
+    @Test
+    void kontoSchreibtJournalTest() throws GesperrtException {
+        Konto konto = new Girokonto(Kunde.MUSTERMANN, 1L, 500, 0);
+        konto.einzahlen(100);
+        konto.abheben(30);
+        Buchungsjournal journal = konto.getJournal();
+        Assertions.assertEquals(2, journal.getAnzahl());
+        Assertions.assertEquals(100, journal.getSaldo(0));
+        Assertions.assertEquals(70, journal.getSaldo(1));
+    }
+
+    @Test
+    void waehrungUndSperreTest() {
+        Konto konto = new Girokonto(Kunde.MUSTERMANN, 1L, 500, 0);
+        konto.einzahlen(100);
+        konto.sperren();
+        konto.waehrungswechsel(Waehrung.BGN);
+        konto.entsperren();
+        Buchungsjournal journal = konto.getJournal();
+        int n = journal.getAnzahl();
+        Assertions.assertEquals(Waehrung.EUR, journal.getWaehrung(0));
+        Assertions.assertFalse(journal.isGesperrt(0));
+        Assertions.assertTrue(journal.isGesperrt(1));
+        Assertions.assertEquals(Waehrung.BGN, journal.getWaehrung(n - 2));
+        Assertions.assertTrue(journal.isGesperrt(n - 2));
+        Assertions.assertEquals(Waehrung.BGN.euroInWaehrungUmrechnen(100), journal.getSaldo(n - 2));
+        Assertions.assertFalse(journal.isGesperrt(n - 1));
+    }
+
+    @Test
+    void aufbewahrungTest() {
+        Buchungsjournal journal = new Buchungsjournal(Duration.ofMillis(100));
+        for (int i = 0; i < 1000; i++) {
+            journal.eintragen(i * 10L, i, Waehrung.EUR, false);
+        }
+        Assertions.assertEquals(1000, journal.getAnzahl());
+        int erster = journal.getErsterIndex();
+        Assertions.assertTrue(erster > 900);
+        // der Zustand am Anfang des Aufbewahrungszeitraums ist noch bekannt
+        Assertions.assertEquals(989, journal.getSaldoVor(9900));
+        Assertions.assertEquals(erster, journal.suchen(0));
+        Assertions.assertEquals(9990, journal.getZeit(999));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> journal.getSaldo(erster - 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> journal.getSaldoVor(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Buchungsjournal(Duration.ofMillis(-1)));
+    }
+}
@@ -0,0 +1,189 @@
+package bankprojekt.verarbeitung;
+
+import bankprojekt.verwaltung.Bank;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests für Limits von Abgängen in einem gleitenden Zeitfenster
+ */
+class GeschwindigkeitslimitTests {
+    long jetzt;
+    Girokonto konto;
+
+    @BeforeEach
+    void setup() {
+        jetzt = 1_000_000L;
+        konto = new Girokonto(Kunde.MUSTERMANN, 1234L, 0, 0);
+        konto.einzahlen(100_000);
+    }
+
+    Geschwindigkeitslimit limit(int maxAnzahl, double maxBetrag) {
+        return new Geschwindigkeitslimit(Duration.ofMinutes(10), 5, maxAnzahl, maxBetrag, () -> jetzt);
+    }
+
+    @Test
+    void anzahlTest() {
+        konto.limitSetzen(limit(3, Geschwindigkeitslimit.UNBEGRENZT));
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, konto.abhebenStatus(10));
+        }
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN, konto.abhebenStatus(10));
+        Assertions.assertEquals(99_970, konto.getKontostand(), 0.001);
+    }
+
+    @Test
+    void betragTest() {
+        konto.limitSetzen(limit(Geschwindigkeitslimit.UNBEGRENZT, 1000));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, konto.abhebenStatus(600));
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN, konto.abhebenStatus(400.01));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, konto.abhebenStatus(400));
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN, konto.abhebenStatus(0.01));
+    }
+
+    @Test
+    void fensterGleitetTest() {
+        konto.limitSetzen(limit(2, Geschwindigkeitslimit.UNBEGRENZT));
+        konto.abhebenStatus(10);
+        jetzt += Duration.ofMinutes(4).toMillis();
+        konto.abhebenStatus(10);
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN, konto.abhebenStatus(10));
+        // die erste Abhebung ist aus dem Fenster gelaufen, die zweite noch nicht
+        jetzt += Duration.ofMinutes(7).toMillis();
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, konto.abhebenStatus(10));
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN, konto.abhebenStatus(10));
+        jetzt += Duration.ofHours(5).toMillis();
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, konto.abhebenStatus(10));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, konto.abhebenStatus(10));
+    }
+
+    @Test
+    void abgelehnteBuchungZaehltNichtTest() {
+        Girokonto leer = new Girokonto(Kunde.MUSTERMANN, 4321L, 0, 0);
+        leer.limitSetzen(limit(1, Geschwindigkeitslimit.UNBEGRENZT));
+        Assertions.assertEquals(Buchungsstatus.NICHT_GEDECKT, leer.abhebenStatus(10));
+        leer.einzahlen(10);
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, leer.abhebenStatus(10));
+    }
+
+    @Test
+    void gleichzeitigeAbhebungenTest() throws Exception {
+        konto.limitSetzen(limit(20, Geschwindigkeitslimit.UNBEGRENZT));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> ergebnisse = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            ergebnisse.add(pool.submit(() -> {
+                int erfolgreich = 0;
+                for (int i = 0; i < 10; i++) {
+                    if (konto.abhebenStatus(10).isErfolgreich())
+                        erfolgreich++;
+                }
+                return erfolgreich;
+            }));
+        }
+        int summe = 0;
+        for (Future<Integer> f : ergebnisse) {
+            summe += f.get();
+        }
+        pool.shutdown();
+        Assertions.assertEquals(20, summe);
+    }
+
+    @Test
+    void reservierungFreigebenTest() {
+        Geschwindigkeitslimit l = limit(1, 100);
+        long[] zaehler = l.zaehlerAnlegen();
+        long reservierung = l.reservieren(zaehler, 60);
+        Assertions.assertTrue(reservierung >= 0);
+        Assertions.assertEquals(Geschwindigkeitslimit.ABGELEHNT, l.reservieren(zaehler, 10));
+        l.freigeben(zaehler, reservierung, 60);
+        Assertions.assertEquals(reservierung, l.reservieren(zaehler, 100));
+        // eine aus dem Fenster gelaufene Reservierung wird nicht mehr abgezogen
+        jetzt += Duration.ofMinutes(20).toMillis();
+        long neu = l.reservieren(zaehler, 100);
+        l.freigeben(zaehler, reservierung, 100);
+        Assertions.assertEquals(Geschwindigkeitslimit.ABGELEHNT, l.reservieren(zaehler, 0.01));
+        l.freigeben(zaehler, neu, 100);
+        Assertions.assertEquals(neu, l.reservieren(zaehler, 0.01));
+    }
+
+    @Test
+    void fremdwaehrungTest() {
+        konto.waehrungswechsel(Waehrung.BGN);
+        konto.limitSetzen(limit(Geschwindigkeitslimit.UNBEGRENZT, 100));
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN, konto.abhebenStatus(200));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, konto.abhebenStatus(195));
+    }
+
+    @Test
+    void gesperrtVorLimitTest() {
+        konto.limitSetzen(limit(0, Geschwindigkeitslimit.UNBEGRENZT));
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN, konto.abhebenStatus(10));
+        konto.sperren();
+        Assertions.assertEquals(Buchungsstatus.GESPERRT, konto.abhebenStatus(10));
+    }
+
+    @Test
+    void ungueltigesLimitTest() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> limit(-2, 10));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> limit(1, Double.NaN));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Geschwindigkeitslimit(Duration.ZERO, 5, 1, 10));
+    }
+
+    @Test
+    void bankTest() {
+        Bank bank = new Bank(12312L);
+        long giro = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        bank.setGeschwindigkeitslimit(Kontoart.GIROKONTO, limit(2, Geschwindigkeitslimit.UNBEGRENZT));
+        long ziel = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        long spar = bank.kontoErstellen(new SparbuchFabrik(), Kunde.MUSTERMANN);
+        bank.geldEinzahlenStatus(giro, 1000);
+        bank.geldEinzahlenStatus(ziel, 1000);
+        bank.geldEinzahlenStatus(spar, 1000);
+
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, bank.geldAbhebenStatus(giro, 10));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, bank.geldUeberweisenStatus(giro, ziel, 10, "Test"));
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN,
+                bank.geldUeberweisenStatus(giro, ziel, 10, "Test"));
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN, bank.geldAbhebenStatus(giro, 10));
+
+        // das neue Konto hat das Limit der Kontoart, Sparbücher haben keines
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, bank.geldAbhebenStatus(ziel, 10));
+            Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, bank.geldAbhebenStatus(spar, 10));
+        }
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN, bank.geldAbhebenStatus(ziel, 10));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, bank.geldAbhebenStatus(spar, 10));
+
+        bank.setGeschwindigkeitslimit(Kontoart.GIROKONTO, null);
+        Assertions.assertNull(bank.getGeschwindigkeitslimit(Kontoart.GIROKONTO));
+        Assertions.assertNull(bank.getGeschwindigkeitslimit(null));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, bank.geldAbhebenStatus(giro, 10));
+    }
+
+    @Test
+    void limitAufAnderemThreadGesetztTest() throws Exception {
+        Bank bank = new Bank(12312L);
+        Geschwindigkeitslimit l = limit(1, Geschwindigkeitslimit.UNBEGRENZT);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> bank.setGeschwindigkeitslimit(Kontoart.GIROKONTO, l)).get();
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertSame(l, bank.getGeschwindigkeitslimit(Kontoart.GIROKONTO));
+        long giro = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        bank.geldEinzahlenStatus(giro, 100);
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, bank.geldAbhebenStatus(giro, 10));
+        Assertions.assertEquals(Buchungsstatus.LIMIT_UEBERSCHRITTEN, bank.geldAbhebenStatus(giro, 10));
+    }
+}
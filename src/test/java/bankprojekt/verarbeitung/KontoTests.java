@@ -74,4 +74,53 @@ public class KontoTests {
         giroKonto.sperren();
         Assertions.assertThrows(GesperrtException.class, () -> giroKonto.abheben(100));
     }
+
+    @Test
+    void abhebenStatusTest() {
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, giroKonto.abhebenStatus(800));
+        Assertions.assertEquals(Buchungsstatus.NICHT_GEDECKT, giroKonto.abhebenStatus(2000));
+        Assertions.assertEquals(Buchungsstatus.UNGUELTIGER_BETRAG, giroKonto.abhebenStatus(Double.NaN));
+        Assertions.assertEquals(200, giroKonto.getKontostand());
+    }
+
+    @Test
+    void abhebenStatusGesperrtTest() {
+        giroKonto.sperren();
+        Assertions.assertEquals(Buchungsstatus.GESPERRT, giroKonto.abhebenStatus(100));
+        Assertions.assertEquals(1000, giroKonto.getKontostand());
+    }
+
+    @Test
+    void gleichzeitigeBuchungenTest() throws InterruptedException {
+        int anzahlThreads = 4;
+        int anzahlBuchungen = 10000;
+        Thread[] threads = new Thread[anzahlThreads];
+        for (int t = 0; t < anzahlThreads; t++) {
+            threads[t] = new Thread(() -> {
+                for (int n = 0; n < anzahlBuchungen; n++) {
+                    giroKonto.einzahlen(1);
+                    giroKonto.abhebenStatus(1);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(1000, giroKonto.getKontostand(), 0.001);
+    }
+
+    @Test
+    void gleichzeitigesAbhebenBeachtetDispoTest() throws InterruptedException {
+        Thread[] threads = new Thread[20];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> giroKonto.abhebenStatus(100));
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // 1000 Guthaben und 250,90 Dispo reichen für genau 12 Abhebungen
+        Assertions.assertEquals(-200, giroKonto.getKontostand(), 0.001);
+    }
 }
@@ -0,0 +1,142 @@
+package bankprojekt.verarbeitung;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests für die Kontotabelle außerhalb des Heaps und ihre Zeiger
+ */
+class KontotabelleTests {
+    Kontotabelle tabelle;
+    Kontozeiger zeiger;
+
+    @BeforeEach
+    void setup() {
+        tabelle = new Kontotabelle(4);
+        zeiger = tabelle.zeiger();
+    }
+
+    @Test
+    void anlegenUndLesenTest() {
+        tabelle.anlegen(1000L, Kontoart.GIROKONTO, 500);
+        tabelle.anlegen(2000L, Kontoart.SPARBUCH, 0.03);
+        Assertions.assertEquals(2, tabelle.getAnzahl());
+        Assertions.assertTrue(zeiger.positionieren(2000L));
+        Assertions.assertEquals(2000L, zeiger.getKontonummer());
+        Assertions.assertEquals(Kontoart.SPARBUCH, zeiger.getKontoart());
+        Assertions.assertEquals(0.03, zeiger.getZinssatz(), 0.0001);
+        Assertions.assertEquals(Waehrung.EUR, zeiger.getAktuelleWaehrung());
+        Assertions.assertFalse(zeiger.isGesperrt());
+        Assertions.assertThrows(IllegalStateException.class, () -> zeiger.getDispo());
+
+        Assertions.assertFalse(zeiger.positionieren(3000L));
+        Assertions.assertFalse(zeiger.isGesetzt());
+        Assertions.assertThrows(IllegalStateException.class, () -> zeiger.getKontostand());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> tabelle.anlegen(1000L, Kontoart.SPARBUCH, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> tabelle.anlegen(4000L, Kontoart.FESTGELDKONTO, 0));
+    }
+
+    @Test
+    void girokontoBuchenTest() {
+        tabelle.anlegen(1000L, Kontoart.GIROKONTO, 500);
+        zeiger.positionieren(1000L);
+        zeiger.einzahlen(100);
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, zeiger.abhebenStatus(600));
+        Assertions.assertEquals(-500, zeiger.getKontostand(), 0.001);
+        Assertions.assertEquals(Buchungsstatus.NICHT_GEDECKT, zeiger.abhebenStatus(0.01));
+        Assertions.assertEquals(Buchungsstatus.UNGUELTIGER_BETRAG, zeiger.abhebenStatus(-1));
+        zeiger.sperren();
+        Assertions.assertEquals(Buchungsstatus.GESPERRT, zeiger.abhebenStatus(1));
+        zeiger.entsperren();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> zeiger.einzahlen(Double.NaN));
+    }
+
+    @Test
+    void sparbuchBuchenTest() {
+        tabelle.anlegen(2000L, Kontoart.SPARBUCH, 0.03);
+        zeiger.positionieren(2000L);
+        zeiger.einzahlen(5000);
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, zeiger.abhebenStatus(1500));
+        Assertions.assertEquals(Buchungsstatus.NICHT_GEDECKT, zeiger.abhebenStatus(600));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, zeiger.abhebenStatus(500));
+        Assertions.assertEquals(3000, zeiger.getKontostand(), 0.001);
+    }
+
+    @Test
+    void waehrungswechselTest() {
+        tabelle.anlegen(1000L, Kontoart.GIROKONTO, 500);
+        zeiger.positionieren(1000L);
+        zeiger.einzahlen(100);
+        zeiger.waehrungswechsel(Waehrung.BGN);
+        Assertions.assertEquals(Waehrung.BGN, zeiger.getAktuelleWaehrung());
+        Assertions.assertEquals(195.58, zeiger.getKontostand(), 0.001);
+        Assertions.assertEquals(977.90, zeiger.getDispo(), 0.001);
+    }
+
+    @Test
+    void kontoEinfuegenTest() throws Exception {
+        Girokonto giro = new Girokonto(Kunde.MUSTERMANN, 1234L, 300, 0);
+        giro.einzahlen(50);
+        giro.sperren();
+        Sparbuch spar = new Sparbuch(Kunde.MUSTERMANN, 5678L, 0);
+        spar.einzahlen(3000);
+        spar.abheben(1800);
+        tabelle.einfuegen(giro);
+        tabelle.einfuegen(spar);
+
+        Kontoansicht ansicht = zeiger;
+        zeiger.positionieren(1234L);
+        Assertions.assertEquals(giro.getKontostand(), ansicht.getKontostand(), 0.001);
+        Assertions.assertEquals(300, zeiger.getDispo(), 0.001);
+        Assertions.assertTrue(ansicht.isGesperrt());
+        // das im Monat schon Abgehobene wird übernommen
+        zeiger.positionieren(5678L);
+        Assertions.assertEquals(Buchungsstatus.NICHT_GEDECKT, zeiger.abhebenStatus(300));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, zeiger.abhebenStatus(200));
+    }
+
+    @Test
+    void loeschenTest() {
+        int anzahl = Kontotabelle.SEGMENT_ZEILEN + 100;
+        for (int n = 0; n < anzahl; n++) {
+            tabelle.anlegen(n * 7L, Kontoart.GIROKONTO, n);
+        }
+        // zwei Segmente zu je 39 Byte pro Zeile
+        Assertions.assertEquals(2L * 39 * Kontotabelle.SEGMENT_ZEILEN, tabelle.getBelegterSpeicher());
+        for (int n = 0; n < anzahl; n += 2) {
+            Assertions.assertTrue(tabelle.loeschen(n * 7L));
+        }
+        Assertions.assertFalse(tabelle.loeschen(0L));
+        Assertions.assertEquals(anzahl / 2, tabelle.getAnzahl());
+        for (int n = 0; n < anzahl; n++) {
+            Assertions.assertEquals(n % 2 == 1, zeiger.positionieren(n * 7L));
+            if (n % 2 == 1)
+                Assertions.assertEquals(n, zeiger.getDispo(), 0.001);
+        }
+        double summe = 0;
+        for (int z = 0; z < tabelle.getAnzahl(); z++) {
+            zeiger.aufZeile(z);
+            summe += zeiger.getDispo();
+        }
+        Assertions.assertEquals((double) (anzahl / 2) * (anzahl / 2), summe, 0.001);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> zeiger.aufZeile(tabelle.getAnzahl()));
+    }
+
+    @Test
+    void buchbarTest() {
+        tabelle.anlegen(1000L, Kontoart.GIROKONTO, 500);
+        zeiger.positionieren(1000L);
+        Girokonto giro = new Girokonto(Kunde.MUSTERMANN, 1000L, 500, 0);
+        for (Buchbar konto : new Buchbar[]{zeiger, giro}) {
+            konto.einzahlen(100);
+            Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, konto.abhebenStatus(550));
+            Assertions.assertEquals(Buchungsstatus.NICHT_GEDECKT, konto.abhebenStatus(100));
+            konto.sperren();
+            Assertions.assertEquals(Buchungsstatus.GESPERRT, konto.abhebenStatus(1));
+            konto.entsperren();
+            Assertions.assertEquals(-450, konto.getKontostand(), 0.001);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package bankprojekt.verarbeitung;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests für die Schwellen-Abonnements einer Aktie und die darauf wartenden Orders
+ */
+class KursabonnementTests {
+    private Aktie aktie;
+    private List<Double> meldungen;
+
+    @BeforeEach
+    void setUp() {
+        aktie = new Aktie("Test AG", 4711, 100, false);
+        meldungen = new ArrayList<>();
+    }
+
+    @Test
+    void ueberUndUnterTest() {
+        Kursabonnement ueber = aktie.abonnierenUeber(110, (a, k) -> meldungen.add(k));
+        aktie.abonnierenUnter(90, (a, k) -> meldungen.add(-k));
+        Assertions.assertEquals(2, aktie.getAnzahlAbonnements());
+
+        aktie.setKurs(109);
+        aktie.setKurs(91);
+        Assertions.assertTrue(meldungen.isEmpty());
+        aktie.setKurs(112);
+        Assertions.assertEquals(List.of(112.0), meldungen);
+        Assertions.assertFalse(ueber.isAktiv());
+        // einmalig: ein zweites Überschreiten löst nicht mehr aus
+        aktie.setKurs(100);
+        aktie.setKurs(120);
+        aktie.setKurs(90);
+        Assertions.assertEquals(List.of(112.0, -90.0), meldungen);
+        Assertions.assertEquals(0, aktie.getAnzahlAbonnements());
+    }
+
+    @Test
+    void schonErfuelltTest() {
+        Kursabonnement a = aktie.abonnierenUnter(100, (x, k) -> meldungen.add(k));
+        Assertions.assertEquals(List.of(100.0), meldungen);
+        Assertions.assertFalse(a.isAktiv());
+        Assertions.assertFalse(a.kuendigen());
+    }
+
+    @Test
+    void nurUeberschritteneSchwellenTest() {
+        for (int i = 1; i <= 100_000; i++) {
+            aktie.abonnierenUeber(100 + i / 100.0, (a, k) -> meldungen.add(k));
+        }
+        aktie.setKurs(100.5);
+        Assertions.assertEquals(50, meldungen.size());
+        Assertions.assertEquals(100_000 - 50, aktie.getAnzahlAbonnements());
+    }
+
+    @Test
+    void kuendigenTest() {
+        Kursabonnement a = aktie.abonnierenUeber(105, (x, k) -> meldungen.add(k));
+        Kursabonnement jeder = aktie.abonnieren((x, k) -> meldungen.add(-k));
+        Assertions.assertTrue(a.kuendigen());
+        aktie.setKurs(106);
+        Assertions.assertEquals(List.of(-106.0), meldungen);
+        Assertions.assertTrue(jeder.kuendigen());
+        aktie.setKurs(107);
+        Assertions.assertEquals(1, meldungen.size());
+        Assertions.assertEquals(0, aktie.getAnzahlAbonnements());
+    }
+
+    @Test
+    void fehlerhafterBeobachterTest() {
+        aktie.abonnierenUeber(110, (a, k) -> {
+            throw new IllegalStateException("Test");
+        });
+        aktie.abonnierenUeber(110, (a, k) -> meldungen.add(k));
+        aktie.abonnieren((a, k) -> {
+            throw new IllegalStateException("Test");
+        });
+        aktie.abonnieren((a, k) -> meldungen.add(-k));
+
+        aktie.setKurs(111);
+        Assertions.assertEquals(List.of(111.0, -111.0), meldungen);
+        aktie.setKurs(100);
+        Assertions.assertEquals(List.of(111.0, -111.0, -100.0), meldungen);
+    }
+
+    @Test
+    void bewegungTest() {
+        Kursabonnement a = aktie.abonnierenBewegung(10, (x, k) -> meldungen.add(k));
+        aktie.setKurs(105);
+        aktie.setKurs(111);
+        // neuer Bezugskurs 111, also erst wieder bei 99,9 oder 122,1
+        aktie.setKurs(100);
+        aktie.setKurs(122);
+        aktie.setKurs(99);
+        Assertions.assertEquals(List.of(111.0, 99.0), meldungen);
+        Assertions.assertTrue(a.isAktiv());
+        Assertions.assertEquals(1, aktie.getAnzahlAbonnements());
+        a.kuendigen();
+        aktie.setKurs(50);
+        Assertions.assertEquals(2, meldungen.size());
+    }
+
+    @Test
+    void kaufauftragWartetAufKursTest() throws Exception {
+        Girokonto konto = new Girokonto(Mockito.mock(Kunde.class), 1234L, 0, 0);
+        konto.einzahlen(1000);
+        Future<Double> kauf = konto.kaufauftrag(aktie, 5, 95);
+        Assertions.assertFalse(kauf.isDone());
+        aktie.setKurs(94);
+        Assertions.assertEquals(470.0, (double) kauf.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(530.0, konto.getKontostand());
+        Assertions.assertEquals(0, aktie.getAnzahlAbonnements());
+
+        Future<Double> verkauf = konto.verkaufauftrag("4711", 100);
+        aktie.setKurs(101);
+        Assertions.assertEquals(505.0, (double) verkauf.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1035.0, konto.getKontostand());
+    }
+
+    @Test
+    void kaeufeAddierenSichImDepotTest() throws Exception {
+        Girokonto konto = new Girokonto(Mockito.mock(Kunde.class), 1234L, 0, 0);
+        konto.einzahlen(1000);
+        Assertions.assertEquals(400.0, (double) konto.kaufauftrag(aktie, 4, 100).get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(300.0, (double) konto.kaufauftrag(aktie, 3, 100).get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(7, konto.getAktienImDepot(4711));
+        Assertions.assertEquals(7, konto.getAktienStueckzahl());
+        Assertions.assertEquals(300.0, konto.getKontostand());
+        // reicht der Kontostand nicht, bleibt alles unverändert
+        Assertions.assertEquals(0.0, (double) konto.kaufauftrag(aktie, 4, 100).get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(7, konto.getAktienImDepot(4711));
+        Assertions.assertEquals(300.0, konto.getKontostand());
+    }
+
+    @Test
+    void kaufauftragAbbrechenTest() {
+        Girokonto konto = new Girokonto(Mockito.mock(Kunde.class), 1234L, 0, 0);
+        Future<Double> kauf = konto.kaufauftrag(aktie, 5, 50);
+        Assertions.assertEquals(1, aktie.getAnzahlAbonnements());
+        kauf.cancel(false);
+        Assertions.assertEquals(0, aktie.getAnzahlAbonnements());
+    }
+}
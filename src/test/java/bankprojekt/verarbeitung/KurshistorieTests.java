@@ -0,0 +1,83 @@
+package bankprojekt.verarbeitung;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests für den Tick-Ring und die Kerzen der Kursgeschichte
+ */
+class KurshistorieTests {
+    private static final long BASIS = 1_700_000_000_000L;
+
+    @Test
+    void ticksImBereichTest() {
+        Kurshistorie historie = new Kurshistorie(4, 10, 10, 10);
+        for (int i = 0; i < 6; i++) {
+            historie.hinzufuegen(BASIS + i * 100, 10 + i);
+        }
+        List<Double> kurse = new ArrayList<>();
+        // nur die letzten vier Ticks sind noch da
+        Assertions.assertEquals(4, historie.ticks(Long.MIN_VALUE, Long.MAX_VALUE, (z, k) -> kurse.add(k)));
+        Assertions.assertEquals(List.of(12.0, 13.0, 14.0, 15.0), kurse);
+        kurse.clear();
+        Assertions.assertEquals(2, historie.ticks(BASIS + 250, BASIS + 500, (z, k) -> kurse.add(k)));
+        Assertions.assertEquals(List.of(13.0, 14.0), kurse);
+        Assertions.assertEquals(6, historie.getAnzahlTicks());
+        Assertions.assertEquals(BASIS + 500, historie.getLetzteZeit());
+    }
+
+    @Test
+    void tickInDerVergangenheitTest() {
+        Kurshistorie historie = new Kurshistorie();
+        historie.hinzufuegen(BASIS + 1000, 1);
+        historie.hinzufuegen(BASIS, 2);
+        Assertions.assertEquals(BASIS + 1000, historie.getLetzteZeit());
+        Assertions.assertEquals(2, historie.ticks(BASIS + 1000, BASIS + 1001, (z, k) -> { }));
+    }
+
+    @Test
+    void kerzenTest() {
+        Kurshistorie historie = new Kurshistorie();
+        double[] kurse = {5, 7, 3, 4};
+        for (int i = 0; i < kurse.length; i++) {
+            historie.hinzufuegen(BASIS + i * 200, kurse[i]);
+        }
+        historie.hinzufuegen(BASIS + 3000, 6);
+        List<double[]> sekunden = new ArrayList<>();
+        Assertions.assertEquals(2, historie.kerzen(Kurshistorie.Aufloesung.SEKUNDE, BASIS, BASIS + 10_000,
+                (b, o, h, t, s) -> sekunden.add(new double[]{b, o, h, t, s})));
+        Assertions.assertArrayEquals(new double[]{BASIS, 5, 7, 3, 4}, sekunden.get(0));
+        Assertions.assertArrayEquals(new double[]{BASIS + 3000, 6, 6, 6, 6}, sekunden.get(1));
+
+        List<double[]> minuten = new ArrayList<>();
+        historie.kerzen(Kurshistorie.Aufloesung.MINUTE, 0, Long.MAX_VALUE,
+                (b, o, h, t, s) -> minuten.add(new double[]{o, h, t, s}));
+        Assertions.assertEquals(1, minuten.size());
+        Assertions.assertArrayEquals(new double[]{5, 7, 3, 6}, minuten.get(0));
+    }
+
+    @Test
+    void alteKerzenFallenHerausTest() {
+        Kurshistorie historie = new Kurshistorie(8, 3, 3, 3);
+        for (int i = 0; i < 5; i++) {
+            historie.hinzufuegen(BASIS + i * 1000, i);
+        }
+        List<Long> beginne = new ArrayList<>();
+        historie.kerzen(Kurshistorie.Aufloesung.SEKUNDE, 0, Long.MAX_VALUE, (b, o, h, t, s) -> beginne.add(b));
+        Assertions.assertEquals(List.of(BASIS + 2000, BASIS + 3000, BASIS + 4000), beginne);
+
+        // ein Sprung über mehr als den ganzen Ring lässt nur die neue Kerze übrig
+        historie.hinzufuegen(BASIS + 60_000, 9);
+        beginne.clear();
+        historie.kerzen(Kurshistorie.Aufloesung.SEKUNDE, 0, Long.MAX_VALUE, (b, o, h, t, s) -> beginne.add(b));
+        Assertions.assertEquals(List.of(BASIS + 60_000), beginne);
+
+        historie.leeren();
+        Assertions.assertEquals(0, historie.kerzen(Kurshistorie.Aufloesung.STUNDE, 0, Long.MAX_VALUE,
+                (b, o, h, t, s) -> { }));
+        Assertions.assertEquals(0, historie.ticks(0, Long.MAX_VALUE, (z, k) -> { }));
+    }
+}
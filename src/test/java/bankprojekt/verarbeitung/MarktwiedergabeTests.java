@@ -0,0 +1,89 @@
+package bankprojekt.verarbeitung;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests für Aufzeichnung und Wiedergabe von Kursticks
+ */
+class MarktwiedergabeTests {
+    private static final long BASIS = 1_700_000_000_000L;
+
+    @Test
+    void aufzeichnenUndLesenTest() throws IOException {
+        Aktie a = Aktie.fuerWiedergabe("A", 1, 50);
+        Aktie b = Aktie.fuerWiedergabe("B", -2, 80);
+        ByteArrayOutputStream puffer = new ByteArrayOutputStream();
+        try (Tickschreiber schreiber = new Tickschreiber(puffer)) {
+            Assertions.assertEquals(1000, schreiber.schreiben(new Zufallsticks(42, 1000, BASIS, 10, a, b)));
+        }
+        Assertions.assertEquals(6 + 1000 * Tickschreiber.SATZGROESSE, puffer.size());
+
+        Zufallsticks erwartet = new Zufallsticks(42, 1000, BASIS, 10, a, b);
+        try (Tickleser leser = new Tickleser(new ByteArrayInputStream(puffer.toByteArray()))) {
+            while (erwartet.naechster()) {
+                Assertions.assertTrue(leser.naechster());
+                Assertions.assertEquals(erwartet.getWertpapierkennummer(), leser.getWertpapierkennummer());
+                Assertions.assertEquals(erwartet.getZeit(), leser.getZeit());
+                Assertions.assertEquals(erwartet.getKurs(), leser.getKurs());
+            }
+            Assertions.assertFalse(leser.naechster());
+        }
+    }
+
+    @Test
+    void falscheKennungTest() {
+        Assertions.assertThrows(IOException.class,
+                () -> new Tickleser(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 0, 1})));
+    }
+
+    @Test
+    void wiedergabeIstReproduzierbarTest() throws IOException {
+        double[] schlusskurse = new double[2];
+        for (int lauf = 0; lauf < 2; lauf++) {
+            Aktie a = Aktie.fuerWiedergabe("A", 1, 50);
+            Aktie b = Aktie.fuerWiedergabe("B", 2, 80);
+            Marktwiedergabe wiedergabe = new Marktwiedergabe(b, a);
+            Assertions.assertEquals(100_000, wiedergabe.abspielen(new Zufallsticks(7, 100_000, BASIS, 1, a, b)));
+            schlusskurse[lauf] = a.getKurs();
+            Assertions.assertEquals(BASIS + 99_998, a.getHistorie().getLetzteZeit());
+        }
+        Assertions.assertEquals(schlusskurse[0], schlusskurse[1]);
+    }
+
+    @Test
+    void unbekannteAktieTest() throws IOException {
+        Aktie a = Aktie.fuerWiedergabe("A", 1, 50);
+        Aktie fremd = Aktie.fuerWiedergabe("X", 9, 10);
+        Marktwiedergabe wiedergabe = new Marktwiedergabe(a);
+        Assertions.assertEquals(5, wiedergabe.abspielen(new Zufallsticks(1, 10, BASIS, 1, a, fremd)));
+        Assertions.assertEquals(5, wiedergabe.getAnzahlUebersprungen());
+    }
+
+    @Test
+    void echtzeitTest() throws Exception {
+        Aktie a = Aktie.fuerWiedergabe("A", 1, 50);
+        long beginn = System.nanoTime();
+        new Marktwiedergabe(a).abspielen(new Zufallsticks(1, 5, BASIS, 100, a), 2);
+        Assertions.assertTrue(System.nanoTime() - beginn >= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void orderWirdBeiWiedergabeAusgefuehrtTest() throws Exception {
+        Aktie a = Aktie.fuerWiedergabe("A", 1, 50);
+        Girokonto konto = new Girokonto(Mockito.mock(Kunde.class), 1234L, 0, 0);
+        konto.einzahlen(10_000);
+        Future<Double> kauf = konto.kaufauftrag(a, 10, 45);
+        new Marktwiedergabe(a).abspielen(new Zufallsticks(3, 1_000_000, BASIS, 1, a));
+        double preis = kauf.get(5, TimeUnit.SECONDS);
+        Assertions.assertTrue(preis > 0 && preis <= 450);
+        Assertions.assertEquals(10, konto.getAktienStueckzahl());
+    }
+}
@@ -0,0 +1,133 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kontofabrik;
+import bankprojekt.verarbeitung.Kunde;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests für die asynchrone Fassade über der Bank
+ */
+class AsynchroneBankTests {
+    Bank bank;
+    AsynchroneBank asynchron;
+    long kontoNr;
+
+    @BeforeEach
+    void setup() {
+        bank = new Bank(12312L);
+        kontoNr = bank.kontoErstellen(new GirokontoFabrik(),
+                new Kunde("Max", "Mustermann", "Home", LocalDate.parse("2001-10-29")));
+        asynchron = AsynchroneBank.partitioniert(bank, 4);
+    }
+
+    @AfterEach
+    void aufraeumen() {
+        asynchron.close();
+    }
+
+    @Test
+    void einzahlenUndAbhebenTest() {
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, asynchron.geldEinzahlen(kontoNr, 100).join());
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, asynchron.geldAbheben(kontoNr, 30).join());
+        Assertions.assertEquals(OptionalDouble.of(70), asynchron.getKontostand(kontoNr).join());
+    }
+
+    @Test
+    void fehlerAlsStatusTest() {
+        Assertions.assertEquals(Buchungsstatus.KONTO_NICHT_VORHANDEN, asynchron.geldAbheben(1000000000L, 10).join());
+        Assertions.assertEquals(Buchungsstatus.UNGUELTIGER_BETRAG, asynchron.geldEinzahlen(kontoNr, -10).join());
+        Assertions.assertEquals(OptionalDouble.empty(), asynchron.getKontostand(1000000000L).join());
+    }
+
+    @Test
+    void gesperrtAlsStatusTest() {
+        asynchron.geldAbheben(kontoNr, 100).join();
+        asynchron.pleitegeierSperren().join();
+        Assertions.assertEquals(Buchungsstatus.GESPERRT, asynchron.geldAbheben(kontoNr, 10).join());
+    }
+
+    @Test
+    void vieleGleichzeitigeEinzahlungenTest() {
+        List<CompletableFuture<Buchungsstatus>> ergebnisse = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            ergebnisse.add(asynchron.geldEinzahlen(kontoNr, 1));
+        }
+        CompletableFuture.allOf(ergebnisse.toArray(new CompletableFuture[0])).join();
+        Assertions.assertEquals(OptionalDouble.of(10000), asynchron.getKontostand(kontoNr).join());
+    }
+
+    @Test
+    void vieleGleichzeitigeUeberweisungenTest() {
+        long[] konten = new long[8];
+        for (int i = 0; i < konten.length; i++) {
+            konten[i] = asynchron.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN).join();
+            asynchron.geldEinzahlen(konten[i], 1000).join();
+        }
+        List<CompletableFuture<Buchungsstatus>> ergebnisse = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            long von = konten[ThreadLocalRandom.current().nextInt(konten.length)];
+            long nach = konten[ThreadLocalRandom.current().nextInt(konten.length)];
+            ergebnisse.add(asynchron.geldUeberweisen(von, nach, 1, "Test"));
+        }
+        CompletableFuture.allOf(ergebnisse.toArray(new CompletableFuture[0])).join();
+        double summe = 0;
+        for (long konto : konten) {
+            summe += asynchron.getKontostand(konto).join().getAsDouble();
+        }
+        Assertions.assertEquals(8000, summe, 0.001);
+    }
+
+    @Test
+    void andereKontenLaufenParallelTest() throws Exception {
+        CountDownLatch freigabe = new CountDownLatch(1);
+        long blockiert = bank.kontoErstellen(new Kontofabrik() {
+            @Override
+            public Konto erstellenKonto(Kunde inhaber, long kontoNr) {
+                return new Girokonto(inhaber, kontoNr, 500, 0) {
+                    @Override
+                    public void ueberweisungEmpfangen(double betrag, String vonName, long vonKontonr, long vonBlz,
+                                                      String verwendungszweck) {
+                        try {
+                            freigabe.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        super.ueberweisungEmpfangen(betrag, vonName, vonKontonr, vonBlz, verwendungszweck);
+                    }
+                };
+            }
+        }, Kunde.MUSTERMANN);
+        long frei = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        ExecutorService threads = Executors.newCachedThreadPool();
+        try (AsynchroneBank parallel = new AsynchroneBank(bank, threads)) {
+            CompletableFuture<Buchungsstatus> haengt = parallel.geldUeberweisen(kontoNr, blockiert, 10, "Test");
+            // die hängende Überweisung sperrt nur ihre beiden Konten
+            Assertions.assertEquals(Buchungsstatus.ERFOLGREICH,
+                    parallel.geldEinzahlen(frei, 10).get(5, TimeUnit.SECONDS));
+            Assertions.assertFalse(haengt.isDone());
+            freigabe.countDown();
+            Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, haengt.get(5, TimeUnit.SECONDS));
+        } finally {
+            freigabe.countDown();
+            threads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Kunde;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Tests für die Verrechnung von Überweisungen zwischen Banken
+ */
+class ClearingstelleTests {
+    Clearingstelle clearing;
+    Bank bankA;
+    Bank bankB;
+    long kontoA;
+    long kontoB;
+
+    @BeforeEach
+    void setup() throws KontonummerNichtVorhandenException {
+        Kunde kunde = new Kunde("Max", "Mustermann", "Home", LocalDate.parse("2001-10-29"));
+        bankA = new Bank(10010010L);
+        bankB = new Bank(20020020L);
+        kontoA = bankA.kontoErstellen(new GirokontoFabrik(), kunde);
+        kontoB = bankB.kontoErstellen(new GirokontoFabrik(), kunde);
+        bankA.geldEinzahlen(kontoA, 10000);
+        bankB.geldEinzahlen(kontoB, 10000);
+
+        clearing = new Clearingstelle();
+        clearing.registrieren(bankA);
+        clearing.registrieren(bankB);
+    }
+
+    @Test
+    void doppeltRegistrierenTest() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> clearing.registrieren(new Bank(10010010L)));
+    }
+
+    @Test
+    void gutschriftErstBeiAbrechnungTest() throws KontonummerNichtVorhandenException {
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, clearing.ueberweisen(bankA.getBankleitzahl(), kontoA,
+                bankB.getBankleitzahl(), kontoB, "Mustermann, Max", 100, "Miete"));
+        Assertions.assertEquals(9900, bankA.getKontostand(kontoA));
+        Assertions.assertEquals(10000, bankB.getKontostand(kontoB));
+
+        clearing.abrechnen();
+        Assertions.assertEquals(10100, bankB.getKontostand(kontoB));
+        Assertions.assertEquals(0, clearing.getAnzahlOffeneUeberweisungen());
+    }
+
+    @Test
+    void gescheiterteRueckueberweisungBleibtOffenTest() throws KontonummerNichtVorhandenException {
+        long weiteresKonto = bankA.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        bankA.geldEinzahlen(weiteresKonto, 100);
+        clearing.ueberweisen(bankA.getBankleitzahl(), weiteresKonto, bankB.getBankleitzahl(), 12345L, "X", 50,
+                "Test");
+        clearing.ueberweisen(bankA.getBankleitzahl(), kontoA, bankB.getBankleitzahl(), kontoB, "B", 10, "Test");
+        // weder Empfänger noch Auftraggeber gibt es bei der Abrechnung
+        bankA.kontoLoeschen(weiteresKonto);
+
+        clearing.abrechnen();
+        Assertions.assertEquals(1, clearing.getAnzahlOffeneUeberweisungen());
+        Assertions.assertEquals(10010, bankB.getKontostand(kontoB));
+        clearing.abrechnen();
+        Assertions.assertEquals(1, clearing.getAnzahlOffeneUeberweisungen());
+        Assertions.assertEquals(10010, bankB.getKontostand(kontoB));
+    }
+
+    @Test
+    void nettingTest() throws KontonummerNichtVorhandenException {
+        for (int i = 0; i < 1000; i++) {
+            clearing.ueberweisen(bankA.getBankleitzahl(), kontoA, bankB.getBankleitzahl(), kontoB, "B", 3, "Test");
+            clearing.ueberweisen(bankB.getBankleitzahl(), kontoB, bankA.getBankleitzahl(), kontoA, "A", 1, "Test");
+        }
+        List<Ausgleichsbuchung> buchungen = clearing.abrechnen();
+
+        Assertions.assertEquals(1, buchungen.size());
+        Ausgleichsbuchung buchung = buchungen.get(0);
+        Assertions.assertEquals(bankA.getBankleitzahl(), buchung.getZahlerBlz());
+        Assertions.assertEquals(bankB.getBankleitzahl(), buchung.getEmpfaengerBlz());
+        Assertions.assertEquals(2000, buchung.getBetrag());
+        Assertions.assertEquals(2000, buchung.getAnzahlUeberweisungen());
+        Assertions.assertEquals(-2000, clearing.getVerrechnungssaldo(bankA.getBankleitzahl()));
+        Assertions.assertEquals(8000, bankA.getKontostand(kontoA));
+        Assertions.assertEquals(12000, bankB.getKontostand(kontoB));
+    }
+
+    @Test
+    void rueckueberweisungTest() throws KontonummerNichtVorhandenException {
+        clearing.ueberweisen(bankA.getBankleitzahl(), kontoA, bankB.getBankleitzahl(), 1000000000L, "X", 100, "Test");
+        Assertions.assertEquals(9900, bankA.getKontostand(kontoA));
+
+        Assertions.assertTrue(clearing.abrechnen().isEmpty());
+        Assertions.assertEquals(10000, bankA.getKontostand(kontoA));
+    }
+
+    @Test
+    void unbekannteBankTest() {
+        Assertions.assertEquals(Buchungsstatus.KONTO_NICHT_VORHANDEN,
+                clearing.ueberweisen(bankA.getBankleitzahl(), kontoA, 999L, kontoB, "B", 100, "Test"));
+    }
+}
@@ -0,0 +1,114 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Aktie;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Waehrung;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests für den Handel zwischen den Konten einer Bank und dessen Abrechnung
+ */
+class HandelsplatzTests {
+    private static final int WKN = 4711;
+    private Bank bank;
+    private Handelsplatz handelsplatz;
+    private long kaeufer;
+    private long verkaeufer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bank = new Bank(12312L);
+        Aktie aktie = Aktie.fuerWiedergabe("Test AG", WKN, 10);
+        handelsplatz = new Handelsplatz(bank);
+        handelsplatz.zulassen(aktie);
+        kaeufer = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        verkaeufer = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        bank.geldEinzahlen(kaeufer, 1000);
+        bank.geldEinzahlen(verkaeufer, 1000);
+        // der Verkäufer kauft seine Aktien vorher zum Kurs von 10
+        Assertions.assertEquals(200.0, (double) bank.kontoSuchen(verkaeufer).kaufauftrag(aktie, 20, 10)
+                .get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void handelnTest() throws Exception {
+        long order = handelsplatz.verkaufen(verkaeufer, WKN, 15, 12.5);
+        Assertions.assertEquals(15, handelsplatz.getOffen(WKN, order));
+        Assertions.assertEquals(Orderbuch.KEINE_ORDER, handelsplatz.kaufen(kaeufer, WKN, 10, 13));
+
+        Konto k = bank.kontoSuchen(kaeufer);
+        Konto v = bank.kontoSuchen(verkaeufer);
+        Assertions.assertEquals(875, k.getKontostand(), 0.001);
+        Assertions.assertEquals(10, k.getAktienImDepot(WKN));
+        Assertions.assertEquals(10, k.getAktienStueckzahl());
+        Assertions.assertEquals(800 + 125, v.getKontostand(), 0.001);
+        Assertions.assertEquals(10, v.getAktienImDepot(WKN));
+        Assertions.assertEquals(5, handelsplatz.getOffen(WKN, order));
+        Assertions.assertEquals(1, handelsplatz.getAnzahlAbschluesse(WKN));
+
+        Assertions.assertTrue(handelsplatz.stornieren(WKN, order));
+        Assertions.assertTrue(handelsplatz.kaufen(kaeufer, WKN, 1, 13) != Orderbuch.KEINE_ORDER);
+    }
+
+    @Test
+    void waehrungenTest() throws Exception {
+        Konto k = bank.kontoSuchen(kaeufer);
+        Konto v = bank.kontoSuchen(verkaeufer);
+        k.waehrungswechsel(Waehrung.BGN);
+        double standKaeufer = k.getKontostand();
+        handelsplatz.verkaufen(verkaeufer, WKN, 10, 10);
+        Assertions.assertEquals(Orderbuch.KEINE_ORDER, handelsplatz.kaufen(kaeufer, WKN, 10, 10));
+
+        // 100 € kosten den Käufer gut 195 BGN, der Verkäufer erhält 100 €
+        Assertions.assertEquals(standKaeufer - Waehrung.BGN.euroInWaehrungUmrechnen(100), k.getKontostand(), 0.001);
+        Assertions.assertTrue(standKaeufer - k.getKontostand() > 195);
+        Assertions.assertEquals(800 + 100, v.getKontostand(), 0.001);
+        Assertions.assertEquals(10, k.getAktienImDepot(WKN));
+    }
+
+    @Test
+    void nichtGedecktTest() throws Exception {
+        // der Verkäufer bietet mehr an, als er hat: die Order wartet, scheitert aber beim Abschluss
+        long order = handelsplatz.verkaufen(verkaeufer, WKN, 50, 10);
+        long kauf = handelsplatz.kaufen(kaeufer, WKN, 50, 10);
+        Assertions.assertTrue(kauf != Orderbuch.KEINE_ORDER);
+        Assertions.assertEquals(0, handelsplatz.getOffen(WKN, order));
+        Assertions.assertEquals(0, handelsplatz.getAnzahlAbschluesse(WKN));
+        Assertions.assertEquals(20, bank.kontoSuchen(verkaeufer).getAktienImDepot(WKN));
+        Assertions.assertTrue(handelsplatz.stornieren(WKN, kauf));
+
+        // der Käufer kann nicht zahlen: seine neue Order wird gestrichen, die wartende Verkauforder bleibt
+        long verkauf = handelsplatz.verkaufen(verkaeufer, WKN, 5, 10);
+        long zweiter = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        Assertions.assertEquals(Orderbuch.KEINE_ORDER, handelsplatz.kaufen(zweiter, WKN, 1, 100));
+        Assertions.assertEquals(0, bank.kontoSuchen(zweiter).getAktienImDepot(WKN));
+        Assertions.assertEquals(5, handelsplatz.getOffen(WKN, verkauf));
+    }
+
+    @Test
+    void gesperrtTest() throws Exception {
+        handelsplatz.verkaufen(verkaeufer, WKN, 5, 10);
+        bank.kontoSuchen(kaeufer).sperren();
+        Assertions.assertEquals(Orderbuch.KEINE_ORDER, handelsplatz.kaufen(kaeufer, WKN, 5, 10));
+        Assertions.assertEquals(1000, bank.kontoSuchen(kaeufer).getKontostand(), 0.001);
+        bank.kontoSuchen(kaeufer).entsperren();
+        Assertions.assertEquals(Orderbuch.KEINE_ORDER, handelsplatz.kaufen(kaeufer, WKN, 5, 10));
+        Assertions.assertEquals(5, bank.kontoSuchen(kaeufer).getAktienImDepot(WKN));
+    }
+
+    @Test
+    void unbekanntTest() {
+        Assertions.assertThrows(KontonummerNichtVorhandenException.class,
+                () -> handelsplatz.kaufen(999, WKN, 1, 10));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> handelsplatz.kaufen(kaeufer, 1, 1, 10));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> handelsplatz.zulassen(Aktie.fuerWiedergabe("Doppelt", WKN, 1)));
+    }
+}
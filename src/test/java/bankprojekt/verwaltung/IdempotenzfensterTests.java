@@ -0,0 +1,143 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Kunde;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests für das zeitlich begrenzte Gedächtnis der Idempotenzschlüssel
+ */
+class IdempotenzfensterTests {
+    long jetzt;
+    Idempotenzfenster fenster;
+
+    @BeforeEach
+    void setup() {
+        jetzt = 1_000_000;
+        fenster = new Idempotenzfenster(Duration.ofMinutes(60), 6, () -> jetzt);
+    }
+
+    @Test
+    void merkenUndNachschlagenTest() {
+        Assertions.assertNull(fenster.nachschlagen(42));
+        fenster.merken(42, Buchungsstatus.NICHT_GEDECKT);
+        fenster.merken(0, Buchungsstatus.ERFOLGREICH);
+        Assertions.assertEquals(Buchungsstatus.NICHT_GEDECKT, fenster.nachschlagen(42));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, fenster.nachschlagen(0));
+        Assertions.assertEquals(2, fenster.getAnzahl());
+    }
+
+    @Test
+    void vieleSchluesselTest() {
+        for (long i = 0; i < 100_000; i++) {
+            fenster.merken(i * 7919, Buchungsstatus.ERFOLGREICH);
+        }
+        Assertions.assertEquals(100_000, fenster.getAnzahl());
+        for (long i = 0; i < 100_000; i++) {
+            Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, fenster.nachschlagen(i * 7919));
+        }
+        Assertions.assertNull(fenster.nachschlagen(1));
+    }
+
+    @Test
+    void ablaufTest() {
+        fenster.merken(42, Buchungsstatus.ERFOLGREICH);
+        jetzt += Duration.ofMinutes(50).toMillis();
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, fenster.nachschlagen(42));
+        jetzt += Duration.ofMinutes(20).toMillis();
+        Assertions.assertNull(fenster.nachschlagen(42));
+        Assertions.assertEquals(0, fenster.getAnzahl());
+    }
+
+    @Test
+    void wiederholteUeberweisungTest() throws KontonummerNichtVorhandenException {
+        Bank bank = new Bank(12312L);
+        long von = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        long nach = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        bank.setIdempotenzfenster(fenster);
+
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, bank.geldUeberweisenIdempotent(7, von, nach, 100, "Test"));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, bank.geldUeberweisenIdempotent(7, von, nach, 100, "Test"));
+        Assertions.assertEquals(-100, bank.getKontostand(von));
+        Assertions.assertEquals(100, bank.getKontostand(nach));
+    }
+
+    @Test
+    void gleichzeitigeWiederholungenTest() throws InterruptedException {
+        AtomicInteger buchungen = new AtomicInteger();
+        Buchungsstatus[] ergebnisse = new Buchungsstatus[8];
+        Thread[] threads = new Thread[ergebnisse.length];
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads.length; t++) {
+            int platz = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                ergebnisse[platz] = fenster.ausfuehren(42, () -> {
+                    buchungen.incrementAndGet();
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Buchungsstatus.ERFOLGREICH;
+                });
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(1, buchungen.get());
+        for (Buchungsstatus ergebnis : ergebnisse) {
+            Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, ergebnis);
+        }
+    }
+
+    @Test
+    void gescheiterteBuchungWirdNichtGemerktTest() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fenster.ausfuehren(42, () -> {
+            throw new IllegalArgumentException("Test");
+        }));
+        Assertions.assertNull(fenster.nachschlagen(42));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, fenster.ausfuehren(42, () -> Buchungsstatus.ERFOLGREICH));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, fenster.ausfuehren(42, () -> Buchungsstatus.NICHT_GEDECKT));
+    }
+
+    @Test
+    void gleichzeitigeEinzahlungenTest() throws Exception {
+        Bank bank = new Bank(12312L);
+        long auf = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        Thread[] threads = new Thread[16];
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long schluessel = 0; schluessel < 1000; schluessel++) {
+                    bank.geldEinzahlenIdempotent(schluessel, auf, 1);
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(1000, bank.getKontostand(auf), 0.001);
+    }
+}
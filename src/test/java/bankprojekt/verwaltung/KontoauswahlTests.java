@@ -0,0 +1,128 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests für die gefilterte und sortierte Auswahl der Konten
+ */
+class KontoauswahlTests {
+    private Bank bank;
+    private long[] nummern;
+
+    @BeforeEach
+    void setUp() {
+        bank = new Bank(12312L);
+        Kunde anna = Kunde.fuerImport("Anna", "Berg", "Weg 1", LocalDate.of(1980, 1, 1));
+        Kunde bert = Kunde.fuerImport("Bert", "Adler", "Weg 2", LocalDate.of(1980, 1, 1));
+        nummern = new long[4];
+        double[] staende = {30, 10, 40, 20};
+        for (int i = 0; i < nummern.length; i++) {
+            nummern[i] = bank.kontoErstellen(new GirokontoFabrik(), i % 2 == 0 ? anna : bert);
+            bank.geldEinzahlenStatus(nummern[i], staende[i]);
+        }
+        bank.kontoSuchen(nummern[3]).sperren();
+    }
+
+    @Test
+    void geloeschtesKontoWirdUebersprungenTest() {
+        Bank geloeschtWaehrendDesLesens = new Bank(12312L) {
+            @Override
+            long[] sortierteKontonummern() {
+                long[] vorher = super.sortierteKontonummern();
+                kontoLoeschen(vorher[1]);
+                return vorher;
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            geloeschtWaehrendDesLesens.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        }
+        Kontoauswahl auswahl = new Kontoauswahl(geloeschtWaehrendDesLesens);
+        Assertions.assertEquals(2, auswahl.getAnzahl());
+        auswahl.filtern("", false);
+        auswahl.sortieren(Kontoauswahl.Sortierung.KONTOSTAND, true);
+        Assertions.assertEquals(2, auswahl.getAnzahl());
+    }
+
+    @Test
+    void sortierenTest() {
+        Kontoauswahl auswahl = new Kontoauswahl(bank);
+        assertReihenfolge(auswahl.getKonten(), 0, 1, 2, 3);
+
+        auswahl.sortieren(Kontoauswahl.Sortierung.KONTOSTAND, false);
+        assertReihenfolge(auswahl.getKonten(), 1, 3, 0, 2);
+        auswahl.sortieren(Kontoauswahl.Sortierung.KONTOSTAND, true);
+        assertReihenfolge(auswahl.getKonten(), 2, 0, 3, 1);
+        auswahl.sortieren(Kontoauswahl.Sortierung.INHABER, false);
+        assertReihenfolge(auswahl.getKonten(), 1, 3, 0, 2);
+        auswahl.sortieren(Kontoauswahl.Sortierung.GESPERRT, true);
+        Assertions.assertEquals(nummern[3], auswahl.getKonten().get(0).getKontonummer());
+        auswahl.sortieren(Kontoauswahl.Sortierung.KONTONUMMER, true);
+        assertReihenfolge(auswahl.getKonten(), 3, 2, 1, 0);
+    }
+
+    @Test
+    void filternTest() {
+        Kontoauswahl auswahl = new Kontoauswahl(bank);
+        List<Konto> vorher = auswahl.getKonten();
+        auswahl.sortieren(Kontoauswahl.Sortierung.KONTOSTAND, true);
+        auswahl.filtern("ADLER", false);
+        assertReihenfolge(auswahl.getKonten(), 3, 1);
+        auswahl.filtern(" adler ", true);
+        assertReihenfolge(auswahl.getKonten(), 3);
+        auswahl.filtern(Long.toString(nummern[2]), false);
+        assertReihenfolge(auswahl.getKonten(), 2);
+        auswahl.filtern(null, false);
+        Assertions.assertEquals(4, auswahl.getAnzahl());
+        assertReihenfolge(vorher, 0, 1, 2, 3);
+
+        long neu = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        auswahl.filtern("muster", false);
+        Assertions.assertEquals(0, auswahl.getAnzahl());
+        auswahl.aktualisieren();
+        Assertions.assertEquals(1, auswahl.getAnzahl());
+        Assertions.assertEquals(neu, auswahl.getKonten().get(0).getKontonummer());
+    }
+
+    @Test
+    void sortierenWaehrendBuchungenTest() throws InterruptedException {
+        long[] viele = new long[20000];
+        for (int i = 0; i < viele.length; i++) {
+            viele[i] = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        }
+        Kontoauswahl auswahl = new Kontoauswahl(bank);
+        AtomicBoolean fertig = new AtomicBoolean();
+        Thread buchungen = new Thread(() -> {
+            while (!fertig.get()) {
+                long nummer = viele[ThreadLocalRandom.current().nextInt(viele.length)];
+                bank.kontoSuchen(nummer).einzahlen(ThreadLocalRandom.current().nextInt(1, 1000));
+            }
+        });
+        buchungen.start();
+        try {
+            for (int i = 0; i < 10; i++) {
+                auswahl.sortieren(Kontoauswahl.Sortierung.KONTOSTAND, i % 2 == 0);
+                Assertions.assertEquals(viele.length + nummern.length, auswahl.getAnzahl());
+            }
+        } finally {
+            fertig.set(true);
+            buchungen.join();
+        }
+    }
+
+    private void assertReihenfolge(List<Konto> konten, int... indizes) {
+        Assertions.assertEquals(indizes.length, konten.size());
+        for (int i = 0; i < indizes.length; i++) {
+            Assertions.assertEquals(nummern[indizes[i]], konten.get(i).getKontonummer());
+        }
+    }
+}
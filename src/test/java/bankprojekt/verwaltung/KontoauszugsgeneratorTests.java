@@ -0,0 +1,87 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.Waehrung;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Tests für die Erzeugung der monatlichen Kontoauszüge
+ */
+class KontoauszugsgeneratorTests {
+
+    @Test
+    void auszuegeSchreibenTest() throws IOException, InterruptedException {
+        Bank bank = new Bank(12312L);
+        long[] konten = new long[5];
+        for (int i = 0; i < konten.length; i++) {
+            konten[i] = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+            bank.geldEinzahlenStatus(konten[i], 100 * (i + 1));
+        }
+        bank.geldUeberweisenStatus(konten[0], konten[1], 25.5, "Test");
+
+        Path verzeichnis = Files.createTempDirectory("auszuege");
+        try {
+            Kontoauszugsgenerator generator = new Kontoauszugsgenerator(Locale.GERMANY, ZoneId.systemDefault());
+            long anzahl = generator.erzeugen(bank, YearMonth.now(), verzeichnis, 2);
+            Assertions.assertEquals(5, anzahl);
+
+            String teil0 = Files.readString(verzeichnis.resolve("kontoauszuege-" + YearMonth.now() + "-0.txt"),
+                    StandardCharsets.UTF_8);
+            String teil1 = Files.readString(verzeichnis.resolve("kontoauszuege-" + YearMonth.now() + "-1.txt"),
+                    StandardCharsets.UTF_8);
+            Assertions.assertTrue(teil0.contains("Kontonummer: " + String.format("%10d", konten[0])));
+            Assertions.assertTrue(teil0.contains("-25,50"));
+            Assertions.assertTrue(teil0.contains("74,50 EUR"));
+            Assertions.assertTrue(teil1.contains("Kontonummer: " + String.format("%10d", konten[4])));
+            Assertions.assertTrue(teil1.contains("500,00 EUR"));
+
+            long leer = generator.erzeugen(bank, YearMonth.now().minusMonths(1), verzeichnis, 1);
+            Assertions.assertEquals(5, leer);
+            String vormonat = Files.readString(verzeichnis.resolve(
+                    "kontoauszuege-" + YearMonth.now().minusMonths(1) + "-0.txt"), StandardCharsets.UTF_8);
+            Assertions.assertFalse(vormonat.contains("100,00"));
+        } finally {
+            try (Stream<Path> dateien = Files.walk(verzeichnis)) {
+                dateien.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    void waehrungswechselTest() throws IOException, InterruptedException {
+        Bank bank = new Bank(12312L);
+        long konto = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        bank.geldEinzahlenStatus(konto, 100);
+        bank.kontoSuchen(konto).waehrungswechsel(Waehrung.BGN);
+        bank.geldEinzahlenStatus(konto, 10);
+
+        Path verzeichnis = Files.createTempDirectory("auszuege");
+        try {
+            Kontoauszugsgenerator generator = new Kontoauszugsgenerator(Locale.GERMANY, ZoneId.systemDefault());
+            generator.erzeugen(bank, YearMonth.now(), verzeichnis, 1);
+            String auszug = Files.readString(verzeichnis.resolve("kontoauszuege-" + YearMonth.now() + "-0.txt"),
+                    StandardCharsets.UTF_8);
+            Assertions.assertTrue(auszug.contains("Anfangssaldo                    0,00 EUR"));
+            Assertions.assertTrue(auszug.contains("Umstellung          195,57 BGN"));
+            Assertions.assertFalse(auszug.contains(" 95,57"));
+            Assertions.assertTrue(auszug.contains("10,00        205,57"));
+            Assertions.assertTrue(auszug.contains("Endsaldo                      205,57 BGN"));
+        } finally {
+            try (Stream<Path> dateien = Files.walk(verzeichnis)) {
+                dateien.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Kontoart;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.SparbuchFabrik;
+import bankprojekt.verarbeitung.Waehrung;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests für den spaltenweisen Export der Konten
+ */
+class KontoexportTests {
+
+    @Test
+    void exportierenTest() throws IOException, InterruptedException {
+        Bank bank = new Bank(12312L);
+        Kunde anna = new Kunde("Anna", "Alt", "Weg 1", LocalDate.of(1970, 1, 2));
+        long giro = bank.kontoErstellen(new GirokontoFabrik(), anna);
+        long spar = bank.kontoErstellen(new SparbuchFabrik(), anna);
+        long fremd = bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN);
+        bank.geldEinzahlenStatus(giro, 100);
+        bank.geldEinzahlenStatus(spar, 50);
+        bank.kontoSuchen(fremd).sperren();
+        bank.kontoSuchen(spar).waehrungswechsel(Waehrung.DKK);
+        Thread.sleep(5);
+        long stichzeit = System.currentTimeMillis();
+        Thread.sleep(5);
+        bank.geldEinzahlenStatus(giro, 900);
+        // Sperre und Währung nach dem Stichzeitpunkt werden nicht exportiert
+        bank.kontoSuchen(giro).sperren();
+        bank.kontoSuchen(fremd).waehrungswechsel(Waehrung.BGN);
+
+        for (boolean komprimieren : new boolean[]{false, true}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            long anzahl = new Kontoexport(komprimieren).exportieren(bank, bytes, stichzeit);
+            Assertions.assertEquals(3, anzahl);
+
+            InputStream roh = new ByteArrayInputStream(bytes.toByteArray());
+            DataInputStream ein = new DataInputStream(komprimieren ? new GZIPInputStream(roh) : roh);
+            Assertions.assertEquals(Kontoexport.KENNUNG, ein.readInt());
+            Assertions.assertEquals(Kontoexport.VERSION, ein.readShort());
+            Assertions.assertEquals(stichzeit, ein.readLong());
+            Assertions.assertEquals(3, ein.readInt());
+            Assertions.assertEquals(giro, ein.readLong());
+            Assertions.assertEquals(spar, ein.readLong());
+            Assertions.assertEquals(fremd, ein.readLong());
+            Assertions.assertEquals(100, ein.readDouble());
+            Assertions.assertEquals(Waehrung.DKK.euroInWaehrungUmrechnen(50), ein.readDouble(), 0.0001);
+            Assertions.assertEquals(0, ein.readDouble());
+            Assertions.assertEquals(Waehrung.EUR.ordinal(), ein.readByte());
+            Assertions.assertEquals(Waehrung.DKK.ordinal(), ein.readByte());
+            Assertions.assertEquals(Waehrung.EUR.ordinal(), ein.readByte());
+            Assertions.assertEquals(0, ein.readByte());
+            Assertions.assertEquals(0, ein.readByte());
+            Assertions.assertEquals(1, ein.readByte());
+            Assertions.assertEquals(Kontoart.GIROKONTO.ordinal(), ein.readByte());
+            Assertions.assertEquals(Kontoart.SPARBUCH.ordinal(), ein.readByte());
+            Assertions.assertEquals(Kontoart.GIROKONTO.ordinal(), ein.readByte());
+            Assertions.assertEquals(0, ein.readInt());
+            Assertions.assertEquals(0, ein.readInt());
+            Assertions.assertEquals(1, ein.readInt());
+            Assertions.assertEquals(0, ein.readInt());
+
+            Assertions.assertEquals(2, ein.readInt());
+            Assertions.assertEquals("Anna", ein.readUTF());
+            Assertions.assertEquals("Alt", ein.readUTF());
+            Assertions.assertEquals("Weg 1", ein.readUTF());
+            Assertions.assertEquals(1, ein.readLong());
+            Assertions.assertEquals("Max", ein.readUTF());
+            Assertions.assertEquals("Mustermann", ein.readUTF());
+            ein.readUTF();
+            ein.readLong();
+            Assertions.assertEquals(-1, ein.read());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Sparbuch;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Tests für den Massenimport von Konten
+ */
+class KontoimportTests {
+
+    @Test
+    void csvImportierenTest() throws IOException, InterruptedException {
+        StringBuilder inhalt = new StringBuilder("# Kontoart;Vorname;Nachname;Adresse;Geburtstag;Kontostand\n");
+        for (int i = 0; i < 1000; i++) {
+            inhalt.append(i % 2 == 0 ? "G" : "sparbuch").append(";Jörg;Müller ").append(i)
+                    .append(";Hauptstraße ").append(i).append(";01.02.1990;").append(i).append(",5\r\n");
+        }
+        inhalt.append("G;Zu;Wenig;Spalten\n");
+        inhalt.append("G;Falsches;Datum;Weg 1;31.02.1990;1\n");
+        inhalt.append("F;Kein;Festgeld;Weg 2;01.01.2000;\n");
+        inhalt.append("\n");
+        inhalt.append("G;Ohne;Stand;Weg 3;1.1.2000;");
+
+        Path datei = Files.createTempFile("konten", ".csv");
+        try {
+            Files.writeString(datei, inhalt, StandardCharsets.UTF_8);
+            Bank bank = new Bank(12312L);
+            Importergebnis ergebnis = Kontoimport.csv(';').importieren(bank, datei, 4);
+
+            Assertions.assertEquals(1001, ergebnis.getAnzahlKonten());
+            Assertions.assertEquals(3, ergebnis.getAnzahlFehlerhaft());
+            List<Long> nummern = bank.getAlleKontonummern();
+            Assertions.assertEquals(1001, nummern.size());
+            for (int i = 0; i < 1000; i++) {
+                Konto konto = bank.kontoSuchen(nummern.get(i));
+                Assertions.assertEquals(i + 0.5, konto.getKontostand(), 0.001);
+                Assertions.assertEquals("Müller " + i + ", Jörg", konto.getInhaber().getName());
+                Assertions.assertEquals("Hauptstraße " + i, konto.getInhaber().getAdresse());
+                Assertions.assertEquals(LocalDate.of(1990, 2, 1), konto.getInhaber().getGeburtstag());
+                Assertions.assertTrue(i % 2 == 0 ? konto instanceof Girokonto : konto instanceof Sparbuch);
+            }
+            Konto letztes = bank.kontoSuchen(nummern.get(1000));
+            Assertions.assertEquals(0, letztes.getKontostand());
+            Assertions.assertEquals(LocalDate.of(2000, 1, 1), letztes.getInhaber().getGeburtstag());
+        } finally {
+            Files.delete(datei);
+        }
+    }
+
+    @Test
+    void negativerKontostandTest() throws IOException, InterruptedException {
+        String inhalt = """
+                G;Im;Dispo;Weg 1;01.01.2000;-120,50
+                G;Am;Limit;Weg 2;01.01.2000;-500
+                G;Unter;Dispo;Weg 3;01.01.2000;-500,01
+                S;Negatives;Sparbuch;Weg 4;01.01.2000;-1
+                G;Nur;Zeichen;Weg 5;01.01.2000;-
+                G;Zeichen;Innen;Weg 6;01.01.2000;1-2
+                """;
+        Path datei = Files.createTempFile("konten", ".csv");
+        try {
+            Files.writeString(datei, inhalt, StandardCharsets.UTF_8);
+            Bank bank = new Bank(12312L);
+            Importergebnis ergebnis = Kontoimport.csv(';').importieren(bank, datei, 2);
+
+            Assertions.assertEquals(2, ergebnis.getAnzahlKonten());
+            Assertions.assertEquals(4, ergebnis.getAnzahlFehlerhaft());
+            List<Long> nummern = bank.getAlleKontonummern();
+            Assertions.assertEquals(-120.5, bank.kontoSuchen(nummern.get(0)).getKontostand(), 0.001);
+            Assertions.assertEquals(-500, bank.kontoSuchen(nummern.get(1)).getKontostand(), 0.001);
+        } finally {
+            Files.delete(datei);
+        }
+    }
+
+    @Test
+    void festeBreiteImportierenTest() throws IOException, InterruptedException {
+        String inhalt = "G Max       Mustermann  Weg 1     24.12.1980   100.25\n"
+                + "S Erika     Musterfrau  Weg 2     01.01.1970\n";
+        Path datei = Files.createTempFile("konten", ".txt");
+        try {
+            Files.writeString(datei, inhalt, StandardCharsets.UTF_8);
+            Bank bank = new Bank(12312L);
+            Importergebnis ergebnis = Kontoimport.festeBreite(2, 10, 12, 10, 10, 9).importieren(bank, datei, 1);
+
+            Assertions.assertEquals(2, ergebnis.getAnzahlKonten());
+            Assertions.assertEquals(0, ergebnis.getAnzahlFehlerhaft());
+            List<Long> nummern = bank.getAlleKontonummern();
+            Konto erstes = bank.kontoSuchen(nummern.get(0));
+            Assertions.assertEquals(100.25, erstes.getKontostand(), 0.001);
+            Assertions.assertEquals("Mustermann, Max", erstes.getInhaber().getName());
+            Assertions.assertTrue(bank.kontoSuchen(nummern.get(1)) instanceof Sparbuch);
+            Assertions.assertEquals(0, bank.kontoSuchen(nummern.get(1)).getKontostand());
+        } finally {
+            Files.delete(datei);
+        }
+    }
+
+    @Test
+    void parameterPruefenTest() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Kontoimport.csv('\n'));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Kontoimport.festeBreite(1, 2, 3));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> Kontoimport.csv(';').importieren(new Bank(12312L), Path.of("x"), 0));
+    }
+}
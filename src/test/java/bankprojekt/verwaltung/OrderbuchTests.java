@@ -0,0 +1,104 @@
+package bankprojekt.verwaltung;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests für die Preis-Zeit-Priorität und die Verwaltung der Orderplätze im Orderbuch
+ */
+class OrderbuchTests {
+    private Orderbuch buch;
+    private List<long[]> abschluesse;
+    private Orderbuch.Abwicklung alleOk;
+
+    @BeforeEach
+    void setUp() {
+        buch = new Orderbuch(4711);
+        abschluesse = new ArrayList<>();
+        alleOk = (k, v, n, p) -> {
+            abschluesse.add(new long[]{k, v, n, p});
+            return Orderbuch.ABGEWICKELT;
+        };
+    }
+
+    @Test
+    void preisZeitPrioritaetTest() {
+        buch.verkaufen(1, 10, 1010, alleOk);
+        buch.verkaufen(2, 10, 1000, alleOk);
+        buch.verkaufen(3, 10, 1000, alleOk);
+        Assertions.assertEquals(1000, buch.getBesterVerkauf());
+        Assertions.assertEquals(-1, buch.getBesterKauf());
+
+        long rest = buch.kaufen(9, 25, 1005, alleOk);
+        // erst 2, dann 3 zum Preis der wartenden Order, 1 ist zu teuer
+        Assertions.assertEquals(2, abschluesse.size());
+        Assertions.assertArrayEquals(new long[]{9, 2, 10, 1000}, abschluesse.get(0));
+        Assertions.assertArrayEquals(new long[]{9, 3, 10, 1000}, abschluesse.get(1));
+        Assertions.assertEquals(5, buch.getOffen(rest));
+        Assertions.assertEquals(1005, buch.getBesterKauf());
+        Assertions.assertEquals(1010, buch.getBesterVerkauf());
+        Assertions.assertEquals(2, buch.getAnzahlOrders());
+
+        Assertions.assertEquals(Orderbuch.KEINE_ORDER, buch.verkaufen(4, 5, 900, alleOk));
+        Assertions.assertArrayEquals(new long[]{9, 4, 5, 1005}, abschluesse.get(2));
+        Assertions.assertEquals(0, buch.getOffen(rest));
+        Assertions.assertEquals(25, buch.getAusgefuehrteStueck());
+    }
+
+    @Test
+    void stornierenTest() {
+        long a = buch.kaufen(1, 10, 500, alleOk);
+        long b = buch.kaufen(2, 10, 500, alleOk);
+        Assertions.assertTrue(buch.stornieren(a));
+        Assertions.assertFalse(buch.stornieren(a));
+        // der freie Platz wird wiederverwendet, die alte Nummer bleibt ungültig
+        long c = buch.kaufen(3, 7, 400, alleOk);
+        Assertions.assertEquals(0, buch.getOffen(a));
+        Assertions.assertEquals(7, buch.getOffen(c));
+        buch.verkaufen(4, 12, 400, alleOk);
+        Assertions.assertArrayEquals(new long[]{2, 4, 10, 500}, abschluesse.get(0));
+        Assertions.assertArrayEquals(new long[]{3, 4, 2, 400}, abschluesse.get(1));
+        Assertions.assertEquals(0, buch.getOffen(b));
+        Assertions.assertEquals(5, buch.getOffen(c));
+    }
+
+    @Test
+    void abgelehnteSeitenTest() {
+        buch.verkaufen(1, 10, 100, alleOk);
+        buch.verkaufen(2, 10, 100, alleOk);
+        // der erste Verkäufer kann nicht liefern: seine Order fällt weg, die Kauforder läuft weiter
+        Orderbuch.Abwicklung ohne1 = (k, v, n, p) -> v == 1 ? Orderbuch.VERKAEUFER_ABGELEHNT : alleOk.abwickeln(k, v, n, p);
+        Assertions.assertEquals(Orderbuch.KEINE_ORDER, buch.kaufen(9, 10, 100, ohne1));
+        Assertions.assertEquals(1, abschluesse.size());
+        Assertions.assertEquals(0, buch.getAnzahlOrders());
+
+        buch.verkaufen(3, 10, 100, alleOk);
+        // der Käufer kann nicht zahlen: seine Order wird gestrichen, die wartende bleibt
+        Assertions.assertEquals(Orderbuch.KEINE_ORDER,
+                buch.kaufen(8, 10, 100, (k, v, n, p) -> Orderbuch.KAEUFER_ABGELEHNT));
+        Assertions.assertEquals(1, buch.getAnzahlOrders());
+        Assertions.assertEquals(100, buch.getBesterVerkauf());
+    }
+
+    @Test
+    void vieleStufenTest() {
+        for (int i = 1; i <= 5000; i++) {
+            buch.verkaufen(i, 1, 10_000 + i, alleOk);
+            buch.kaufen(i, 1, i, alleOk);
+        }
+        Assertions.assertEquals(10_000, buch.getAnzahlOrders());
+        Assertions.assertEquals(5000, buch.getBesterKauf());
+        Assertions.assertEquals(10_001, buch.getBesterVerkauf());
+        long rest = buch.kaufen(99, 10_000, 20_000, alleOk);
+        Assertions.assertEquals(5000, abschluesse.size());
+        Assertions.assertEquals(10_001, abschluesse.get(0)[3]);
+        Assertions.assertEquals(15_000, abschluesse.get(4999)[3]);
+        Assertions.assertEquals(5000, buch.getOffen(rest));
+        Assertions.assertEquals(5001, buch.getAnzahlOrders());
+        Assertions.assertEquals(20_000, buch.getBesterKauf());
+    }
+}
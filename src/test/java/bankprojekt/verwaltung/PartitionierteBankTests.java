@@ -0,0 +1,158 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.Buchungsstatus;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kontofabrik;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.SparbuchFabrik;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Tests für die in Partitionen aufgeteilte Bank
+ */
+class PartitionierteBankTests {
+    PartitionierteBank bank;
+    Kunde kunde = new Kunde("Max", "Mustermann", "Home", LocalDate.parse("2001-10-29"));
+    long[] konten = new long[8];
+
+    @BeforeEach
+    void setup() throws KontonummerNichtVorhandenException {
+        bank = new PartitionierteBank(12312L, 4);
+        for (int i = 0; i < konten.length; i++) {
+            konten[i] = bank.kontoErstellen(new GirokontoFabrik(), kunde);
+            bank.geldEinzahlen(konten[i], 1000);
+        }
+    }
+
+    @AfterEach
+    void aufraeumen() {
+        bank.close();
+    }
+
+    @Test
+    void ueberweisenGleichePartitionTest() throws KontonummerNichtVorhandenException {
+        Assertions.assertTrue(bank.geldUeberweisen(konten[0], konten[4], 300, "Test"));
+        Assertions.assertEquals(700, bank.getKontostand(konten[0]));
+        Assertions.assertEquals(1300, bank.getKontostand(konten[4]));
+    }
+
+    @Test
+    void ueberweisenAndereParititionTest() throws KontonummerNichtVorhandenException {
+        Assertions.assertTrue(bank.geldUeberweisen(konten[0], konten[1], 300, "Test"));
+        Assertions.assertEquals(700, bank.getKontostand(konten[0]));
+        Assertions.assertEquals(1300, bank.getKontostand(konten[1]));
+    }
+
+    @Test
+    void ueberweisenNichtGedecktTest() throws KontonummerNichtVorhandenException {
+        Assertions.assertEquals(Buchungsstatus.NICHT_GEDECKT, bank.geldUeberweisenStatus(konten[0], konten[1], 5000, "Test"));
+        Assertions.assertEquals(1000, bank.getKontostand(konten[0]));
+        Assertions.assertEquals(1000, bank.getKontostand(konten[1]));
+    }
+
+    @Test
+    void ueberweisenAnSparbuchTest() throws KontonummerNichtVorhandenException {
+        long sparbuch = bank.kontoErstellen(new SparbuchFabrik(), kunde);
+        Assertions.assertEquals(Buchungsstatus.NICHT_UEBERWEISUNGSFAEHIG,
+                bank.geldUeberweisenStatus(konten[0], sparbuch, 100, "Test"));
+        Assertions.assertEquals(1000, bank.getKontostand(konten[0]));
+    }
+
+    @Test
+    void nichtVorhandenTest() {
+        Assertions.assertEquals(Buchungsstatus.KONTO_NICHT_VORHANDEN, bank.geldUeberweisenStatus(konten[0], 1000000000L, 100, "Test"));
+        Assertions.assertThrows(KontonummerNichtVorhandenException.class, () -> bank.getKontostand(1000000000L));
+    }
+
+    @Test
+    void pleitegeierSperrenTest() {
+        bank.geldAbhebenStatus(konten[2], 1200);
+        bank.pleitegeierSperren();
+        Assertions.assertEquals(Buchungsstatus.GESPERRT, bank.geldAbhebenStatus(konten[2], 10));
+        Assertions.assertEquals(Buchungsstatus.ERFOLGREICH, bank.geldAbhebenStatus(konten[3], 10));
+    }
+
+    @Test
+    void alleKontonummernTest() {
+        Assertions.assertEquals(konten.length, bank.getAlleKontonummern().size());
+        for (long konto : konten) {
+            Assertions.assertTrue(bank.getAlleKontonummern().contains(konto));
+            Assertions.assertTrue(bank.getAlleKonten().contains(konto + ": 1000.0 EUR"));
+        }
+    }
+
+    @Test
+    void alleKontenSortiertTest() {
+        for (int i = 0; i < 100; i++) {
+            bank.kontoErstellen(new GirokontoFabrik(), kunde);
+        }
+        List<Long> nummern = bank.getAlleKontonummern();
+        String[] zeilen = bank.getAlleKonten().split(System.lineSeparator());
+        Assertions.assertEquals(konten.length + 100, nummern.size());
+        Assertions.assertEquals(nummern.size(), zeilen.length);
+        for (int i = 0; i < zeilen.length; i++) {
+            Assertions.assertTrue(zeilen[i].startsWith(nummern.get(i) + ": "));
+            if (i > 0)
+                Assertions.assertTrue(nummern.get(i - 1) < nummern.get(i));
+        }
+    }
+
+    @Test
+    void gescheiterteGutschriftWirdZurueckgebuchtTest() throws KontonummerNichtVorhandenException {
+        long empfaenger = bank.kontoErstellen(new StoerendeFabrik(), kunde);
+        long auftraggeber = anderePartition(empfaenger);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> bank.geldUeberweisenStatus(auftraggeber, empfaenger, 300, "Test"));
+        Assertions.assertEquals(1000, bank.getKontostand(auftraggeber));
+        Assertions.assertEquals(0, bank.getKontostand(empfaenger));
+    }
+
+    @Test
+    void gescheiterteRueckbuchungTest() throws KontonummerNichtVorhandenException {
+        long empfaenger = bank.kontoErstellen(new StoerendeFabrik(), kunde);
+        long auftraggeber = bank.kontoErstellen(new StoerendeFabrik(), kunde);
+        while (Math.floorMod(auftraggeber, 4) == Math.floorMod(empfaenger, 4))
+            auftraggeber = bank.kontoErstellen(new StoerendeFabrik(), kunde);
+        long von = auftraggeber;
+        bank.geldEinzahlen(von, 1000);
+        IllegalStateException e = Assertions.assertThrows(IllegalStateException.class,
+                () -> bank.geldUeberweisenStatus(von, empfaenger, 300, "Test"));
+        Assertions.assertEquals(1, e.getSuppressed().length);
+        Assertions.assertEquals(700, bank.getKontostand(von));
+    }
+
+    /**
+     * liefert eines der Konten aus setup, das in einer anderen Partition liegt als das angegebene
+     */
+    private long anderePartition(long kontoNr) {
+        for (long konto : konten) {
+            if (Math.floorMod(konto, 4) != Math.floorMod(kontoNr, 4))
+                return konto;
+        }
+        throw new IllegalStateException("alle Konten in derselben Partition");
+    }
+
+    /**
+     * erstellt Girokonten, die keine Überweisungen empfangen können
+     */
+    private static class StoerendeFabrik extends Kontofabrik {
+        @Override
+        public Konto erstellenKonto(Kunde inhaber, long kontoNr) {
+            return new Girokonto(inhaber, kontoNr, 500, 0) {
+                @Override
+                public void ueberweisungEmpfangen(double betrag, String vonName, long vonKontonr, long vonBlz,
+                                                  String verwendungszweck) {
+                    throw new IllegalArgumentException("Empfang gestört");
+                }
+            };
+        }
+    }
+}
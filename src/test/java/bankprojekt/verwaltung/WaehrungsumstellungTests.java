@@ -0,0 +1,93 @@
+package bankprojekt.verwaltung;
+
+import bankprojekt.verarbeitung.GesperrtException;
+import bankprojekt.verarbeitung.Girokonto;
+import bankprojekt.verarbeitung.GirokontoFabrik;
+import bankprojekt.verarbeitung.Konto;
+import bankprojekt.verarbeitung.Kunde;
+import bankprojekt.verarbeitung.SparbuchFabrik;
+import bankprojekt.verarbeitung.Waehrung;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests für die bankweite Währungsumstellung
+ */
+class WaehrungsumstellungTests {
+
+    @Test
+    void umstellenTest() throws GesperrtException, InterruptedException {
+        Bank bank = new Bank(12312L);
+        Konto giro = bank.kontoSuchen(bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN));
+        giro.waehrungswechsel(Waehrung.BGN);
+        ((Girokonto) giro).setDispo(977.90);
+        giro.abheben(97.79);
+        Konto spar = bank.kontoSuchen(bank.kontoErstellen(new SparbuchFabrik(), Kunde.MUSTERMANN));
+        spar.waehrungswechsel(Waehrung.BGN);
+        spar.einzahlen(195.58);
+        Konto euro = bank.kontoSuchen(bank.kontoErstellen(new GirokontoFabrik(), Kunde.MUSTERMANN));
+        euro.einzahlen(10);
+
+        List<PropertyChangeEvent> kontoereignisse = new ArrayList<>();
+        giro.anmelden(kontoereignisse::add);
+        spar.anmelden(kontoereignisse::add);
+        List<PropertyChangeEvent> ereignisse = new ArrayList<>();
+        Waehrungsumstellung umstellung = new Waehrungsumstellung(bank, Waehrung.BGN, Waehrung.EUR, 2);
+        umstellung.anmelden(ereignisse::add);
+
+        Assertions.assertTrue(umstellung.ausfuehren(2));
+        Assertions.assertTrue(umstellung.isAbgeschlossen());
+        Assertions.assertEquals(2, umstellung.getAnzahlUmgestellt());
+        Assertions.assertEquals(Waehrung.EUR, giro.getAktuelleWaehrung());
+        Assertions.assertEquals(-50, giro.getKontostand(), 0.001);
+        Assertions.assertEquals(500, ((Girokonto) giro).getDispo(), 0.001);
+        Assertions.assertEquals(100, spar.getKontostand(), 0.001);
+        Assertions.assertEquals(10, euro.getKontostand(), 0.001);
+        Assertions.assertTrue(kontoereignisse.isEmpty());
+        Assertions.assertEquals(1, ereignisse.size());
+        Assertions.assertEquals(Waehrung.BGN, ereignisse.get(0).getOldValue());
+        Assertions.assertEquals(Waehrung.EUR, ereignisse.get(0).getNewValue());
+
+        Assertions.assertTrue(umstellung.ausfuehren(1));
+        Assertions.assertEquals(1, ereignisse.size());
+        Assertions.assertEquals(100, spar.getKontostand(), 0.001);
+    }
+
+    @Test
+    void unterbrochenWiederholenTest() throws InterruptedException {
+        Bank bank = new Bank(12312L);
+        List<Konto> konten = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Konto konto = bank.kontoSuchen(bank.kontoErstellen(new SparbuchFabrik(), Kunde.MUSTERMANN));
+            konto.waehrungswechsel(Waehrung.DKK);
+            konto.einzahlen(74.60);
+            konten.add(konto);
+        }
+        Waehrungsumstellung umstellung = new Waehrungsumstellung(bank, Waehrung.DKK, Waehrung.EUR, 16);
+
+        Thread.currentThread().interrupt();
+        Assertions.assertThrows(InterruptedException.class, () -> umstellung.ausfuehren(4));
+        Assertions.assertFalse(Thread.currentThread().isInterrupted());
+
+        Assertions.assertTrue(umstellung.ausfuehren(4));
+        Assertions.assertEquals(0, umstellung.getAnzahlOffenePartitionen());
+        Assertions.assertEquals(2000, umstellung.getAnzahlUmgestellt());
+        for (Konto konto : konten) {
+            Assertions.assertEquals(Waehrung.EUR, konto.getAktuelleWaehrung());
+            Assertions.assertEquals(10, konto.getKontostand(), 0.001);
+        }
+    }
+
+    @Test
+    void parameterPruefenTest() {
+        Bank bank = new Bank(12312L);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Waehrungsumstellung(bank, Waehrung.EUR, Waehrung.EUR, 1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Waehrungsumstellung(bank, Waehrung.EUR, Waehrung.BGN, 0));
+    }
+}
@@ -0,0 +1,76 @@
+package formatierung;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Prüft, dass der Formatpuffer dieselben Texte liefert wie String.format und DateTimeFormatter
+ */
+class FormatpufferTests {
+    static final Locale[] LOCALES = {Locale.GERMANY, Locale.US, Locale.FRANCE, Locale.forLanguageTag("ar-EG"),
+            Locale.forLanguageTag("ja-JP")};
+
+    @Test
+    void kommazahlWieStringFormatTest() {
+        Random zufall = new Random(4711);
+        for (Locale locale : LOCALES) {
+            Formatpuffer puffer = new Formatpuffer(locale);
+            double[] besondere = {0, -0.0, 0.005, 0.015, 1.005, 2.675, -1.005, 0.125, -0.001, 99999999.995,
+                    123456789012.345, 1e20, -1e-7, 4503599627370496.5, Double.MAX_VALUE, Double.NaN,
+                    Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+            for (double wert : besondere) {
+                Assertions.assertEquals(String.format(locale, "%10.2f", wert),
+                        puffer.leeren().kommazahl(wert, 10, 2).toString(), "Wert " + wert);
+            }
+            for (int i = 0; i < 20000; i++) {
+                double wert = (zufall.nextInt(2000001) - 1000000) / 1000.0;
+                if (i % 2 == 0)
+                    wert = (zufall.nextDouble() - 0.5) * Math.pow(10, zufall.nextInt(12));
+                int stellen = zufall.nextInt(5);
+                Assertions.assertEquals(String.format(locale, "%10." + stellen + "f", wert),
+                        puffer.leeren().kommazahl(wert, 10, stellen).toString(), "Wert " + wert);
+            }
+        }
+    }
+
+    @Test
+    void ganzzahlWieStringFormatTest() {
+        for (Locale locale : LOCALES) {
+            Formatpuffer puffer = new Formatpuffer(locale);
+            for (long wert : new long[]{0, 7, -7, 12345678, 1234567890123L, Long.MIN_VALUE, Long.MAX_VALUE}) {
+                Assertions.assertEquals(String.format(locale, "%10d", wert), puffer.leeren().ganzzahl(wert, 10).toString());
+            }
+        }
+    }
+
+    @Test
+    void datumWieDateTimeFormatterTest() {
+        for (Locale locale : Locale.getAvailableLocales()) {
+            DateTimeFormatter df = DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT).withLocale(locale);
+            Formatpuffer puffer = new Formatpuffer(locale);
+            for (LocalDate datum : new LocalDate[]{LocalDate.of(2001, 10, 29), LocalDate.of(1985, 7, 2),
+                    LocalDate.of(1905, 1, 1), LocalDate.of(12345, 1, 1)}) {
+                Assertions.assertEquals(df.format(datum), puffer.leeren().datum(datum).toString(),
+                        locale + " " + datum);
+            }
+        }
+    }
+
+    @Test
+    void utf8Test() {
+        Formatpuffer puffer = new Formatpuffer(Locale.GERMANY).append("Grüße € 😀 ").kommazahl(1.5, 6, 2);
+        ByteBuffer ziel = ByteBuffer.allocate(64);
+        puffer.alsUtf8(ziel);
+        Assertions.assertArrayEquals(puffer.toString().getBytes(StandardCharsets.UTF_8),
+                Arrays.copyOf(ziel.array(), ziel.position()));
+    }
+}